@@ -11,6 +11,7 @@ import ninja.trek.cameramovements.AbstractMovementSettings;
 import ninja.trek.cameramovements.AbstractMovementSettings.POST_MOVE_KEYS;
 import ninja.trek.cameramovements.AbstractMovementSettings.POST_MOVE_MOUSE;
 import ninja.trek.cameramovements.CameraTarget;
+import ninja.trek.cameramovements.StickPredictor;
 import ninja.trek.config.FreeCamSettings;
 import ninja.trek.config.GeneralMenuSettings;
 import ninja.trek.mixin.client.CameraAccessor;
@@ -159,8 +160,18 @@ public class CameraController {
                 float finalYaw = calculateTargetYaw(yaw);
                 float finalPitch = calculateTargetPitch(pitch);
 
+                if (client.world != null) {
+                    // Velocity targets turn with the direction of travel, not the head
+                    boolean followsTravel = currentEndTarget == AbstractMovementSettings.END_TARGET.VELOCITY_BACK
+                            || currentEndTarget == AbstractMovementSettings.END_TARGET.VELOCITY_FRONT;
+                    StickPredictor.update(trackedPlayer, client.world.getTime(), followsTravel);
+                }
+
                 controlStick.set(eyePos, finalYaw, finalPitch);
             }
+        } else {
+            // The keys drive the stick now; the player's motion says nothing about where it goes
+            StickPredictor.reset();
         }
     }
 
@@ -534,12 +545,14 @@ public class CameraController {
                 || currentMouseMoveMode != POST_MOVE_MOUSE.NONE
                 ;
 
-        baseTarget = ninja.trek.nodes.NodeManager.get().applyInfluence(baseTarget, skipNodeInfluence);
+        // Evaluate area influence once for this frame; the HUD reads the same result
+        ninja.trek.nodes.InfluenceFrame influenceFrame = ninja.trek.nodes.NodeManager.get().evaluateInfluence(baseTarget, skipNodeInfluence);
+        baseTarget = influenceFrame.getBlendedTarget();
 
         // Handle node-based camera activation/deactivation
         double currentNodeInfluence = 0.0;
         if (!skipNodeInfluence && client.player != null) {
-            currentNodeInfluence = ninja.trek.nodes.NodeManager.get().getTotalInfluence(client.player.getEyePos());
+            currentNodeInfluence = influenceFrame.getTotalWeight();
         }
 
         // Activate camera when nodes start influencing
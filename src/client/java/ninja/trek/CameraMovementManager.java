@@ -27,6 +27,27 @@ public class CameraMovementManager {
     private ICameraMovement activeMovement;
     private CameraTarget baseTarget;
     private boolean isOut;
+    // Collision adjustment made by calculateState() this frame, reused by update()
+    private CameraTarget adjustedSource;
+    private RaycastType adjustedSourceType;
+    private CameraTarget adjustedResult;
+    // Reused every step for the collision-adjusted and zoomed targets
+    private final CameraTarget stepAdjusted = new CameraTarget();
+    private final CameraTarget simAdjusted = new CameraTarget();
+    private final CameraTarget zoomedTarget = new CameraTarget();
+    private final MovementState zoomedState = new MovementState(zoomedTarget, false);
+
+    // Fixed-rate simulation: update() advances the movements in steps of 1 / rate seconds and
+    // interpolates between the last two steps for the frame in between
+    private static final int MAX_SIM_STEPS_PER_FRAME = 8;
+    private final CameraTarget simPrevious = new CameraTarget();
+    private final CameraTarget simCurrent = new CameraTarget();
+    private final CameraTarget simOutput = new CameraTarget();
+    private ICameraMovement simMovement;
+    private boolean simPrimed = false;
+    private double simAccumulator = 0.0;
+    // Counts every simulated step; never reset, so per-movement state can tell how long it sat idle
+    private long simStepIndex = 0L;
 
     // Perspective hysteresis - prevents flickering when distance oscillates near threshold
     private boolean isCurrentlyThirdPerson = false;
@@ -133,6 +154,7 @@ public class CameraMovementManager {
         inFreeCamReturnPhase = false;
         isOut = false;
         baseTarget = null;
+        resetSimulation();
 
         // Deactivate camera system when cancelling movements
         ninja.trek.camera.CameraSystem.getInstance().deactivateCamera();
@@ -157,6 +179,14 @@ public class CameraMovementManager {
      */
     public void resetBaseTarget() {
         baseTarget = null;
+        resetSimulation();
+    }
+
+    /** Drops the simulated states so the next frame starts over without interpolating from them. */
+    private void resetSimulation() {
+        simPrimed = false;
+        simMovement = null;
+        simAccumulator = 0.0;
     }
 
     /**
@@ -180,6 +210,7 @@ public class CameraMovementManager {
             cameraSystem.setCameraRotation(client.player.getYaw(), client.player.getPitch());
             cameraSystem.resetVelocity();
             baseTarget = null;
+            resetSimulation();
         }
     }
 
@@ -498,7 +529,8 @@ public class CameraMovementManager {
             FreeCamReturnMovement freeCamReturnMovement = GeneralMenuSettings.getFreeCamReturnMovement();
             if (activeMovement == freeCamReturnMovement) {
                 MovementState state = freeCamReturnMovement.calculateState(client, camera, deltaSeconds);
-                baseTarget = state.getCameraTarget().withAdjustedPosition(client.player, activeMovement.getRaycastType());
+                baseTarget = state.getCameraTarget().adjustPositionInto(client.player, activeMovement.getRaycastType(),
+                        activeMovement.getCollisionHysteresis(), stepAdjusted);
                 
                 // Check if FreeCamReturnMovement has completed
                 if (state.isComplete() || freeCamReturnMovement.isComplete()) {
@@ -518,7 +550,8 @@ public class CameraMovementManager {
                     // Smooth finalize: provide one last frame at the final target
                     // Use the FreeCamReturnMovement's raycast type before clearing activeMovement
                     RaycastType finalRaycastType = freeCamReturnMovement.getRaycastType();
-                    CameraTarget finalTarget = state.getCameraTarget().withAdjustedPosition(client.player, finalRaycastType);
+                    CameraTarget finalTarget = state.getCameraTarget().adjustPositionInto(client.player, finalRaycastType,
+                            freeCamReturnMovement.getCollisionHysteresis(), new CameraTarget());
                     baseTarget = finalTarget;
 
                     // Switch back to normal camera movement - normal state
@@ -553,7 +586,8 @@ public class CameraMovementManager {
             if (isOut) {
                 // Get the current target from movement and apply collision
                 CameraTarget preAdjust = state.getCameraTarget();
-                CameraTarget currentTarget = preAdjust.withAdjustedPosition(client.player, activeMovement.getRaycastType());
+                CameraTarget currentTarget = preAdjust.adjustPositionInto(client.player, activeMovement.getRaycastType(),
+                        activeMovement.getCollisionHysteresis(), new CameraTarget());
 
                 // logging removed
 
@@ -576,7 +610,8 @@ public class CameraMovementManager {
         }
         if (state.isComplete()) {
             // Store final camera position before ending movement
-            CameraTarget finalTarget = state.getCameraTarget().withAdjustedPosition(client.player, activeMovement.getRaycastType());
+            CameraTarget finalTarget = state.getCameraTarget().adjustPositionInto(client.player, activeMovement.getRaycastType(),
+                    activeMovement.getCollisionHysteresis(), new CameraTarget());
             baseTarget = finalTarget;
             
             // Clean up movement state
@@ -612,24 +647,25 @@ public class CameraMovementManager {
 
         // Apply collision adjustment to the movement target
         CameraTarget rawTarget = state.getCameraTarget();
-        baseTarget = rawTarget.withAdjustedPosition(client.player, activeMovement.getRaycastType());
+        baseTarget = rawTarget.adjustPositionInto(client.player, activeMovement.getRaycastType(),
+                activeMovement.getCollisionHysteresis(), stepAdjusted);
+        // Remember the adjustment so update() does not raycast the same target again
+        adjustedSource = rawTarget;
+        adjustedSourceType = activeMovement.getRaycastType();
+        adjustedResult = baseTarget;
 
         // Apply zoom overlay if active (modifies FOV only)
         if (isZoomActive && zoomOverlay != null) {
             MovementState zoomState = zoomOverlay.calculateState(client, camera, deltaSeconds);
             if (zoomState != null) {
                 float zoomFov = zoomState.getCameraTarget().getFovMultiplier();
-                // Create new target with zoom FOV but preserve base movement's position/rotation
-                CameraTarget zoomedTarget = new CameraTarget(
-                    baseTarget.getPosition(),
-                    baseTarget.getYaw(),
-                    baseTarget.getPitch(),
-                    zoomFov
-                );
+                // Copy the target with zoom FOV but preserve base movement's position/rotation
+                zoomedTarget.set(baseTarget);
+                zoomedTarget.setFovMultiplier(zoomFov);
                 baseTarget = zoomedTarget;
 
                 // Also update the state to return
-                state = new MovementState(zoomedTarget, state.isComplete());
+                state = zoomedState.set(zoomedTarget, state.isComplete());
             }
         }
 
@@ -654,14 +690,68 @@ public class CameraMovementManager {
                 ninja.trek.camera.CameraSystem.getInstance().activateCamera(ninja.trek.camera.CameraSystem.CameraMode.THIRD_PERSON);
             } else {
                 // When no active movement and feature disabled, release control
+                resetSimulation();
                 return null;
             }
         }
 
         if (client.player == null) {
+            resetSimulation();
             return null;
         }
-        
+
+        double step = 1.0 / GeneralMenuSettings.getCameraSimulationRate();
+        // Without a previous state, simulate right away instead of waiting out a step
+        simAccumulator = simPrimed ? simAccumulator + Math.max(0.0f, deltaSeconds) : step;
+        int steps = 0;
+        while (simAccumulator >= step) {
+            if (steps == MAX_SIM_STEPS_PER_FRAME) {
+                // Too far behind after a hitch or pause: drop the backlog instead of catching up
+                simAccumulator = 0.0;
+                break;
+            }
+            simAccumulator -= step;
+            steps++;
+            ICameraMovement stepMovement = activeMovement;
+            simStepIndex++;
+            CollisionHysteresis hysteresis = stepMovement.getCollisionHysteresis();
+            if (hysteresis != null) {
+                hysteresis.beginStep(simStepIndex, step);
+            }
+            CameraTarget next = simulate(client, camera, (float) step);
+            if (next == null) {
+                resetSimulation();
+                return null;
+            }
+            if (!simPrimed) {
+                simPrevious.set(next);
+                simPrimed = true;
+            } else if (stepMovement != simMovement) {
+                // A new movement starts from what was on screen, not from the old movement's last step
+                simPrevious.set(simOutput);
+            } else {
+                simPrevious.set(simCurrent);
+            }
+            simCurrent.set(next);
+            simMovement = stepMovement;
+            if (activeMovement == null) break;
+        }
+
+        updatePerspective(client);
+
+        if (activeMovement == null) {
+            // The movement finished this frame: show its final state as is
+            simOutput.set(simCurrent);
+            return simOutput;
+        }
+        float alpha = (float) Math.min(1.0, simAccumulator / step);
+        return simPrevious.lerpInto(simCurrent, alpha, simOutput);
+    }
+
+    /** Advances the active movement by one simulation step and returns its collision-adjusted target. */
+    private CameraTarget simulate(MinecraftClient client, Camera camera, float deltaSeconds) {
+        adjustedSource = null;
+        adjustedResult = null;
         MovementState state = calculateState(client, camera, deltaSeconds);
         if (state == null) {
             // If we have no state but had a previous target, return it
@@ -670,24 +760,22 @@ public class CameraMovementManager {
         
         // Get the raycast type safely with a null check
         RaycastType raycastType = RaycastType.NONE; // Default to NONE
+        CollisionHysteresis hysteresis = null;
         if (activeMovement != null) { // Explicit null check before calling getRaycastType
             raycastType = activeMovement.getRaycastType();
+            hysteresis = activeMovement.getCollisionHysteresis();
         }
         
         // At this point we have a valid state and raycast type
         CameraTarget rawTarget = state.getCameraTarget();
-        CameraTarget adjustedTarget = rawTarget.withAdjustedPosition(client.player, raycastType);
-
-        // Log any large target jumps (raw or adjusted)
-        final double JUMP_THRESH = 1.0; // blocks
-        if (baseTarget != null) {
-            double rawJump = rawTarget.getPosition().distanceTo(baseTarget.getPosition());
-            double adjJump = adjustedTarget.getPosition().distanceTo(baseTarget.getPosition());
-            if (rawJump > JUMP_THRESH || adjJump > JUMP_THRESH) {
-                // logging removed
-            }
-        }
+        CameraTarget adjustedTarget = (rawTarget == adjustedSource && raycastType == adjustedSourceType && adjustedResult != null)
+                ? adjustedResult
+                : rawTarget.adjustPositionInto(client.player, raycastType, hysteresis, simAdjusted);
+
+        return adjustedTarget;
+    }
 
+    private void updatePerspective(MinecraftClient client) {
         // Update perspective based on distance threshold using interpolated positions
         // Use CameraSystem's visual distance which uses interpolated player position
         // to match what's actually rendered on screen (prevents flickering at high speeds)
@@ -713,8 +801,6 @@ public class CameraMovementManager {
         }
 
         // Remove per-frame status logging to reduce noise; rely on targeted Diag logs.
-
-        return adjustedTarget;
     }
 
     public Integer getActiveMovementSlot() {
@@ -1,6 +1,7 @@
 package ninja.trek;
 
 import net.fabricmc.api.ClientModInitializer;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientLifecycleEvents;
 import net.fabricmc.fabric.api.client.keybinding.v1.KeyBindingHelper;
 import net.minecraft.client.option.KeyBinding;
 import net.minecraft.client.util.InputUtil;
@@ -83,11 +84,14 @@ public class CraneshotClient implements ClientModInitializer {
         CameraMovementRegistry.initialize();
         // Load camera nodes from client config
         ninja.trek.nodes.NodeManager.get().load();
+        ClientLifecycleEvents.CLIENT_STOPPING.register(client -> ninja.trek.nodes.io.NodeStorage.flush());
         GeneralSettingsIO.loadSettings();
 
 		List<List<ICameraMovement>> savedSlots = SlotSettingsIO.loadSlots();
 		MOVEMENT_MANAGER.setAllSlots(savedSlots);
 		CraneShotEventHandler.register();
+        // Drop cached collision results when the blocks they sampled change
+        ninja.trek.cameramovements.CollisionCache.register();
         // Draw second crosshair at camera look point
         CrosshairHudRenderer.register();
         // Draw active node area influences
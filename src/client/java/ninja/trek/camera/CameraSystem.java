@@ -3,11 +3,13 @@ package ninja.trek.camera;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.render.Camera;
 import net.minecraft.entity.Entity;
+import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Vec3d;
 import ninja.trek.CameraController;
 import ninja.trek.CraneshotClient;
 import ninja.trek.cameramovements.AbstractMovementSettings;
+import ninja.trek.config.GeneralMenuSettings;
 import ninja.trek.mixin.client.CameraAccessor;
 import org.jetbrains.annotations.Nullable;
 
@@ -52,7 +54,8 @@ public class CameraSystem {
     private float cameraPitch = 0f;
     private boolean shouldRenderHands = true;
     private boolean shouldRenderPlayerModel = true;
-    private boolean disableChunkCulling = false;
+    // Camera is away from the player; chunk culling follows it (see updateChunkCulling)
+    private boolean detached = false;
     private Entity originalCameraEntity = null;
     private boolean originalChunkCulling = true;
 
@@ -131,10 +134,10 @@ public class CameraSystem {
             // Set camera flags based on mode
             shouldRenderHands = !mode.hideHands;
             shouldRenderPlayerModel = mode.showPlayerModel;
-            disableChunkCulling = mode.disableChunkCulling;
+            detached = mode.detached;
             
             // Apply chunk culling setting
-            mc.chunkCullingEnabled = !disableChunkCulling;
+            applyChunkCulling(mc, mc.gameRenderer.getCamera());
 
             // Use a dedicated camera entity for free camera, otherwise detach
             if (mode == CameraMode.FREE_CAMERA) {
@@ -157,13 +160,44 @@ public class CameraSystem {
             shouldRenderHands = !mode.hideHands;
             shouldRenderPlayerModel = mode.showPlayerModel;
             
-            if (disableChunkCulling != mode.disableChunkCulling) {
-                disableChunkCulling = mode.disableChunkCulling;
-                mc.chunkCullingEnabled = !disableChunkCulling;
+            if (detached != mode.detached) {
+                detached = mode.detached;
+                applyChunkCulling(mc, mc.gameRenderer.getCamera());
             }
         }
     }
     
+    /**
+     * Keeps chunk culling on while the camera is detached. The occlusion graph is built from the
+     * camera's own position, which is where we put it, so it stays correct away from the player; the one
+     * case it cannot handle is a camera inside an opaque block, where it would see nothing, so culling is
+     * dropped for as long as the camera is in one (as vanilla does for spectators).
+     * The legacy "disable culling" setting turns it off for the whole time the camera is detached.
+     * Called every frame once the camera has been placed.
+     */
+    public void updateChunkCulling(Camera camera) {
+        if (!cameraActive) return;
+        applyChunkCulling(MinecraftClient.getInstance(), camera);
+    }
+
+    private void applyChunkCulling(MinecraftClient mc, @Nullable Camera camera) {
+        if (mc == null) return;
+        boolean cull = originalChunkCulling;
+        if (detached) {
+            if (GeneralMenuSettings.isDisableCullingWhenDetached()) {
+                cull = false;
+            } else if (camera != null && mc.world != null
+                    && mc.world.getBlockState(BlockPos.ofFloored(camera.getPos())).isOpaqueFullCube()) {
+                cull = false;
+            }
+        }
+        if (mc.chunkCullingEnabled != cull) {
+            mc.chunkCullingEnabled = cull;
+            // The graph is otherwise only rebuilt when the camera changes section
+            if (mc.worldRenderer != null) mc.worldRenderer.scheduleTerrainUpdate();
+        }
+    }
+
     /**
      * Deactivates the custom camera and restores original state
      */
@@ -175,6 +209,8 @@ public class CameraSystem {
         // If using dedicated camera entity, disable it (restores chunk culling/camera entity)
         if (ninja.trek.util.CameraEntity.getCamera() != null) {
             ninja.trek.util.CameraEntity.setCameraState(false);
+            // It restores what it saw on creation, which may already have been our per-frame choice
+            if (mc != null) mc.chunkCullingEnabled = originalChunkCulling;
         } else if (mc != null) {
             // Restore original settings
             if (originalCameraEntity != null) {
@@ -193,7 +229,7 @@ public class CameraSystem {
         cameraVelocity = Vec3d.ZERO;
         shouldRenderHands = true;
         shouldRenderPlayerModel = true;
-        disableChunkCulling = false;
+        detached = false;
         originalCameraEntity = null;
         interpolatedPlayerPosition = null;
         isPlayerModelCurrentlyVisible = true;
@@ -496,11 +532,12 @@ public class CameraSystem {
     public static class CameraMode {
         public final boolean hideHands;
         public final boolean showPlayerModel;
-        public final boolean disableChunkCulling;
-        public CameraMode(boolean hideHands, boolean showPlayerModel, boolean disableChunkCulling) {
+        // The camera leaves the player, so chunk culling has to follow it
+        public final boolean detached;
+        public CameraMode(boolean hideHands, boolean showPlayerModel, boolean detached) {
             this.hideHands = hideHands;
             this.showPlayerModel = showPlayerModel;
-            this.disableChunkCulling = disableChunkCulling;
+            this.detached = detached;
         }
         public static final CameraMode THIRD_PERSON = new CameraMode(true, true, true);
         public static final CameraMode FREE_CAMERA = new CameraMode(true, true, true);
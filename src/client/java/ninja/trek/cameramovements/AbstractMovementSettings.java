@@ -174,13 +174,26 @@ public abstract class AbstractMovementSettings {
         return headLockedToCamera;
     }
 
-    protected Vec3d lastReturnTargetPos = null;
+    private boolean hasLastReturnTarget = false;
+    private double lastReturnTargetX;
+    private double lastReturnTargetY;
+    private double lastReturnTargetZ;
+    // Output of applyMinimumSpeedInto
+    protected double minSpeedX;
+    protected double minSpeedY;
+    protected double minSpeedZ;
 
     protected void resetReturnTargetTracking() {
-        lastReturnTargetPos = null;
+        hasLastReturnTarget = false;
     }
 
 
+    private final CollisionHysteresis collisionHysteresis = new CollisionHysteresis();
+
+    public CollisionHysteresis getCollisionHysteresis() {
+        return collisionHysteresis;
+    }
+
     public RaycastType getRaycastType() {
         return raycastType != null ? raycastType : RaycastType.NONE;
     }
@@ -300,33 +313,59 @@ public abstract class AbstractMovementSettings {
             Vec3d targetPos,
             float deltaSeconds,
             MinecraftClient client) {
-        Vec3d toTarget = targetPos.subtract(currentPos);
-        double distToTarget = toTarget.length();
+        applyMinimumSpeedInto(currentPos.x, currentPos.y, currentPos.z,
+                desiredPos.x, desiredPos.y, desiredPos.z,
+                targetPos.x, targetPos.y, targetPos.z, deltaSeconds, client);
+        return new Vec3d(minSpeedX, minSpeedY, minSpeedZ);
+    }
+
+    /**
+     * Allocation-free form of {@link #applyMinimumSpeedDuringReturn}: writes the adjusted position into
+     * {@link #minSpeedX}, {@link #minSpeedY} and {@link #minSpeedZ}.
+     */
+    protected void applyMinimumSpeedInto(
+            double currentX, double currentY, double currentZ,
+            double desiredX, double desiredY, double desiredZ,
+            double targetX, double targetY, double targetZ,
+            float deltaSeconds,
+            MinecraftClient client) {
+        double toX = targetX - currentX;
+        double toY = targetY - currentY;
+        double toZ = targetZ - currentZ;
+        double distToTarget = Math.sqrt(toX * toX + toY * toY + toZ * toZ);
 
         // If we're extremely close, just snap to target
         if (distToTarget < 1e-9) {
-            return targetPos;
+            setMinSpeedResult(targetX, targetY, targetZ);
+            return;
         }
 
         double targetSpeedPerSecond = 0.0;
-        if (deltaSeconds > 1e-6f && lastReturnTargetPos != null) {
-            targetSpeedPerSecond = targetPos.distanceTo(lastReturnTargetPos) / deltaSeconds;
+        if (deltaSeconds > 1e-6f && hasLastReturnTarget) {
+            double mx = targetX - lastReturnTargetX;
+            double my = targetY - lastReturnTargetY;
+            double mz = targetZ - lastReturnTargetZ;
+            targetSpeedPerSecond = Math.sqrt(mx * mx + my * my + mz * mz) / deltaSeconds;
         }
-        lastReturnTargetPos = targetPos;
+        lastReturnTargetX = targetX;
+        lastReturnTargetY = targetY;
+        lastReturnTargetZ = targetZ;
+        hasLastReturnTarget = true;
 
+        setMinSpeedResult(desiredX, desiredY, desiredZ);
         if (!GeneralMenuSettings.isEnforceMinimumSpeed()) {
-            return desiredPos;
+            return;
         }
         if (client == null || client.player == null) {
-            return desiredPos;
+            return;
         }
 
         // Use only HORIZONTAL velocity to avoid overly aggressive minimum speeds when falling
         Vec3d playerVel = client.player.getVelocity();
-        double playerSpeedPerSecond = new Vec3d(playerVel.x, 0, playerVel.z).length() * 20.0;
+        double playerSpeedPerSecond = Math.sqrt(playerVel.x * playerVel.x + playerVel.z * playerVel.z) * 20.0;
         double baseSpeedPerSecond = Math.max(playerSpeedPerSecond, targetSpeedPerSecond);
         if (baseSpeedPerSecond < 0.001) {
-            return desiredPos;
+            return;
         }
 
         double minSpeed = baseSpeedPerSecond * GeneralMenuSettings.getMinimumSpeedMultiplier();
@@ -334,15 +373,26 @@ public abstract class AbstractMovementSettings {
 
         // If minimum speed would overshoot the target, just snap to it and complete
         if (minMoveDistance >= distToTarget) {
-            return targetPos;
+            setMinSpeedResult(targetX, targetY, targetZ);
+            return;
         }
 
-        double moveDistance = desiredPos.distanceTo(currentPos);
+        double dx = desiredX - currentX;
+        double dy = desiredY - currentY;
+        double dz = desiredZ - currentZ;
+        double moveDistance = Math.sqrt(dx * dx + dy * dy + dz * dz);
         if (moveDistance >= minMoveDistance) {
-            return desiredPos;
+            return;
         }
 
         // Apply minimum speed movement toward target
-        return currentPos.add(toTarget.normalize().multiply(minMoveDistance));
+        double scale = minMoveDistance / distToTarget;
+        setMinSpeedResult(currentX + toX * scale, currentY + toY * scale, currentZ + toZ * scale);
+    }
+
+    private void setMinSpeedResult(double x, double y, double z) {
+        minSpeedX = x;
+        minSpeedY = y;
+        minSpeedZ = z;
     }
 }
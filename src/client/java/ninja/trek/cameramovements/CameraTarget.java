@@ -7,13 +7,18 @@ import net.minecraft.util.math.Vec3d;
 import ninja.trek.mixin.client.FovAccessor;
 
 public class CameraTarget {
+    // Position is stored as primitives so per-frame updates can mutate in place;
+    // the Vec3d view is only built when something asks for it.
+    private double x;
+    private double y;
+    private double z;
     private Vec3d position;
     private float yaw;
     private float pitch;
     private float fovMultiplier;  // 1.0 = normal FOV, >1 = wider, <1 = narrower
 
     public CameraTarget(Vec3d position, float yaw, float pitch, float fovMultiplier) {
-        this.position = position;
+        setPosition(position);
         this.yaw = yaw;
         this.pitch = pitch;
         this.fovMultiplier = Math.max(0.1f, fovMultiplier);
@@ -22,7 +27,7 @@ public class CameraTarget {
     
     // Legacy signature retained; orthographic factor is ignored
     public CameraTarget(Vec3d position, float yaw, float pitch, float fovMultiplier, float orthoFactor) {
-        this.position = position;
+        setPosition(position);
         this.yaw = yaw;
         this.pitch = pitch;
         this.fovMultiplier = Math.max(0.1f, fovMultiplier);
@@ -33,7 +38,7 @@ public class CameraTarget {
     }
 
     public CameraTarget() {
-        position = new Vec3d(0, 0, 0);
+        position = Vec3d.ZERO;
         yaw = 0;
         pitch = 0;
         fovMultiplier = 1.0f; // Default to normal FOV
@@ -54,9 +59,32 @@ public class CameraTarget {
 
 
     public Vec3d getPosition() {
+        if (position == null) {
+            position = new Vec3d(x, y, z);
+        }
         return position;
     }
 
+    public double getX() { return x; }
+    public double getY() { return y; }
+    public double getZ() { return z; }
+
+    private void setPosition(Vec3d v) {
+        if (v == null) v = Vec3d.ZERO;
+        this.x = v.x;
+        this.y = v.y;
+        this.z = v.z;
+        this.position = v;
+    }
+
+    public void setPosition(double x, double y, double z) {
+        if (position != null && x == this.x && y == this.y && z == this.z) return;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.position = null;
+    }
+
     public float getYaw() {
         return yaw;
     }
@@ -78,15 +106,27 @@ public class CameraTarget {
     }
 
     public CameraTarget withAdjustedPosition(PlayerEntity player, RaycastType raycastType) {
-        // Handle null raycastType safely
-        if (raycastType == null) {
-            raycastType = RaycastType.NONE;
+        return adjustPositionInto(player, raycastType, new CameraTarget());
+    }
+
+    /**
+     * Same as {@link #withAdjustedPosition} but writes into {@code out} instead of allocating.
+     * {@code out} may be this.
+     */
+    public CameraTarget adjustPositionInto(PlayerEntity player, RaycastType raycastType, CameraTarget out) {
+        return adjustPositionInto(player, raycastType, null, out);
+    }
+
+    /** As above, with {@code hysteresis} smoothing {@link RaycastType#SPHERE} results; may be null. */
+    public CameraTarget adjustPositionInto(PlayerEntity player, RaycastType raycastType,
+                                           CollisionHysteresis hysteresis, CameraTarget out) {
+        if (raycastType == null || raycastType == RaycastType.NONE) {
+            if (out != this) out.set(this);
+            return out;
         }
-        
-        Vec3d adjustedPos = RaycastUtil.adjustForCollision(player.getEyePos(), this.position, raycastType);
-        CameraTarget adjusted = new CameraTarget(adjustedPos, this.yaw, this.pitch, this.fovMultiplier);
-        // logging removed
-        return adjusted;
+        Vec3d adjustedPos = RaycastUtil.adjustForCollision(player.getEyePos(), getPosition(), raycastType, hysteresis);
+        out.set(adjustedPos, this.yaw, this.pitch, this.fovMultiplier);
+        return out;
     }
 
     public void set(Vec3d v, float yaw, float pitch) {
@@ -94,37 +134,58 @@ public class CameraTarget {
     }
 
     public void set(Vec3d v, float yaw, float pitch, float fovMultiplier) {
-        position = v;
+        setPosition(v);
         this.yaw = yaw;
         this.pitch = pitch;
         this.fovMultiplier = fovMultiplier != 0 ? fovMultiplier : 1.0f;
     }
     
     public void set(Vec3d v, float yaw, float pitch, float fovMultiplier, float orthoFactor) {
-        position = v;
+        setPosition(v);
+        this.yaw = yaw;
+        this.pitch = pitch;
+        this.fovMultiplier = fovMultiplier != 0 ? fovMultiplier : 1.0f;
+    }
+
+    public void set(double x, double y, double z, float yaw, float pitch, float fovMultiplier) {
+        setPosition(x, y, z);
         this.yaw = yaw;
         this.pitch = pitch;
         this.fovMultiplier = fovMultiplier != 0 ? fovMultiplier : 1.0f;
     }
 
     public void set(CameraTarget t) {
-        position = t.position;
+        this.x = t.x;
+        this.y = t.y;
+        this.z = t.z;
+        this.position = t.position;
         this.pitch = t.pitch;
         this.yaw = t.yaw;
         this.fovMultiplier = t.fovMultiplier != 0 ? t.fovMultiplier : 1.0f;
     }
 
     public CameraTarget lerp(CameraTarget other, float t) {
-        Vec3d lerpedPos = this.position.lerp(other.position, t);
+        return lerpInto(other, t, new CameraTarget());
+    }
+
+    /**
+     * Same as {@link #lerp} but writes into {@code out} instead of allocating.
+     * {@code out} may be this or other.
+     */
+    public CameraTarget lerpInto(CameraTarget other, float t, CameraTarget out) {
+        double lx = this.x + (other.x - this.x) * t;
+        double ly = this.y + (other.y - this.y) * t;
+        double lz = this.z + (other.z - this.z) * t;
         float lerpedYaw = lerpAngle(this.yaw, other.yaw, t);
         float lerpedPitch = lerpAngle(this.pitch, other.pitch, t);
 
         // Ensure we're interpolating between valid FOV multipliers
         float startFov = this.fovMultiplier != 0 ? this.fovMultiplier : 1.0f;
         float endFov = other.fovMultiplier != 0 ? other.fovMultiplier : 1.0f;
-        float lerpedFov = startFov + (endFov - startFov) * t;
-        
-        return new CameraTarget(lerpedPos, lerpedYaw, lerpedPitch, lerpedFov);
+        float lerpedFov = Math.max(0.1f, startFov + (endFov - startFov) * t);
+
+        out.set(lx, ly, lz, lerpedYaw, lerpedPitch, lerpedFov);
+        return out;
     }
 
     private float lerpAngle(float start, float end, float t) {
@@ -0,0 +1,136 @@
+package ninja.trek.cameramovements;
+
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientChunkEvents;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
+
+/**
+ * Small cache of {@link RaycastUtil#adjustForCollision} results.
+ * Queries whose eye and target positions are within {@link #TOLERANCE} of a previous query with the
+ * same {@link RaycastType} reuse its result, which covers repeated adjustments within a frame as well
+ * as a stationary camera across frames. Entries are dropped when a block changes, or a chunk loads or
+ * unloads, inside the chunk range the ray could have sampled.
+ */
+public final class CollisionCache {
+    private static final int SIZE = 4;
+    private static final double TOLERANCE = 1.0E-4;
+    /**
+     * How far past the segment's bounds the adjustment may sample blocks: the FAR refine step looks
+     * two blocks ahead of where the coarse march stopped.
+     */
+    private static final double SAMPLE_MARGIN = 2.5;
+
+    private static final Entry[] ENTRIES = new Entry[SIZE];
+    private static int nextSlot = 0;
+    private static World cachedWorld = null;
+
+    static {
+        for (int i = 0; i < SIZE; i++) {
+            ENTRIES[i] = new Entry();
+        }
+    }
+
+    private CollisionCache() {}
+
+    public static void register() {
+        ClientChunkEvents.CHUNK_LOAD.register((world, chunk) ->
+                invalidateChunk(world, chunk.getPos().x, chunk.getPos().z));
+        ClientChunkEvents.CHUNK_UNLOAD.register((world, chunk) ->
+                invalidateChunk(world, chunk.getPos().x, chunk.getPos().z));
+    }
+
+    /** Returns the cached result for the query, or null on a miss. */
+    static Vec3d get(World world, Vec3d eye, Vec3d target, RaycastType type) {
+        if (world != cachedWorld) {
+            clear();
+            cachedWorld = world;
+            return null;
+        }
+        for (Entry entry : ENTRIES) {
+            if (entry.matches(eye, target, type)) {
+                return entry.result;
+            }
+        }
+        return null;
+    }
+
+    static void put(World world, Vec3d eye, Vec3d target, RaycastType type, Vec3d result) {
+        if (world != cachedWorld) {
+            clear();
+            cachedWorld = world;
+        }
+        ENTRIES[nextSlot].set(eye, target, type, result);
+        nextSlot = (nextSlot + 1) % SIZE;
+    }
+
+    /** Called for every client-side block change. */
+    public static void onBlockChanged(World world, BlockPos pos) {
+        SphereCollision.onBlockChanged(world, pos.getX(), pos.getY(), pos.getZ());
+        invalidateEntries(world, pos.getX() >> 4, pos.getZ() >> 4);
+    }
+
+    public static void invalidateChunk(World world, int chunkX, int chunkZ) {
+        SphereCollision.onChunkChanged(world, chunkX, chunkZ);
+        invalidateEntries(world, chunkX, chunkZ);
+    }
+
+    private static void invalidateEntries(World world, int chunkX, int chunkZ) {
+        if (world != cachedWorld) return;
+        for (Entry entry : ENTRIES) {
+            if (entry.valid
+                    && chunkX >= entry.minChunkX && chunkX <= entry.maxChunkX
+                    && chunkZ >= entry.minChunkZ && chunkZ <= entry.maxChunkZ) {
+                entry.valid = false;
+            }
+        }
+    }
+
+    public static void clear() {
+        for (Entry entry : ENTRIES) {
+            entry.valid = false;
+            entry.result = null;
+        }
+        cachedWorld = null;
+    }
+
+    private static final class Entry {
+        boolean valid;
+        RaycastType type;
+        double eyeX, eyeY, eyeZ;
+        double targetX, targetY, targetZ;
+        int minChunkX, minChunkZ, maxChunkX, maxChunkZ;
+        Vec3d result;
+
+        boolean matches(Vec3d eye, Vec3d target, RaycastType type) {
+            return valid
+                    && this.type == type
+                    && Math.abs(eye.x - eyeX) <= TOLERANCE
+                    && Math.abs(eye.y - eyeY) <= TOLERANCE
+                    && Math.abs(eye.z - eyeZ) <= TOLERANCE
+                    && Math.abs(target.x - targetX) <= TOLERANCE
+                    && Math.abs(target.y - targetY) <= TOLERANCE
+                    && Math.abs(target.z - targetZ) <= TOLERANCE;
+        }
+
+        void set(Vec3d eye, Vec3d target, RaycastType type, Vec3d result) {
+            this.valid = true;
+            this.type = type;
+            this.eyeX = eye.x;
+            this.eyeY = eye.y;
+            this.eyeZ = eye.z;
+            this.targetX = target.x;
+            this.targetY = target.y;
+            this.targetZ = target.z;
+            this.result = result;
+            this.minChunkX = toChunk(Math.min(eye.x, target.x) - SAMPLE_MARGIN);
+            this.minChunkZ = toChunk(Math.min(eye.z, target.z) - SAMPLE_MARGIN);
+            this.maxChunkX = toChunk(Math.max(eye.x, target.x) + SAMPLE_MARGIN);
+            this.maxChunkZ = toChunk(Math.max(eye.z, target.z) + SAMPLE_MARGIN);
+        }
+
+        private static int toChunk(double coord) {
+            return (int) Math.floor(coord) >> 4;
+        }
+    }
+}
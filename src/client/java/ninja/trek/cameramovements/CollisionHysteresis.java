@@ -0,0 +1,59 @@
+package ninja.trek.cameramovements;
+
+/**
+ * Per-movement smoothing for {@link RaycastType#SPHERE} collision. A pulled-in distance snaps in
+ * immediately but eases back out, which hides single-step hits on block edges. Time is measured in
+ * simulation steps: the camera manager calls {@link #beginStep} before each step it simulates, so
+ * repeated queries within one step do not ease twice and the result does not depend on frame timing.
+ */
+public final class CollisionHysteresis {
+    /** Time constant (seconds) for easing the pulled-in distance back out. */
+    private static final double EASE_OUT_SECONDS = 0.25;
+    /** The limit is dropped after this long without a query, or when the eye jumps this far. */
+    private static final double RESET_SECONDS = 0.5;
+    private static final double RESET_EYE_JUMP = 4.0;
+
+    private double limit = Double.POSITIVE_INFINITY;
+    private long currentStep = 0L;
+    private double stepSeconds = 0.0;
+    private long lastStep = Long.MIN_VALUE;
+    private double lastEyeX, lastEyeY, lastEyeZ;
+
+    /** Marks the start of simulation step {@code step}, which lasts {@code stepSeconds}. */
+    public void beginStep(long step, double stepSeconds) {
+        this.currentStep = step;
+        this.stepSeconds = stepSeconds;
+    }
+
+    /**
+     * Pulls in immediately, eases back out. The limit is released once it has eased past the
+     * requested length so an unobstructed camera never lags behind its movement.
+     */
+    double apply(double eyeX, double eyeY, double eyeZ, double free, double length) {
+        double elapsed = 0.0;
+        if (lastStep != Long.MIN_VALUE && currentStep > lastStep) {
+            elapsed = (currentStep - lastStep) * stepSeconds;
+        }
+        double jumpX = eyeX - lastEyeX, jumpY = eyeY - lastEyeY, jumpZ = eyeZ - lastEyeZ;
+        if (lastStep == Long.MIN_VALUE || currentStep < lastStep || elapsed > RESET_SECONDS
+                || jumpX * jumpX + jumpY * jumpY + jumpZ * jumpZ > RESET_EYE_JUMP * RESET_EYE_JUMP) {
+            limit = Double.POSITIVE_INFINITY;
+            elapsed = 0.0;
+        }
+        lastStep = currentStep;
+        lastEyeX = eyeX;
+        lastEyeY = eyeY;
+        lastEyeZ = eyeZ;
+
+        if (free <= limit) {
+            limit = free < length ? free : Double.POSITIVE_INFINITY;
+        } else {
+            double alpha = 1.0 - Math.exp(-elapsed / EASE_OUT_SECONDS);
+            limit += (free - limit) * alpha;
+            if (limit >= length - 1.0E-3) {
+                limit = Double.POSITIVE_INFINITY;
+            }
+        }
+        return Math.min(length, Math.min(free, limit));
+    }
+}
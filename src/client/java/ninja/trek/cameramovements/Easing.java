@@ -0,0 +1,20 @@
+package ninja.trek.cameramovements;
+
+/**
+ * Converts the "fraction of the remaining error closed per step" easing values the movements expose
+ * into exact exponential decay over an arbitrary time step. The values were tuned at 60 steps a second,
+ * so at that rate the factor comes back unchanged and at any other rate the camera covers the same
+ * ground in the same time.
+ */
+public final class Easing {
+    private static final double REFERENCE_RATE = 60.0;
+
+    private Easing() {}
+
+    /** The fraction of the remaining error to close over {@code deltaSeconds} for a per-step {@code easing}. */
+    public static double factor(double easing, float deltaSeconds) {
+        if (easing >= 1.0) return 1.0;
+        if (easing <= 0.0 || deltaSeconds <= 0f) return 0.0;
+        return 1.0 - Math.pow(1.0 - easing, deltaSeconds * REFERENCE_RATE);
+    }
+}
@@ -18,6 +18,8 @@ public interface ICameraMovement {
     float getWeight(); // For blending calculations
     boolean isComplete(); // To determine if movement should be removed
     RaycastType getRaycastType();
+    /** Smoothing state for this movement's sphere collision, or null to use raw results. */
+    default CollisionHysteresis getCollisionHysteresis() { return null; }
     default boolean hasCompletedOutPhase() { return false; }
 }
 
@@ -1,14 +1,24 @@
 package ninja.trek.cameramovements;
 
 public class MovementState {
-    private final CameraTarget target;
-    private final boolean isComplete;
+    private CameraTarget target;
+    private boolean isComplete;
 
     public MovementState(CameraTarget target, boolean isComplete) {
         this.target = target;
         this.isComplete = isComplete;
     }
 
+    /**
+     * Reuses this state for the next frame. Movements that keep a per-instance state call this
+     * instead of allocating; callers must not hold on to a state across frames.
+     */
+    public MovementState set(CameraTarget target, boolean isComplete) {
+        this.target = target;
+        this.isComplete = isComplete;
+        return this;
+    }
+
     public CameraTarget getCameraTarget() {
         return target;
     }
@@ -16,4 +26,4 @@ public class MovementState {
     public boolean isComplete() {
         return isComplete;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,255 @@
+package ninja.trek.cameramovements;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.ChunkStatus;
+import net.minecraft.world.chunk.PalettedContainer;
+import net.minecraft.world.chunk.WorldChunk;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Plans the curve a Bezier move takes so that it goes around terrain instead of through it.
+ * The candidates are the geometric control point first, then variants swung around the start-end
+ * axis and stretched. {@link #request} copies, on the client thread, only the non-empty chunk sections
+ * the candidate curves sample, at most {@link #MAX_SECTIONS} of them, so the worker never touches the
+ * live world; candidates that would need more are left out. The worker keeps whichever curve crosses
+ * the fewest solid blocks, stopping at the first clear curve, after {@link #BUDGET_NANOS} or when the
+ * request is cancelled, and samples the winner into an arc-length table. Movements keep their
+ * geometric curve until the plan is done.
+ */
+public final class PathPlanner {
+    private static final long BUDGET_NANOS = 4_000_000L;
+    // Spacing of collision samples along a candidate curve, in blocks
+    private static final double SAMPLE_SPACING = 0.5;
+    private static final int TABLE_SAMPLES = 32;
+    private static final int ANGLE_STEPS = 12;
+    private static final double[] SCALES = {1.0, 1.5, 0.5, 2.0};
+    // Most sections worth copying for one plan
+    private static final int MAX_SECTIONS = 64;
+
+    private static final ExecutorService WORKER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Craneshot Path Planner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private PathPlanner() {}
+
+    /**
+     * Starts planning a curve from {@code start} to {@code end} that stays close to {@code preferred}.
+     * Returns null when there is nothing to plan against or even the preferred curve spans too much of
+     * the world to snapshot, in which case the caller keeps its own curve. Cancelling the returned
+     * future stops the planning. Client thread only.
+     */
+    public static CompletableFuture<Plan> request(ClientWorld world, Vec3d start, Vec3d end, Vec3d preferred) {
+        if (world == null || start == null || end == null || preferred == null) return null;
+        Vec3d[] candidates = candidates(start, end, preferred);
+
+        // The sections each candidate samples, in candidate order, until the snapshot would get too big
+        LongOpenHashSet keys = new LongOpenHashSet();
+        LongOpenHashSet scratch = new LongOpenHashSet();
+        int usable = 0;
+        while (usable < candidates.length) {
+            scratch.clear();
+            Vec3d c = candidates[usable];
+            int samples = sampleCount(start, c, end);
+            for (int i = 1; i < samples; i++) {
+                double t = i / (double) samples;
+                double u = 1.0 - t;
+                double w0 = u * u, w1 = 2 * u * t, w2 = t * t;
+                int bx = MathHelper.floor(start.x * w0 + c.x * w1 + end.x * w2);
+                int by = MathHelper.floor(start.y * w0 + c.y * w1 + end.y * w2);
+                int bz = MathHelper.floor(start.z * w0 + c.z * w1 + end.z * w2);
+                long key = ChunkSectionPos.asLong(bx >> 4, by >> 4, bz >> 4);
+                if (!keys.contains(key)) scratch.add(key);
+            }
+            if (keys.size() + scratch.size() > MAX_SECTIONS) break;
+            keys.addAll(scratch);
+            usable++;
+        }
+        if (usable == 0) return null;
+        Vec3d[] tried = usable == candidates.length ? candidates : Arrays.copyOf(candidates, usable);
+
+        int bottom = world.getBottomSectionCoord();
+        int top = bottom + world.countVerticalSections() - 1;
+        Long2ObjectMap<PalettedContainer<BlockState>> sections = new Long2ObjectOpenHashMap<>(keys.size());
+        LongIterator it = keys.iterator();
+        while (it.hasNext()) {
+            long key = it.nextLong();
+            int sy = ChunkSectionPos.unpackY(key);
+            if (sy < bottom || sy > top) continue;
+            WorldChunk chunk = world.getChunkManager().getChunk(ChunkSectionPos.unpackX(key), ChunkSectionPos.unpackZ(key), ChunkStatus.FULL, false);
+            if (chunk == null) continue;
+            ChunkSection section = chunk.getSection(sy - bottom);
+            if (section == null || section.isEmpty()) continue;
+            sections.put(key, section.getBlockStateContainer().copy());
+        }
+
+        CompletableFuture<Plan> future = new CompletableFuture<>();
+        WORKER.execute(() -> {
+            // Replaced before it got a turn
+            if (future.isDone()) return;
+            try {
+                future.complete(plan(sections, start, end, tried, future));
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    /** Control points to try, most preferred first. */
+    private static Vec3d[] candidates(Vec3d start, Vec3d end, Vec3d preferred) {
+        Vec3d[] candidates = new Vec3d[1 + SCALES.length * ANGLE_STEPS];
+        candidates[0] = preferred;
+        Vec3d mid = start.add(end).multiply(0.5);
+        Vec3d axis = end.subtract(start);
+        double axisLength = axis.length();
+        Vec3d dir = axisLength > 1e-6 ? axis.multiply(1.0 / axisLength) : new Vec3d(0, 1, 0);
+        Vec3d offset = preferred.subtract(mid);
+        if (offset.lengthSquared() < 1e-6) {
+            // A straight move has nothing to swing; bow it out to start from
+            offset = perpendicular(dir).multiply(swingLength(start, end));
+        }
+        int n = 1;
+        for (double scale : SCALES) {
+            for (int k = 0; k < ANGLE_STEPS; k++) {
+                // 0, +30, -30, +60, -60, ... degrees from the preferred side
+                int step = (k + 1) / 2;
+                double angle = (k % 2 == 1 ? 1 : -1) * step * (2 * Math.PI / ANGLE_STEPS);
+                candidates[n++] = mid.add(rotate(offset, dir, angle).multiply(scale));
+            }
+        }
+        return candidates;
+    }
+
+    private static Plan plan(Long2ObjectMap<PalettedContainer<BlockState>> sections, Vec3d start, Vec3d end,
+                             Vec3d[] candidates, CompletableFuture<Plan> future) {
+        long deadline = System.nanoTime() + BUDGET_NANOS;
+        Vec3d best = candidates[0];
+        int bestHits = countHits(sections, start, best, end);
+        for (int i = 1; i < candidates.length && bestHits > 0; i++) {
+            if (System.nanoTime() > deadline || future.isDone()) break;
+            int hits = countHits(sections, start, candidates[i], end);
+            if (hits < bestHits) {
+                bestHits = hits;
+                best = candidates[i];
+            }
+        }
+        return new Plan(best, arcLengths(start, best, end));
+    }
+
+    private static int sampleCount(Vec3d a, Vec3d c, Vec3d b) {
+        // The control polygon is never shorter than the curve
+        double length = a.distanceTo(c) + c.distanceTo(b);
+        return Math.max(2, (int) Math.ceil(length / SAMPLE_SPACING));
+    }
+
+    private static int countHits(Long2ObjectMap<PalettedContainer<BlockState>> sections, Vec3d a, Vec3d c, Vec3d b) {
+        int samples = sampleCount(a, c, b);
+        int hits = 0;
+        // Endpoints are left to the per-frame collision adjustment
+        for (int i = 1; i < samples; i++) {
+            double t = i / (double) samples;
+            double u = 1.0 - t;
+            double w0 = u * u, w1 = 2 * u * t, w2 = t * t;
+            int bx = MathHelper.floor(a.x * w0 + c.x * w1 + b.x * w2);
+            int by = MathHelper.floor(a.y * w0 + c.y * w1 + b.y * w2);
+            int bz = MathHelper.floor(a.z * w0 + c.z * w1 + b.z * w2);
+            PalettedContainer<BlockState> section = sections.get(ChunkSectionPos.asLong(bx >> 4, by >> 4, bz >> 4));
+            if (section != null && section.get(bx & 15, by & 15, bz & 15).blocksMovement()) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    private static float[] arcLengths(Vec3d a, Vec3d c, Vec3d b) {
+        float[] lengths = new float[TABLE_SAMPLES + 1];
+        double px = a.x, py = a.y, pz = a.z;
+        double total = 0.0;
+        for (int i = 1; i <= TABLE_SAMPLES; i++) {
+            double t = i / (double) TABLE_SAMPLES;
+            double u = 1.0 - t;
+            double w0 = u * u, w1 = 2 * u * t, w2 = t * t;
+            double x = a.x * w0 + c.x * w1 + b.x * w2;
+            double y = a.y * w0 + c.y * w1 + b.y * w2;
+            double z = a.z * w0 + c.z * w1 + b.z * w2;
+            total += Math.sqrt((x - px) * (x - px) + (y - py) * (y - py) + (z - pz) * (z - pz));
+            lengths[i] = (float) total;
+            px = x;
+            py = y;
+            pz = z;
+        }
+        return lengths;
+    }
+
+    // How far a straight move gets bowed out when it needs to dodge something
+    private static double swingLength(Vec3d start, Vec3d end) {
+        return Math.max(2.0, start.distanceTo(end) * 0.25);
+    }
+
+    private static Vec3d perpendicular(Vec3d dir) {
+        Vec3d up = Math.abs(dir.y) > 0.99 ? new Vec3d(1, 0, 0) : new Vec3d(0, 1, 0);
+        Vec3d side = dir.crossProduct(up).normalize();
+        Vec3d perp = side.crossProduct(dir).normalize();
+        return perp.y < 0 ? perp.multiply(-1) : perp;
+    }
+
+    // Rodrigues' rotation of v around the unit axis k
+    private static Vec3d rotate(Vec3d v, Vec3d k, double angle) {
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+        return v.multiply(cos)
+                .add(k.crossProduct(v).multiply(sin))
+                .add(k.multiply(k.dotProduct(v) * (1.0 - cos)));
+    }
+
+    /**
+     * A planned quadratic curve: its control point and the cumulative length at {@code TABLE_SAMPLES}
+     * even steps of the curve parameter, as measured between the endpoints it was planned for.
+     */
+    public record Plan(Vec3d controlPoint, float[] arcLengths) {
+        public double length() {
+            return arcLengths[arcLengths.length - 1];
+        }
+
+        /** The curve parameter at {@code fraction} of the way along the curve by length. */
+        public double tAt(double fraction) {
+            double total = length();
+            if (total <= 1e-9) return MathHelper.clamp(fraction, 0.0, 1.0);
+            double target = MathHelper.clamp(fraction, 0.0, 1.0) * total;
+            int lo = 0, hi = arcLengths.length - 1;
+            while (hi - lo > 1) {
+                int m = (lo + hi) >>> 1;
+                if (arcLengths[m] < target) lo = m;
+                else hi = m;
+            }
+            double span = arcLengths[hi] - arcLengths[lo];
+            double within = span > 1e-9 ? (target - arcLengths[lo]) / span : 0.0;
+            return (lo + within) / (arcLengths.length - 1);
+        }
+
+        /** The fraction of the curve's length covered at curve parameter {@code t}; inverse of {@link #tAt}. */
+        public double fractionAt(double t) {
+            double total = length();
+            if (total <= 1e-9) return MathHelper.clamp(t, 0.0, 1.0);
+            double scaled = MathHelper.clamp(t, 0.0, 1.0) * (arcLengths.length - 1);
+            int i = Math.min((int) scaled, arcLengths.length - 2);
+            double length = arcLengths[i] + (arcLengths[i + 1] - arcLengths[i]) * (scaled - i);
+            return length / total;
+        }
+    }
+}
@@ -21,5 +21,11 @@ public enum RaycastType {
      * If camera would be inside block, moves it to first non-solid position.
      * Provides more stable distant shots by preferring to keep camera far out.
      */
-    FAR
+    FAR,
+
+    /**
+     * Sweeps a small sphere from player to desired camera position against block shapes.
+     * Keeps the near plane out of walls; pulls in immediately and eases back out.
+     */
+    SPHERE
 }
\ No newline at end of file
@@ -1,18 +1,31 @@
 package ninja.trek.cameramovements;
 
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.ShapeContext;
 import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.world.ClientWorld;
 import net.minecraft.util.hit.BlockHitResult;
 import net.minecraft.util.hit.HitResult;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Vec3d;
+import net.minecraft.util.shape.VoxelShape;
 import net.minecraft.world.RaycastContext;
+import net.minecraft.world.chunk.ChunkSection;
 
 public class RaycastUtil {
     private static final double CAMERA_OFFSET = 0.5;
-    private static final double STEP_SIZE = 0.5;
-    private static final double FINE_STEP_SIZE = 0.1;
+    // How far past the point where the FAR walk leaves solid ground it looks for the next surface
+    private static final double REFINE_DISTANCE = 2.0;
 
     public static Vec3d adjustForCollision(Vec3d playerPos, Vec3d targetPos, RaycastType raycastType) {
+        return adjustForCollision(playerPos, targetPos, raycastType, null);
+    }
+
+    /** {@code hysteresis} smooths {@link RaycastType#SPHERE} results over time and may be null. */
+    public static Vec3d adjustForCollision(Vec3d playerPos, Vec3d targetPos, RaycastType raycastType,
+                                           CollisionHysteresis hysteresis) {
         // Handle null inputs safely
         if (playerPos == null || targetPos == null) {
             return targetPos;
@@ -23,14 +36,29 @@ public class RaycastUtil {
             return targetPos;
         }
 
+        if (raycastType == RaycastType.SPHERE) {
+            // Stateful (hysteresis), so it bypasses the result cache; shapes are cached by the sweep itself
+            return SphereCollision.adjust(client, playerPos, targetPos, hysteresis);
+        }
+
+        Vec3d cached = CollisionCache.get(client.world, playerPos, targetPos, raycastType);
+        if (cached != null) {
+            return cached;
+        }
+
+        Vec3d adjusted;
         switch (raycastType) {
             case NEAR:
-                return handleNearRaycast(client, playerPos, targetPos);
+                adjusted = handleNearRaycast(client, playerPos, targetPos);
+                break;
             case FAR:
-                return handleFarRaycast(client, playerPos, targetPos);
+                adjusted = handleFarRaycast(client, playerPos, targetPos);
+                break;
             default:
                 return targetPos;
         }
+        CollisionCache.put(client.world, playerPos, targetPos, raycastType, adjusted);
+        return adjusted;
     }
 
     private static Vec3d handleNearRaycast(MinecraftClient client, Vec3d playerPos, Vec3d targetPos) {
@@ -52,59 +80,175 @@ public class RaycastUtil {
         return targetPos;
     }
 
+    /**
+     * Walks the blocks on the line from the target back toward the player until it leaves solid
+     * ground, then keeps walking the same way for {@link #REFINE_DISTANCE} to keep the camera
+     * {@link #CAMERA_OFFSET} clear of the next visual surface. A target already in air looks past
+     * the target instead. Every read goes through one {@link BlockStateWalker}.
+     */
     private static Vec3d handleFarRaycast(MinecraftClient client, Vec3d playerPos, Vec3d targetPos) {
-        Vec3d direction = targetPos.subtract(playerPos).normalize();
         double totalDistance = targetPos.distanceTo(playerPos);
-
-        // Start from target position
-        Vec3d currentPos = targetPos;
-
-        if (isPositionInAir(client, currentPos)) {
-            return refinePosition(client, currentPos, direction);
+        if (totalDistance < 1.0E-6) {
+            return targetPos;
+        }
+        // Unit direction from the player toward the target
+        double fx = (targetPos.x - playerPos.x) / totalDistance;
+        double fy = (targetPos.y - playerPos.y) / totalDistance;
+        double fz = (targetPos.z - playerPos.z) / totalDistance;
+        BlockStateWalker walker = new BlockStateWalker(client);
+
+        int x = MathHelper.floor(targetPos.x);
+        int y = MathHelper.floor(targetPos.y);
+        int z = MathHelper.floor(targetPos.z);
+        if (walker.get(x, y, z).isAir()) {
+            return surfaceAhead(walker, targetPos, fx, fy, fz, x, y, z, targetPos);
         }
 
-        // Coarse search
-        for (double distance = STEP_SIZE; distance < totalDistance; distance += STEP_SIZE) {
-            Vec3d checkPos = targetPos.subtract(direction.multiply(distance));
-
-            if (isPositionInAir(client, checkPos)) {
-                return refinePosition(client, checkPos, direction.multiply(-1));
+        // Toward the player, one block at a time
+        double dx = -fx, dy = -fy, dz = -fz;
+        int stepX = dx > 0 ? 1 : -1;
+        int stepY = dy > 0 ? 1 : -1;
+        int stepZ = dz > 0 ? 1 : -1;
+        double tDeltaX = dx != 0 ? 1.0 / Math.abs(dx) : Double.POSITIVE_INFINITY;
+        double tDeltaY = dy != 0 ? 1.0 / Math.abs(dy) : Double.POSITIVE_INFINITY;
+        double tDeltaZ = dz != 0 ? 1.0 / Math.abs(dz) : Double.POSITIVE_INFINITY;
+        double tMaxX = boundaryDistance(targetPos.x, dx, x);
+        double tMaxY = boundaryDistance(targetPos.y, dy, y);
+        double tMaxZ = boundaryDistance(targetPos.z, dz, z);
+        while (true) {
+            double t;
+            if (tMaxX < tMaxY && tMaxX < tMaxZ) {
+                t = tMaxX;
+                tMaxX += tDeltaX;
+                x += stepX;
+            } else if (tMaxY < tMaxZ) {
+                t = tMaxY;
+                tMaxY += tDeltaY;
+                y += stepY;
+            } else {
+                t = tMaxZ;
+                tMaxZ += tDeltaZ;
+                z += stepZ;
+            }
+            if (t >= totalDistance) {
+                return playerPos;
+            }
+            if (walker.get(x, y, z).isAir()) {
+                Vec3d exit = new Vec3d(targetPos.x + dx * t, targetPos.y + dy * t, targetPos.z + dz * t);
+                // Clear of the block just left unless something nearer the player is closer
+                double clearance = Math.min(CAMERA_OFFSET, totalDistance - t);
+                Vec3d fallback = new Vec3d(exit.x + dx * clearance, exit.y + dy * clearance, exit.z + dz * clearance);
+                return surfaceAhead(walker, exit, dx, dy, dz, x, y, z, fallback);
             }
         }
-
-        return playerPos;
     }
 
-    private static Vec3d refinePosition(MinecraftClient client, Vec3d startPos, Vec3d direction) {
-        // Raycast forward until we hit something
-        BlockHitResult hit = client.world.raycast(new RaycastContext(
-                startPos,
-                startPos.add(direction.multiply(2.0)), // Look 2 blocks ahead
-                RaycastContext.ShapeType.VISUAL,
-                RaycastContext.FluidHandling.NONE,
-                client.player
-        ));
-
-        if (hit.getType() == HitResult.Type.BLOCK) {
-            Vec3d hitPos = hit.getPos();
-            return hitPos.subtract(direction.multiply(CAMERA_OFFSET));
+    /**
+     * Continues a walk from {@code start}, inside block {@code (x, y, z)}, along the unit direction
+     * {@code (dx, dy, dz)} for {@link #REFINE_DISTANCE}, testing each solid block's visual shape. Returns
+     * {@link #CAMERA_OFFSET} short of the first surface hit, or {@code fallback} if there is none.
+     */
+    private static Vec3d surfaceAhead(BlockStateWalker walker, Vec3d start, double dx, double dy, double dz,
+                                      int x, int y, int z, Vec3d fallback) {
+        Vec3d end = new Vec3d(start.x + dx * REFINE_DISTANCE, start.y + dy * REFINE_DISTANCE, start.z + dz * REFINE_DISTANCE);
+        int stepX = dx > 0 ? 1 : -1;
+        int stepY = dy > 0 ? 1 : -1;
+        int stepZ = dz > 0 ? 1 : -1;
+        double tDeltaX = dx != 0 ? 1.0 / Math.abs(dx) : Double.POSITIVE_INFINITY;
+        double tDeltaY = dy != 0 ? 1.0 / Math.abs(dy) : Double.POSITIVE_INFINITY;
+        double tDeltaZ = dz != 0 ? 1.0 / Math.abs(dz) : Double.POSITIVE_INFINITY;
+        double tMaxX = boundaryDistance(start.x, dx, x);
+        double tMaxY = boundaryDistance(start.y, dy, y);
+        double tMaxZ = boundaryDistance(start.z, dz, z);
+        while (true) {
+            BlockHitResult hit = walker.raycastShape(x, y, z, start, end);
+            if (hit != null) {
+                Vec3d hitPos = hit.getPos();
+                return new Vec3d(hitPos.x - dx * CAMERA_OFFSET, hitPos.y - dy * CAMERA_OFFSET, hitPos.z - dz * CAMERA_OFFSET);
+            }
+            double t;
+            if (tMaxX < tMaxY && tMaxX < tMaxZ) {
+                t = tMaxX;
+                tMaxX += tDeltaX;
+                x += stepX;
+            } else if (tMaxY < tMaxZ) {
+                t = tMaxY;
+                tMaxY += tDeltaY;
+                y += stepY;
+            } else {
+                t = tMaxZ;
+                tMaxZ += tDeltaZ;
+                z += stepZ;
+            }
+            if (t > REFINE_DISTANCE) {
+                return fallback;
+            }
         }
+    }
 
-        return startPos;
+    /** Distance along {@code d} from {@code origin} to the next face of the block starting at {@code block}. */
+    private static double boundaryDistance(double origin, double d, int block) {
+        if (d > 0) return (block + 1 - origin) / d;
+        if (d < 0) return (block - origin) / d;
+        return Double.POSITIVE_INFINITY;
     }
 
-    private static boolean isPositionInAir(MinecraftClient client, Vec3d pos) {
-        // Perform null checks
-        if (client == null || client.world == null || pos == null) {
-            return true; // Assume air if we can't check
+    /**
+     * Block reads along a single ray: reuses one mutable position and the last chunk section looked
+     * up, so consecutive blocks in the same section are a palette read. Mirrors
+     * {@link net.minecraft.world.World#getBlockState} including the out-of-height-limit case, and
+     * tests shapes the way a {@link RaycastContext.ShapeType#VISUAL} raycast does.
+     */
+    private static final class BlockStateWalker {
+        private static final BlockState VOID_AIR = Blocks.VOID_AIR.getDefaultState();
+
+        private final ClientWorld world;
+        private final ShapeContext shapeContext;
+        private final BlockPos.Mutable pos = new BlockPos.Mutable();
+        private ChunkSection section;
+        private int sectionX;
+        private int sectionY;
+        private int sectionZ;
+
+        BlockStateWalker(MinecraftClient client) {
+            this.world = client.world;
+            this.shapeContext = client.player != null ? ShapeContext.of(client.player) : ShapeContext.absent();
         }
-        
-        try {
-            BlockPos blockPos = BlockPos.ofFloored(pos);
-            return client.world.getBlockState(blockPos).isAir();
-        } catch (Exception e) {
-            // Fallback in case of any error
-            return true; // Assume air in case of error
+
+        BlockState get(int x, int y, int z) {
+            if (world == null) {
+                return VOID_AIR; // Assume air if we can't check
+            }
+            try {
+                if (world.isOutOfHeightLimit(y)) {
+                    return VOID_AIR;
+                }
+                int cx = x >> 4;
+                int sy = y >> 4;
+                int cz = z >> 4;
+                if (section == null || cx != sectionX || sy != sectionY || cz != sectionZ) {
+                    section = world.getChunk(cx, cz).getSection(world.getSectionIndex(y));
+                    sectionX = cx;
+                    sectionY = sy;
+                    sectionZ = cz;
+                }
+                return section.getBlockState(x & 15, y & 15, z & 15);
+            } catch (Exception e) {
+                // Fallback in case of any error
+                section = null;
+                return VOID_AIR; // Assume air in case of error
+            }
+        }
+
+        /** Where the segment first meets the visual shape of the block at {@code (x, y, z)}, or null. */
+        BlockHitResult raycastShape(int x, int y, int z, Vec3d start, Vec3d end) {
+            BlockState state = get(x, y, z);
+            if (state.isAir()) {
+                return null;
+            }
+            pos.set(x, y, z);
+            VoxelShape shape = state.getCameraCollisionShape(world, pos, shapeContext);
+            return shape.raycast(start, end, pos);
         }
     }
 }
@@ -0,0 +1,267 @@
+package ninja.trek.cameramovements;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.ShapeContext;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.util.shape.VoxelShape;
+import net.minecraft.world.World;
+
+import java.util.List;
+
+/**
+ * Swept-sphere camera collision for {@link RaycastType#SPHERE}.
+ * The camera is treated as a sphere of {@link #RADIUS} moved from the eye toward the target; it stops
+ * where it first touches a block's camera collision shape, testing at most {@link #MAX_SWEEP} blocks of
+ * the way. Block shapes are read through a cache of the most recently used chunk sections that keeps
+ * each block's boxes until the block changes, so repeated frames do not go back to the world and the
+ * cost of a query is bounded by the sweep cap. Smoothing of the result over time is kept per movement
+ * in a {@link CollisionHysteresis}.
+ */
+final class SphereCollision {
+    private static final double RADIUS = 0.3;
+
+    /** Farthest the sphere is swept; the rest of a longer move is not tested. */
+    private static final double MAX_SWEEP = 64.0;
+    /**
+     * Sections kept in the box cache. A full-length sweep and its one-block neighbourhood touch far
+     * fewer, so one query never evicts what it is still using.
+     */
+    private static final int MAX_CACHED_SECTIONS = 128;
+    private static final double[] NO_BOXES = new double[0];
+
+    // Per section, each block's boxes indexed like a section's block states; null until read
+    private static final Long2ObjectLinkedOpenHashMap<double[][]> sections = new Long2ObjectLinkedOpenHashMap<>();
+    private static World cacheWorld = null;
+    private static long lastSectionKey = Long.MIN_VALUE;
+    private static double[][] lastSection = null;
+
+    private static final BlockPos.Mutable scratchPos = new BlockPos.Mutable();
+
+    private SphereCollision() {}
+
+    /** {@code hysteresis} may be null, in which case the swept distance is used as is. */
+    static Vec3d adjust(MinecraftClient client, Vec3d eye, Vec3d target, CollisionHysteresis hysteresis) {
+        ClientWorld world = client.world;
+        double dx = target.x - eye.x;
+        double dy = target.y - eye.y;
+        double dz = target.z - eye.z;
+        double length = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        if (length < 1.0E-5 || !Double.isFinite(length)) {
+            return target;
+        }
+        dx /= length;
+        dy /= length;
+        dz /= length;
+
+        if (world != cacheWorld) {
+            clearCache();
+            cacheWorld = world;
+        }
+        ShapeContext context = client.player != null ? ShapeContext.of(client.player) : ShapeContext.absent();
+        double free = sweep(world, context, eye, dx, dy, dz, Math.min(length, MAX_SWEEP));
+        if (free >= MAX_SWEEP) {
+            // Nothing within the tested part of a longer move
+            free = length;
+        }
+        double distance = hysteresis != null
+                ? hysteresis.apply(eye.x, eye.y, eye.z, free, length)
+                : Math.min(free, length);
+
+        if (distance >= length) {
+            return target;
+        }
+        return new Vec3d(eye.x + dx * distance, eye.y + dy * distance, eye.z + dz * distance);
+    }
+
+    /**
+     * Walks the blocks the ray crosses (voxel DDA) and tests the sphere against each one's neighbourhood.
+     * Returns the free distance along the ray, or {@code length} when nothing is hit.
+     */
+    private static double sweep(ClientWorld world, ShapeContext context, Vec3d eye,
+                                double dx, double dy, double dz, double length) {
+        int x = MathHelper.floor(eye.x);
+        int y = MathHelper.floor(eye.y);
+        int z = MathHelper.floor(eye.z);
+        int stepX = dx > 0 ? 1 : (dx < 0 ? -1 : 0);
+        int stepY = dy > 0 ? 1 : (dy < 0 ? -1 : 0);
+        int stepZ = dz > 0 ? 1 : (dz < 0 ? -1 : 0);
+        double deltaX = stepX != 0 ? Math.abs(1.0 / dx) : Double.POSITIVE_INFINITY;
+        double deltaY = stepY != 0 ? Math.abs(1.0 / dy) : Double.POSITIVE_INFINITY;
+        double deltaZ = stepZ != 0 ? Math.abs(1.0 / dz) : Double.POSITIVE_INFINITY;
+        double maxX = stepX > 0 ? (x + 1 - eye.x) * deltaX : (stepX < 0 ? (eye.x - x) * deltaX : Double.POSITIVE_INFINITY);
+        double maxY = stepY > 0 ? (y + 1 - eye.y) * deltaY : (stepY < 0 ? (eye.y - y) * deltaY : Double.POSITIVE_INFINITY);
+        double maxZ = stepZ > 0 ? (z + 1 - eye.z) * deltaZ : (stepZ < 0 ? (eye.z - z) * deltaZ : Double.POSITIVE_INFINITY);
+
+        double best = length;
+        double entered = 0.0;
+        // A box can only be touched from a block within one step of the ray, so once the walk is a
+        // full block past the best hit nothing closer can turn up.
+        while (entered <= best + 1.0 && entered <= length + 1.0) {
+            for (int ox = -1; ox <= 1; ox++) {
+                for (int oy = -1; oy <= 1; oy++) {
+                    for (int oz = -1; oz <= 1; oz++) {
+                        double[] boxes = boxesAt(world, context, x + ox, y + oy, z + oz);
+                        for (int i = 0; i < boxes.length; i += 6) {
+                            double t = entryDistance(eye, dx, dy, dz, boxes, i);
+                            if (t < best) {
+                                best = t;
+                            }
+                        }
+                    }
+                }
+            }
+            if (maxX < maxY && maxX < maxZ) {
+                entered = maxX;
+                maxX += deltaX;
+                x += stepX;
+            } else if (maxY < maxZ) {
+                entered = maxY;
+                maxY += deltaY;
+                y += stepY;
+            } else {
+                entered = maxZ;
+                maxZ += deltaZ;
+                z += stepZ;
+            }
+            if (!Double.isFinite(entered)) {
+                break;
+            }
+        }
+        return Math.max(0.0, best);
+    }
+
+    /**
+     * Distance along the ray at which a sphere of {@link #RADIUS} first touches the box, approximated
+     * by a ray test against the box grown by the radius. When the eye is already within the radius of
+     * the box, the box blocks right away if the ray heads toward it and is ignored if the ray heads
+     * away, so standing against a wall only collapses the camera when it looks into the wall.
+     */
+    private static double entryDistance(Vec3d eye, double dx, double dy, double dz, double[] boxes, int i) {
+        double minX = boxes[i] - RADIUS, minY = boxes[i + 1] - RADIUS, minZ = boxes[i + 2] - RADIUS;
+        double maxX = boxes[i + 3] + RADIUS, maxY = boxes[i + 4] + RADIUS, maxZ = boxes[i + 5] + RADIUS;
+        if (eye.x > minX && eye.x < maxX && eye.y > minY && eye.y < maxY && eye.z > minZ && eye.z < maxZ) {
+            // Direction from the eye to the nearest point of the actual box
+            double nx = MathHelper.clamp(eye.x, boxes[i], boxes[i + 3]) - eye.x;
+            double ny = MathHelper.clamp(eye.y, boxes[i + 1], boxes[i + 4]) - eye.y;
+            double nz = MathHelper.clamp(eye.z, boxes[i + 2], boxes[i + 5]) - eye.z;
+            return nx * dx + ny * dy + nz * dz > 0.0 ? 0.0 : Double.POSITIVE_INFINITY;
+        }
+        double near = Double.NEGATIVE_INFINITY;
+        double far = Double.POSITIVE_INFINITY;
+        if (dx != 0.0) {
+            double a = (minX - eye.x) / dx, b = (maxX - eye.x) / dx;
+            near = Math.max(near, Math.min(a, b));
+            far = Math.min(far, Math.max(a, b));
+        } else if (eye.x <= minX || eye.x >= maxX) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if (dy != 0.0) {
+            double a = (minY - eye.y) / dy, b = (maxY - eye.y) / dy;
+            near = Math.max(near, Math.min(a, b));
+            far = Math.min(far, Math.max(a, b));
+        } else if (eye.y <= minY || eye.y >= maxY) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if (dz != 0.0) {
+            double a = (minZ - eye.z) / dz, b = (maxZ - eye.z) / dz;
+            near = Math.max(near, Math.min(a, b));
+            far = Math.min(far, Math.max(a, b));
+        } else if (eye.z <= minZ || eye.z >= maxZ) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if (near > far || far < 0.0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return near;
+    }
+
+    /** Packed absolute boxes (minX, minY, minZ, maxX, maxY, maxZ) of the block's camera collision shape. */
+    private static double[] boxesAt(ClientWorld world, ShapeContext context, int x, int y, int z) {
+        long key = ChunkSectionPos.asLong(x >> 4, y >> 4, z >> 4);
+        double[][] section;
+        if (key == lastSectionKey) {
+            section = lastSection;
+        } else {
+            section = sections.getAndMoveToLast(key);
+            if (section == null) {
+                if (sections.size() >= MAX_CACHED_SECTIONS) {
+                    sections.removeFirst();
+                }
+                section = new double[16 * 16 * 16][];
+                sections.put(key, section);
+            }
+            lastSectionKey = key;
+            lastSection = section;
+        }
+        int index = blockIndex(x, y, z);
+        double[] cached = section[index];
+        if (cached == null) {
+            cached = readBoxes(world, context, x, y, z);
+            section[index] = cached;
+        }
+        return cached;
+    }
+
+    private static double[] readBoxes(ClientWorld world, ShapeContext context, int x, int y, int z) {
+        BlockPos pos = scratchPos.set(x, y, z);
+        BlockState state = world.getBlockState(pos);
+        if (state.isAir()) {
+            return NO_BOXES;
+        }
+        VoxelShape shape = state.getCameraCollisionShape(world, pos, context);
+        if (shape.isEmpty()) {
+            return NO_BOXES;
+        }
+        List<Box> list = shape.getBoundingBoxes();
+        double[] boxes = new double[list.size() * 6];
+        int i = 0;
+        for (Box box : list) {
+            boxes[i++] = x + box.minX;
+            boxes[i++] = y + box.minY;
+            boxes[i++] = z + box.minZ;
+            boxes[i++] = x + box.maxX;
+            boxes[i++] = y + box.maxY;
+            boxes[i++] = z + box.maxZ;
+        }
+        return boxes;
+    }
+
+    private static int blockIndex(int x, int y, int z) {
+        return ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+    }
+
+    private static void clearCache() {
+        sections.clear();
+        lastSectionKey = Long.MIN_VALUE;
+        lastSection = null;
+    }
+
+    static void onBlockChanged(World world, int x, int y, int z) {
+        if (world != cacheWorld) return;
+        double[][] section = sections.get(ChunkSectionPos.asLong(x >> 4, y >> 4, z >> 4));
+        if (section != null) {
+            section[blockIndex(x, y, z)] = null;
+        }
+    }
+
+    static void onChunkChanged(World world, int chunkX, int chunkZ) {
+        if (world != cacheWorld || sections.isEmpty()) return;
+        LongIterator keys = sections.keySet().iterator();
+        while (keys.hasNext()) {
+            long key = keys.nextLong();
+            if (ChunkSectionPos.unpackX(key) == chunkX && ChunkSectionPos.unpackZ(key) == chunkZ) {
+                keys.remove();
+            }
+        }
+        lastSectionKey = Long.MIN_VALUE;
+        lastSection = null;
+    }
+}
@@ -0,0 +1,196 @@
+package ninja.trek.cameramovements;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+
+/**
+ * Extrapolates the control stick ahead in time from the tracked player's recent motion, so follow
+ * movements can chase where the player is going rather than where the interpolated eye just was.
+ * Velocity, acceleration and yaw rate are estimated once per game tick from the player's tick
+ * positions, which also covers riding since the eye moves with the vehicle. The yaw rate is measured
+ * from the yaw the stick follows: the player's head, or for velocity end targets the heading of the
+ * same tick positions. Each tick the position
+ * predicted for it is checked against where the player actually ended up, and the running miss
+ * scales the horizon down (knockback, collisions, landing) until predictions line up again.
+ * Client thread only.
+ */
+public final class StickPredictor {
+    private static final double TICKS_PER_SECOND = 20.0;
+    // Gaps longer than this (lag, teleports, unpausing) restart the estimate
+    private static final long MAX_TICK_GAP = 5;
+    // Weight of the newest tick in the smoothed estimates
+    private static final double VELOCITY_SMOOTHING = 0.5;
+    private static final double ACCEL_SMOOTHING = 0.3;
+    private static final double YAW_RATE_SMOOTHING = 0.4;
+    private static final double MISS_SMOOTHING = 0.25;
+    // Misses are measured relative to the distance travelled, but never against less than this
+    private static final double MIN_TRAVEL = 0.1;
+    // Squared horizontal travel below which the heading is held, as CameraController's velocity targets do
+    private static final double MIN_HEADING_TRAVEL_SQ = 0.001;
+    // Farthest the prediction may lead the stick, in blocks
+    private static final double MAX_LEAD = 12.0;
+
+    private static Entity tracked;
+    private static long lastTick = Long.MIN_VALUE;
+    private static double px, py, pz;
+    private static float lastYaw;
+    private static boolean yawFollowsTravel = false;
+    private static boolean hasHeading = false;
+    private static boolean hasVelocity = false;
+    // Blocks per second, blocks per second squared and degrees per second
+    private static double vx, vy, vz;
+    private static double ax, ay, az;
+    private static double yawRate;
+    // Where the estimate put the player one tick ahead
+    private static double ex, ey, ez;
+    private static double miss = 0.0;
+
+    private StickPredictor() {}
+
+    public static void reset() {
+        tracked = null;
+        lastTick = Long.MIN_VALUE;
+        hasVelocity = false;
+        vx = vy = vz = 0.0;
+        ax = ay = az = 0.0;
+        yawRate = 0.0;
+        hasHeading = false;
+        miss = 0.0;
+    }
+
+    /**
+     * Samples {@code entity} if a new game tick has passed since the last sample. {@code followsTravel}
+     * says the stick's yaw follows the direction of travel rather than the head. Called once per frame.
+     */
+    public static void update(Entity entity, long worldTime, boolean followsTravel) {
+        if (entity != tracked || followsTravel != yawFollowsTravel) {
+            reset();
+            tracked = entity;
+            yawFollowsTravel = followsTravel;
+        }
+        if (worldTime == lastTick) return;
+        boolean fresh = lastTick == Long.MIN_VALUE || worldTime < lastTick || worldTime - lastTick > MAX_TICK_GAP;
+        long gap = worldTime - lastTick;
+        lastTick = worldTime;
+
+        Vec3d eye = entity.getEyePos();
+        float yaw = followsTravel ? lastYaw : entity.getYaw();
+        if (fresh) {
+            // Nothing recent to difference against: start over from this sample
+            hasHeading = false;
+            px = eye.x;
+            py = eye.y;
+            pz = eye.z;
+            lastYaw = yaw;
+            hasVelocity = false;
+            vx = vy = vz = 0.0;
+            ax = ay = az = 0.0;
+            yawRate = 0.0;
+            miss = 0.0;
+            return;
+        }
+
+        double dt = gap / TICKS_PER_SECOND;
+        double nvx = (eye.x - px) / dt;
+        double nvy = (eye.y - py) / dt;
+        double nvz = (eye.z - pz) / dt;
+        boolean yawKnown = true;
+        if (followsTravel) {
+            double hx = eye.x - px, hz = eye.z - pz;
+            if (hx * hx + hz * hz > MIN_HEADING_TRAVEL_SQ) {
+                // The velocity targets' yaw, up to a constant: 360 minus the heading
+                yaw = (float) -Math.toDegrees(Math.atan2(hx, hz));
+                yawKnown = hasHeading;
+                hasHeading = true;
+            }
+        }
+        double nYawRate = yawKnown ? MathHelper.wrapDegrees(yaw - lastYaw) / dt : 0.0;
+
+        if (hasVelocity) {
+            double dx = eye.x - ex, dy = eye.y - ey, dz = eye.z - ez;
+            double tx = eye.x - px, ty = eye.y - py, tz = eye.z - pz;
+            double travel = Math.max(MIN_TRAVEL, Math.sqrt(tx * tx + ty * ty + tz * tz));
+            double tickMiss = Math.min(1.0, Math.sqrt(dx * dx + dy * dy + dz * dz) / travel);
+            miss += (tickMiss - miss) * MISS_SMOOTHING;
+
+            ax += ((nvx - vx) / dt - ax) * ACCEL_SMOOTHING;
+            ay += ((nvy - vy) / dt - ay) * ACCEL_SMOOTHING;
+            az += ((nvz - vz) / dt - az) * ACCEL_SMOOTHING;
+            vx += (nvx - vx) * VELOCITY_SMOOTHING;
+            vy += (nvy - vy) * VELOCITY_SMOOTHING;
+            vz += (nvz - vz) * VELOCITY_SMOOTHING;
+            yawRate += (nYawRate - yawRate) * YAW_RATE_SMOOTHING;
+        } else {
+            vx = nvx;
+            vy = nvy;
+            vz = nvz;
+            yawRate = nYawRate;
+            hasVelocity = true;
+        }
+
+        px = eye.x;
+        py = eye.y;
+        pz = eye.z;
+        lastYaw = yaw;
+        double step = 1.0 / TICKS_PER_SECOND;
+        ex = px + vx * step + 0.5 * ax * step * step;
+        ey = py + vy * step + 0.5 * ay * step * step;
+        ez = pz + vz * step + 0.5 * az * step * step;
+    }
+
+    /** How far recent predictions can be trusted, from 0 (they keep missing) to 1. */
+    public static double confidence() {
+        return hasVelocity ? 1.0 - miss : 0.0;
+    }
+
+    /**
+     * The per-step easing (as tuned at 60 steps a second) that keeps a chase at the trailing distance
+     * it would have with the full {@code horizonSeconds} of lead, when {@link #confidence()} only grants
+     * part of it: the lead that is withheld is made up by closing the gap faster.
+     */
+    public static double compensatedEasing(double easing, double horizonSeconds) {
+        if (horizonSeconds <= 0.0 || easing <= 0.0 || easing >= 1.0) return easing;
+        double timeConstant = -1.0 / (Math.log(1.0 - easing) * 60.0);
+        double withheld = horizonSeconds * (1.0 - confidence());
+        double compensated = Math.max(timeConstant * 0.25, timeConstant - withheld);
+        return 1.0 - Math.exp(-1.0 / (compensated * 60.0));
+    }
+
+    /**
+     * Writes {@code stick} extrapolated {@code horizonSeconds} ahead into {@code out}, with the horizon
+     * scaled by {@link #confidence()}. Without an estimate yet {@code out} is a plain copy of the stick.
+     */
+    public static CameraTarget predict(CameraTarget stick, double horizonSeconds, CameraTarget out) {
+        out.set(stick);
+        if (!hasVelocity || horizonSeconds <= 0.0) return out;
+
+        double h = horizonSeconds * confidence();
+        double lx = vx * h, ly = vy * h, lz = vz * h;
+        double cx = 0.5 * ax * h * h, cy = 0.5 * ay * h * h, cz = 0.5 * az * h * h;
+        // Acceleration bends the lead but may not outweigh it, or a jump's gravity would swing the
+        // target below the floor
+        double leadSq = lx * lx + ly * ly + lz * lz;
+        double curveSq = cx * cx + cy * cy + cz * cz;
+        if (curveSq > leadSq && curveSq > 0.0) {
+            double scale = Math.sqrt(leadSq / curveSq);
+            cx *= scale;
+            cy *= scale;
+            cz *= scale;
+        }
+        lx += cx;
+        ly += cy;
+        lz += cz;
+        double length = Math.sqrt(lx * lx + ly * ly + lz * lz);
+        if (length > MAX_LEAD) {
+            double scale = MAX_LEAD / length;
+            lx *= scale;
+            ly *= scale;
+            lz *= scale;
+        }
+
+        float yaw = (float) (stick.getYaw() + yawRate * h);
+        out.set(stick.getX() + lx, stick.getY() + ly, stick.getZ() + lz, yaw, stick.getPitch(), stick.getFovMultiplier());
+        return out;
+    }
+}
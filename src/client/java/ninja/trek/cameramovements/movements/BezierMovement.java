@@ -6,8 +6,11 @@ import net.minecraft.util.math.Vec3d;
 import ninja.trek.CameraController;
 import ninja.trek.cameramovements.*;
 import ninja.trek.config.MovementSetting;
+import ninja.trek.config.MovementSettingType;
 import ninja.trek.mixin.client.FovAccessor;
 
+import java.util.concurrent.CompletableFuture;
+
 @CameraMovementType(
         name = "Bezier",
         description = "Moves the camera in a curved line"
@@ -43,10 +46,34 @@ public class BezierMovement extends AbstractMovementSettings implements ICameraM
     @MovementSetting(label = "Displacement Angle Variance", min = 0.0, max = 180.0)
     private double displacementAngleVariance = 0.0;
 
+    @MovementSetting(
+            label = "Plan Around Terrain",
+            type = MovementSettingType.BOOLEAN,
+            description = "Bends the curve around solid blocks, planned in the background; the plain curve is used until the plan is ready"
+    )
+    private boolean planAroundTerrain = true;
+
+    // Per-step easing of the control point onto a plan that arrives mid-move
+    private static final double PLAN_BLEND_EASING = 0.2;
+    // Quiet time after the last distance change before replanning, so scrolling doesn't plan every notch
+    private static final double REPLAN_DELAY_SECONDS = 0.25;
+
     public CameraTarget start = new CameraTarget();
     private CameraTarget end = new CameraTarget();
     public CameraTarget current = new CameraTarget();
+    // Reused per frame as the return-phase target (player head)
+    private final CameraTarget returnTarget = new CameraTarget();
+    private final MovementState state = new MovementState(current, false);
     private Vec3d controlPoint;
+    private CompletableFuture<PathPlanner.Plan> pendingPlan;
+    // Null until a plan arrives; while set, progress is a fraction of the curve's length
+    private PathPlanner.Plan plan;
+    // Counts down to a replan after a distance change; zero when none is waiting
+    private double replanDelay;
+    // Output of bezierInto / linearStep
+    private double stepX;
+    private double stepY;
+    private double stepZ;
     private double progress;
     private boolean resetting = false;
     private boolean linearMode = false;
@@ -61,7 +88,10 @@ public class BezierMovement extends AbstractMovementSettings implements ICameraM
     private float lastTargetPitch = 0f;
     private float lastYawError = 0f;
     private float lastPitchError = 0f;
-    private Vec3d lastPlayerEyePos = null;
+    private boolean hasLastPlayerEyePos = false;
+    private double lastPlayerEyeX;
+    private double lastPlayerEyeY;
+    private double lastPlayerEyeZ;
     private boolean jitterStateInit = false;
 
     @Override
@@ -82,6 +112,7 @@ public class BezierMovement extends AbstractMovementSettings implements ICameraM
         // Orthographic handling removed
 
         controlPoint = generateControlPoint(start.getPosition(), end.getPosition());
+        requestPlan(client, start.getPosition(), end.getPosition());
         progress = 0.0;
         resetting = false;
         linearMode = false;
@@ -92,13 +123,22 @@ public class BezierMovement extends AbstractMovementSettings implements ICameraM
 
         // Reset jitter suppression tracking
         jitterStateInit = false;
-        lastPlayerEyePos = null;
+        hasLastPlayerEyePos = false;
         lastTargetYaw = current.getYaw();
         lastTargetPitch = current.getPitch();
         lastYawError = 0f;
         lastPitchError = 0f;
     }
 
+    private void setTargetPosition(CameraTarget out, CameraTarget stick, float fov) {
+        double yaw = Math.toRadians(stick.getYaw());
+        double pitch = Math.toRadians(stick.getPitch());
+        double xOffset = Math.sin(yaw) * Math.cos(pitch) * targetDistance;
+        double yOffset = Math.sin(pitch) * targetDistance;
+        double zOffset = -Math.cos(yaw) * Math.cos(pitch) * targetDistance;
+        out.set(stick.getX() + xOffset, stick.getY() + yOffset, stick.getZ() + zOffset, stick.getYaw(), stick.getPitch(), fov);
+    }
+
     private Vec3d calculateTargetPosition(CameraTarget stick) {
         double yaw = Math.toRadians(stick.getYaw());
         double pitch = Math.toRadians(stick.getPitch());
@@ -110,48 +150,53 @@ public class BezierMovement extends AbstractMovementSettings implements ICameraM
 
     @Override
     public MovementState calculateState(MinecraftClient client, Camera camera, float deltaSeconds) {
-        if (client.player == null) return new MovementState(current, true);
+        if (client.player == null) return state.set(current, true);
 
-        // Update start target with controlStick's current state
-        start = new CameraTarget(
-                CameraController.controlStick.getPosition(),
-                CameraController.controlStick.getYaw(),
-                CameraController.controlStick.getPitch(),
-                start.getFovMultiplier()
-        );
+        // Update start target with controlStick's current state (in place; nothing else holds start/end)
+        CameraTarget stick = CameraController.controlStick;
+        start.set(stick.getX(), stick.getY(), stick.getZ(), stick.getYaw(), stick.getPitch(),
+                Math.max(0.1f, start.getFovMultiplier()));
 
         // Update end target based on controlStick and target distance
-        Vec3d targetPos = calculateTargetPosition(CameraController.controlStick);
-        end = new CameraTarget(targetPos, CameraController.controlStick.getYaw(),
-                CameraController.controlStick.getPitch(), 
-                end.getFovMultiplier(),
-                end.getOrthoFactor()); // Preserve ortho factor
+        setTargetPosition(end, stick, Math.max(0.1f, end.getFovMultiplier()));
 
         if (distanceChanged) {
             controlPoint = generateControlPoint(start.getPosition(), end.getPosition());
+            cancelPlan();
+            replanDelay = REPLAN_DELAY_SECONDS;
             distanceChanged = false;
+        } else if (replanDelay > 0.0) {
+            replanDelay -= deltaSeconds;
+            if (replanDelay <= 0.0) {
+                replanDelay = 0.0;
+                requestPlan(client, start.getPosition(), end.getPosition());
+            }
         }
+        adoptPlan(deltaSeconds);
 
         CameraTarget a = resetting ? end : start;
         CameraTarget b = resetting ? start : end;
         
         // When returning, continuously update the target to follow the player's head position and rotation
         if (resetting && client.player != null) {
-            Vec3d playerPos = client.player.getEyePos();
             float playerYaw = client.player.getYaw();
             float playerPitch = client.player.getPitch();
             
             // Update return target to always be the player's current head position and rotation
             // Update the return target
-            b = new CameraTarget(playerPos, playerYaw, playerPitch, b.getFovMultiplier());
+            returnTarget.set(client.player.getX(), client.player.getEyeY(), client.player.getZ(),
+                    playerYaw, playerPitch, Math.max(0.1f, b.getFovMultiplier()));
+            b = returnTarget;
             
-            // If needed, update the control point to ensure smooth path to player
-            if (progress < 0.5) {
-                controlPoint = generateControlPoint(current.getPosition(), playerPos);
+            // If needed, update the control point to ensure smooth path to player. Not once a plan is
+            // in flight or adopted: that plan, and its length table, belong to the control point it
+            // was requested for
+            if (progress < 0.5 && plan == null && pendingPlan == null) {
+                controlPoint = generateControlPoint(current.getPosition(), returnTarget.getPosition());
             }
         }
         
-        Vec3d desiredPos;
+        double abDistance = distance(a, b);
 
         if (!linearMode) {
             // Bezier movement mode
@@ -160,14 +205,14 @@ public class BezierMovement extends AbstractMovementSettings implements ICameraM
             if (resetting && progress > 0.8) {
                 // When returning and progress is high (near completion), accelerate to ensure we reach the end
                 // This helps avoid stopping short of the target position
-                potentialDelta = (1.0 - progress) * positionEasing * 1.5; // Use higher multiplier
+                potentialDelta = (1.0 - progress) * Easing.factor(Math.min(1.0, positionEasing * 1.5), deltaSeconds); // Use higher multiplier
                 // logging removed
             } else {
                 // Standard easing for normal progress
-                potentialDelta = (1.0 - progress) * positionEasing;
+                potentialDelta = (1.0 - progress) * Easing.factor(positionEasing, deltaSeconds);
             }
             
-            double totalDistance = a.getPosition().distanceTo(b.getPosition());
+            double totalDistance = plan != null ? Math.max(abDistance, plan.length()) : abDistance;
             double maxMove = positionSpeedLimit * (deltaSeconds);
             double allowedDelta = totalDistance > 0 ? maxMove / totalDistance : potentialDelta;
             double progressDelta = Math.min(potentialDelta, allowedDelta);
@@ -175,53 +220,51 @@ public class BezierMovement extends AbstractMovementSettings implements ICameraM
             // When very close to completion during reset, use larger steps
             if (resetting && progress > 0.95) {
                 // Ensure we reach the final position by using larger steps near the end
-                progressDelta = Math.max(progressDelta, 0.01);
+                progressDelta = Math.max(progressDelta, 0.6 * deltaSeconds);
             }
             
             progress = Math.min(1.0, progress + progressDelta);
-            desiredPos = quadraticBezier(
-                    a.getPosition(),
-                    controlPoint,
-                    b.getPosition(),
-                    progress
-            );
+            bezierInto(a, controlPoint, b, plan != null ? plan.tAt(progress) : progress);
         } else {
             // Linear movement mode
-            Vec3d delta = b.getPosition().subtract(current.getPosition());
-            double deltaLength = delta.length();
+            double dx = b.getX() - current.getX();
+            double dy = b.getY() - current.getY();
+            double dz = b.getZ() - current.getZ();
+            double deltaLength = Math.sqrt(dx * dx + dy * dy + dz * dz);
             double maxMove = positionSpeedLimit * (deltaSeconds);
-            Vec3d move;
+            double mx = 0.0, my = 0.0, mz = 0.0;
             if (deltaLength > 0) {
-                move = delta.multiply(positionEasing);
-                if (move.length() > maxMove) {
-                    move = move.normalize().multiply(maxMove);
+                double easing = Easing.factor(positionEasing, deltaSeconds);
+                mx = dx * easing;
+                my = dy * easing;
+                mz = dz * easing;
+                double moveLength = deltaLength * easing;
+                if (moveLength > maxMove) {
+                    double scale = maxMove / moveLength;
+                    mx *= scale;
+                    my *= scale;
+                    mz *= scale;
                 }
-            } else {
-                move = Vec3d.ZERO;
             }
-            desiredPos = current.getPosition().add(move);
+            stepX = current.getX() + mx;
+            stepY = current.getY() + my;
+            stepZ = current.getZ() + mz;
         }
 
         // Apply minimum speed snap logic
-        if (resetting) {
-            // During return phase - always apply
-            desiredPos = applyMinimumSpeedDuringReturn(
-                    current.getPosition(),
-                    desiredPos,
-                    b.getPosition(),
-                    deltaSeconds,
-                    client
-            );
-        } else if (positionEasing >= 0.9) {
-            // During out phase with high position easing (user wants instant follow)
-            // Apply snap logic to prevent camera lag when player moves rapidly (e.g., falling)
-            desiredPos = applyMinimumSpeedDuringReturn(
-                    current.getPosition(),
-                    desiredPos,
-                    b.getPosition(),
+        // During return phase - always apply. During out phase with high position easing (user wants
+        // instant follow) apply snap logic to prevent camera lag when player moves rapidly (e.g., falling)
+        if (resetting || positionEasing >= 0.9) {
+            applyMinimumSpeedInto(
+                    current.getX(), current.getY(), current.getZ(),
+                    stepX, stepY, stepZ,
+                    b.getX(), b.getY(), b.getZ(),
                     deltaSeconds,
                     client
             );
+            stepX = minSpeedX;
+            stepY = minSpeedY;
+            stepZ = minSpeedZ;
         }
 
         // Calculate target rotation and FOV
@@ -237,18 +280,24 @@ public class BezierMovement extends AbstractMovementSettings implements ICameraM
         while (yawError > 180) yawError -= 360;
         while (yawError < -180) yawError += 360;
 
-        float desiredYawSpeed = (float)(yawError * rotationEasing);
-        float desiredPitchSpeed = (float)(pitchError * rotationEasing);
+        double rotationStep = Easing.factor(rotationEasing, deltaSeconds);
+        float desiredYawSpeed = (float)(yawError * rotationStep);
+        float desiredPitchSpeed = (float)(pitchError * rotationStep);
 
         // Jitter suppression: when fully out (linear mode) and player is moving,
         // ignore one-frame micro corrections caused by tiny oscillations.
         if (!resetting) {
             boolean fullyOut = linearMode || progress >= 0.999;
             if (fullyOut && client.player != null) {
-                Vec3d eye = client.player.getEyePos();
+                double eyeX = client.player.getX();
+                double eyeY = client.player.getEyeY();
+                double eyeZ = client.player.getZ();
                 double playerMove = 0.0;
-                if (lastPlayerEyePos != null) {
-                    playerMove = eye.distanceTo(lastPlayerEyePos);
+                if (hasLastPlayerEyePos) {
+                    double mx = eyeX - lastPlayerEyeX;
+                    double my = eyeY - lastPlayerEyeY;
+                    double mz = eyeZ - lastPlayerEyeZ;
+                    playerMove = Math.sqrt(mx * mx + my * my + mz * mz);
                 }
                 // Thresholds tuned to suppress sub-degree jitter while running
                 final float ANGLE_EPS = 0.7f;      // degrees
@@ -275,7 +324,10 @@ public class BezierMovement extends AbstractMovementSettings implements ICameraM
                 }
 
                 // Update jitter tracking state
-                lastPlayerEyePos = eye;
+                lastPlayerEyeX = eyeX;
+                lastPlayerEyeY = eyeY;
+                lastPlayerEyeZ = eyeZ;
+                hasLastPlayerEyePos = true;
                 jitterStateInit = true;
             }
         }
@@ -291,7 +343,7 @@ public class BezierMovement extends AbstractMovementSettings implements ICameraM
         float adaptiveFovEasing = (float) (fovEasing * (0.5 + 0.5 * (absFovError / 0.1)));
         if (adaptiveFovEasing > fovEasing) adaptiveFovEasing = (float)fovEasing;
         
-        float desiredFovSpeed = fovError * adaptiveFovEasing;
+        float desiredFovSpeed = fovError * (float) Easing.factor(adaptiveFovEasing, deltaSeconds);
         
         // Handle orthographic projection with smooth transitions in both directions
         float calculatedOrthoTarget;
@@ -367,7 +419,7 @@ public class BezierMovement extends AbstractMovementSettings implements ICameraM
         // We're now directly setting orthoFactor based on movement progress above
 
         // Update current target - note we're keeping the orthoFactor that was already set directly
-        current = new CameraTarget(desiredPos, newYaw, newPitch, newFovDelta);
+        current.set(stepX, stepY, stepZ, newYaw, newPitch, Math.max(0.1f, newFovDelta));
 
         // Update FOV in game renderer
         if (client.gameRenderer instanceof FovAccessor) {
@@ -375,8 +427,8 @@ public class BezierMovement extends AbstractMovementSettings implements ICameraM
         }
 
         // Update alpha for external systems
-        double remaining = current.getPosition().distanceTo(b.getPosition());
-        double totalDistance = a.getPosition().distanceTo(b.getPosition());
+        double remaining = distance(current, b);
+        double totalDistance = abDistance;
         alpha = totalDistance != 0 ? remaining / totalDistance : 0.0;
 
         // Switch to linear mode when out phase completes
@@ -393,15 +445,63 @@ public class BezierMovement extends AbstractMovementSettings implements ICameraM
         lastPitchError = pitchError;
 
         boolean complete = resetting && (remaining < 0.007 || progress >= 0.9999);
-        return new MovementState(current, complete);
+        return state.set(current, complete);
     }
 
 
-    private Vec3d quadraticBezier(Vec3d p0, Vec3d p1, Vec3d p2, double t) {
+    private static double distance(CameraTarget a, CameraTarget b) {
+        double dx = a.getX() - b.getX();
+        double dy = a.getY() - b.getY();
+        double dz = a.getZ() - b.getZ();
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    // Quadratic bezier evaluated into stepX/stepY/stepZ
+    private void bezierInto(CameraTarget p0, Vec3d p1, CameraTarget p2, double t) {
         double oneMinusT = 1.0 - t;
-        return p0.multiply(oneMinusT * oneMinusT)
-                .add(p1.multiply(2 * oneMinusT * t))
-                .add(p2.multiply(t * t));
+        double w0 = oneMinusT * oneMinusT;
+        double w1 = 2 * oneMinusT * t;
+        double w2 = t * t;
+        stepX = p0.getX() * w0 + p1.x * w1 + p2.getX() * w2;
+        stepY = p0.getY() * w0 + p1.y * w1 + p2.getY() * w2;
+        stepZ = p0.getZ() * w0 + p1.z * w1 + p2.getZ() * w2;
+    }
+
+    /** Replaces any plan in flight with one for the current control point, if planning is on. */
+    private void requestPlan(MinecraftClient client, Vec3d from, Vec3d to) {
+        cancelPlan();
+        if (planAroundTerrain && client != null) {
+            pendingPlan = PathPlanner.request(client.world, from, to, controlPoint);
+        }
+    }
+
+    private void cancelPlan() {
+        if (pendingPlan != null) {
+            // Also stops the planner's search if it is already running
+            pendingPlan.cancel(false);
+            pendingPlan = null;
+        }
+        plan = null;
+        replanDelay = 0.0;
+    }
+
+    /** Picks up a finished plan and eases the control point onto it. */
+    private void adoptPlan(float deltaSeconds) {
+        if (pendingPlan != null && pendingPlan.isDone()) {
+            PathPlanner.Plan ready = pendingPlan.isCompletedExceptionally() ? null : pendingPlan.join();
+            pendingPlan = null;
+            if (ready != null && !linearMode) {
+                // Keep the camera where it is: express the current curve parameter as a length fraction
+                progress = ready.fractionAt(progress);
+                plan = ready;
+            }
+        }
+        if (plan != null && !controlPoint.equals(plan.controlPoint())) {
+            controlPoint = controlPoint.lerp(plan.controlPoint(), Easing.factor(PLAN_BLEND_EASING, deltaSeconds));
+            if (controlPoint.squaredDistanceTo(plan.controlPoint()) < 1e-4) {
+                controlPoint = plan.controlPoint();
+            }
+        }
     }
 
     private Vec3d generateControlPoint(Vec3d start, Vec3d end) {
@@ -439,6 +539,7 @@ public class BezierMovement extends AbstractMovementSettings implements ICameraM
             resetReturnTargetTracking();
             linearMode = false;
             progress = 0.0;
+            cancelPlan();
 
             // Always target the player head position/rotation during return phase
             if (client.player != null) {
@@ -477,6 +578,7 @@ public class BezierMovement extends AbstractMovementSettings implements ICameraM
             // We're always returning to player position now
             if (client.player != null) {
                 controlPoint = generateControlPoint(current.getPosition(), client.player.getEyePos());
+                requestPlan(client, current.getPosition(), client.player.getEyePos());
                 // logging removed
             }
             
@@ -515,6 +617,7 @@ public class BezierMovement extends AbstractMovementSettings implements ICameraM
         );
 
         linearMode = true;
+        cancelPlan();
         double remaining = current.getPosition().distanceTo(end.getPosition());
         double totalDistance = start.getPosition().distanceTo(end.getPosition());
         alpha = totalDistance != 0 ? remaining / totalDistance : 0.0;
@@ -17,8 +17,10 @@ import net.minecraft.world.RaycastContext;
 import ninja.trek.CameraController;
 import ninja.trek.cameramovements.AbstractMovementSettings;
 import ninja.trek.cameramovements.CameraTarget;
+import ninja.trek.cameramovements.Easing;
 import ninja.trek.cameramovements.ICameraMovement;
 import ninja.trek.cameramovements.MovementState;
+import ninja.trek.cameramovements.StickPredictor;
 import ninja.trek.config.MovementSetting;
 import ninja.trek.config.MovementSettingType;
 import ninja.trek.Craneshot;
@@ -58,6 +60,14 @@ public class FollowMovement extends AbstractMovementSettings implements ICameraM
     @MovementSetting(label = "Rotation Speed Limit", min = 0.1, max = 1000.0)
     private double rotationSpeedLimit = 500.0;
 
+    @MovementSetting(
+            label = "Prediction Horizon",
+            min = 0.0,
+            max = 1.0,
+            description = "Seconds ahead of the player to aim at, extrapolated from their motion; 0 follows the player as is"
+    )
+    private double predictionHorizon = 0.0;
+
     @MovementSetting(
             label = "Auto Run & Jump",
             type = MovementSettingType.BOOLEAN,
@@ -94,10 +104,21 @@ public class FollowMovement extends AbstractMovementSettings implements ICameraM
     private long lastAutoAssistStatusLogTimeMs = 0L;
 
     private CameraTarget current = new CameraTarget();
+    private final MovementState state = new MovementState(current, false);
     private float lastStickYaw = 0.0f;
-    private Vec3d startPlayerPosXZ = null;
+    private final CameraTarget predictedStick = new CameraTarget();
+    // XZ-plane tracking kept as primitives so the steady-state follow path does not allocate
+    private boolean hasStartPlayerPos = false;
+    private double startPlayerX = 0.0;
+    private double startPlayerZ = 0.0;
     private boolean clampArmed = false;
-    private Vec3d orbitTargetXZ = null;
+    private boolean hasOrbitTarget = false;
+    private double orbitX = 0.0;
+    private double orbitZ = 0.0;
+    // Output of easedStep
+    private double stepX;
+    private double stepY;
+    private double stepZ;
     private boolean resetting = false;
 
     public boolean isAutoRunAndJump() {
@@ -588,11 +609,8 @@ public class FollowMovement extends AbstractMovementSettings implements ICameraM
     @Override
     public void start(MinecraftClient client, Camera camera) {
         current = CameraTarget.fromCamera(camera);
-        lastStickYaw = CameraController.controlStick.getYaw();
-        Vec3d stickPos = CameraController.controlStick.getPosition();
-        startPlayerPosXZ = new Vec3d(stickPos.x, 0.0, stickPos.z);
-        orbitTargetXZ = new Vec3d(current.getPosition().x, 0.0, current.getPosition().z);
-        clampArmed = false;
+        lastStickYaw = followedStick().getYaw();
+        resetXZTracking();
         resetting = false;
         alpha = 1.0;
 
@@ -609,108 +627,131 @@ public class FollowMovement extends AbstractMovementSettings implements ICameraM
 
     @Override
     public MovementState calculateState(MinecraftClient client, Camera camera, float deltaSeconds) {
-        if (client.player == null) return new MovementState(current, true);
+        if (client.player == null) return state.set(current, true);
 
-        Vec3d stickPos = CameraController.controlStick.getPosition();
-        float stickYaw = CameraController.controlStick.getYaw();
-        float stickPitch = (float) (CameraController.controlStick.getPitch() + pitchOffset);
+        CameraTarget stick = followedStick();
+        float stickYaw = stick.getYaw();
+        float stickPitch = (float) (stick.getPitch() + pitchOffset);
 
-        Vec3d desiredPos;
         float targetYaw;
         float targetPitch;
         float targetFovDelta;
 
         if (resetting) {
-            Vec3d playerPos = client.player.getEyePos();
+            double playerX = client.player.getX();
+            double playerY = client.player.getEyeY();
+            double playerZ = client.player.getZ();
             targetYaw = client.player.getYaw();
             targetPitch = (float) (client.player.getPitch() + pitchOffset);
             targetFovDelta = 1.0f;
 
-            desiredPos = easedStep(current.getPosition(), playerPos, deltaSeconds, returnPositionEasingY, returnPositionSpeedLimitY);
+            easedStep(current.getX(), current.getY(), current.getZ(), playerX, playerY, playerZ,
+                    deltaSeconds, positionEasingXZ, returnPositionEasingY, returnPositionSpeedLimitY);
 
-            desiredPos = applyMinimumSpeedDuringReturn(
-                    current.getPosition(),
-                    desiredPos,
-                    playerPos,
+            applyMinimumSpeedInto(
+                    current.getX(), current.getY(), current.getZ(),
+                    stepX, stepY, stepZ,
+                    playerX, playerY, playerZ,
                     deltaSeconds,
                     client
             );
+            stepX = minSpeedX;
+            stepY = minSpeedY;
+            stepZ = minSpeedZ;
         } else {
             targetYaw = stickYaw;
             targetPitch = stickPitch;
             targetFovDelta = fovMultiplier;
 
-            Vec3d cur = current.getPosition();
-            Vec3d playerXZ = new Vec3d(stickPos.x, 0.0, stickPos.z);
+            double playerX = stick.getX();
+            double playerZ = stick.getZ();
 
             float deltaYaw = stickYaw - lastStickYaw;
             while (deltaYaw > 180f) deltaYaw -= 360f;
             while (deltaYaw < -180f) deltaYaw += 360f;
             lastStickYaw = stickYaw;
 
-            if (orbitTargetXZ == null) {
-                orbitTargetXZ = new Vec3d(cur.x, 0.0, cur.z);
+            if (!hasOrbitTarget) {
+                orbitX = current.getX();
+                orbitZ = current.getZ();
+                hasOrbitTarget = true;
             }
-            orbitTargetXZ = rotateAroundY(playerXZ, orbitTargetXZ, deltaYaw);
+            rotateOrbitAroundY(playerX, playerZ, deltaYaw);
 
-            if (!clampArmed && startPlayerPosXZ != null) {
-                double moved = horizontalDistanceXZ(playerXZ, startPlayerPosXZ);
+            if (!clampArmed && hasStartPlayerPos) {
+                double moved = horizontalDistanceXZ(playerX, playerZ, startPlayerX, startPlayerZ);
                 if (moved > 0.01) {
                     clampArmed = true;
                 }
             }
 
             if (clampArmed) {
-                orbitTargetXZ = clampDistanceXZ(playerXZ, orbitTargetXZ, xzThreshold);
+                clampOrbitDistanceXZ(playerX, playerZ, xzThreshold);
             }
-            Vec3d desiredCamXZ = orbitTargetXZ;
-            double desiredY = computeFollowY(stickPos.y, cur.y, followHeight, yThreshold, client.player.isOnGround());
+            double desiredY = computeFollowY(stick.getY(), current.getY(), followHeight, yThreshold, client.player.isOnGround());
 
-            Vec3d desiredRaw = new Vec3d(desiredCamXZ.x, desiredY, desiredCamXZ.z);
-            desiredPos = easedStep(cur, desiredRaw, deltaSeconds);
+            easedStep(current.getX(), current.getY(), current.getZ(), orbitX, desiredY, orbitZ, deltaSeconds,
+                    StickPredictor.compensatedEasing(positionEasingXZ, predictionHorizon),
+                    StickPredictor.compensatedEasing(positionEasingY, predictionHorizon), positionSpeedLimitY);
         }
 
         float newYaw = easedAngle(current.getYaw(), targetYaw, deltaSeconds);
         float newPitch = easedAngle(current.getPitch(), targetPitch, deltaSeconds);
         float newFovDelta = easedFov(current.getFovMultiplier(), targetFovDelta, deltaSeconds);
 
-        current = new CameraTarget(desiredPos, newYaw, newPitch, newFovDelta);
+        current.set(stepX, stepY, stepZ, newYaw, newPitch, Math.max(0.1f, newFovDelta));
 
         if (client.gameRenderer instanceof FovAccessor) {
             ((FovAccessor) client.gameRenderer).setFovModifier(current.getFovMultiplier());
         }
 
         boolean complete = resetting && isComplete();
-        return new MovementState(current, complete);
+        return state.set(current, complete);
     }
 
+    // The control stick, led by the prediction horizon when one is set
+    private CameraTarget followedStick() {
+        CameraTarget stick = CameraController.controlStick;
+        return predictionHorizon > 0.0 ? StickPredictor.predict(stick, predictionHorizon, predictedStick) : stick;
+    }
 
-    private Vec3d rotateAroundY(Vec3d centerXZ, Vec3d pointXZ, float deltaYawDegrees) {
-        if (Math.abs(deltaYawDegrees) < 1e-6f) return pointXZ;
+    private void resetXZTracking() {
+        CameraTarget stick = CameraController.controlStick;
+        startPlayerX = stick.getX();
+        startPlayerZ = stick.getZ();
+        hasStartPlayerPos = true;
+        orbitX = current.getX();
+        orbitZ = current.getZ();
+        hasOrbitTarget = true;
+        clampArmed = false;
+    }
+
+    private void rotateOrbitAroundY(double centerX, double centerZ, float deltaYawDegrees) {
+        if (Math.abs(deltaYawDegrees) < 1e-6f) return;
         double theta = Math.toRadians(deltaYawDegrees);
         double cos = Math.cos(theta);
         double sin = Math.sin(theta);
 
-        double ox = pointXZ.x - centerXZ.x;
-        double oz = pointXZ.z - centerXZ.z;
-
-        double rx = ox * cos - oz * sin;
-        double rz = ox * sin + oz * cos;
+        double ox = orbitX - centerX;
+        double oz = orbitZ - centerZ;
 
-        return new Vec3d(centerXZ.x + rx, 0.0, centerXZ.z + rz);
+        orbitX = centerX + (ox * cos - oz * sin);
+        orbitZ = centerZ + (ox * sin + oz * cos);
     }
 
-    private Vec3d clampDistanceXZ(Vec3d playerXZ, Vec3d cameraXZ, double threshold) {
-        Vec3d delta = new Vec3d(cameraXZ.x - playerXZ.x, 0.0, cameraXZ.z - playerXZ.z);
-        double dist = delta.length();
-        if (dist <= threshold || dist <= 1e-9) return cameraXZ;
-        Vec3d dir = delta.multiply(1.0 / dist);
-        return new Vec3d(playerXZ.x, 0.0, playerXZ.z).add(dir.multiply(threshold));
+    private void clampOrbitDistanceXZ(double playerX, double playerZ, double threshold) {
+        double dx = orbitX - playerX;
+        double dz = orbitZ - playerZ;
+        double dist = Math.sqrt(dx * dx + dz * dz);
+        if (dist <= threshold || dist <= 1e-9) return;
+        double scale = threshold / dist;
+        orbitX = playerX + dx * scale;
+        orbitZ = playerZ + dz * scale;
     }
 
-    private double horizontalDistanceXZ(Vec3d a, Vec3d b) {
-        double dx = a.x - b.x;
-        double dz = a.z - b.z;
+    private double horizontalDistanceXZ(double ax, double az, double bx, double bz) {
+        double dx = ax - bx;
+        double dz = az - bz;
         return Math.sqrt(dx * dx + dz * dz);
     }
 
@@ -725,31 +766,40 @@ public class FollowMovement extends AbstractMovementSettings implements ICameraM
         return currentY;
     }
 
-    private Vec3d easedStep(Vec3d currentPos, Vec3d targetPos, float deltaSeconds) {
-        return easedStep(currentPos, targetPos, deltaSeconds, positionEasingY, positionSpeedLimitY);
-    }
-
-    private Vec3d easedStep(Vec3d currentPos, Vec3d targetPos, float deltaSeconds, double easingY, double speedLimitY) {
-        Vec3d delta = targetPos.subtract(currentPos);
-        if (delta.lengthSquared() <= 1e-24) {
-            return currentPos;
+    // Writes the eased position into stepX/stepY/stepZ
+    private void easedStep(double curX, double curY, double curZ,
+                           double targetX, double targetY, double targetZ,
+                           float deltaSeconds, double easingXZ, double easingY, double speedLimitY) {
+        double dx = targetX - curX;
+        double dy = targetY - curY;
+        double dz = targetZ - curZ;
+        if (dx * dx + dy * dy + dz * dz <= 1e-24) {
+            stepX = curX;
+            stepY = curY;
+            stepZ = curZ;
+            return;
         }
 
-        Vec3d deltaXZ = new Vec3d(delta.x, 0.0, delta.z);
-        Vec3d moveXZ = deltaXZ.multiply(positionEasingXZ);
+        double stepXZ = Easing.factor(easingXZ, deltaSeconds);
+        double moveX = dx * stepXZ;
+        double moveZ = dz * stepXZ;
         double maxMoveXZ = positionSpeedLimitXZ * deltaSeconds;
-        double moveXZLength = moveXZ.length();
+        double moveXZLength = Math.sqrt(moveX * moveX + moveZ * moveZ);
         if (moveXZLength > maxMoveXZ && moveXZLength > 1e-12) {
-            moveXZ = moveXZ.multiply(maxMoveXZ / moveXZLength);
+            double scale = maxMoveXZ / moveXZLength;
+            moveX *= scale;
+            moveZ *= scale;
         }
 
-        double moveY = delta.y * easingY;
+        double moveY = dy * Easing.factor(easingY, deltaSeconds);
         double maxMoveY = speedLimitY * deltaSeconds;
         if (Math.abs(moveY) > maxMoveY) {
             moveY = Math.copySign(maxMoveY, moveY);
         }
 
-        return currentPos.add(moveXZ.x, moveY, moveXZ.z);
+        stepX = curX + moveX;
+        stepY = curY + moveY;
+        stepZ = curZ + moveZ;
     }
 
     private float easedAngle(float currentAngle, float targetAngle, float deltaSeconds) {
@@ -757,7 +807,7 @@ public class FollowMovement extends AbstractMovementSettings implements ICameraM
         while (err > 180) err -= 360;
         while (err < -180) err += 360;
 
-        float desiredSpeed = (float) (err * rotationEasing);
+        float desiredSpeed = (float) (err * Easing.factor(rotationEasing, deltaSeconds));
         float maxRotation = (float) (rotationSpeedLimit * deltaSeconds);
         if (Math.abs(desiredSpeed) > maxRotation) desiredSpeed = Math.signum(desiredSpeed) * maxRotation;
         return currentAngle + desiredSpeed;
@@ -768,7 +818,7 @@ public class FollowMovement extends AbstractMovementSettings implements ICameraM
         float absFovError = Math.abs(fovError);
         float adaptiveFovEasing = (float) (fovEasing * (0.5 + 0.5 * (absFovError / 0.1f)));
         if (adaptiveFovEasing > fovEasing) adaptiveFovEasing = (float) fovEasing;
-        float desiredFovSpeed = fovError * adaptiveFovEasing;
+        float desiredFovSpeed = fovError * (float) Easing.factor(adaptiveFovEasing, deltaSeconds);
 
         float maxFovChange = (float) (fovSpeedLimit * deltaSeconds);
         if (Math.abs(desiredFovSpeed) > maxFovChange) desiredFovSpeed = Math.signum(desiredFovSpeed) * maxFovChange;
@@ -796,11 +846,8 @@ public class FollowMovement extends AbstractMovementSettings implements ICameraM
         if (camera != null) {
             current = CameraTarget.fromCamera(camera);
         }
-        Vec3d stickPos = CameraController.controlStick.getPosition();
-        lastStickYaw = CameraController.controlStick.getYaw();
-        startPlayerPosXZ = new Vec3d(stickPos.x, 0.0, stickPos.z);
-        orbitTargetXZ = new Vec3d(current.getPosition().x, 0.0, current.getPosition().z);
-        clampArmed = false;
+        lastStickYaw = followedStick().getYaw();
+        resetXZTracking();
         alpha = 1.0;
     }
 
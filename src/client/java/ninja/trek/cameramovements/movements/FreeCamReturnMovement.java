@@ -81,7 +81,7 @@ public class FreeCamReturnMovement extends AbstractMovementSettings implements I
         Vec3d delta = end.getPosition().subtract(current.getPosition());
         double deltaLength = delta.length();
         double maxMove = positionSpeedLimit * (deltaSeconds);
-        Vec3d move = deltaLength > 0 ? delta.multiply(positionEasing) : Vec3d.ZERO;
+        Vec3d move = deltaLength > 0 ? delta.multiply(Easing.factor(positionEasing, deltaSeconds)) : Vec3d.ZERO;
         if (move.length() > maxMove) move = move.normalize().multiply(maxMove);
         Vec3d desiredPos = current.getPosition().add(move);
 
@@ -98,8 +98,9 @@ public class FreeCamReturnMovement extends AbstractMovementSettings implements I
         while (yawError > 180) yawError -= 360;
         while (yawError < -180) yawError += 360;
         float pitchError = targetPitch - current.getPitch();
-        float desiredYawSpeed = (float) (yawError * rotationEasing);
-        float desiredPitchSpeed = (float) (pitchError * rotationEasing);
+        double rotationStep = Easing.factor(rotationEasing, deltaSeconds);
+        float desiredYawSpeed = (float) (yawError * rotationStep);
+        float desiredPitchSpeed = (float) (pitchError * rotationStep);
         float maxRot = (float) (rotationSpeedLimit * (deltaSeconds));
         if (Math.abs(desiredYawSpeed) > maxRot) desiredYawSpeed = Math.signum(desiredYawSpeed) * maxRot;
         if (Math.abs(desiredPitchSpeed) > maxRot) desiredPitchSpeed = Math.signum(desiredPitchSpeed) * maxRot;
@@ -111,7 +112,7 @@ public class FreeCamReturnMovement extends AbstractMovementSettings implements I
         float absFovError = Math.abs(fovError);
         float adaptiveFovEasing = (float) (fovEasing * (0.5 + 0.5 * (absFovError / 0.1)));
         if (adaptiveFovEasing > fovEasing) adaptiveFovEasing = (float) fovEasing;
-        float desiredFovSpeed = fovError * adaptiveFovEasing;
+        float desiredFovSpeed = fovError * (float) Easing.factor(adaptiveFovEasing, deltaSeconds);
         float maxFovChange = (float) (fovSpeedLimit * (deltaSeconds));
         if (Math.abs(desiredFovSpeed) > maxFovChange) desiredFovSpeed = Math.signum(desiredFovSpeed) * maxFovChange;
         float newFov = (float) (current.getFovMultiplier() + desiredFovSpeed);
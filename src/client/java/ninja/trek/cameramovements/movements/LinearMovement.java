@@ -35,9 +35,18 @@ public class LinearMovement extends AbstractMovementSettings implements ICameraM
     @MovementSetting(label = "Max Distance", min = 10.0, max = 50.0)
     private double maxDistance = 20.0;
 
+    @MovementSetting(
+            label = "Prediction Horizon",
+            min = 0.0,
+            max = 1.0,
+            description = "Seconds ahead of the player to aim at, extrapolated from their motion; 0 follows the player as is"
+    )
+    private double predictionHorizon = 0.0;
+
     public CameraTarget start = new CameraTarget();
     private CameraTarget end = new CameraTarget();
     public CameraTarget current = new CameraTarget();
+    private final CameraTarget predictedStick = new CameraTarget();
 
     private boolean resetting = false;
     private boolean distanceChanged = false;
@@ -96,9 +105,11 @@ public class LinearMovement extends AbstractMovementSettings implements ICameraM
 
         // Update end target based on controlStick and target distance
         if (!resetting) {
-            Vec3d targetPos = calculateTargetPosition(CameraController.controlStick);
-            end = new CameraTarget(targetPos, CameraController.controlStick.getYaw(),
-                    CameraController.controlStick.getPitch(), end.getFovMultiplier());
+            CameraTarget stick = predictionHorizon > 0.0
+                    ? StickPredictor.predict(CameraController.controlStick, predictionHorizon, predictedStick)
+                    : CameraController.controlStick;
+            Vec3d targetPos = calculateTargetPosition(stick);
+            end = new CameraTarget(targetPos, stick.getYaw(), stick.getPitch(), end.getFovMultiplier());
         }
 
         CameraTarget a = resetting ? end : start;
@@ -118,7 +129,8 @@ public class LinearMovement extends AbstractMovementSettings implements ICameraM
         double maxMove = positionSpeedLimit * (deltaSeconds);
         Vec3d move;
         if (deltaLength > 0) {
-            move = delta.multiply(positionEasing);
+            double easing = resetting ? positionEasing : StickPredictor.compensatedEasing(positionEasing, predictionHorizon);
+            move = delta.multiply(Easing.factor(easing, deltaSeconds));
             if (move.length() > maxMove) {
                 move = move.normalize().multiply(maxMove);
             }
@@ -160,8 +172,9 @@ public class LinearMovement extends AbstractMovementSettings implements ICameraM
         while (yawError > 180) yawError -= 360;
         while (yawError < -180) yawError += 360;
 
-        float desiredYawSpeed = (float)(yawError * rotationEasing);
-        float desiredPitchSpeed = (float)(pitchError * rotationEasing);
+        double rotationStep = Easing.factor(rotationEasing, deltaSeconds);
+        float desiredYawSpeed = (float)(yawError * rotationStep);
+        float desiredPitchSpeed = (float)(pitchError * rotationStep);
 
         // Jitter suppression when fully out (near target) while player moves
         if (!resetting && client.player != null) {
@@ -202,7 +215,7 @@ public class LinearMovement extends AbstractMovementSettings implements ICameraM
         float absFovError = Math.abs(fovError);
         float adaptiveFovEasing = (float) (fovEasing * (0.5 + 0.5 * (absFovError / 0.1)));
         if (adaptiveFovEasing > fovEasing) adaptiveFovEasing = (float)fovEasing;
-        float desiredFovSpeed = fovError * adaptiveFovEasing;
+        float desiredFovSpeed = fovError * (float) Easing.factor(adaptiveFovEasing, deltaSeconds);
 
         // Apply speed limits
         float maxRotation = (float)(rotationSpeedLimit * (deltaSeconds));
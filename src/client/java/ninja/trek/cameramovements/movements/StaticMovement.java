@@ -6,6 +6,7 @@ import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Vec3d;
 import ninja.trek.cameramovements.*;
 import ninja.trek.nodes.NodeManager;
+import ninja.trek.nodes.model.AreaMovementBinding;
 import ninja.trek.nodes.model.AreaMovementConfig;
 import ninja.trek.nodes.model.CameraNode;
 
@@ -80,38 +81,59 @@ public class StaticMovement extends AbstractMovementSettings implements ICameraM
     }
 
     public static CameraTarget resolveTarget(NodeManager manager, AreaMovementConfig config, CameraTarget base) {
+        return resolveTarget(manager, config, base, new CameraTarget());
+    }
+
+    /** Same as {@link #resolveTarget(NodeManager, AreaMovementConfig, CameraTarget)} but writes into {@code out}. */
+    public static CameraTarget resolveTarget(NodeManager manager, AreaMovementConfig config, CameraTarget base, CameraTarget out) {
         if (manager == null || config == null) return null;
 
-        UUID posId = parseUuid(config.settings.get("positionNodeId"));
-        if (posId == null) return null;
-        CameraNode positionNode = manager.getNode(posId);
-        if (positionNode == null || positionNode.position == null) return null;
+        AreaMovementBinding binding = manager.getMovementBinding(config);
+        if (binding == null || !binding.isResolved()) return null;
 
-        Vec3d position = positionNode.position;
-        float yaw = base != null ? base.getYaw() : 0f;
-        float pitch = base != null ? base.getPitch() : 0f;
-        float fov = base != null ? base.getFovMultiplier() : 1.0f;
+        float yaw = binding.hasLook ? binding.lookYaw : (base != null ? base.getYaw() : 0f);
+        float pitch = binding.hasLook ? binding.lookPitch : (base != null ? base.getPitch() : 0f);
+        float fov = binding.hasFov ? binding.fovMultiplier : (base != null ? base.getFovMultiplier() : 1.0f);
+        Vec3d position = binding.position;
+        out.set(position.x, position.y, position.z, yaw, pitch, Math.max(0.1f, fov));
+        return out;
+    }
+
+    /**
+     * Parses the config's node ids and settings and resolves them against the manager's nodes.
+     * Called only when the config has no binding yet or its binding is stale.
+     */
+    public static AreaMovementBinding compileBinding(NodeManager manager, AreaMovementConfig config, long nodeRevision) {
+        UUID posId = parseUuid(config.settings.get("positionNodeId"));
+        CameraNode positionNode = posId != null ? manager.getNode(posId) : null;
+        if (positionNode != null && positionNode.position == null) positionNode = null;
 
+        boolean hasLook = false;
+        float yaw = 0f;
+        float pitch = 0f;
         UUID lookId = parseUuid(config.settings.get("lookNodeId"));
-        if (lookId != null) {
+        if (positionNode != null && lookId != null) {
             CameraNode lookNode = manager.getNode(lookId);
             if (lookNode != null && lookNode.position != null) {
-                Vec3d dir = lookNode.position.subtract(position);
+                Vec3d dir = lookNode.position.subtract(positionNode.position);
                 if (dir.lengthSquared() > 1e-6) {
                     dir = dir.normalize();
                     yaw = (float) Math.toDegrees(Math.atan2(dir.x, dir.z));
                     pitch = (float) (-Math.toDegrees(Math.asin(MathHelper.clamp(dir.y, -1.0, 1.0))));
+                    hasLook = true;
                 }
             }
         }
 
+        boolean hasFov = false;
+        float fov = 1.0f;
         Object fovSetting = config.settings.get("fovMultiplier");
         if (fovSetting instanceof Number number) {
             fov = Math.max(0.1f, number.floatValue());
+            hasFov = true;
         }
 
-        float ortho = base != null ? base.getOrthoFactor() : 0f;
-        return new CameraTarget(position, yaw, pitch, fov, ortho);
+        return new AreaMovementBinding(nodeRevision, positionNode, hasLook, yaw, pitch, hasFov, fov);
     }
 
     private static UUID parseUuid(Object value) {
@@ -4,6 +4,7 @@ import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.render.Camera;
 import ninja.trek.cameramovements.AbstractMovementSettings;
 import ninja.trek.cameramovements.CameraTarget;
+import ninja.trek.cameramovements.Easing;
 import ninja.trek.cameramovements.ICameraMovement;
 import ninja.trek.cameramovements.MovementState;
 import ninja.trek.config.MovementSetting;
@@ -63,7 +64,7 @@ public class ZoomMovement extends AbstractMovementSettings implements ICameraMov
 
         // Calculate desired change based on error and easing
         float fovError = targetFov - currentFov;
-        float desiredSpeed = fovError * (float) zoomFovEasing;
+        float desiredSpeed = fovError * (float) Easing.factor(zoomFovEasing, deltaSeconds);
 
         // Apply speed limit
         float maxSpeed = (float) (zoomFovSpeedLimit * deltaSeconds);
@@ -27,6 +27,10 @@ public class GeneralMenuSettings {
     private static boolean cameraCrosshairSquare = false;
     // Node overlay visibility outside edit mode
     private static boolean showNodesOutsideEdit = false;
+    // Legacy fallback: render every loaded section while the camera is detached
+    private static boolean disableCullingWhenDetached = false;
+    // Steps per second the camera movements are simulated at; frames interpolate in between
+    private static int cameraSimulationRate = 60;
 
     // Spectator target player following settings
     private static String targetPlayerName = "";  // Empty = use local player
@@ -102,6 +106,16 @@ public class GeneralMenuSettings {
     public static boolean isShowNodesOutsideEdit() { return showNodesOutsideEdit; }
     public static void setShowNodesOutsideEdit(boolean value) { showNodesOutsideEdit = value; }
 
+    // Chunk culling
+    public static boolean isDisableCullingWhenDetached() { return disableCullingWhenDetached; }
+    public static void setDisableCullingWhenDetached(boolean value) { disableCullingWhenDetached = value; }
+
+    // Camera simulation rate
+    public static int getCameraSimulationRate() { return cameraSimulationRate; }
+    public static void setCameraSimulationRate(int value) {
+        cameraSimulationRate = Math.max(20, Math.min(240, value));
+    }
+
     // Spectator target player settings
     public static String getTargetPlayerName() { return targetPlayerName; }
     public static void setTargetPlayerName(String name) {
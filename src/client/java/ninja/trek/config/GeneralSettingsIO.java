@@ -54,6 +54,8 @@ public class GeneralSettingsIO {
                 settingsObj.addProperty("cameraCrosshairSquare", GeneralMenuSettings.isCameraCrosshairSquare());
                 // Save nodes overlay toggle
                 settingsObj.addProperty("showNodesOutsideEdit", GeneralMenuSettings.isShowNodesOutsideEdit());
+                settingsObj.addProperty("disableCullingWhenDetached", GeneralMenuSettings.isDisableCullingWhenDetached());
+                settingsObj.addProperty("cameraSimulationRate", GeneralMenuSettings.getCameraSimulationRate());
                 
                 // Save FreeCamReturnMovement settings
                 JsonObject freeCamReturnObj = new JsonObject();
@@ -341,6 +343,12 @@ public class GeneralSettingsIO {
             if (settingsObj.has("showNodesOutsideEdit")) {
                 try { GeneralMenuSettings.setShowNodesOutsideEdit(settingsObj.get("showNodesOutsideEdit").getAsBoolean()); } catch (Exception ignored) {}
             }
+            if (settingsObj.has("disableCullingWhenDetached")) {
+                try { GeneralMenuSettings.setDisableCullingWhenDetached(settingsObj.get("disableCullingWhenDetached").getAsBoolean()); } catch (Exception ignored) {}
+            }
+            if (settingsObj.has("cameraSimulationRate")) {
+                try { GeneralMenuSettings.setCameraSimulationRate(settingsObj.get("cameraSimulationRate").getAsInt()); } catch (Exception ignored) {}
+            }
 
             // Load autoAdvance
             if (settingsObj.has("autoAdvance")) {
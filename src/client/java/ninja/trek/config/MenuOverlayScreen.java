@@ -282,6 +282,45 @@ public class MenuOverlayScreen extends Screen {
 
         yOffset += spacing;
 
+        // Fallback for setups where culling from the detached camera misbehaves
+        this.addDrawableChild(CheckboxWidget.builder(Text.literal("Disable Chunk Culling While Detached"), this.textRenderer)
+                .pos(buttonX, baseY + yOffset)
+                .checked(GeneralMenuSettings.isDisableCullingWhenDetached())
+                .callback((checkbox, checked) -> {
+                    GeneralMenuSettings.setDisableCullingWhenDetached(checked);
+                    GeneralSettingsIO.saveSettings();
+                })
+                .build());
+
+        yOffset += spacing;
+
+        // Camera simulation rate slider
+        this.addDrawableChild(ButtonWidget.builder(Text.literal("Camera Simulation Rate"), button -> {})
+                .dimensions(buttonX, baseY + yOffset, labelWidth, BUTTON_HEIGHT)
+                .build());
+        this.addDrawableChild(SettingWidget.createSlider(
+                buttonX + labelWidth + 10,
+                baseY + yOffset,
+                controlWidth,
+                BUTTON_HEIGHT,
+                Text.literal("Camera Simulation Rate"),
+                20f,
+                240f,
+                GeneralMenuSettings.getCameraSimulationRate(),
+                "cameraSimulationRate",
+                new AbstractMovementSettings() {
+                    @Override
+                    public void updateSetting(String key, Object value) {
+                        if (key.equals("cameraSimulationRate") && value instanceof Number) {
+                            GeneralMenuSettings.setCameraSimulationRate(((Number) value).intValue());
+                            GeneralSettingsIO.saveSettings();
+                        }
+                    }
+                }
+        ));
+
+        yOffset += spacing;
+
         // Enforce Minimum Speed Checkbox
         this.addDrawableChild(CheckboxWidget.builder(Text.literal("Enforce Minimum Speed During Return"), this.textRenderer)
                 .pos(buttonX, baseY + yOffset)
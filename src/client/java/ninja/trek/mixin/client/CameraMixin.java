@@ -7,6 +7,7 @@ import net.minecraft.client.MinecraftClient;
 import ninja.trek.CameraController;
 import ninja.trek.CraneshotClient;
 import ninja.trek.camera.CameraSystem;
+import ninja.trek.util.ChunkRebuildScheduler;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
@@ -51,5 +52,7 @@ public class CameraMixin {
         float frameSeconds = deltaTicks / 20.0f;
         previousTickDelta = tickDelta;
         CraneshotClient.CAMERA_CONTROLLER.handleCameraUpdate(area, focusedEntity, thirdPerson, inverseView, tickDelta, frameSeconds, (Camera)(Object)this);
+        cameraSystem.updateChunkCulling((Camera)(Object)this);
+        ChunkRebuildScheduler.tick(MinecraftClient.getInstance());
     }
 }
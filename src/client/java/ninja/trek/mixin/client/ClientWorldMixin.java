@@ -0,0 +1,21 @@
+package ninja.trek.mixin.client;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.util.math.BlockPos;
+import ninja.trek.cameramovements.CollisionCache;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(ClientWorld.class)
+public class ClientWorldMixin {
+    @Inject(
+            method = "updateListeners(Lnet/minecraft/util/math/BlockPos;Lnet/minecraft/block/BlockState;Lnet/minecraft/block/BlockState;I)V",
+            at = @At("HEAD")
+    )
+    private void craneshot$invalidateCollisionCache(BlockPos pos, BlockState oldState, BlockState newState, int flags, CallbackInfo ci) {
+        CollisionCache.onBlockChanged((ClientWorld) (Object) this, pos);
+    }
+}
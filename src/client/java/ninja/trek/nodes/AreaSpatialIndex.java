@@ -0,0 +1,290 @@
+package ninja.trek.nodes;
+
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.Vec3d;
+import ninja.trek.nodes.model.AreaInstance;
+import ninja.trek.nodes.model.AreaShape;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Uniform XZ grid over the outer bounds of each area so influence evaluation only has to
+ * look at areas that can actually reach a given position.
+ * Areas whose influence has no finite extent (legacy non-advanced cubes, which fall off
+ * asymptotically past their outer radius) or that would cover too many cells are kept in
+ * a global bucket that is always returned.
+ */
+final class AreaSpatialIndex {
+    private static final int CELL_SHIFT = 5; // 32-block cells
+    private static final int MAX_CELLS_PER_AREA = 1024;
+
+    private final Map<Long, List<Entry>> cells = new HashMap<>();
+    private final Map<UUID, Entry> entries = new HashMap<>();
+    private final List<Entry> global = new ArrayList<>();
+    private int rayStamp = 0;
+
+    void clear() {
+        cells.clear();
+        entries.clear();
+        global.clear();
+    }
+
+    void rebuild(List<AreaInstance> areas) {
+        clear();
+        for (AreaInstance area : areas) {
+            add(area);
+        }
+    }
+
+    void add(AreaInstance area) {
+        if (area == null || area.id == null) return;
+        remove(area.id);
+        Entry entry = createEntry(area);
+        entries.put(area.id, entry);
+        if (entry.global) {
+            global.add(entry);
+            return;
+        }
+        for (int cx = entry.minCellX; cx <= entry.maxCellX; cx++) {
+            for (int cz = entry.minCellZ; cz <= entry.maxCellZ; cz++) {
+                cells.computeIfAbsent(ChunkPos.toLong(cx, cz), k -> new ArrayList<>(4)).add(entry);
+            }
+        }
+    }
+
+    void update(AreaInstance area) {
+        add(area);
+    }
+
+    void remove(UUID areaId) {
+        if (areaId == null) return;
+        Entry entry = entries.remove(areaId);
+        if (entry == null) return;
+        if (entry.global) {
+            global.remove(entry);
+            return;
+        }
+        for (int cx = entry.minCellX; cx <= entry.maxCellX; cx++) {
+            for (int cz = entry.minCellZ; cz <= entry.maxCellZ; cz++) {
+                long key = ChunkPos.toLong(cx, cz);
+                List<Entry> bucket = cells.get(key);
+                if (bucket == null) continue;
+                bucket.remove(entry);
+                if (bucket.isEmpty()) cells.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Collects the areas whose outer bounds contain {@code pos} into {@code out}.
+     * The list is cleared first; callers may reuse it between frames.
+     */
+    void query(Vec3d pos, List<AreaInstance> out) {
+        out.clear();
+        for (Entry entry : global) {
+            out.add(entry.area);
+        }
+        List<Entry> bucket = cells.get(ChunkPos.toLong(toCell(pos.x), toCell(pos.z)));
+        if (bucket == null) return;
+        for (Entry entry : bucket) {
+            if (entry.contains(pos)) out.add(entry.area);
+        }
+    }
+
+    /**
+     * The area whose outer shell the ray from {@code origin} along the unit vector {@code dir} meets
+     * first within {@code maxDistance}, walking only the cells under the ray. From inside an area its far
+     * side counts, so areas nested inside it can still be picked.
+     */
+    AreaInstance raycast(Vec3d origin, Vec3d dir, double maxDistance) {
+        int stamp = ++rayStamp;
+        AreaInstance best = null;
+        double bestT = maxDistance;
+        for (Entry entry : global) {
+            double t = intersect(entry.area, origin, dir);
+            if (t < bestT) {
+                bestT = t;
+                best = entry.area;
+            }
+        }
+
+        // Grid walk over the XZ cells the ray crosses, nearest first
+        double cellSize = 1 << CELL_SHIFT;
+        int cellX = toCell(origin.x);
+        int cellZ = toCell(origin.z);
+        int stepX = dir.x > 0 ? 1 : -1;
+        int stepZ = dir.z > 0 ? 1 : -1;
+        double tDeltaX = dir.x != 0 ? cellSize / Math.abs(dir.x) : Double.POSITIVE_INFINITY;
+        double tDeltaZ = dir.z != 0 ? cellSize / Math.abs(dir.z) : Double.POSITIVE_INFINITY;
+        double tMaxX = dir.x != 0 ? ((cellX + (dir.x > 0 ? 1 : 0)) * cellSize - origin.x) / dir.x : Double.POSITIVE_INFINITY;
+        double tMaxZ = dir.z != 0 ? ((cellZ + (dir.z > 0 ? 1 : 0)) * cellSize - origin.z) / dir.z : Double.POSITIVE_INFINITY;
+        double tEnter = 0.0;
+        // A hit lies in the cell the ray is crossing at that point, so later cells cannot beat it
+        while (tEnter <= bestT) {
+            List<Entry> bucket = cells.get(ChunkPos.toLong(cellX, cellZ));
+            if (bucket != null) {
+                for (Entry entry : bucket) {
+                    if (entry.rayStamp == stamp) continue;
+                    entry.rayStamp = stamp;
+                    double t = intersect(entry.area, origin, dir);
+                    if (t < bestT) {
+                        bestT = t;
+                        best = entry.area;
+                    }
+                }
+            }
+            if (tMaxX < tMaxZ) {
+                tEnter = tMaxX;
+                tMaxX += tDeltaX;
+                cellX += stepX;
+            } else {
+                tEnter = tMaxZ;
+                tMaxZ += tDeltaZ;
+                cellZ += stepZ;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * {@link #raycast} over every area in {@code areas}, for when they may have been reshaped since they
+     * were indexed.
+     */
+    static AreaInstance raycastAll(List<AreaInstance> areas, Vec3d origin, Vec3d dir, double maxDistance) {
+        AreaInstance best = null;
+        double bestT = maxDistance;
+        for (AreaInstance area : areas) {
+            double t = intersect(area, origin, dir);
+            if (t < bestT) {
+                bestT = t;
+                best = area;
+            }
+        }
+        return best;
+    }
+
+    /** Distance along the ray to the area's outer shell, or infinity if it is missed or behind. */
+    private static double intersect(AreaInstance area, Vec3d origin, Vec3d dir) {
+        if (area.center == null) return Double.POSITIVE_INFINITY;
+        double rx, ry, rz;
+        if (area.advanced && area.insideRadii != null && area.outsideRadii != null) {
+            rx = Math.max(area.insideRadii.x, area.outsideRadii.x);
+            ry = Math.max(area.insideRadii.y, area.outsideRadii.y);
+            rz = Math.max(area.insideRadii.z, area.outsideRadii.z);
+        } else {
+            rx = ry = rz = Math.max(area.insideRadius, area.outsideRadius);
+        }
+        if (!(rx > 1e-6 && ry > 1e-6 && rz > 1e-6)) return Double.POSITIVE_INFINITY;
+        double ox = origin.x - area.center.x;
+        double oy = origin.y - area.center.y;
+        double oz = origin.z - area.center.z;
+        double near, far;
+        if (area.shape == AreaShape.CUBE) {
+            near = Double.NEGATIVE_INFINITY;
+            far = Double.POSITIVE_INFINITY;
+            double[] o = {ox, oy, oz};
+            double[] d = {dir.x, dir.y, dir.z};
+            double[] r = {rx, ry, rz};
+            for (int axis = 0; axis < 3; axis++) {
+                if (d[axis] == 0) {
+                    if (Math.abs(o[axis]) > r[axis]) return Double.POSITIVE_INFINITY;
+                    continue;
+                }
+                double t1 = (-r[axis] - o[axis]) / d[axis];
+                double t2 = (r[axis] - o[axis]) / d[axis];
+                near = Math.max(near, Math.min(t1, t2));
+                far = Math.min(far, Math.max(t1, t2));
+            }
+            if (near > far) return Double.POSITIVE_INFINITY;
+        } else {
+            // Scale the ellipsoid to a unit sphere; t is unchanged by the scaling
+            double sx = ox / rx, sy = oy / ry, sz = oz / rz;
+            double dx = dir.x / rx, dy = dir.y / ry, dz = dir.z / rz;
+            double a = dx * dx + dy * dy + dz * dz;
+            double b = sx * dx + sy * dy + sz * dz;
+            double c = sx * sx + sy * sy + sz * sz - 1.0;
+            double disc = b * b - a * c;
+            if (disc < 0) return Double.POSITIVE_INFINITY;
+            double root = Math.sqrt(disc);
+            near = (-b - root) / a;
+            far = (-b + root) / a;
+        }
+        if (near > 0) return near;
+        return far > 0 ? far : Double.POSITIVE_INFINITY;
+    }
+
+    private static Entry createEntry(AreaInstance area) {
+        Vec3d center = area.center;
+        if (center == null) return new Entry(area);
+        boolean perAxis = area.advanced && area.insideRadii != null && area.outsideRadii != null;
+        if (!perAxis && area.shape != AreaShape.SPHERE && area.outsideRadius > area.insideRadius) {
+            return new Entry(area);
+        }
+        double rx, ry, rz;
+        if (perAxis) {
+            rx = Math.max(area.insideRadii.x, area.outsideRadii.x);
+            ry = Math.max(area.insideRadii.y, area.outsideRadii.y);
+            rz = Math.max(area.insideRadii.z, area.outsideRadii.z);
+        } else {
+            rx = ry = rz = Math.max(area.insideRadius, area.outsideRadius);
+        }
+        if (!Double.isFinite(rx) || !Double.isFinite(ry) || !Double.isFinite(rz)
+                || !Double.isFinite(center.x) || !Double.isFinite(center.y) || !Double.isFinite(center.z)) {
+            return new Entry(area);
+        }
+        rx = Math.max(0.0, rx);
+        ry = Math.max(0.0, ry);
+        rz = Math.max(0.0, rz);
+        Entry entry = new Entry(area,
+                center.x - rx, center.y - ry, center.z - rz,
+                center.x + rx, center.y + ry, center.z + rz);
+        long cellCount = (long) (entry.maxCellX - entry.minCellX + 1) * (long) (entry.maxCellZ - entry.minCellZ + 1);
+        return cellCount > MAX_CELLS_PER_AREA ? new Entry(area) : entry;
+    }
+
+    private static int toCell(double coord) {
+        return (int) Math.floor(coord) >> CELL_SHIFT;
+    }
+
+    private static final class Entry {
+        final AreaInstance area;
+        final boolean global;
+        final double minX, minY, minZ, maxX, maxY, maxZ;
+        final int minCellX, minCellZ, maxCellX, maxCellZ;
+        // Last raycast that tested this entry
+        int rayStamp;
+
+        Entry(AreaInstance area) {
+            this.area = area;
+            this.global = true;
+            this.minX = this.minY = this.minZ = Double.NEGATIVE_INFINITY;
+            this.maxX = this.maxY = this.maxZ = Double.POSITIVE_INFINITY;
+            this.minCellX = this.minCellZ = this.maxCellX = this.maxCellZ = 0;
+        }
+
+        Entry(AreaInstance area, double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+            this.area = area;
+            this.global = false;
+            this.minX = minX;
+            this.minY = minY;
+            this.minZ = minZ;
+            this.maxX = maxX;
+            this.maxY = maxY;
+            this.maxZ = maxZ;
+            this.minCellX = toCell(minX);
+            this.minCellZ = toCell(minZ);
+            this.maxCellX = toCell(maxX);
+            this.maxCellZ = toCell(maxZ);
+        }
+
+        boolean contains(Vec3d pos) {
+            return pos.x >= minX && pos.x <= maxX
+                    && pos.y >= minY && pos.y <= maxY
+                    && pos.z >= minZ && pos.z <= maxZ;
+        }
+    }
+}
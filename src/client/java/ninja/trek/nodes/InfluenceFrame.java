@@ -0,0 +1,79 @@
+package ninja.trek.nodes;
+
+import net.minecraft.util.math.Vec3d;
+import ninja.trek.cameramovements.CameraTarget;
+import ninja.trek.nodes.model.AreaInstance;
+import ninja.trek.nodes.model.AreaMovementConfig;
+
+import java.util.List;
+
+/**
+ * Result of evaluating area influence once for a rendered frame.
+ * Shared by the camera controller (blend + activation) and the HUD so the per-area math and
+ * player state collection only run once per frame.
+ */
+public final class InfluenceFrame {
+    static final InfluenceFrame EMPTY = new InfluenceFrame(-1L, -1L, null,
+            NodeManager.PlayerStateSnapshot.noPlayer(), List.of(), 0.0, null, null);
+
+    private final long tick;
+    private final long frame;
+    private final Vec3d position;
+    private final NodeManager.PlayerStateSnapshot playerStates;
+    private final List<AreaSample> samples;
+    private final double totalWeight;
+    private final CameraTarget baseTarget;
+    private final CameraTarget blendedTarget;
+
+    InfluenceFrame(long tick,
+                   long frame,
+                   Vec3d position,
+                   NodeManager.PlayerStateSnapshot playerStates,
+                   List<AreaSample> samples,
+                   double totalWeight,
+                   CameraTarget baseTarget,
+                   CameraTarget blendedTarget) {
+        this.tick = tick;
+        this.frame = frame;
+        this.position = position;
+        this.playerStates = playerStates;
+        this.samples = samples;
+        this.totalWeight = totalWeight;
+        this.baseTarget = baseTarget;
+        this.blendedTarget = blendedTarget;
+    }
+
+    /** World time the frame was evaluated in. */
+    public long getTick() { return tick; }
+    /** Monotonic frame counter assigned by {@link NodeManager}. */
+    public long getFrame() { return frame; }
+    /** Position influence was evaluated at (the player's eye position), or null without a player. */
+    public Vec3d getPosition() { return position; }
+    public NodeManager.PlayerStateSnapshot getPlayerStates() { return playerStates; }
+    /**
+     * Areas that passed their state filters and have a non-zero influence, in the order they were
+     * visited: area list order while editing, otherwise the spatial index's query order (areas too big
+     * for the grid first, then the entries of the position's cell). The order can change as the player
+     * crosses into another cell.
+     */
+    public List<AreaSample> getSamples() { return samples; }
+    /**
+     * Raw sum of the clamped, eased area weights. Can exceed 1.0 where areas overlap;
+     * the blend normalizes it, but the raw value is what activation logic looks at.
+     */
+    public double getTotalWeight() { return totalWeight; }
+    public CameraTarget getBaseTarget() { return baseTarget; }
+    /** Base target blended with area movements, or the base target itself when nothing applied. */
+    public CameraTarget getBlendedTarget() { return blendedTarget; }
+
+    /**
+     * Influence of a single area for this frame.
+     *
+     * @param rawInfluence geometric influence before easing
+     * @param weight       eased influence clamped to 0..1
+     * @param movements    enabled movements whose state filters matched; empty when the area weight
+     *                     was too small to contribute
+     */
+    public record AreaSample(AreaInstance area, double rawInfluence, double weight, List<AreaMovementConfig> movements) {
+    }
+}
@@ -10,17 +10,24 @@ import net.minecraft.world.World;
 import ninja.trek.Craneshot;
 import ninja.trek.cameramovements.CameraTarget;
 import ninja.trek.cameramovements.movements.StaticMovement;
+import ninja.trek.nodes.io.ChunkNodeCache;
 import ninja.trek.nodes.io.NodeStorage;
 import ninja.trek.nodes.model.*;
 import ninja.trek.nodes.network.ClientNodeNetworking;
+import ninja.trek.nodes.network.NodeWireCodec;
+import ninja.trek.nodes.network.payload.BulkEditRequestPayload;
+import ninja.trek.nodes.render.NodePicker;
 
 import java.util.*;
 
 public class NodeManager {
     private static final NodeManager INSTANCE = new NodeManager();
     public static NodeManager get() { return INSTANCE; }
+    // How close to a node the cursor has to be for hover and click selection
+    private static final double PICK_RADIUS_PX = 12.0;
+    private static final double AREA_PICK_DISTANCE = 512.0;
 
-    private final List<CameraNode> nodes = new ArrayList<>();
+    private final NodeStore nodes = new NodeStore();
     private final List<AreaInstance> areas = new ArrayList<>();
     private UUID selectedNodeId = null;
     private UUID selectedAreaId = null;
@@ -28,10 +35,21 @@ public class NodeManager {
     private final Map<UUID, Boolean> movementStateFilterCache = new HashMap<>();
     private boolean serverMode = false;
     private boolean serverCanEdit = false;
-    private final Map<UUID, ChunkPos> nodeChunkIndex = new HashMap<>();
-    private final Map<UUID, CameraNode> nodeLookup = new HashMap<>();
     private final Map<UUID, AreaInstance> areaLookup = new HashMap<>();
     private final Set<UUID> pendingAreaUpdates = new HashSet<>();
+    // Local copies shown for imported nodes and areas until the server's copies replace them
+    private final Map<UUID, CameraNode> pendingImportNodes = new HashMap<>();
+    private final Map<UUID, AreaInstance> pendingImportAreas = new HashMap<>();
+    private final AreaSpatialIndex areaIndex = new AreaSpatialIndex();
+    private final List<AreaInstance> areaCandidates = new ArrayList<>();
+    private UUID hoveredNodeId = null;
+    private UUID hoveredAreaId = null;
+    private InfluenceFrame influenceFrame = InfluenceFrame.EMPTY;
+    private long influenceFrameCounter = 0L;
+    // Bumped on any node change; movement bindings resolved against an older revision are rebuilt
+    private long nodeRevision = 0L;
+    // Scratch target for resolving area movements during the blend; consumed immediately
+    private final CameraTarget movementScratch = new CameraTarget();
 
     public enum PlayerStateKey {
         WALKING("walking", "Walking"),
@@ -86,31 +104,46 @@ public class NodeManager {
     private float editPitch = 0f;
 
     public void load() {
+        // A queued save snapshots the live lists, so it has to go out before they are cleared
+        NodeStorage.flush();
         nodes.clear();
         areas.clear();
-        nodeLookup.clear();
-        nodeChunkIndex.clear();
         areaLookup.clear();
         pendingAreaUpdates.clear();
+        influenceFrame = InfluenceFrame.EMPTY;
         NodeStorage.Payload payload = NodeStorage.load();
-        nodes.addAll(payload.nodes);
+        for (CameraNode node : payload.nodes) {
+            nodes.put(node, null);
+        }
         areas.addAll(payload.areas);
+        areaIndex.rebuild(areas);
+        nodeRevision++;
         movementStateFilterCache.clear();
         selectedNodeId = null;
         selectedAreaId = null;
     }
 
     public void save() {
+        // Callers save after editing nodes in place, so treat it as a node change
+        nodeRevision++;
         if (serverMode) {
             flushServerSaves();
             return;
         }
         purgeMovementStateCache();
-        NodeStorage.save(nodes, areas);
+        NodeStorage.save(() -> NodeStorage.snapshot(nodes.values(), areas));
     }
 
     public boolean isEditing() { return editing; }
-    public void setEditing(boolean e) { this.editing = e; }
+    public boolean isServerMode() { return serverMode; }
+    public void setEditing(boolean e) {
+        // The editor mutates area geometry in place, so re-index once editing ends
+        if (this.editing && !e) {
+            areaIndex.rebuild(areas);
+            clearHover();
+        }
+        this.editing = e;
+    }
 
     public void setEditRotation(float yaw, float pitch) {
         this.editYaw = yaw;
@@ -122,20 +155,20 @@ public class NodeManager {
     public float getEditPitch() { return editPitch; }
     public void clearEditRotation() { this.hasEditRotation = false; }
 
-    public List<CameraNode> getNodes() { return Collections.unmodifiableList(nodes); }
+    public Collection<CameraNode> getNodes() { return nodes.values(); }
     public List<AreaInstance> getAreas() { return Collections.unmodifiableList(areas); }
 
     public CameraNode addNode(Vec3d position) {
         CameraNode node = new CameraNode();
         node.position = position;
-        nodes.add(node);
+        nodes.put(node, null);
         save();
         return node;
     }
 
     public void removeSelected() {
         if (selectedNodeId == null) return;
-        nodes.removeIf(n -> n.id.equals(selectedNodeId));
+        nodes.remove(selectedNodeId);
         selectedNodeId = null;
         save();
     }
@@ -147,9 +180,7 @@ public class NodeManager {
         }
     }
     public CameraNode getSelected() {
-        if (selectedNodeId == null) return null;
-        for (var n : nodes) if (n.id.equals(selectedNodeId)) return n;
-        return null;
+        return nodes.get(selectedNodeId);
     }
 
     public void setSelectedArea(UUID id) {
@@ -177,6 +208,7 @@ public class NodeManager {
             area.movements.add(cfg);
         }
         areas.add(area);
+        areaIndex.add(area);
         if (serverMode) {
             areaLookup.put(area.id, area);
             if (serverCanEdit) {
@@ -221,6 +253,7 @@ public class NodeManager {
             if (removed != null) {
                 clearMovementCacheForArea(removed);
             }
+            areaIndex.remove(areaId);
             pendingAreaUpdates.remove(areaId);
             if (areaId.equals(selectedAreaId)) selectedAreaId = null;
             RegistryKey<World> dimension = getCurrentDimension();
@@ -242,13 +275,20 @@ public class NodeManager {
         if (removed != null) {
             clearMovementCacheForArea(removed);
         }
+        areaIndex.remove(areaId);
         areaLookup.remove(areaId);
         if (areaId.equals(selectedAreaId)) selectedAreaId = null;
         save();
     }
 
     public void markAreaDirty(UUID areaId) {
-        if (!serverMode || areaId == null) return;
+        if (areaId == null) return;
+        AreaInstance area = serverMode ? areaLookup.get(areaId) : getArea(areaId);
+        if (area != null) {
+            areaIndex.update(area);
+            clearMovementBindings(area);
+        }
+        if (!serverMode) return;
         pendingAreaUpdates.add(areaId);
     }
 
@@ -259,72 +299,241 @@ public class NodeManager {
     }
 
     public CameraNode getNode(UUID id) {
-        if (id == null) return null;
-        for (var node : nodes) if (node.id.equals(id)) return node;
-        return null;
+        return nodes.get(id);
     }
 
+    /**
+     * Resolved binding for a movement config, rebuilt only when the config was marked dirty or
+     * the node set changed since it was last resolved.
+     */
+    public AreaMovementBinding getMovementBinding(AreaMovementConfig config) {
+        if (config == null) return null;
+        AreaMovementBinding binding = config.binding;
+        if (binding == null || binding.nodeRevision != nodeRevision) {
+            binding = StaticMovement.compileBinding(this, config, nodeRevision);
+            config.binding = binding;
+        }
+        return binding;
+    }
+
+    /**
+     * Replaces the local node set. On a server the imported nodes and areas are instead added, as one
+     * bulk edit, alongside what the server already holds; they show right away and are swapped for the
+     * server's copies as its deltas arrive.
+     */
     public void replaceAll(List<CameraNode> newNodes, List<AreaInstance> newAreas) {
+        if (serverMode) {
+            importToServer(newNodes != null ? newNodes : List.of(), newAreas != null ? newAreas : List.of());
+            return;
+        }
         nodes.clear();
         areas.clear();
-        if (newNodes != null) nodes.addAll(newNodes);
+        if (newNodes != null) {
+            for (CameraNode node : newNodes) {
+                nodes.put(node, null);
+            }
+        }
         if (newAreas != null) areas.addAll(newAreas);
+        areaIndex.rebuild(areas);
+        nodeRevision++;
         selectedNodeId = null;
         selectedAreaId = null;
         movementStateFilterCache.clear();
         save();
     }
 
-    public CameraNode selectNearestToScreen(double mouseX, double mouseY, int screenW, int screenH, Camera camera) {
-        // Phase 2: project node positions to screen using camera basis + FOV; pick nearest in 2D
-        if (screenW <= 0 || screenH <= 0 || camera == null) return null;
-        Vec3d camPos = camera.getPos();
-        var rot = camera.getRotation();
-        org.joml.Vector3f rV = new org.joml.Vector3f(1f, 0f, 0f).rotate(rot);
-        org.joml.Vector3f uV = new org.joml.Vector3f(0f, 1f, 0f).rotate(rot);
-        org.joml.Vector3f fV = new org.joml.Vector3f(0f, 0f, -1f).rotate(rot);
-        Vec3d right = new Vec3d(rV.x, rV.y, rV.z);
-        Vec3d up = new Vec3d(uV.x, uV.y, uV.z);
-        Vec3d forward = new Vec3d(fV.x, fV.y, fV.z);
-
-        int baseFov = net.minecraft.client.MinecraftClient.getInstance().options.getFov().getValue();
-        float fovMul = ((ninja.trek.mixin.client.GameRendererFovAccessor) net.minecraft.client.MinecraftClient.getInstance().gameRenderer).getFovMultiplier();
-        double fovY = Math.toRadians(Math.max(1.0, baseFov * fovMul));
-        double aspect = (double)screenW / (double)screenH;
-        double tanHalfY = Math.tan(fovY * 0.5);
-        double tanHalfX = tanHalfY * aspect;
-
-        double best = Double.MAX_VALUE;
-        CameraNode bestNode = null;
-        for (var n : nodes) {
-            Vec3d v = n.position.subtract(camPos);
-            double xCam = v.dotProduct(right);
-            double yCam = v.dotProduct(up);
-            double zCam = v.dotProduct(forward);
-            if (zCam <= 0.0) continue; // behind camera
-            double nx = xCam / (zCam * tanHalfX);
-            double ny = yCam / (zCam * tanHalfY);
-            double sx = (nx + 1.0) * 0.5 * screenW;
-            double sy = (1.0 - (ny + 1.0) * 0.5) * screenH;
-            double dx = sx - mouseX;
-            double dy = sy - mouseY;
-            double d2 = dx*dx + dy*dy;
-            if (d2 < best) { best = d2; bestNode = n; }
+    private void importToServer(List<CameraNode> newNodes, List<AreaInstance> newAreas) {
+        if (!serverCanEdit) {
+            Craneshot.LOGGER.debug("Skipping import: client lacks edit permission");
+            return;
         }
+        RegistryKey<World> dimension = getCurrentDimension();
+        if (dimension == null) {
+            Craneshot.LOGGER.debug("Skipping import: unknown dimension");
+            return;
+        }
+        List<BulkEditRequestPayload.NodeEdit> nodeEdits = new ArrayList<>(newNodes.size());
+        for (CameraNode node : newNodes) {
+            if (node.id == null || node.position == null) continue;
+            CameraNodeDTO dto = CameraNodeDTO.fromCameraNode(node);
+            if (dto.name == null) dto.name = "";
+            dto.clientRequestId = node.id;
+            nodeEdits.add(BulkEditRequestPayload.NodeEdit.create(dto));
+            upsertNode(node, null);
+            pendingImportNodes.put(node.id, node);
+        }
+        List<BulkEditRequestPayload.AreaEdit> areaEdits = new ArrayList<>(newAreas.size());
+        for (AreaInstance area : newAreas) {
+            if (area.id == null) continue;
+            AreaInstanceDTO dto = AreaInstanceDTO.fromAreaInstance(area);
+            dto.clientRequestId = area.id;
+            areaEdits.add(BulkEditRequestPayload.AreaEdit.create(dto));
+            areas.add(area);
+            areaIndex.add(area);
+            areaLookup.put(area.id, area);
+            pendingImportAreas.put(area.id, area);
+        }
+        movementStateFilterCache.clear();
+        ClientNodeNetworking.sendBulkEdit(dimension, nodeEdits, areaEdits);
+    }
+
+    /**
+     * Drops the local copies of imported nodes and areas whose bulk edit the server did not apply.
+     * Copies that have since been replaced or removed are left alone; if the server's copy does turn
+     * up later it is added like any other.
+     */
+    public void discardPendingCreates(List<UUID> nodeIds, List<UUID> areaIds) {
+        for (UUID id : nodeIds) {
+            CameraNode pending = pendingImportNodes.remove(id);
+            if (pending != null && nodes.get(id) == pending) removeNode(id);
+        }
+        for (UUID id : areaIds) {
+            AreaInstance pending = pendingImportAreas.remove(id);
+            if (pending != null && areaLookup.get(id) == pending) dropArea(id);
+        }
+    }
+
+    public CameraNode selectNearestToScreen(double mouseX, double mouseY, int screenW, int screenH, Camera camera) {
+        CameraNode bestNode = pickNode(mouseX, mouseY, screenW, screenH, camera, Double.POSITIVE_INFINITY);
         if (bestNode != null) selectedNodeId = bestNode.id;
         return bestNode;
     }
 
+    /**
+     * Click selection in the editor: a node drawn under the cursor wins, then the nearest area whose
+     * outline the cursor ray meets, then the node nearest the cursor anywhere on screen.
+     */
+    public void selectAtScreen(double mouseX, double mouseY, int screenW, int screenH, Camera camera) {
+        CameraNode node = pickNode(mouseX, mouseY, screenW, screenH, camera, PICK_RADIUS_PX);
+        if (node != null) {
+            setSelected(node.id);
+            return;
+        }
+        AreaInstance area = pickArea(mouseX, mouseY, screenW, screenH, camera);
+        if (area != null) {
+            setSelectedArea(area.id);
+            return;
+        }
+        selectNearestToScreen(mouseX, mouseY, screenW, screenH, camera);
+    }
+
+    /** Updates what the cursor is over, for the renderer's hover highlight. Cheap enough for every frame. */
+    public void updateHover(double mouseX, double mouseY, int screenW, int screenH, Camera camera) {
+        CameraNode node = pickNode(mouseX, mouseY, screenW, screenH, camera, PICK_RADIUS_PX);
+        hoveredNodeId = node != null ? node.id : null;
+        AreaInstance area = node == null ? pickArea(mouseX, mouseY, screenW, screenH, camera) : null;
+        hoveredAreaId = area != null ? area.id : null;
+    }
+
+    public void clearHover() {
+        hoveredNodeId = null;
+        hoveredAreaId = null;
+    }
+
+    public UUID getHoveredNodeId() { return hoveredNodeId; }
+    public UUID getHoveredAreaId() { return hoveredAreaId; }
+
+    private CameraNode pickNode(double mouseX, double mouseY, int screenW, int screenH, Camera camera, double maxPixels) {
+        if (screenW <= 0 || screenH <= 0 || camera == null) return null;
+        if (!NodePicker.isCurrent()) NodePicker.capture(camera, nodes.values());
+        CameraNode picked = NodePicker.pickNode(mouseX, mouseY, screenW, screenH, maxPixels);
+        // The projection is from the last frame; ignore nodes removed since
+        return picked != null && nodes.get(picked.id) == picked ? picked : null;
+    }
+
+    private AreaInstance pickArea(double mouseX, double mouseY, int screenW, int screenH, Camera camera) {
+        if (screenW <= 0 || screenH <= 0 || camera == null || areas.isEmpty()) return null;
+        if (!NodePicker.isCurrent()) NodePicker.capture(camera, nodes.values());
+        Vec3d dir = NodePicker.rayDirection(mouseX, mouseY, screenW, screenH);
+        if (dir == null) return null;
+        // The editor reshapes areas in place, so while editing the index can lag behind their bounds
+        if (editing) return AreaSpatialIndex.raycastAll(areas, NodePicker.rayOrigin(), dir, AREA_PICK_DISTANCE);
+        return areaIndex.raycast(NodePicker.rayOrigin(), dir, AREA_PICK_DISTANCE);
+    }
+
     // Influence computation
-    public CameraTarget applyInfluence(CameraTarget base, boolean skipInfluence) {
-        if (skipInfluence || areas.isEmpty() || base == null) return base;
+
+    /**
+     * Evaluates area influence once for the current frame at the player's eye position and caches
+     * the result for {@link #getInfluenceFrame()}. Called once per frame by the camera controller.
+     * When {@code skipInfluence} is set the per-area weights are still sampled (for the HUD) but the
+     * base target is returned unblended.
+     */
+    public InfluenceFrame evaluateInfluence(CameraTarget base, boolean skipInfluence) {
+        influenceFrame = computeInfluenceFrame(MinecraftClient.getInstance(), base, skipInfluence);
+        return influenceFrame;
+    }
+
+    /**
+     * The influence frame evaluated for the current world tick. If the camera controller has not
+     * produced one this tick (e.g. while sleeping), a sample-only frame is evaluated instead.
+     */
+    public InfluenceFrame getInfluenceFrame() {
         MinecraftClient mc = MinecraftClient.getInstance();
-        if (mc == null || mc.player == null) return base;
+        if (mc == null || mc.world == null) return InfluenceFrame.EMPTY;
+        if (influenceFrame.getTick() != mc.world.getTime()) {
+            influenceFrame = computeInfluenceFrame(mc, null, true);
+        }
+        return influenceFrame;
+    }
+
+    public CameraTarget applyInfluence(CameraTarget base, boolean skipInfluence) {
+        return evaluateInfluence(base, skipInfluence).getBlendedTarget();
+    }
+
+    private InfluenceFrame computeInfluenceFrame(MinecraftClient mc, CameraTarget base, boolean skipInfluence) {
+        long tick = mc != null && mc.world != null ? mc.world.getTime() : -1L;
+        long frame = ++influenceFrameCounter;
+        if (mc == null || mc.player == null) {
+            return new InfluenceFrame(tick, frame, null, PlayerStateSnapshot.noPlayer(), List.of(), 0.0, base, base);
+        }
         PlayerStateSnapshot stateSnapshot = collectPlayerStates(mc);
         Vec3d playerPos = mc.player.getEyePos();
+        List<InfluenceFrame.AreaSample> samples = new ArrayList<>();
+        double totalWeight = sampleAreas(playerPos, stateSnapshot, samples);
+        CameraTarget blended = skipInfluence || base == null ? base : blendSamples(base, samples);
+        return new InfluenceFrame(tick, frame, playerPos, stateSnapshot, samples, totalWeight, base, blended);
+    }
 
+    /**
+     * Samples every candidate area at {@code position}. Returns the raw sum of clamped weights and,
+     * when {@code out} is non-null, appends a sample for each area with non-zero influence.
+     */
+    private double sampleAreas(Vec3d position, PlayerStateSnapshot snapshot, List<InfluenceFrame.AreaSample> out) {
+        if (areas.isEmpty() || position == null) return 0.0;
         double totalWeight = 0.0;
-        Vec3d accumPos = Vec3d.ZERO;
+        for (var area : candidateAreas(position)) {
+            if (!areaMatchesPlayerStates(area, snapshot)) continue;
+            double rawInfluence = area.shape == AreaShape.SPHERE
+                    ? influenceForSphereArea(position, area)
+                    : influenceForBoxArea(position, area);
+            double easedInfluence = area.easing != null ? area.easing.apply(rawInfluence) : rawInfluence;
+            double areaWeight = MathHelper.clamp(easedInfluence, 0.0, 1.0);
+            totalWeight += areaWeight;
+            if (out == null || (rawInfluence <= 0.0 && areaWeight <= 0.0)) continue;
+            List<AreaMovementConfig> matched = areaWeight > 1e-6 ? matchMovements(area, snapshot) : List.of();
+            out.add(new InfluenceFrame.AreaSample(area, rawInfluence, areaWeight, matched));
+        }
+        return totalWeight;
+    }
+
+    private List<AreaMovementConfig> matchMovements(AreaInstance area, PlayerStateSnapshot snapshot) {
+        List<AreaMovementConfig> matched = null;
+        for (AreaMovementConfig config : area.movements) {
+            if (config == null || !config.enabled) continue;
+            if (!passesStateFilters(config, snapshot)) continue;
+            if (MathHelper.clamp(config.weight, 0.0f, 1.0f) <= 1e-6) continue;
+            if (matched == null) matched = new ArrayList<>(area.movements.size());
+            matched.add(config);
+        }
+        return matched != null ? matched : List.of();
+    }
+
+    private CameraTarget blendSamples(CameraTarget base, List<InfluenceFrame.AreaSample> samples) {
+        double totalWeight = 0.0;
+        double accumX = 0.0;
+        double accumY = 0.0;
+        double accumZ = 0.0;
         float yawBase = base.getYaw();
         float pitchBase = base.getPitch();
         float baseFov = base.getFovMultiplier();
@@ -334,28 +543,21 @@ public class NodeManager {
         boolean anyOrientation = false;
         boolean anyFov = false;
 
-        for (var area : areas) {
-            if (!areaMatchesPlayerStates(area, stateSnapshot)) continue;
-
-            double rawInfluence = area.shape == AreaShape.SPHERE
-                    ? influenceForSphereArea(playerPos, area)
-                    : influenceForBoxArea(playerPos, area);
-            double easedInfluence = area.easing != null ? area.easing.apply(rawInfluence) : rawInfluence;
-            double areaWeight = MathHelper.clamp(easedInfluence, 0.0, 1.0);
+        for (InfluenceFrame.AreaSample sample : samples) {
+            double areaWeight = sample.weight();
             if (areaWeight <= 1e-6) continue;
+            AreaInstance area = sample.area();
 
             boolean producedMovement = false;
-            for (AreaMovementConfig config : area.movements) {
-                if (config == null || !config.enabled) continue;
-                if (!passesStateFilters(config, stateSnapshot)) continue;
+            for (AreaMovementConfig config : sample.movements()) {
                 double movementWeight = MathHelper.clamp(config.weight, 0.0f, 1.0f);
-                if (movementWeight <= 1e-6) continue;
-
                 CameraTarget target = resolveMovementConfig(area, config, base);
                 if (target == null) continue;
 
                 double finalWeight = areaWeight * movementWeight;
-                accumPos = accumPos.add(target.getPosition().multiply(finalWeight));
+                accumX += target.getX() * finalWeight;
+                accumY += target.getY() * finalWeight;
+                accumZ += target.getZ() * finalWeight;
                 totalWeight += finalWeight;
 
                 accumYawDelta += wrapAngleDelta(yawBase, target.getYaw()) * finalWeight;
@@ -367,7 +569,9 @@ public class NodeManager {
             }
 
             if (!producedMovement) {
-                accumPos = accumPos.add(area.center.multiply(areaWeight));
+                accumX += area.center.x * areaWeight;
+                accumY += area.center.y * areaWeight;
+                accumZ += area.center.z * areaWeight;
                 totalWeight += areaWeight;
             }
         }
@@ -376,14 +580,17 @@ public class NodeManager {
 
         if (totalWeight > 1.0) {
             double inv = 1.0 / totalWeight;
-            accumPos = accumPos.multiply(inv);
+            accumX *= inv;
+            accumY *= inv;
+            accumZ *= inv;
             accumYawDelta *= inv;
             accumPitch *= inv;
             accumFov *= inv;
             totalWeight = 1.0;
         }
 
-        Vec3d blendedPos = base.getPosition().multiply(1.0 - totalWeight).add(accumPos);
+        double keep = 1.0 - totalWeight;
+        Vec3d blendedPos = new Vec3d(base.getX() * keep + accumX, base.getY() * keep + accumY, base.getZ() * keep + accumZ);
 
         float outYaw = yawBase;
         float outPitch = pitchBase;
@@ -419,7 +626,7 @@ public class NodeManager {
         String type = config.movementType;
         if (type == null || type.isBlank()) return null;
         if (StaticMovement.MOVEMENT_ID.equals(type) || StaticMovement.class.getName().equals(type)) {
-            return StaticMovement.resolveTarget(this, config, base);
+            return StaticMovement.resolveTarget(this, config, base, movementScratch);
         }
         return null;
     }
@@ -428,21 +635,17 @@ public class NodeManager {
      * Calculate the total influence weight from all areas at the given position.
      * Returns 0.0 if no influence, up to 1.0+ if multiple areas overlap.
      * This is normalized to max 1.0 in applyInfluence(), but raw total is useful for detection.
+     * Per-frame callers should prefer {@link InfluenceFrame#getTotalWeight()}.
      */
     public double getTotalInfluence(Vec3d position) {
-        if (areas.isEmpty() || position == null) return 0.0;
+        return sampleAreas(position, collectPlayerStates(), null);
+    }
 
-        double totalWeight = 0.0;
-        PlayerStateSnapshot snapshot = collectPlayerStates();
-        for (var area : areas) {
-            if (!areaMatchesPlayerStates(area, snapshot)) continue;
-            double t = area.shape == AreaShape.SPHERE
-                    ? influenceForSphereArea(position, area)
-                    : influenceForBoxArea(position, area);
-            t = area.easing != null ? area.easing.apply(t) : t;
-            totalWeight += MathHelper.clamp(t, 0.0, 1.0);
-        }
-        return totalWeight;
+    // Areas whose outer bounds contain the position; falls back to the full list while editing
+    private List<AreaInstance> candidateAreas(Vec3d position) {
+        if (editing) return areas;
+        areaIndex.query(position, areaCandidates);
+        return areaCandidates;
     }
 
     // Normalize angle to [-180, 180] range
@@ -728,14 +931,19 @@ public class NodeManager {
     // ========== Server Synchronization Methods ==========
 
     public void enterServerMode(boolean canEdit) {
+        NodeStorage.flush();
+        ChunkNodeCache.open();
         serverMode = true;
         serverCanEdit = canEdit;
         nodes.clear();
         areas.clear();
-        nodeChunkIndex.clear();
-        nodeLookup.clear();
         areaLookup.clear();
+        areaIndex.clear();
+        influenceFrame = InfluenceFrame.EMPTY;
+        nodeRevision++;
         pendingAreaUpdates.clear();
+        pendingImportNodes.clear();
+        pendingImportAreas.clear();
         movementStateFilterCache.clear();
         selectedNodeId = null;
         selectedAreaId = null;
@@ -743,13 +951,16 @@ public class NodeManager {
     }
 
     public void onDisconnected() {
+        // Leaving a world: get any queued local save onto disk before its world goes away
+        NodeStorage.flush();
         if (!serverMode) return;
+        ChunkNodeCache.close();
         serverMode = false;
         serverCanEdit = false;
-        nodeChunkIndex.clear();
-        nodeLookup.clear();
         areaLookup.clear();
         pendingAreaUpdates.clear();
+        pendingImportNodes.clear();
+        pendingImportAreas.clear();
         movementStateFilterCache.clear();
         load();
         Craneshot.LOGGER.info("Disconnected from server");
@@ -761,10 +972,7 @@ public class NodeManager {
         if (!serverMode || !dimensionMatchesCurrent(dimension)) return;
         removeNodesInChunk(chunk);
         for (CameraNodeDTO dto : nodeList) {
-            CameraNode node = dto.toCameraNode();
-            nodeLookup.put(node.id, node);
-            nodeChunkIndex.put(node.id, chunk);
-            upsertNode(node);
+            upsertNode(dto.toCameraNode(), chunk);
         }
     }
 
@@ -774,36 +982,41 @@ public class NodeManager {
         if (!serverMode || !dimensionMatchesCurrent(dimension)) return;
         CameraNode node = dto.toCameraNode();
         if (dto.clientRequestId != null) {
-            CameraNode pending = nodeLookup.remove(dto.clientRequestId);
-            if (pending != null) {
-                replaceNode(pending.id, node);
-                nodeChunkIndex.remove(dto.clientRequestId);
-            } else {
-                upsertNode(node);
-            }
+            pendingImportNodes.remove(dto.clientRequestId);
+            ClientNodeNetworking.confirmBulkCreate(dto.clientRequestId);
+        }
+        if (nodes.contains(dto.clientRequestId)) {
+            replaceNode(dto.clientRequestId, node, chunk);
         } else {
-            upsertNode(node);
+            upsertNode(node, chunk);
         }
-        nodeLookup.put(node.id, node);
-        nodeChunkIndex.put(node.id, chunk);
     }
 
     public void applyDeltaUpdate(RegistryKey<World> dimension,
                                   ChunkPos chunk,
                                   CameraNodeDTO dto) {
         if (!serverMode || !dimensionMatchesCurrent(dimension)) return;
-        CameraNode node = dto.toCameraNode();
-        nodeLookup.put(node.id, node);
-        nodeChunkIndex.put(node.id, chunk);
-        replaceNode(node.id, node);
+        upsertNode(dto.toCameraNode(), chunk);
+    }
+
+    /** Applies an UPDATE that only carries the changed fields on top of the node we already have. */
+    public void applyDeltaFields(RegistryKey<World> dimension,
+                                  ChunkPos chunk,
+                                  CameraNodeDTO changes,
+                                  int fields) {
+        if (!serverMode || !dimensionMatchesCurrent(dimension)) return;
+        CameraNode existing = nodes.get(changes.uuid);
+        // Not streamed to us yet; the chunk snapshot will carry the current state
+        if (existing == null) return;
+        CameraNodeDTO dto = CameraNodeDTO.fromCameraNode(existing);
+        NodeWireCodec.applyFields(dto, changes, fields);
+        applyDeltaUpdate(dimension, chunk, dto);
     }
 
     public void applyDeltaRemove(RegistryKey<World> dimension,
                                   ChunkPos chunk,
                                   UUID nodeId) {
         if (!serverMode || nodeId == null || !dimensionMatchesCurrent(dimension)) return;
-        nodeLookup.remove(nodeId);
-        nodeChunkIndex.remove(nodeId);
         removeNode(nodeId);
     }
 
@@ -823,6 +1036,7 @@ public class NodeManager {
             areas.add(area);
             areaLookup.put(area.id, area);
         }
+        areaIndex.rebuild(areas);
         if (previousSelected != null && areaLookup.containsKey(previousSelected)) {
             selectedAreaId = previousSelected;
         } else {
@@ -836,6 +1050,8 @@ public class NodeManager {
         if (!serverMode || !dimensionMatchesCurrent(dimension)) return;
         AreaInstance area = dto.toAreaInstance();
         if (dto.clientRequestId != null) {
+            pendingImportAreas.remove(dto.clientRequestId);
+            ClientNodeNetworking.confirmBulkCreate(dto.clientRequestId);
             AreaInstance pending = areaLookup.remove(dto.clientRequestId);
             if (pending != null) {
                 replaceArea(dto.clientRequestId, area);
@@ -854,6 +1070,7 @@ public class NodeManager {
             clearMovementCacheForArea(existing);
             copyAreaData(existing, updated);
             areaLookup.put(existing.id, existing);
+            areaIndex.update(existing);
         } else {
             addAreaInstance(updated);
         }
@@ -861,6 +1078,10 @@ public class NodeManager {
 
     public void applyAreaDeltaRemove(RegistryKey<World> dimension, UUID areaId) {
         if (!serverMode || areaId == null || !dimensionMatchesCurrent(dimension)) return;
+        dropArea(areaId);
+    }
+
+    private void dropArea(UUID areaId) {
         AreaInstance removed = areaLookup.remove(areaId);
         if (removed != null) {
             clearMovementCacheForArea(removed);
@@ -868,6 +1089,7 @@ public class NodeManager {
         } else {
             areas.removeIf(a -> a.id.equals(areaId));
         }
+        areaIndex.remove(areaId);
         pendingAreaUpdates.remove(areaId);
         if (areaId.equals(selectedAreaId)) selectedAreaId = null;
     }
@@ -882,11 +1104,21 @@ public class NodeManager {
         if (!pendingAreaUpdates.isEmpty()) {
             List<UUID> ids = new ArrayList<>(pendingAreaUpdates);
             pendingAreaUpdates.clear();
+            List<AreaInstanceDTO> updates = new ArrayList<>(ids.size());
             for (UUID id : ids) {
                 AreaInstance area = areaLookup.get(id);
                 if (area == null) continue;
-                AreaInstanceDTO dto = AreaInstanceDTO.fromAreaInstance(area);
-                ClientNodeNetworking.sendAreaUpdate(dimension, dto);
+                updates.add(AreaInstanceDTO.fromAreaInstance(area));
+            }
+            if (updates.size() == 1) {
+                ClientNodeNetworking.sendAreaUpdate(dimension, updates.get(0));
+            } else if (!updates.isEmpty()) {
+                // Several areas edited together go out as one request
+                List<BulkEditRequestPayload.AreaEdit> edits = new ArrayList<>(updates.size());
+                for (AreaInstanceDTO dto : updates) {
+                    edits.add(BulkEditRequestPayload.AreaEdit.update(dto));
+                }
+                ClientNodeNetworking.sendBulkEdit(dimension, List.of(), edits);
             }
         }
     }
@@ -908,57 +1140,36 @@ public class NodeManager {
         return current == null || current.equals(dimension);
     }
 
-    private void upsertNode(CameraNode node) {
-        for (int i = 0; i < nodes.size(); i++) {
-            if (nodes.get(i).id.equals(node.id)) {
-                nodes.set(i, node);
-                return;
-            }
-        }
-        nodes.add(node);
+    private void upsertNode(CameraNode node, ChunkPos chunk) {
+        nodeRevision++;
+        nodes.put(node, chunk);
     }
 
-    private void replaceNode(UUID nodeId, CameraNode replacement) {
-        boolean replaced = false;
-        for (int i = 0; i < nodes.size(); i++) {
-            if (nodes.get(i).id.equals(nodeId)) {
-                nodes.set(i, replacement);
-                replaced = true;
-                break;
-            }
-        }
-        if (!replaced) {
-            nodes.add(replacement);
-        }
+    private void replaceNode(UUID nodeId, CameraNode replacement, ChunkPos chunk) {
+        nodeRevision++;
+        if (!nodeId.equals(replacement.id)) nodes.remove(nodeId);
+        nodes.put(replacement, chunk);
         if (selectedNodeId != null && selectedNodeId.equals(nodeId)) {
             selectedNodeId = replacement.id;
         }
     }
 
     private void removeNode(UUID nodeId) {
-        nodes.removeIf(node -> node.id.equals(nodeId));
+        nodeRevision++;
+        nodes.remove(nodeId);
         if (selectedNodeId != null && selectedNodeId.equals(nodeId)) selectedNodeId = null;
     }
 
     private void removeNodesInChunk(ChunkPos chunk) {
-        Iterator<CameraNode> iterator = nodes.iterator();
-        while (iterator.hasNext()) {
-            CameraNode node = iterator.next();
-            ChunkPos stored = nodeChunkIndex.get(node.id);
-            if (stored != null && stored.equals(chunk)) {
-                iterator.remove();
-                nodeLookup.remove(node.id);
-                if (selectedNodeId != null && selectedNodeId.equals(node.id)) {
-                    selectedNodeId = null;
-                }
-            }
-        }
-        nodeChunkIndex.entrySet().removeIf(entry -> entry.getValue().equals(chunk));
+        nodeRevision++;
+        nodes.removeChunk(chunk);
+        if (selectedNodeId != null && !nodes.contains(selectedNodeId)) selectedNodeId = null;
     }
 
     private void addAreaInstance(AreaInstance area) {
         areas.add(area);
         areaLookup.put(area.id, area);
+        areaIndex.add(area);
     }
 
     private void replaceArea(UUID oldId, AreaInstance replacement) {
@@ -973,6 +1184,8 @@ public class NodeManager {
         if (!replaced) {
             areas.add(replacement);
         }
+        areaIndex.remove(oldId);
+        areaIndex.add(replacement);
         areaLookup.put(replacement.id, replacement);
         if (selectedAreaId != null && selectedAreaId.equals(oldId)) {
             selectedAreaId = replacement.id;
@@ -1005,6 +1218,12 @@ public class NodeManager {
         }
     }
 
+    private void clearMovementBindings(AreaInstance area) {
+        for (AreaMovementConfig cfg : area.movements) {
+            if (cfg != null) cfg.binding = null;
+        }
+    }
+
     private void clearMovementCacheForArea(AreaInstance area) {
         if (area == null) return;
         for (AreaMovementConfig cfg : area.movements) {
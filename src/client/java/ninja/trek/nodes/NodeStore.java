@@ -0,0 +1,87 @@
+package ninja.trek.nodes;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import net.minecraft.util.math.ChunkPos;
+import ninja.trek.nodes.model.CameraNode;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The client's camera nodes, keyed by id and, for nodes streamed from a server, bucketed by the chunk
+ * the server filed them under, so lookups and deltas are O(1) and a chunk snapshot or unload only
+ * touches that chunk's nodes.
+ * Iteration follows insertion order and re-putting a node under the same id keeps its place, which
+ * gives the renderer a stable order.
+ */
+final class NodeStore {
+    private final Map<UUID, CameraNode> byId = new LinkedHashMap<>();
+    private final Collection<CameraNode> view = Collections.unmodifiableCollection(byId.values());
+    private final Object2LongOpenHashMap<UUID> chunkOf = new Object2LongOpenHashMap<>();
+    private final Long2ObjectOpenHashMap<Set<UUID>> chunks = new Long2ObjectOpenHashMap<>();
+
+    void clear() {
+        byId.clear();
+        chunkOf.clear();
+        chunks.clear();
+    }
+
+    CameraNode get(UUID id) {
+        return id != null ? byId.get(id) : null;
+    }
+
+    boolean contains(UUID id) {
+        return id != null && byId.containsKey(id);
+    }
+
+    boolean isEmpty() {
+        return byId.isEmpty();
+    }
+
+    /** Live, read-only view in iteration order. */
+    Collection<CameraNode> values() {
+        return view;
+    }
+
+    /** Adds the node, or replaces the one with its id, filed under {@code chunk} (null for none). */
+    void put(CameraNode node, ChunkPos chunk) {
+        byId.put(node.id, node);
+        unindex(node.id);
+        if (chunk != null) {
+            long key = chunk.toLong();
+            chunkOf.put(node.id, key);
+            chunks.computeIfAbsent(key, k -> new HashSet<>()).add(node.id);
+        }
+    }
+
+    CameraNode remove(UUID id) {
+        if (id == null) return null;
+        unindex(id);
+        return byId.remove(id);
+    }
+
+    /** Removes every node filed under the chunk. */
+    void removeChunk(ChunkPos chunk) {
+        Set<UUID> bucket = chunks.remove(chunk.toLong());
+        if (bucket == null) return;
+        for (UUID id : bucket) {
+            chunkOf.removeLong(id);
+            byId.remove(id);
+        }
+    }
+
+    private void unindex(UUID id) {
+        if (!chunkOf.containsKey(id)) return;
+        long key = chunkOf.removeLong(id);
+        Set<UUID> bucket = chunks.get(key);
+        if (bucket == null) return;
+        bucket.remove(id);
+        if (bucket.isEmpty()) chunks.remove(key);
+    }
+}
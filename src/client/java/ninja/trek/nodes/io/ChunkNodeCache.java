@@ -0,0 +1,345 @@
+package ninja.trek.nodes.io;
+
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ServerInfo;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
+import ninja.trek.Craneshot;
+import ninja.trek.nodes.model.CameraNodeDTO;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * On-disk copy of the chunk nodes a server sent, so that after a reconnect only chunks whose content
+ * hash changed are downloaded again:
+ * <pre>
+ * craneshot_cache/&lt;server address&gt;/&lt;namespace&gt;/&lt;path&gt;/r.&lt;rx&gt;.&lt;rz&gt;.bin
+ * </pre>
+ * Each region file (32x32 chunks) holds per chunk the server's hash and the nodes as they arrived.
+ * Regions are read on a worker the first time one of their chunks is needed, and {@link #whenLoaded}
+ * hands the work waiting on them back to the client thread. At most {@link #MAX_LOADED_REGIONS} stay
+ * in memory; changed ones are written on the same worker when evicted, every
+ * {@link #FLUSH_INTERVAL_TICKS} and on {@link #close()}. Opening a server's cache also deletes region
+ * files older than {@link #MAX_AGE_MILLIS} and, oldest first, whatever takes all servers' caches past
+ * {@link #MAX_TOTAL_BYTES}.
+ * <p>
+ * Later deltas are not folded in: the server's hash moves on with them, so the stale copy simply
+ * misses next time. A chunk that changes while its region is still being read is dropped from what
+ * the read returns. Nothing is cached for the integrated server. Client thread only.
+ */
+public final class ChunkNodeCache {
+    private static final int MAGIC = 0x43534343; // "CSCC"
+    private static final int FORMAT_VERSION = 1;
+    private static final int REGION_SHIFT = 5;
+    private static final int MAX_LOADED_REGIONS = 64;
+    private static final int FLUSH_INTERVAL_TICKS = 20 * 60;
+    private static final long MAX_AGE_MILLIS = 30L * 24 * 60 * 60 * 1000;
+    private static final long MAX_TOTAL_BYTES = 64L * 1024 * 1024;
+
+    // Reads and writes share one thread, so a region is never read while an older write of it is queued
+    private static final ExecutorService WORKER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Craneshot Chunk Cache");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Null while disabled
+    private static Path directory;
+    // Access order, least recently used first
+    private static final LinkedHashMap<RegionKey, Region> regions = new LinkedHashMap<>(16, 0.75f, true);
+    private static final Map<RegionKey, PendingLoad> loading = new HashMap<>();
+    // Bumped whenever the directory changes, so reads started for an earlier one are dropped
+    private static int generation = 0;
+    private static int ticksSinceFlush = 0;
+
+    private ChunkNodeCache() {}
+
+    /** Points the cache at the current server, writing out whatever the previous one left. */
+    public static void open() {
+        close();
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (client == null || client.isIntegratedServerRunning()) return;
+        ServerInfo server = client.getCurrentServerEntry();
+        if (server == null || server.address == null || server.address.isBlank()) return;
+        Path root = client.runDirectory.toPath().resolve("craneshot_cache");
+        directory = root.resolve(sanitize(server.address));
+        generation++;
+        WORKER.submit(() -> prune(root));
+    }
+
+    public static void close() {
+        if (directory != null) {
+            flush();
+        }
+        regions.clear();
+        loading.clear();
+        directory = null;
+        generation++;
+    }
+
+    /** Writes out changed regions every {@link #FLUSH_INTERVAL_TICKS}. Called once per client tick. */
+    public static void tick() {
+        if (directory == null || ++ticksSinceFlush < FLUSH_INTERVAL_TICKS) return;
+        flush();
+    }
+
+    private static void flush() {
+        ticksSinceFlush = 0;
+        for (var entry : regions.entrySet()) {
+            save(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Runs {@code task} on the client thread once the region holding chunk region {@code (regionX, regionZ)}
+     * is in memory: right away if it already is or caching is off, otherwise after a worker has read it.
+     */
+    public static void whenLoaded(RegistryKey<World> dimension, int regionX, int regionZ, Runnable task) {
+        RegionKey key = new RegionKey(dimension, regionX, regionZ);
+        if (directory == null || regions.containsKey(key)) {
+            task.run();
+            return;
+        }
+        PendingLoad pending = loading.get(key);
+        if (pending != null) {
+            pending.tasks.add(task);
+            return;
+        }
+        pending = new PendingLoad();
+        pending.tasks.add(task);
+        loading.put(key, pending);
+        Path file = regionFile(key);
+        int started = generation;
+        WORKER.submit(() -> {
+            Long2ObjectOpenHashMap<Entry> chunks = read(file);
+            MinecraftClient.getInstance().execute(() -> finishLoad(key, chunks, started));
+        });
+    }
+
+    private static void finishLoad(RegionKey key, Long2ObjectOpenHashMap<Entry> chunks, int started) {
+        if (started != generation) return;
+        PendingLoad pending = loading.remove(key);
+        if (pending == null) return;
+        // What the server said about these chunks since they were last cached is newer than the file
+        for (long chunkKey : pending.changed) {
+            chunks.remove(chunkKey);
+        }
+        Region region = new Region(chunks);
+        region.dirty = !pending.changed.isEmpty();
+        regions.put(key, region);
+        evictOverflow();
+        for (Runnable task : pending.tasks) {
+            task.run();
+        }
+    }
+
+    private static void evictOverflow() {
+        var it = regions.entrySet().iterator();
+        while (regions.size() > MAX_LOADED_REGIONS && it.hasNext()) {
+            var entry = it.next();
+            save(entry.getKey(), entry.getValue());
+            it.remove();
+        }
+    }
+
+    /**
+     * The cached nodes of the chunk if their hash is {@code hash}, otherwise null. Only regions brought
+     * in by {@link #whenLoaded} are consulted; anything else misses. Do not modify.
+     */
+    public static List<CameraNodeDTO> lookup(RegistryKey<World> dimension, ChunkPos pos, long hash) {
+        if (directory == null) return null;
+        Region region = regions.get(keyOf(dimension, pos));
+        Entry entry = region != null ? region.chunks.get(pos.toLong()) : null;
+        return entry != null && entry.hash() == hash ? entry.nodes() : null;
+    }
+
+    public static void store(RegistryKey<World> dimension, ChunkPos pos, long hash, List<CameraNodeDTO> nodes) {
+        if (directory == null) return;
+        Entry entry = new Entry(hash, List.copyOf(nodes));
+        RegionKey key = keyOf(dimension, pos);
+        whenLoaded(dimension, key.regionX(), key.regionZ(), () -> {
+            Region region = regions.get(key);
+            if (region == null) return;
+            region.chunks.put(pos.toLong(), entry);
+            region.dirty = true;
+        });
+    }
+
+    /** Notes that the chunk's nodes changed, so a read of its region already under way does not revive them. */
+    public static void noteChunkChanged(RegistryKey<World> dimension, ChunkPos pos) {
+        if (directory == null) return;
+        PendingLoad pending = loading.get(keyOf(dimension, pos));
+        if (pending != null) {
+            pending.changed.add(pos.toLong());
+        }
+    }
+
+    private static RegionKey keyOf(RegistryKey<World> dimension, ChunkPos pos) {
+        return new RegionKey(dimension, pos.x >> REGION_SHIFT, pos.z >> REGION_SHIFT);
+    }
+
+    private static void save(RegionKey key, Region region) {
+        if (!region.dirty) return;
+        region.dirty = false;
+        Path file = regionFile(key);
+        // Entries are immutable, so a shallow copy is a safe snapshot for the worker
+        Long2ObjectOpenHashMap<Entry> chunks = new Long2ObjectOpenHashMap<>(region.chunks);
+        WORKER.submit(() -> write(file, chunks));
+    }
+
+    /** Deletes region files past {@link #MAX_AGE_MILLIS}, then the oldest until under {@link #MAX_TOTAL_BYTES}. */
+    private static void prune(Path root) {
+        if (!Files.isDirectory(root)) return;
+        List<CacheFile> files = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                if (!path.getFileName().toString().endsWith(".bin") || !Files.isRegularFile(path)) continue;
+                files.add(new CacheFile(path, Files.getLastModifiedTime(path).toMillis(), Files.size(path)));
+            }
+        } catch (IOException | UncheckedIOException e) {
+            Craneshot.LOGGER.warn("Failed to scan camera node cache {}", root, e);
+            return;
+        }
+        files.sort(Comparator.comparingLong(CacheFile::modified));
+        long total = 0L;
+        for (CacheFile file : files) total += file.size();
+        long cutoff = System.currentTimeMillis() - MAX_AGE_MILLIS;
+        for (CacheFile file : files) {
+            if (file.modified() >= cutoff && total <= MAX_TOTAL_BYTES) break;
+            try {
+                Files.deleteIfExists(file.path());
+                total -= file.size();
+            } catch (IOException e) {
+                Craneshot.LOGGER.warn("Failed to delete camera node cache {}", file.path(), e);
+            }
+        }
+    }
+
+    private static Path regionFile(RegionKey key) {
+        Identifier id = key.dimension().getValue();
+        return directory.resolve(id.getNamespace()).resolve(id.getPath())
+                .resolve("r." + key.regionX() + "." + key.regionZ() + ".bin");
+    }
+
+    private static String sanitize(String address) {
+        return address.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9._-]", "_");
+    }
+
+    private static Long2ObjectOpenHashMap<Entry> read(Path file) {
+        Long2ObjectOpenHashMap<Entry> chunks = new Long2ObjectOpenHashMap<>();
+        if (!Files.exists(file)) return chunks;
+        PacketByteBuf in = null;
+        try {
+            in = new PacketByteBuf(Unpooled.wrappedBuffer(Files.readAllBytes(file)));
+            if (in.readableBytes() < 4 || in.readInt() != MAGIC || in.readVarInt() != FORMAT_VERSION) {
+                return chunks;
+            }
+            int chunkCount = in.readVarInt();
+            for (int i = 0; i < chunkCount; i++) {
+                long chunkKey = in.readLong();
+                long hash = in.readLong();
+                int nodeCount = in.readVarInt();
+                List<CameraNodeDTO> nodes = new ArrayList<>(Math.min(nodeCount, 1024));
+                for (int n = 0; n < nodeCount; n++) {
+                    nodes.add(CameraNodeDTO.read(NodeBinaryFormat.readRecord(in)));
+                }
+                chunks.put(chunkKey, new Entry(hash, List.copyOf(nodes)));
+            }
+        } catch (IOException | RuntimeException e) {
+            // Only a cache: start the region over
+            Craneshot.LOGGER.warn("Discarding unreadable camera node cache {}", file, e);
+            chunks.clear();
+        } finally {
+            if (in != null) in.release();
+        }
+        return chunks;
+    }
+
+    private static void write(Path file, Long2ObjectOpenHashMap<Entry> chunks) {
+        PacketByteBuf out = new PacketByteBuf(Unpooled.buffer());
+        PacketByteBuf record = new PacketByteBuf(Unpooled.buffer());
+        try {
+            out.writeInt(MAGIC);
+            out.writeVarInt(FORMAT_VERSION);
+            out.writeVarInt(chunks.size());
+            for (var entry : chunks.long2ObjectEntrySet()) {
+                out.writeLong(entry.getLongKey());
+                out.writeLong(entry.getValue().hash());
+                out.writeVarInt(entry.getValue().nodes().size());
+                for (CameraNodeDTO dto : entry.getValue().nodes()) {
+                    record.clear();
+                    toStorable(dto).write(record);
+                    NodeBinaryFormat.writeRecord(out, record);
+                }
+            }
+            byte[] bytes = new byte[out.readableBytes()];
+            out.readBytes(bytes);
+
+            Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(tmp, bytes);
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            Craneshot.LOGGER.warn("Failed to write camera node cache {}", file, e);
+        } finally {
+            out.release();
+            record.release();
+        }
+    }
+
+    /** The record layout has no null markers for these. */
+    private static CameraNodeDTO toStorable(CameraNodeDTO dto) {
+        if (dto.name != null && dto.position != null && dto.clientRequestId == null) return dto;
+        CameraNodeDTO copy = dto.copy();
+        if (copy.name == null) copy.name = "";
+        if (copy.position == null) copy.position = Vec3d.ZERO;
+        copy.clientRequestId = null;
+        return copy;
+    }
+
+    private record RegionKey(RegistryKey<World> dimension, int regionX, int regionZ) {}
+
+    private record Entry(long hash, List<CameraNodeDTO> nodes) {}
+
+    private record CacheFile(Path path, long modified, long size) {}
+
+    private static final class PendingLoad {
+        final List<Runnable> tasks = new ArrayList<>();
+        final LongOpenHashSet changed = new LongOpenHashSet();
+    }
+
+    private static final class Region {
+        final Long2ObjectOpenHashMap<Entry> chunks;
+        boolean dirty;
+
+        Region(Long2ObjectOpenHashMap<Entry> chunks) {
+            this.chunks = chunks;
+        }
+    }
+}
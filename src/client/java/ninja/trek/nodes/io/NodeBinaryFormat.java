@@ -0,0 +1,123 @@
+package ninja.trek.nodes.io;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.math.Vec3d;
+import ninja.trek.nodes.model.AreaInstance;
+import ninja.trek.nodes.model.AreaInstanceDTO;
+import ninja.trek.nodes.model.AreaShape;
+import ninja.trek.nodes.model.CameraNode;
+import ninja.trek.nodes.model.CameraNodeDTO;
+import ninja.trek.nodes.model.EasingCurve;
+
+import java.io.IOException;
+
+/**
+ * Binary layout of {@code craneshot_nodes.bin}.
+ * <pre>
+ * int     MAGIC
+ * varint  FORMAT_VERSION
+ * varint  node count,  then per node:  varint length + {@link CameraNodeDTO#write} bytes
+ * varint  area count,  then per area:  varint length + {@link AreaInstanceDTO#write} bytes
+ * </pre>
+ * Records reuse the network layouts, so the DTOs' own version fields cover field changes; the
+ * length prefix lets a reader skip bytes a newer record version appended.
+ */
+final class NodeBinaryFormat {
+    static final int MAGIC = 0x43534E44; // "CSND"
+    static final int FORMAT_VERSION = 1;
+
+    private NodeBinaryFormat() {}
+
+    static byte[] write(NodeStorage.Payload payload) {
+        PacketByteBuf out = new PacketByteBuf(Unpooled.buffer());
+        PacketByteBuf record = new PacketByteBuf(Unpooled.buffer());
+        try {
+            out.writeInt(MAGIC);
+            out.writeVarInt(FORMAT_VERSION);
+
+            out.writeVarInt(payload.nodes.size());
+            for (CameraNode node : payload.nodes) {
+                record.clear();
+                toDto(node).write(record);
+                writeRecord(out, record);
+            }
+
+            out.writeVarInt(payload.areas.size());
+            for (AreaInstance area : payload.areas) {
+                record.clear();
+                toDto(area).write(record);
+                writeRecord(out, record);
+            }
+
+            byte[] bytes = new byte[out.readableBytes()];
+            out.readBytes(bytes);
+            return bytes;
+        } finally {
+            out.release();
+            record.release();
+        }
+    }
+
+    static NodeStorage.Payload read(byte[] bytes) throws IOException {
+        PacketByteBuf in = new PacketByteBuf(Unpooled.wrappedBuffer(bytes));
+        NodeStorage.Payload payload = new NodeStorage.Payload();
+        try {
+            if (in.readableBytes() < 4 || in.readInt() != MAGIC) {
+                throw new IOException("Not a camera node file");
+            }
+            int version = in.readVarInt();
+            if (version > FORMAT_VERSION) {
+                throw new IOException("Unsupported camera node format version " + version);
+            }
+
+            int nodeCount = in.readVarInt();
+            for (int i = 0; i < nodeCount; i++) {
+                PacketByteBuf record = readRecord(in);
+                payload.nodes.add(CameraNodeDTO.read(record).toCameraNode());
+            }
+
+            int areaCount = in.readVarInt();
+            for (int i = 0; i < areaCount; i++) {
+                PacketByteBuf record = readRecord(in);
+                payload.areas.add(AreaInstanceDTO.read(record).toAreaInstance());
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Truncated or corrupt camera node file", e);
+        } finally {
+            in.release();
+        }
+        return payload;
+    }
+
+    static void writeRecord(PacketByteBuf out, PacketByteBuf record) {
+        out.writeVarInt(record.readableBytes());
+        out.writeBytes(record, record.readerIndex(), record.readableBytes());
+    }
+
+    static PacketByteBuf readRecord(PacketByteBuf in) throws IOException {
+        int length = in.readVarInt();
+        if (length < 0 || length > in.readableBytes()) {
+            throw new IOException("Camera node record length " + length + " exceeds file");
+        }
+        ByteBuf slice = in.readSlice(length);
+        return new PacketByteBuf(slice);
+    }
+
+    private static CameraNodeDTO toDto(CameraNode node) {
+        CameraNodeDTO dto = CameraNodeDTO.fromCameraNode(node);
+        // The network layout has no null markers for these
+        if (dto.name == null) dto.name = "";
+        if (dto.position == null) dto.position = Vec3d.ZERO;
+        return dto;
+    }
+
+    private static AreaInstanceDTO toDto(AreaInstance area) {
+        AreaInstanceDTO dto = AreaInstanceDTO.fromAreaInstance(area);
+        if (dto.center == null) dto.center = Vec3d.ZERO;
+        if (dto.shape == null) dto.shape = AreaShape.CUBE;
+        if (dto.easing == null) dto.easing = EasingCurve.LINEAR;
+        return dto;
+    }
+}
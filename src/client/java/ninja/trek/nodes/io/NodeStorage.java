@@ -2,13 +2,19 @@ package ninja.trek.nodes.io;
 
 import com.google.gson.*;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.util.math.Vec3d;
+import ninja.trek.Craneshot;
 import ninja.trek.nodes.model.*;
 
 import java.io.*;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 
 public class NodeStorage {
@@ -21,67 +27,168 @@ public class NodeStorage {
             .registerTypeAdapter(Vec3d.class, new Vec3dAdapter())
             .setPrettyPrinting()
             .create();
-    private static File getFile() {
-        // Prefer per-world save under saves/<world>/craneshot_nodes.json when possible (singleplayer)
+    private static final Type NODE_LIST_TYPE = new TypeToken<List<CameraNode>>(){}.getType();
+    private static final Type AREA_LIST_TYPE = new TypeToken<List<AreaInstance>>(){}.getType();
+
+    private static final String FILE_NAME = "craneshot_nodes.bin";
+    private static final String LEGACY_FILE_NAME = "craneshot_nodes.json";
+
+    private static File getStorageDir() {
+        // Prefer per-world save under saves/<world>/ when possible (singleplayer)
         try {
             var mc = MinecraftClient.getInstance();
             if (mc != null && mc.getServer() != null) {
                 java.nio.file.Path root = mc.getServer().getSavePath(net.minecraft.util.WorldSavePath.ROOT);
                 if (root != null) {
-                    File worldFile = root.toFile();
-                    return new File(worldFile, "craneshot_nodes.json");
+                    return root.toFile();
                 }
             }
         } catch (Throwable ignored) {}
         // Fallback to global config
         File cfgDir = new File(MinecraftClient.getInstance().runDirectory, "config");
         if (!cfgDir.exists()) cfgDir.mkdirs();
-        return new File(cfgDir, "craneshot_nodes.json");
+        return cfgDir;
+    }
+
+    private static File getFile() {
+        return new File(getStorageDir(), FILE_NAME);
     }
 
+    /**
+     * Loads the binary store, migrating a legacy {@code craneshot_nodes.json} on first load.
+     * A binary file that fails to parse is moved aside rather than left to be overwritten by the next save.
+     */
     public static Payload load() {
-        Payload payload = new Payload();
-        File f = getFile();
-        if (!f.exists()) return payload;
-        try (Reader r = new InputStreamReader(new FileInputStream(f), StandardCharsets.UTF_8)) {
-            JsonElement root = JsonParser.parseReader(r);
-            if (root == null) return payload;
-            if (root.isJsonArray()) {
-                // Legacy format: array of nodes only
-                List<CameraNode> list = GSON.fromJson(root, new TypeToken<List<CameraNode>>(){}.getType());
-                if (list != null) {
-                    payload.nodes.addAll(list);
-                }
-            } else if (root.isJsonObject()) {
-                JsonObject obj = root.getAsJsonObject();
-                if (obj.has("nodes")) {
-                    List<CameraNode> list = GSON.fromJson(obj.get("nodes"), new TypeToken<List<CameraNode>>(){}.getType());
-                    if (list != null) payload.nodes.addAll(list);
-                }
-                if (obj.has("areas")) {
-                    List<AreaInstance> list = GSON.fromJson(obj.get("areas"), new TypeToken<List<AreaInstance>>(){}.getType());
-                    if (list != null) payload.areas.addAll(list);
+        File dir = getStorageDir();
+        File f = new File(dir, FILE_NAME);
+        File legacy = new File(dir, LEGACY_FILE_NAME);
+        if (f.exists()) {
+            try {
+                return NodeBinaryFormat.read(Files.readAllBytes(f.toPath()));
+            } catch (Exception e) {
+                Craneshot.LOGGER.error("Failed to load camera nodes from {}", f, e);
+                File corrupt = new File(dir, FILE_NAME + ".corrupt");
+                try {
+                    Files.move(f.toPath(), corrupt.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                    Craneshot.LOGGER.warn("Moved unreadable camera node file to {}", corrupt);
+                } catch (IOException moveError) {
+                    Craneshot.LOGGER.error("Failed to move unreadable camera node file {}", f, moveError);
                 }
             }
-        } catch (Exception e) {
-            // logging removed
         }
+        if (!legacy.exists()) return new Payload();
+        Payload payload = loadJson(legacy);
+        migrate(f, legacy, payload);
         return payload;
     }
 
-    public static void save(List<CameraNode> nodes, List<AreaInstance> areas) {
-        File f = getFile();
-        try (Writer w = new OutputStreamWriter(new FileOutputStream(f), StandardCharsets.UTF_8)) {
-            JsonObject root = new JsonObject();
-            root.addProperty("version", 1);
-            root.add("nodes", GSON.toJsonTree(nodes, new TypeToken<List<CameraNode>>(){}.getType()));
-            root.add("areas", GSON.toJsonTree(areas, new TypeToken<List<AreaInstance>>(){}.getType()));
-            GSON.toJson(root, w);
+    private static void migrate(File target, File legacy, Payload payload) {
+        try {
+            write(target, payload);
+            File backup = new File(legacy.getParentFile(), LEGACY_FILE_NAME + ".bak");
+            Files.move(legacy.toPath(), backup.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            Craneshot.LOGGER.info("Migrated {} camera nodes and {} areas from {} to {}",
+                    payload.nodes.size(), payload.areas.size(), legacy.getName(), target.getName());
+        } catch (IOException e) {
+            Craneshot.LOGGER.error("Failed to migrate camera nodes from {}", legacy, e);
+        }
+    }
+
+    private static Payload loadJson(File f) {
+        Payload payload = new Payload();
+        try (Reader r = new BufferedReader(new InputStreamReader(new FileInputStream(f), StandardCharsets.UTF_8))) {
+            readJson(JsonParser.parseReader(r), payload);
         } catch (Exception e) {
-            // logging removed
+            Craneshot.LOGGER.error("Failed to load camera nodes from {}", f, e);
+        }
+        return payload;
+    }
+
+    private static void readJson(JsonElement root, Payload payload) {
+        if (root == null) return;
+        if (root.isJsonArray()) {
+            // Legacy format: array of nodes only
+            List<CameraNode> list = GSON.fromJson(root, NODE_LIST_TYPE);
+            if (list != null) payload.nodes.addAll(list);
+        } else if (root.isJsonObject()) {
+            JsonObject obj = root.getAsJsonObject();
+            if (obj.has("nodes")) {
+                List<CameraNode> list = GSON.fromJson(obj.get("nodes"), NODE_LIST_TYPE);
+                if (list != null) payload.nodes.addAll(list);
+            }
+            if (obj.has("areas")) {
+                List<AreaInstance> list = GSON.fromJson(obj.get("areas"), AREA_LIST_TYPE);
+                if (list != null) payload.areas.addAll(list);
+            }
         }
     }
 
+    /**
+     * Queues a save of the current nodes and areas. Rapid edits are coalesced by
+     * {@link NodeStorageWriter}; the snapshot is taken on the client thread when the debounce
+     * window closes and written off-thread.
+     */
+    public static void save(java.util.function.Supplier<Payload> snapshot) {
+        NodeStorageWriter.schedule(getFile(), snapshot);
+    }
+
+    /** Writes any queued save now, blocking until it is on disk. Call on the client thread. */
+    public static void flush() {
+        NodeStorageWriter.flush();
+    }
+
+    /** Copies nodes and areas so a snapshot can be serialized while the editor keeps mutating the originals. */
+    public static Payload snapshot(Collection<CameraNode> nodes, List<AreaInstance> areas) {
+        Payload payload = new Payload();
+        for (CameraNode node : nodes) {
+            payload.nodes.add(copyNode(node));
+        }
+        for (AreaInstance area : areas) {
+            payload.areas.add(area.copy());
+        }
+        return payload;
+    }
+
+    private static CameraNode copyNode(CameraNode node) {
+        CameraNode copy = new CameraNode();
+        copy.id = node.id;
+        copy.name = node.name;
+        copy.type = node.type;
+        copy.position = node.position;
+        copy.colorARGB = node.colorARGB;
+        copy.owner = node.owner;
+        copy.droneRadius = node.droneRadius;
+        copy.droneSpeedDegPerSec = node.droneSpeedDegPerSec;
+        copy.droneStartAngleDeg = node.droneStartAngleDeg;
+        return copy;
+    }
+
+    /**
+     * Writes the payload in {@link NodeBinaryFormat} to a temp file next to {@code target} and
+     * atomically moves it into place, so a crash mid-write never leaves a truncated save behind.
+     */
+    static void write(File target, Payload payload) throws IOException {
+        File dir = target.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.exists()) dir.mkdirs();
+        Path tmp = new File(dir, target.getName() + ".tmp").toPath();
+        Files.write(tmp, NodeBinaryFormat.write(payload));
+        try {
+            Files.move(tmp, target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void writeJson(JsonWriter json, List<CameraNode> nodes, List<AreaInstance> areas) throws IOException {
+        json.beginObject();
+        json.name("version").value(1);
+        json.name("nodes");
+        GSON.toJson(nodes, NODE_LIST_TYPE, json);
+        json.name("areas");
+        GSON.toJson(areas, AREA_LIST_TYPE, json);
+        json.endObject();
+    }
+
     public static File getExportFile() {
         File cfgDir = new File(MinecraftClient.getInstance().runDirectory, "config");
         if (!cfgDir.exists()) cfgDir.mkdirs();
@@ -90,38 +197,24 @@ public class NodeStorage {
 
     public static boolean exportData(List<CameraNode> nodes, List<AreaInstance> areas) {
         File f = getExportFile();
-        try (Writer w = new OutputStreamWriter(new FileOutputStream(f), StandardCharsets.UTF_8)) {
-            JsonObject root = new JsonObject();
-            root.addProperty("version", 1);
-            root.add("nodes", GSON.toJsonTree(nodes, new TypeToken<List<CameraNode>>(){}.getType()));
-            root.add("areas", GSON.toJsonTree(areas, new TypeToken<List<AreaInstance>>(){}.getType()));
-            GSON.toJson(root, w);
+        try (Writer w = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(f), StandardCharsets.UTF_8));
+             JsonWriter json = GSON.newJsonWriter(w)) {
+            writeJson(json, nodes, areas);
             return true;
-        } catch (Exception e) { return false; }
+        } catch (Exception e) {
+            Craneshot.LOGGER.error("Failed to export camera nodes to {}", f, e);
+            return false;
+        }
     }
 
     public static Payload importData() {
         Payload payload = new Payload();
         File f = getExportFile();
         if (!f.exists()) return payload;
-        try (Reader r = new InputStreamReader(new FileInputStream(f), StandardCharsets.UTF_8)) {
-            JsonElement root = JsonParser.parseReader(r);
-            if (root == null) return payload;
-            if (root.isJsonObject()) {
-                JsonObject obj = root.getAsJsonObject();
-                if (obj.has("nodes")) {
-                    List<CameraNode> list = GSON.fromJson(obj.get("nodes"), new TypeToken<List<CameraNode>>(){}.getType());
-                    if (list != null) payload.nodes.addAll(list);
-                }
-                if (obj.has("areas")) {
-                    List<AreaInstance> list = GSON.fromJson(obj.get("areas"), new TypeToken<List<AreaInstance>>(){}.getType());
-                    if (list != null) payload.areas.addAll(list);
-                }
-            } else if (root.isJsonArray()) {
-                List<CameraNode> list = GSON.fromJson(root, new TypeToken<List<CameraNode>>(){}.getType());
-                if (list != null) payload.nodes.addAll(list);
-            }
+        try (Reader r = new BufferedReader(new InputStreamReader(new FileInputStream(f), StandardCharsets.UTF_8))) {
+            readJson(JsonParser.parseReader(r), payload);
         } catch (Exception e) {
+            Craneshot.LOGGER.error("Failed to import camera nodes from {}", f, e);
             return payload;
         }
         return payload;
@@ -0,0 +1,138 @@
+package ninja.trek.nodes.io;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.text.Text;
+import ninja.trek.Craneshot;
+
+import java.io.File;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Background writer for {@link NodeStorage}.
+ * Saves requested within {@link #DEBOUNCE_MS} of each other collapse into one write. When the window
+ * closes, the snapshot supplier runs on the client thread (the editor mutates nodes there), and the
+ * file is encoded and written on a dedicated thread. {@link #flush()} forces any queued save out
+ * synchronously and is used on world exit and before loading.
+ */
+final class NodeStorageWriter {
+    private static final long DEBOUNCE_MS = 750;
+
+    private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "Craneshot Node Storage");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final Object LOCK = new Object();
+    // Guarded by LOCK
+    private static File pendingFile;
+    private static Supplier<NodeStorage.Payload> pendingSnapshot;
+    private static ScheduledFuture<?> pendingTimer;
+    private static Future<?> lastWrite;
+    private static boolean reportedFailure = false;
+
+    private NodeStorageWriter() {}
+
+    static void schedule(File file, Supplier<NodeStorage.Payload> snapshot) {
+        synchronized (LOCK) {
+            if (pendingFile != null && !pendingFile.equals(file)) {
+                // Target changed (world switch) before the old save went out; write it now
+                flushLocked();
+            }
+            pendingFile = file;
+            pendingSnapshot = snapshot;
+            if (pendingTimer == null) {
+                pendingTimer = EXECUTOR.schedule(NodeStorageWriter::onDebounceElapsed, DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    static void flush() {
+        synchronized (LOCK) {
+            flushLocked();
+        }
+        awaitLastWrite();
+    }
+
+    private static void flushLocked() {
+        if (pendingTimer != null) {
+            pendingTimer.cancel(false);
+            pendingTimer = null;
+        }
+        if (pendingFile == null) return;
+        File file = pendingFile;
+        NodeStorage.Payload payload = takeSnapshot(pendingSnapshot);
+        pendingFile = null;
+        pendingSnapshot = null;
+        if (payload != null) {
+            lastWrite = EXECUTOR.submit(() -> write(file, payload));
+        }
+    }
+
+    /** Runs on the writer thread; hands snapshotting back to the client thread. */
+    private static void onDebounceElapsed() {
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (client == null) return;
+        client.execute(() -> {
+            synchronized (LOCK) {
+                // flush() may have already written this save
+                if (pendingTimer == null) return;
+                pendingTimer = null;
+                flushLocked();
+            }
+        });
+    }
+
+    private static NodeStorage.Payload takeSnapshot(Supplier<NodeStorage.Payload> snapshot) {
+        try {
+            return snapshot.get();
+        } catch (Exception e) {
+            Craneshot.LOGGER.error("Failed to snapshot camera nodes for saving", e);
+            return null;
+        }
+    }
+
+    private static void awaitLastWrite() {
+        Future<?> write;
+        synchronized (LOCK) {
+            write = lastWrite;
+        }
+        if (write == null) return;
+        try {
+            write.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // write() reports its own failures
+        }
+    }
+
+    private static void write(File file, NodeStorage.Payload payload) {
+        try {
+            NodeStorage.write(file, payload);
+            reportedFailure = false;
+        } catch (Exception e) {
+            Craneshot.LOGGER.error("Failed to save camera nodes to {}", file, e);
+            if (!reportedFailure) {
+                reportedFailure = true;
+                notifyPlayer(file);
+            }
+        }
+    }
+
+    private static void notifyPlayer(File file) {
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (client == null) return;
+        client.execute(() -> {
+            if (client.player != null) {
+                client.player.sendMessage(Text.literal("Craneshot: failed to save camera nodes to " + file.getName() + " (see log)"), false);
+            }
+        });
+    }
+}
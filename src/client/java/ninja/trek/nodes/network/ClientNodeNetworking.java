@@ -1,41 +1,74 @@
 package ninja.trek.nodes.network;
 
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientChunkEvents;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
 import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ClientPlayNetworkHandler;
 import net.minecraft.client.world.ClientWorld;
+import net.minecraft.network.RegistryByteBuf;
 import net.minecraft.registry.RegistryKey;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.World;
 import ninja.trek.Craneshot;
 import ninja.trek.nodes.NodeManager;
+import ninja.trek.nodes.io.ChunkNodeCache;
 import ninja.trek.nodes.model.AreaInstanceDTO;
 import ninja.trek.nodes.model.CameraNodeDTO;
-import ninja.trek.nodes.network.payload.ChunkNodesPayload;
+import ninja.trek.nodes.network.payload.BulkEditRequestPayload;
+import ninja.trek.nodes.network.payload.ChunkHashesPayload;
+import ninja.trek.nodes.network.payload.ChunkNodesBatchPayload;
+import ninja.trek.nodes.network.payload.ChunkRequestPayload;
+import ninja.trek.nodes.network.payload.EditRequestPayload;
 import ninja.trek.nodes.network.payload.HandshakePayload;
 import ninja.trek.nodes.network.payload.NodesDeltaPayload;
 import ninja.trek.nodes.network.payload.AreaEditRequestPayload;
 import ninja.trek.nodes.network.payload.AreasDeltaPayload;
 import ninja.trek.nodes.network.payload.AreasSnapshotPayload;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public final class ClientNodeNetworking {
+    // Client ticks to wait for the server to confirm a bulk edit's creates before dropping their local copies
+    private static final int BULK_EDIT_CONFIRM_TICKS = 200;
+
+    // Mirror of the server's edit budget for this player, so bulk edits go out at a rate it accepts
+    private static int budgetOperations = NodeNetworkConstants.EDIT_OPERATIONS_BURST;
+    private static int budgetBytes = NodeNetworkConstants.EDIT_BYTES_BURST;
+    private static final ArrayDeque<QueuedBulkEdit> queuedBulkEdits = new ArrayDeque<>();
+    // Sent bulk edits that create something, by each of their create ids, until one of them is confirmed
+    private static final Map<UUID, SentBulkEdit> unconfirmedBulkEdits = new HashMap<>();
+    private static final List<SentBulkEdit> sentBulkEdits = new ArrayList<>();
+    private static long tickCount = 0L;
+
     private ClientNodeNetworking() {}
 
     public static void register() {
         // Register CustomPayload receivers
         ClientPlayNetworking.registerGlobalReceiver(HandshakePayload.ID, ClientNodeNetworking::handleHandshakePayload);
-        ClientPlayNetworking.registerGlobalReceiver(ChunkNodesPayload.ID, ClientNodeNetworking::handleChunkNodesPayload);
+        ClientPlayNetworking.registerGlobalReceiver(ChunkHashesPayload.ID, ClientNodeNetworking::handleChunkHashesPayload);
+        ClientPlayNetworking.registerGlobalReceiver(ChunkNodesBatchPayload.ID, ClientNodeNetworking::handleChunkNodesBatchPayload);
         ClientPlayNetworking.registerGlobalReceiver(NodesDeltaPayload.ID, ClientNodeNetworking::handleNodesDeltaPayload);
         ClientPlayNetworking.registerGlobalReceiver(AreasSnapshotPayload.ID, ClientNodeNetworking::handleAreasSnapshotPayload);
         ClientPlayNetworking.registerGlobalReceiver(AreasDeltaPayload.ID, ClientNodeNetworking::handleAreasDeltaPayload);
 
-        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> NodeManager.get().onDisconnected());
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> {
+            resetBulkEdits();
+            NodeManager.get().onDisconnected();
+        });
         ClientChunkEvents.CHUNK_UNLOAD.register(ClientNodeNetworking::onChunkUnload);
+        ClientTickEvents.END_CLIENT_TICK.register(ClientNodeNetworking::tickBulkEdits);
+        ClientTickEvents.END_CLIENT_TICK.register(client -> ChunkNodeCache.tick());
     }
 
     private static void handleHandshakePayload(HandshakePayload payload, ClientPlayNetworking.Context context) {
@@ -48,7 +81,10 @@ public final class ClientNodeNetworking {
         }
 
         // Client handlers run on netty thread - must use execute() for client modifications
-        context.client().execute(() -> NodeManager.get().enterServerMode(payload.canEdit()));
+        context.client().execute(() -> {
+            resetBulkEdits();
+            NodeManager.get().enterServerMode(payload.canEdit());
+        });
 
         // Send acknowledgment back to server
         HandshakePayload reply = new HandshakePayload(
@@ -58,11 +94,56 @@ public final class ClientNodeNetworking {
         ClientPlayNetworking.send(reply);
     }
 
-    private static void handleChunkNodesPayload(ChunkNodesPayload payload, ClientPlayNetworking.Context context) {
+    /** Applies cached chunks whose hash still matches and asks the server for the rest. */
+    private static void handleChunkHashesPayload(ChunkHashesPayload payload, ClientPlayNetworking.Context context) {
+        Int2LongOpenHashMap hashByIndex = new Int2LongOpenHashMap(payload.hashes().size());
+        for (ChunkHashesPayload.ChunkHash hash : payload.hashes()) {
+            hashByIndex.put(hash.index(), hash.hash());
+        }
         // Client handlers run on netty thread - must use execute() for client modifications
-        context.client().execute(() ->
-            NodeManager.get().applyChunkSnapshot(payload.dimension(), payload.chunk(), payload.nodes())
-        );
+        context.client().execute(() -> ChunkNodeCache.whenLoaded(payload.dimension(), payload.regionX(), payload.regionZ(), () -> {
+            if (!NodeManager.get().isServerMode()) return;
+            long[] requested = new long[ChunkNodesBatchPayload.COVERAGE_WORDS];
+            boolean anyRequested = false;
+            for (int index = 0; index < ChunkNodesBatchPayload.REGION_SIZE * ChunkNodesBatchPayload.REGION_SIZE; index++) {
+                if (!payload.isCovered(index)) continue;
+                ChunkPos pos = payload.chunkAt(index);
+                if (!hashByIndex.containsKey(index)) {
+                    NodeManager.get().applyChunkSnapshot(payload.dimension(), pos, List.of());
+                    continue;
+                }
+                List<CameraNodeDTO> cached = ChunkNodeCache.lookup(payload.dimension(), pos, hashByIndex.get(index));
+                if (cached != null) {
+                    NodeManager.get().applyChunkSnapshot(payload.dimension(), pos, cached);
+                } else {
+                    ChunkNodesBatchPayload.set(requested, index);
+                    anyRequested = true;
+                }
+            }
+            if (anyRequested) {
+                ClientPlayNetworking.send(new ChunkRequestPayload(payload.dimension(), payload.regionX(), payload.regionZ(), requested));
+            }
+        }));
+    }
+
+    private static void handleChunkNodesBatchPayload(ChunkNodesBatchPayload payload, ClientPlayNetworking.Context context) {
+        Int2ObjectOpenHashMap<ChunkNodesBatchPayload.ChunkEntry> entriesByIndex = new Int2ObjectOpenHashMap<>(payload.chunks().size());
+        for (ChunkNodesBatchPayload.ChunkEntry entry : payload.chunks()) {
+            entriesByIndex.put(entry.index(), entry);
+        }
+        // Client handlers run on netty thread - must use execute() for client modifications
+        context.client().execute(() -> {
+            for (int index = 0; index < ChunkNodesBatchPayload.REGION_SIZE * ChunkNodesBatchPayload.REGION_SIZE; index++) {
+                if (!payload.isCovered(index)) continue;
+                ChunkPos pos = payload.chunkAt(index);
+                ChunkNodesBatchPayload.ChunkEntry entry = entriesByIndex.get(index);
+                List<CameraNodeDTO> nodes = entry != null ? entry.nodes() : List.of();
+                NodeManager.get().applyChunkSnapshot(payload.dimension(), pos, nodes);
+                if (entry != null && NodeManager.get().isServerMode()) {
+                    ChunkNodeCache.store(payload.dimension(), pos, entry.hash(), nodes);
+                }
+            }
+        });
     }
 
     private static void handleNodesDeltaPayload(NodesDeltaPayload payload, ClientPlayNetworking.Context context) {
@@ -79,7 +160,12 @@ public final class ClientNodeNetworking {
                 case UPDATE -> {
                     if (operation.nodeData().isPresent()) {
                         CameraNodeDTO dto = operation.nodeData().get();
-                        tasks.add(() -> NodeManager.get().applyDeltaUpdate(payload.dimension(), payload.chunk(), dto));
+                        int fields = operation.fields();
+                        if (fields == NodeWireCodec.ALL_FIELDS) {
+                            tasks.add(() -> NodeManager.get().applyDeltaUpdate(payload.dimension(), payload.chunk(), dto));
+                        } else {
+                            tasks.add(() -> NodeManager.get().applyDeltaFields(payload.dimension(), payload.chunk(), dto, fields));
+                        }
                     }
                 }
                 case REMOVE -> {
@@ -89,7 +175,10 @@ public final class ClientNodeNetworking {
             }
         }
         // Client handlers run on netty thread - must use execute() for client modifications
-        context.client().execute(() -> tasks.forEach(Runnable::run));
+        context.client().execute(() -> {
+            ChunkNodeCache.noteChunkChanged(payload.dimension(), payload.chunk());
+            tasks.forEach(Runnable::run);
+        });
     }
 
     private static void handleAreasSnapshotPayload(AreasSnapshotPayload payload, ClientPlayNetworking.Context context) {
@@ -116,18 +205,169 @@ public final class ClientNodeNetworking {
     }
 
     private static void onChunkUnload(ClientWorld world, net.minecraft.world.chunk.WorldChunk chunk) {
+        ChunkNodeCache.noteChunkChanged(world.getRegistryKey(), chunk.getPos());
         NodeManager.get().handleChunkUnload(world.getRegistryKey(), chunk.getPos());
     }
 
     public static void sendAreaCreate(RegistryKey<World> dimension, AreaInstanceDTO dto) {
+        chargeSingleRequest();
         ClientPlayNetworking.send(AreaEditRequestPayload.create(dimension, dto));
     }
 
     public static void sendAreaUpdate(RegistryKey<World> dimension, AreaInstanceDTO dto) {
+        chargeSingleRequest();
         ClientPlayNetworking.send(AreaEditRequestPayload.update(dimension, dto));
     }
 
     public static void sendAreaDelete(RegistryKey<World> dimension, UUID areaId) {
+        chargeSingleRequest();
         ClientPlayNetworking.send(AreaEditRequestPayload.delete(dimension, areaId));
     }
+
+    // The server charges every single edit request one operation
+    private static void chargeSingleRequest() {
+        budgetOperations = Math.max(0, budgetOperations - 1);
+    }
+
+    /**
+     * Queues node and area edits as {@link BulkEditRequestPayload}s of at most
+     * {@link BulkEditRequestPayload#MAX_OPERATIONS} each, nodes first so areas can reference them.
+     * Each payload is its own transaction on the server. Payloads go out in order as the mirrored edit
+     * budget allows, so an edit larger than the server's burst allowance is spread over several ticks
+     * instead of having its later payloads rejected. If none of a payload's creates is confirmed within
+     * {@link #BULK_EDIT_CONFIRM_TICKS} of sending it, the server is taken to have rejected it and
+     * {@link NodeManager#discardPendingCreates} drops the local copies.
+     */
+    public static void sendBulkEdit(RegistryKey<World> dimension,
+                                    List<BulkEditRequestPayload.NodeEdit> nodeEdits,
+                                    List<BulkEditRequestPayload.AreaEdit> areaEdits) {
+        List<BulkEditRequestPayload.NodeEdit> nodeBatch = new ArrayList<>();
+        List<BulkEditRequestPayload.AreaEdit> areaBatch = new ArrayList<>();
+        for (BulkEditRequestPayload.NodeEdit edit : nodeEdits) {
+            nodeBatch.add(edit);
+            if (nodeBatch.size() == BulkEditRequestPayload.MAX_OPERATIONS) {
+                queueBulkEdit(new BulkEditRequestPayload(dimension, nodeBatch, List.of()));
+                nodeBatch = new ArrayList<>();
+            }
+        }
+        for (BulkEditRequestPayload.AreaEdit edit : areaEdits) {
+            areaBatch.add(edit);
+            if (nodeBatch.size() + areaBatch.size() == BulkEditRequestPayload.MAX_OPERATIONS) {
+                queueBulkEdit(new BulkEditRequestPayload(dimension, nodeBatch, areaBatch));
+                nodeBatch = new ArrayList<>();
+                areaBatch = new ArrayList<>();
+            }
+        }
+        if (!nodeBatch.isEmpty() || !areaBatch.isEmpty()) {
+            queueBulkEdit(new BulkEditRequestPayload(dimension, nodeBatch, areaBatch));
+        }
+        sendQueuedBulkEdits();
+    }
+
+    /** Called by {@link NodeManager} when the server's copy of something created by a bulk edit arrives. */
+    public static void confirmBulkCreate(UUID clientRequestId) {
+        SentBulkEdit sent = unconfirmedBulkEdits.get(clientRequestId);
+        if (sent == null) return;
+        // A bulk edit is one transaction: one create arriving means all of them were applied
+        for (UUID id : sent.nodeIds()) unconfirmedBulkEdits.remove(id);
+        for (UUID id : sent.areaIds()) unconfirmedBulkEdits.remove(id);
+        sentBulkEdits.remove(sent);
+    }
+
+    private static void queueBulkEdit(BulkEditRequestPayload payload) {
+        int bytes = encodedSize(payload);
+        if (bytes > NodeNetworkConstants.EDIT_BYTES_BURST) {
+            // Could never fit the server's budget; drop it rather than stall everything queued behind it
+            Craneshot.LOGGER.warn("Dropping bulk edit of {} operations: {} bytes exceeds the server's edit budget",
+                    payload.operationCount(), bytes);
+            SentBulkEdit dropped = SentBulkEdit.of(payload, 0L);
+            NodeManager.get().discardPendingCreates(dropped.nodeIds(), dropped.areaIds());
+            return;
+        }
+        queuedBulkEdits.add(new QueuedBulkEdit(payload, bytes));
+    }
+
+    private static void sendQueuedBulkEdits() {
+        while (!queuedBulkEdits.isEmpty()) {
+            QueuedBulkEdit next = queuedBulkEdits.peek();
+            if (next.payload().operationCount() > budgetOperations || next.bytes() > budgetBytes) return;
+            queuedBulkEdits.poll();
+            budgetOperations -= next.payload().operationCount();
+            budgetBytes -= next.bytes();
+            ClientPlayNetworking.send(next.payload());
+            SentBulkEdit sent = SentBulkEdit.of(next.payload(), tickCount + BULK_EDIT_CONFIRM_TICKS);
+            if (sent.nodeIds().isEmpty() && sent.areaIds().isEmpty()) continue;
+            sentBulkEdits.add(sent);
+            for (UUID id : sent.nodeIds()) unconfirmedBulkEdits.put(id, sent);
+            for (UUID id : sent.areaIds()) unconfirmedBulkEdits.put(id, sent);
+        }
+    }
+
+    private static void tickBulkEdits(MinecraftClient client) {
+        tickCount++;
+        budgetOperations = Math.min(NodeNetworkConstants.EDIT_OPERATIONS_BURST,
+                budgetOperations + NodeNetworkConstants.EDIT_OPERATIONS_PER_TICK);
+        budgetBytes = Math.min(NodeNetworkConstants.EDIT_BYTES_BURST,
+                budgetBytes + NodeNetworkConstants.EDIT_BYTES_PER_TICK);
+        if (!queuedBulkEdits.isEmpty()) {
+            if (client.getNetworkHandler() == null) {
+                resetBulkEdits();
+                return;
+            }
+            sendQueuedBulkEdits();
+        }
+        Iterator<SentBulkEdit> it = sentBulkEdits.iterator();
+        while (it.hasNext()) {
+            SentBulkEdit sent = it.next();
+            if (sent.deadline() > tickCount) continue;
+            it.remove();
+            for (UUID id : sent.nodeIds()) unconfirmedBulkEdits.remove(id);
+            for (UUID id : sent.areaIds()) unconfirmedBulkEdits.remove(id);
+            Craneshot.LOGGER.info("Bulk edit of {} creates was not confirmed by the server; dropping its local copies",
+                    sent.nodeIds().size() + sent.areaIds().size());
+            NodeManager.get().discardPendingCreates(sent.nodeIds(), sent.areaIds());
+        }
+    }
+
+    private static void resetBulkEdits() {
+        queuedBulkEdits.clear();
+        unconfirmedBulkEdits.clear();
+        sentBulkEdits.clear();
+        budgetOperations = NodeNetworkConstants.EDIT_OPERATIONS_BURST;
+        budgetBytes = NodeNetworkConstants.EDIT_BYTES_BURST;
+    }
+
+    /** The size the server will charge for the payload: its encoded body, as measured when it is read. */
+    private static int encodedSize(BulkEditRequestPayload payload) {
+        ClientPlayNetworkHandler handler = MinecraftClient.getInstance().getNetworkHandler();
+        if (handler == null) return 0;
+        RegistryByteBuf buf = new RegistryByteBuf(Unpooled.buffer(), handler.getRegistryManager());
+        try {
+            BulkEditRequestPayload.CODEC.encode(buf, payload);
+            return buf.readableBytes();
+        } finally {
+            buf.release();
+        }
+    }
+
+    private record QueuedBulkEdit(BulkEditRequestPayload payload, int bytes) {}
+
+    /** Client ids of the nodes and areas a sent bulk edit creates, and the tick by which one must be confirmed. */
+    private record SentBulkEdit(List<UUID> nodeIds, List<UUID> areaIds, long deadline) {
+        static SentBulkEdit of(BulkEditRequestPayload payload, long deadline) {
+            List<UUID> nodeIds = new ArrayList<>();
+            for (BulkEditRequestPayload.NodeEdit edit : payload.nodeEdits()) {
+                if (edit.operation() == EditRequestPayload.EditOperation.CREATE && edit.nodeData().clientRequestId != null) {
+                    nodeIds.add(edit.nodeData().clientRequestId);
+                }
+            }
+            List<UUID> areaIds = new ArrayList<>();
+            for (BulkEditRequestPayload.AreaEdit edit : payload.areaEdits()) {
+                if (edit.operation() == AreaEditRequestPayload.EditOperation.CREATE && edit.areaData().clientRequestId != null) {
+                    areaIds.add(edit.areaData().clientRequestId);
+                }
+            }
+            return new SentBulkEdit(nodeIds, areaIds, deadline);
+        }
+    }
 }
@@ -0,0 +1,143 @@
+package ninja.trek.nodes.render;
+
+import net.minecraft.util.math.Vec3d;
+import ninja.trek.nodes.model.AreaInstance;
+import ninja.trek.nodes.model.AreaShape;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Line geometry of one area's outer and inner shells relative to its center. Each level of detail is
+ * tessellated the first time it is drawn and kept until the area's shape or radii change, so moving an
+ * area only moves the origin it is drawn at.
+ */
+final class AreaOutline {
+    static final int LOD_LEVELS = 3;
+    private static final int ELLIPSE_SEGMENTS = 64;
+    private static final int EDGE_SEGMENTS = 32;
+    private static final double SQRT_3 = Math.sqrt(3.0);
+
+    // What the geometry was built from
+    private AreaShape shape;
+    private boolean advanced;
+    private double insideRadius;
+    private double outsideRadius;
+    private Vec3d insideRadii;
+    private Vec3d outsideRadii;
+
+    private final Shell[] outer = new Shell[LOD_LEVELS];
+    private final Shell[] inner = new Shell[LOD_LEVELS];
+    private double boundingRadius;
+    long lastFrame;
+
+    AreaOutline(AreaInstance area) {
+        rebuild(area);
+    }
+
+    /** Drops the cached geometry if the area's shape or radii changed since it was built. */
+    void sync(AreaInstance area) {
+        if (area.shape != shape || area.advanced != advanced
+                || area.insideRadius != insideRadius || area.outsideRadius != outsideRadius
+                || !Objects.equals(area.insideRadii, insideRadii) || !Objects.equals(area.outsideRadii, outsideRadii)) {
+            rebuild(area);
+        }
+    }
+
+    /** Radius of a sphere around the center that contains both shells. */
+    double boundingRadius() {
+        return boundingRadius;
+    }
+
+    Shell outer(int lod) {
+        Shell shell = outer[lod];
+        if (shell == null) {
+            shell = build(advanced ? outsideRadii : null, outsideRadius, true, lod);
+            outer[lod] = shell;
+        }
+        return shell;
+    }
+
+    Shell inner(int lod) {
+        Shell shell = inner[lod];
+        if (shell == null) {
+            shell = build(advanced ? insideRadii : null, insideRadius, false, lod);
+            inner[lod] = shell;
+        }
+        return shell;
+    }
+
+    private void rebuild(AreaInstance area) {
+        shape = area.shape;
+        advanced = area.advanced;
+        insideRadius = area.insideRadius;
+        outsideRadius = area.outsideRadius;
+        insideRadii = area.insideRadii;
+        outsideRadii = area.outsideRadii;
+        Arrays.fill(outer, null);
+        Arrays.fill(inner, null);
+        double outerExtent = advanced && outsideRadii != null ? outsideRadii.length() : Math.abs(outsideRadius) * SQRT_3;
+        double innerExtent = advanced && insideRadii != null ? insideRadii.length() : Math.abs(insideRadius) * SQRT_3;
+        boundingRadius = Math.max(outerExtent, innerExtent);
+    }
+
+    private Shell build(Vec3d radii, double radius, boolean isOuter, int lod) {
+        if (shape == AreaShape.CUBE) {
+            if (radii != null) return box(radii.x, radii.y, radii.z, EDGE_SEGMENTS >> lod, true);
+            // Legacy cubes draw a solid outer edge and a dashed inner one
+            return isOuter ? box(radius, radius, radius, 1, false) : box(radius, radius, radius, EDGE_SEGMENTS >> lod, true);
+        }
+        int segments = ELLIPSE_SEGMENTS >> lod;
+        if (radii == null) {
+            // Legacy spheres only show their horizontal ring
+            float[] points = new float[(segments + 1) * 3];
+            ellipse(points, 0, segments, 0, 2, radius, radius);
+            return new Shell(points, 1, segments, true);
+        }
+        float[] points = new float[3 * (segments + 1) * 3];
+        int offset = ellipse(points, 0, segments, 0, 2, radii.x, radii.z);
+        offset = ellipse(points, offset, segments, 0, 1, radii.x, radii.y);
+        ellipse(points, offset, segments, 1, 2, radii.y, radii.z);
+        return new Shell(points, 3, segments, true);
+    }
+
+    /** Writes a closed ellipse in the plane of axes {@code a} and {@code b} (0 = x, 1 = y, 2 = z). */
+    private static int ellipse(float[] points, int offset, int segments, int a, int b, double ra, double rb) {
+        for (int i = 0; i <= segments; i++) {
+            double ang = (i * 2 * Math.PI) / segments;
+            points[offset + a] = (float) (Math.cos(ang) * ra);
+            points[offset + b] = (float) (Math.sin(ang) * rb);
+            offset += 3;
+        }
+        return offset;
+    }
+
+    private static Shell box(double hx, double hy, double hz, int segments, boolean dashed) {
+        double x0 = -hx, x1 = hx;
+        double y0 = -hy, y1 = hy;
+        double z0 = -hz, z1 = hz;
+        double[][] edges = {
+                {x0, y0, z0, x1, y0, z0}, {x0, y0, z0, x0, y1, z0}, {x0, y0, z0, x0, y0, z1},
+                {x1, y1, z1, x0, y1, z1}, {x1, y1, z1, x1, y0, z1}, {x1, y1, z1, x1, y1, z0},
+                {x1, y0, z0, x1, y1, z0}, {x1, y0, z0, x1, y0, z1}, {x0, y1, z0, x1, y1, z0},
+                {x0, y1, z0, x0, y1, z1}, {x0, y0, z1, x1, y0, z1}, {x0, y0, z1, x0, y1, z1}
+        };
+        float[] points = new float[edges.length * (segments + 1) * 3];
+        int offset = 0;
+        for (double[] e : edges) {
+            for (int i = 0; i <= segments; i++) {
+                double t = i / (double) segments;
+                points[offset++] = (float) (e[0] + (e[3] - e[0]) * t);
+                points[offset++] = (float) (e[1] + (e[4] - e[1]) * t);
+                points[offset++] = (float) (e[2] + (e[5] - e[2]) * t);
+            }
+        }
+        return new Shell(points, edges.length, segments, dashed);
+    }
+
+    /**
+     * {@code lines} polylines of {@code segments + 1} points each, packed as xyz. A dashed shell shows
+     * segment {@code i} of a polyline (1-based) only where the dash pattern is on at {@code i / segments}.
+     */
+    record Shell(float[] points, int lines, int segments, boolean dashed) {}
+}
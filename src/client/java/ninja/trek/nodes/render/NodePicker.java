@@ -0,0 +1,158 @@
+package ninja.trek.nodes.render;
+
+import it.unimi.dsi.fastutil.floats.FloatArrayList;
+import net.minecraft.client.render.Camera;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+import ninja.trek.nodes.model.CameraNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Screen-space picking for the node editor. While drawing, {@link NodeRenderer} projects each node it
+ * draws into a coarse grid over the screen, so finding the node nearest the cursor only looks at the
+ * cells around it and is cheap enough to run for hover feedback every frame. Picks made without a
+ * recent frame (node rendering is off) project the nodes on the spot.
+ * Client thread only.
+ */
+public final class NodePicker {
+    private static final int GRID = 32;
+    private static final long STALE_NANOS = 250_000_000L;
+    // Nodes closer to the camera plane than this are not projected
+    private static final double NEAR = 0.05;
+
+    private static final ViewVolume CAPTURE_VIEW = new ViewVolume();
+    private static final List<CameraNode> nodes = new ArrayList<>();
+    // Normalized device coordinates, x/y per node
+    private static final FloatArrayList ndc = new FloatArrayList();
+    private static final int[] cellStart = new int[GRID * GRID + 1];
+    private static int[] cellNodes = new int[0];
+    private static ViewVolume view;
+    private static Vec3d origin = Vec3d.ZERO;
+    private static long builtAt = Long.MIN_VALUE;
+
+    private NodePicker() {}
+
+    static void beginFrame(ViewVolume frameView, Vec3d cameraPos) {
+        view = frameView;
+        origin = cameraPos;
+        nodes.clear();
+        ndc.clear();
+    }
+
+    /** Records a node drawn this frame at camera-relative {@code (x, y, z)}. */
+    static void add(CameraNode node, double x, double y, double z) {
+        double zCam = x * view.forwardX + y * view.forwardY + z * view.forwardZ;
+        if (zCam <= NEAR) return;
+        double xCam = x * view.rightX + y * view.rightY + z * view.rightZ;
+        double yCam = x * view.upX + y * view.upY + z * view.upZ;
+        nodes.add(node);
+        ndc.add((float) (xCam / (zCam * view.projTanX)));
+        ndc.add((float) (yCam / (zCam * view.projTanY)));
+    }
+
+    /** Buckets the recorded nodes by grid cell. */
+    static void endFrame() {
+        int count = nodes.size();
+        if (cellNodes.length < count) cellNodes = new int[Math.max(count, cellNodes.length * 2)];
+        Arrays.fill(cellStart, 0);
+        for (int i = 0; i < count; i++) {
+            cellStart[cellOf(i) + 1]++;
+        }
+        for (int c = 0; c < GRID * GRID; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        int[] fill = Arrays.copyOf(cellStart, GRID * GRID);
+        for (int i = 0; i < count; i++) {
+            cellNodes[fill[cellOf(i)]++] = i;
+        }
+        builtAt = System.nanoTime();
+    }
+
+    /** Whether the last frame's projection is recent enough to pick against. */
+    public static boolean isCurrent() {
+        return view != null && System.nanoTime() - builtAt < STALE_NANOS;
+    }
+
+    /** Projects {@code all} for the current camera, for picks while the renderer is not drawing nodes. */
+    public static void capture(Camera camera, Collection<CameraNode> all) {
+        CAPTURE_VIEW.update(camera, Double.MAX_VALUE);
+        Vec3d camPos = camera.getPos();
+        beginFrame(CAPTURE_VIEW, camPos);
+        for (CameraNode node : all) {
+            if (node.position == null) continue;
+            add(node, node.position.x - camPos.x, node.position.y - camPos.y, node.position.z - camPos.z);
+        }
+        endFrame();
+    }
+
+    /**
+     * The node whose projection is nearest {@code (mouseX, mouseY)} on a {@code screenW x screenH}
+     * screen, or null if none is within {@code maxPixels}.
+     */
+    public static CameraNode pickNode(double mouseX, double mouseY, int screenW, int screenH, double maxPixels) {
+        if (view == null || nodes.isEmpty() || screenW <= 0 || screenH <= 0) return null;
+        double cellW = screenW / (double) GRID;
+        double cellH = screenH / (double) GRID;
+        double minCell = Math.min(cellW, cellH);
+        int mx = MathHelper.clamp((int) Math.floor(mouseX / cellW), 0, GRID - 1);
+        int my = MathHelper.clamp((int) Math.floor(mouseY / cellH), 0, GRID - 1);
+
+        double best = maxPixels * maxPixels;
+        int bestIndex = -1;
+        for (int ring = 0; ring < GRID; ring++) {
+            // Anything in this ring or beyond is at least this far from the cursor
+            double reach = Math.max(0, ring - 1) * minCell;
+            if (reach * reach > best) break;
+            for (int gy = my - ring; gy <= my + ring; gy++) {
+                if (gy < 0 || gy >= GRID) continue;
+                boolean edgeRow = gy == my - ring || gy == my + ring;
+                int step = edgeRow ? 1 : Math.max(1, 2 * ring);
+                for (int gx = mx - ring; gx <= mx + ring; gx += step) {
+                    if (gx < 0 || gx >= GRID) continue;
+                    int cell = gy * GRID + gx;
+                    for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                        int i = cellNodes[k];
+                        double sx = (ndc.getFloat(2 * i) + 1.0) * 0.5 * screenW;
+                        double sy = (1.0 - ndc.getFloat(2 * i + 1)) * 0.5 * screenH;
+                        double dx = sx - mouseX;
+                        double dy = sy - mouseY;
+                        double d2 = dx * dx + dy * dy;
+                        if (d2 < best) {
+                            best = d2;
+                            bestIndex = i;
+                        }
+                    }
+                }
+            }
+        }
+        return bestIndex >= 0 ? nodes.get(bestIndex) : null;
+    }
+
+    /** Camera position of the last projection, where pick rays start. */
+    public static Vec3d rayOrigin() {
+        return origin;
+    }
+
+    /** Unit world-space direction of the ray through {@code (mouseX, mouseY)}, or null without a projection. */
+    public static Vec3d rayDirection(double mouseX, double mouseY, int screenW, int screenH) {
+        if (view == null || screenW <= 0 || screenH <= 0) return null;
+        double nx = (mouseX / screenW) * 2.0 - 1.0;
+        double ny = 1.0 - (mouseY / screenH) * 2.0;
+        double sx = nx * view.projTanX;
+        double sy = ny * view.projTanY;
+        return new Vec3d(
+                view.forwardX + view.rightX * sx + view.upX * sy,
+                view.forwardY + view.rightY * sx + view.upY * sy,
+                view.forwardZ + view.rightZ * sx + view.upZ * sy).normalize();
+    }
+
+    private static int cellOf(int i) {
+        int gx = MathHelper.clamp((int) Math.floor((ndc.getFloat(2 * i) + 1.0) * 0.5 * GRID), 0, GRID - 1);
+        int gy = MathHelper.clamp((int) Math.floor((1.0 - ndc.getFloat(2 * i + 1)) * 0.5 * GRID), 0, GRID - 1);
+        return gy * GRID + gx;
+    }
+}
@@ -1,6 +1,8 @@
 package ninja.trek.nodes.render;
 
+import it.unimi.dsi.fastutil.floats.FloatArrayList;
 import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.render.Camera;
 import net.minecraft.client.render.RenderLayer;
 import net.minecraft.client.render.command.OrderedRenderCommandQueue;
 import net.minecraft.client.render.state.WorldRenderState;
@@ -9,13 +11,31 @@ import net.minecraft.util.math.Vec3d;
 import ninja.trek.config.GeneralMenuSettings;
 import ninja.trek.nodes.NodeManager;
 import ninja.trek.nodes.model.AreaInstance;
-import ninja.trek.nodes.model.AreaShape;
 import ninja.trek.nodes.model.CameraNode;
-import org.joml.Vector3f;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Draws camera nodes and area outlines while editing. Anything outside the view volume or the render
+ * distance is skipped, area outlines come from {@link AreaOutline} at a level of detail picked from
+ * their on-screen size, and every line of the frame goes to the queue as one batch. Drawn nodes are
+ * handed to {@link NodePicker} for the editor's picking.
+ */
 public class NodeRenderer {
     private static final float DASH_LENGTH = 0.5f / 8f;
     private static final float GAP_LENGTH = 0.3f / 8f;
+    private static final float NODE_SIZE = 0.2f;
+    // Projected radii in pixels above which an area is drawn at LOD 0 and 1. Below them, the fewer
+    // segments of an ellipse stray less than half a pixel from the full tessellation.
+    private static final double LOD0_PIXELS = 100.0;
+    private static final double LOD1_PIXELS = 25.0;
+
+    private static final ViewVolume VIEW = new ViewVolume();
+    private static final FloatArrayList LINES = new FloatArrayList();
+    private static final Map<UUID, AreaOutline> OUTLINES = new HashMap<>();
+    private static long frame = 0L;
 
     public static void render(MatrixStack matrices, WorldRenderState state, OrderedRenderCommandQueue queue) {
         NodeManager manager = NodeManager.get();
@@ -23,312 +43,148 @@ public class NodeRenderer {
         if (!manager.isEditing() && !showOutsideEdit) return;
         if (manager.getNodes().isEmpty() && manager.getAreas().isEmpty()) return;
 
-        Vec3d camPos = MinecraftClient.getInstance().gameRenderer.getCamera().getPos();
+        Camera camera = MinecraftClient.getInstance().gameRenderer.getCamera();
+        Vec3d camPos = camera.getPos();
         int viewDist = Math.max(2, MinecraftClient.getInstance().options.getViewDistance().getValue());
-        int camCX = (int)Math.floor(camPos.x) >> 4;
-        int camCZ = (int)Math.floor(camPos.z) >> 4;
-        int fullbright = 0x00F000F0;
+        VIEW.update(camera, (viewDist + 1) * 16.0);
+        NodePicker.beginFrame(VIEW, camPos);
+        frame++;
 
         long nowMs = System.currentTimeMillis();
         float dashPhase = (nowMs % (1000L * 8)) / (1000f * 8); // 0..1 over 8 seconds
 
+        CameraNode sel = manager.getSelected();
+        UUID hoveredNode = manager.getHoveredNodeId();
         for (CameraNode node : manager.getNodes()) {
-            int nCX = (int)Math.floor(node.position.x) >> 4;
-            int nCZ = (int)Math.floor(node.position.z) >> 4;
-            if (Math.abs(nCX - camCX) > viewDist || Math.abs(nCZ - camCZ) > viewDist) continue;
+            double x = node.position.x - camPos.x;
+            double y = node.position.y - camPos.y;
+            double z = node.position.z - camPos.z;
+            if (!VIEW.isSphereVisible(x, y, z, NODE_SIZE * 1.5)) continue;
+            NodePicker.add(node, x, y, z);
             int color = node.colorARGB != null ? node.colorARGB : 0xFFFFFFFF;
             float a = ((color >> 24) & 0xFF) / 255f;
             float r = ((color >> 16) & 0xFF) / 255f;
             float g = ((color >> 8) & 0xFF) / 255f;
             float b = (color & 0xFF) / 255f;
 
-            Vec3d rel = node.position.subtract(camPos);
-            float size = 0.2f;
-            drawBillboardQuad(queue, matrices, rel, size, r, g, b, a, fullbright);
-            CameraNode sel = manager.getSelected();
+            drawBillboard(x, y, z, NODE_SIZE, r, g, b, a, true);
             if (sel != null && sel.id.equals(node.id)) {
-                drawBillboardOutline(queue, matrices, rel, size * 1.1f, 1f, 1f, 1f, a, fullbright);
+                drawBillboard(x, y, z, NODE_SIZE * 1.1f, 1f, 1f, 1f, a, false);
+            } else if (node.id.equals(hoveredNode)) {
+                drawBillboard(x, y, z, NODE_SIZE * 1.1f, 1f, 0.9f, 0.4f, a, false);
             }
         }
+        NodePicker.endFrame();
 
         AreaInstance selectedArea = manager.getSelectedArea();
+        UUID hoveredArea = manager.getHoveredAreaId();
         for (AreaInstance area : manager.getAreas()) {
+            AreaOutline outline = OUTLINES.get(area.id);
+            if (outline == null) {
+                outline = new AreaOutline(area);
+                OUTLINES.put(area.id, outline);
+            } else {
+                outline.sync(area);
+            }
+            outline.lastFrame = frame;
+
+            Vec3d worldCenter = area.center != null ? area.center : Vec3d.ZERO;
+            double cx = worldCenter.x - camPos.x;
+            double cy = worldCenter.y - camPos.y;
+            double cz = worldCenter.z - camPos.z;
+            double radius = outline.boundingRadius();
+            if (!VIEW.isSphereVisible(cx, cy, cz, radius)) continue;
+
             boolean isSelected = selectedArea != null && selectedArea.id.equals(area.id);
-            int color = isSelected ? 0xFF66FFAA : 0xFF4CB3FF;
+            int color = isSelected ? 0xFF66FFAA : area.id.equals(hoveredArea) ? 0xFFFFE066 : 0xFF4CB3FF;
             float a = 0.65f;
             float r = ((color >> 16) & 0xFF) / 255f;
             float g = ((color >> 8) & 0xFF) / 255f;
             float b = (color & 0xFF) / 255f;
-            float rr = r * 0.6f;
-            float gg = g * 0.6f;
-            float bb = b * 0.6f;
-
-            Vec3d worldCenter = area.center != null ? area.center : Vec3d.ZERO;
-            Vec3d relCenter = worldCenter.subtract(camPos);
-            if (area.shape == AreaShape.CUBE) {
-                if (area.advanced && area.outsideRadii != null) {
-                    drawBoxOutline(queue, matrices, relCenter, area.outsideRadii, r, g, b, a, fullbright, true, dashPhase);
-                } else {
-                    drawCubeOutline(queue, matrices, relCenter, area.outsideRadius, r, g, b, a, fullbright);
-                }
 
-                if (area.advanced && area.insideRadii != null) {
-                    drawBoxOutline(queue, matrices, relCenter, area.insideRadii, rr, gg, bb, a, fullbright, true, 0f);
-                } else {
-                    Vec3d inner = new Vec3d(area.insideRadius, area.insideRadius, area.insideRadius);
-                    drawBoxOutline(queue, matrices, relCenter, inner, rr, gg, bb, a, fullbright, true, 0f);
-                }
-            } else {
-                if (area.advanced && area.outsideRadii != null) {
-                    drawEllipsoidApprox(queue, matrices, relCenter, area.outsideRadii, r, g, b, a, fullbright, true, dashPhase);
-                } else {
-                    drawDashedEllipse(queue, matrices, relCenter, area.outsideRadius, area.outsideRadius, r, g, b, a, fullbright, dashPhase);
-                }
-
-                if (area.advanced && area.insideRadii != null) {
-                    drawEllipsoidApprox(queue, matrices, relCenter, area.insideRadii, rr, gg, bb, a, fullbright, true, 0f);
-                } else {
-                    drawDashedEllipse(queue, matrices, relCenter, area.insideRadius, area.insideRadius, rr, gg, bb, a, fullbright, 0f);
-                }
-            }
+            int lod = lodFor(radius, Math.sqrt(cx * cx + cy * cy + cz * cz));
+            drawShell(outline.outer(lod), cx, cy, cz, r, g, b, a, dashPhase);
+            drawShell(outline.inner(lod), cx, cy, cz, r * 0.6f, g * 0.6f, b * 0.6f, a, 0f);
         }
-    }
-
-    private static void submitLine(OrderedRenderCommandQueue queue, MatrixStack matrices,
-                                   float r, float g, float b, float a, int light,
-                                   double ax, double ay, double az, double bx, double by, double bz) {
-        RenderLayer layer = RenderLayer.getLines();
-        var bq = queue.getBatchingQueue(1000);
-        var cam = MinecraftClient.getInstance().gameRenderer.getCamera();
-        var rot = cam.getRotation();
-        Vector3f forward = new Vector3f(0f, 0f, -1f).rotate(rot);
-        final float nx = forward.x, ny = forward.y, nz = forward.z;
-
-        bq.submitCustom(matrices, layer, (entry, vc) -> {
-            vc.vertex(entry, (float)ax, (float)ay, (float)az).color(r, g, b, a).normal(entry, nx, ny, nz);
-            vc.vertex(entry, (float)bx, (float)by, (float)bz).color(r, g, b, a).normal(entry, nx, ny, nz);
-        });
-    }
-
-    private static void drawBillboardQuad(OrderedRenderCommandQueue queue, MatrixStack matrices, Vec3d c,
-                                          float size, float r, float g, float b, float a, int light) {
-        var cam = MinecraftClient.getInstance().gameRenderer.getCamera();
-        var rot = cam.getRotation();
-        Vector3f rv = new Vector3f(1, 0, 0).rotate(rot);
-        Vector3f uv = new Vector3f(0, 1, 0).rotate(rot);
-        Vec3d right = new Vec3d(rv.x, rv.y, rv.z).multiply(size);
-        Vec3d up = new Vec3d(uv.x, uv.y, uv.z).multiply(size);
-        Vec3d p0 = c.subtract(right).subtract(up);
-        Vec3d p1 = c.add(right).subtract(up);
-        Vec3d p2 = c.add(right).add(up);
-        Vec3d p3 = c.subtract(right).add(up);
-        submitLine(queue, matrices, r, g, b, a, light, p0.x, p0.y, p0.z, p1.x, p1.y, p1.z);
-        submitLine(queue, matrices, r, g, b, a, light, p1.x, p1.y, p1.z, p2.x, p2.y, p2.z);
-        submitLine(queue, matrices, r, g, b, a, light, p2.x, p2.y, p2.z, p3.x, p3.y, p3.z);
-        submitLine(queue, matrices, r, g, b, a, light, p3.x, p3.y, p3.z, p0.x, p0.y, p0.z);
-        submitLine(queue, matrices, r, g, b, a, light, p0.x, p0.y, p0.z, p2.x, p2.y, p2.z);
-        submitLine(queue, matrices, r, g, b, a, light, p1.x, p1.y, p1.z, p3.x, p3.y, p3.z);
-    }
-
-    private static void drawBillboardOutline(OrderedRenderCommandQueue queue, MatrixStack matrices, Vec3d c,
-                                             float size, float r, float g, float b, float a, int light) {
-        var cam = MinecraftClient.getInstance().gameRenderer.getCamera();
-        var rot = cam.getRotation();
-        Vector3f rv = new Vector3f(1, 0, 0).rotate(rot);
-        Vector3f uv = new Vector3f(0, 1, 0).rotate(rot);
-        Vec3d right = new Vec3d(rv.x, rv.y, rv.z).multiply(size);
-        Vec3d up = new Vec3d(uv.x, uv.y, uv.z).multiply(size);
-        Vec3d p0 = c.subtract(right).subtract(up);
-        Vec3d p1 = c.add(right).subtract(up);
-        Vec3d p2 = c.add(right).add(up);
-        Vec3d p3 = c.subtract(right).add(up);
-        submitLine(queue, matrices, r, g, b, a, light, p0.x, p0.y, p0.z, p1.x, p1.y, p1.z);
-        submitLine(queue, matrices, r, g, b, a, light, p1.x, p1.y, p1.z, p2.x, p2.y, p2.z);
-        submitLine(queue, matrices, r, g, b, a, light, p2.x, p2.y, p2.z, p3.x, p3.y, p3.z);
-        submitLine(queue, matrices, r, g, b, a, light, p3.x, p3.y, p3.z, p0.x, p0.y, p0.z);
-    }
-
-    private static void drawCubeOutline(OrderedRenderCommandQueue queue, MatrixStack matrices, Vec3d center,
-                                        double radius, float r, float g, float b, float a, int light) {
-        double x0 = center.x - radius, x1 = center.x + radius;
-        double y0 = center.y - radius, y1 = center.y + radius;
-        double z0 = center.z - radius, z1 = center.z + radius;
-
-        submitLine(queue, matrices, r, g, b, a, light, x0, y0, z0, x1, y0, z0);
-        submitLine(queue, matrices, r, g, b, a, light, x0, y0, z0, x0, y1, z0);
-        submitLine(queue, matrices, r, g, b, a, light, x0, y0, z0, x0, y0, z1);
-
-        submitLine(queue, matrices, r, g, b, a, light, x1, y1, z1, x0, y1, z1);
-        submitLine(queue, matrices, r, g, b, a, light, x1, y1, z1, x1, y0, z1);
-        submitLine(queue, matrices, r, g, b, a, light, x1, y1, z1, x1, y1, z0);
-
-        submitLine(queue, matrices, r, g, b, a, light, x1, y0, z0, x1, y1, z0);
-        submitLine(queue, matrices, r, g, b, a, light, x1, y0, z0, x1, y0, z1);
-        submitLine(queue, matrices, r, g, b, a, light, x0, y1, z0, x1, y1, z0);
-        submitLine(queue, matrices, r, g, b, a, light, x0, y1, z0, x0, y1, z1);
-        submitLine(queue, matrices, r, g, b, a, light, x0, y0, z1, x1, y0, z1);
-        submitLine(queue, matrices, r, g, b, a, light, x0, y0, z1, x0, y1, z1);
-    }
-
-    private static void drawEllipsoidApprox(OrderedRenderCommandQueue queue, MatrixStack matrices, Vec3d center,
-                                            Vec3d radii, float r, float g, float b, float a, int light,
-                                            boolean dashed, float phase) {
-        if (!dashed) {
-            drawEllipseApprox(queue, matrices, center, radii.x, radii.z, r, g, b, a, light);
-            drawEllipseApproxVertical(queue, matrices, center, radii.x, radii.y, r, g, b, a, light);
-            drawEllipseApproxVerticalYZ(queue, matrices, center, radii.y, radii.z, r, g, b, a, light);
-        } else {
-            drawDashedEllipse(queue, matrices, center, radii.x, radii.z, r, g, b, a, light, phase);
-            drawDashedEllipseVertical(queue, matrices, center, radii.x, radii.y, r, g, b, a, light, phase);
-            drawDashedEllipseVerticalYZ(queue, matrices, center, radii.y, radii.z, r, g, b, a, light, phase);
+        // Forget outlines of areas that are gone
+        if (OUTLINES.size() > manager.getAreas().size()) {
+            long current = frame;
+            OUTLINES.values().removeIf(outline -> outline.lastFrame != current);
         }
-    }
-
-    private static void drawEllipseApprox(OrderedRenderCommandQueue queue, MatrixStack matrices, Vec3d center,
-                                          double rx, double rz, float r, float g, float b, float a, int light) {
-        int seg = 28;
-        double prevx = center.x + rx, prevz = center.z;
-        double prevy = center.y;
-        for (int i = 1; i <= seg; i++) {
-            double ang = (i * 2 * Math.PI) / seg;
-            double x = center.x + Math.cos(ang) * rx;
-            double z = center.z + Math.sin(ang) * rz;
-            submitLine(queue, matrices, r, g, b, a, light, prevx, prevy, prevz, x, center.y, z);
-            prevx = x;
-            prevz = z;
-        }
-    }
-
-    private static void drawEllipseApproxVertical(OrderedRenderCommandQueue queue, MatrixStack matrices, Vec3d center,
-                                                  double rx, double ry, float r, float g, float b, float a, int light) {
-        int seg = 28;
-        double prevx = center.x + rx, prevy = center.y, prevz = center.z;
-        for (int i = 1; i <= seg; i++) {
-            double ang = (i * 2 * Math.PI) / seg;
-            double x = center.x + Math.cos(ang) * rx;
-            double y = center.y + Math.sin(ang) * ry;
-            submitLine(queue, matrices, r, g, b, a, light, prevx, prevy, prevz, x, y, center.z);
-            prevx = x;
-            prevy = y;
-        }
-    }
 
-    private static void drawEllipseApproxVerticalYZ(OrderedRenderCommandQueue queue, MatrixStack matrices, Vec3d center,
-                                                    double ry, double rz, float r, float g, float b, float a, int light) {
-        int seg = 28;
-        double prevy = center.y + ry, prevz = center.z;
-        double prevx = center.x;
-        for (int i = 1; i <= seg; i++) {
-            double ang = (i * 2 * Math.PI) / seg;
-            double y = center.y + Math.cos(ang) * ry;
-            double z = center.z + Math.sin(ang) * rz;
-            submitLine(queue, matrices, r, g, b, a, light, prevx, prevy, prevz, center.x, y, z);
-            prevy = y;
-            prevz = z;
-        }
+        submitLines(queue, matrices);
     }
 
-    private static void drawDashedEllipse(OrderedRenderCommandQueue queue, MatrixStack matrices, Vec3d center,
-                                          double rx, double rz, float r, float g, float b, float a, int light,
-                                          float phase) {
-        int seg = 64;
-        double prevx = center.x + rx, prevz = center.z;
-        double prevy = center.y;
-        for (int i = 1; i <= seg; i++) {
-            double t = i / (double) seg;
-            double ang = t * 2 * Math.PI;
-            double x = center.x + Math.cos(ang) * rx;
-            double z = center.z + Math.sin(ang) * rz;
-            if (isDashVisible(t, phase)) {
-                submitLine(queue, matrices, r, g, b, a, light, prevx, prevy, prevz, x, center.y, z);
-            }
-            prevx = x;
-            prevz = z;
-        }
+    private static int lodFor(double radius, double distance) {
+        double pixels = radius / (Math.max(1.0, distance) * VIEW.projTanY) * VIEW.halfHeightPixels;
+        if (pixels > LOD0_PIXELS) return 0;
+        if (pixels > LOD1_PIXELS) return 1;
+        return AreaOutline.LOD_LEVELS - 1;
     }
 
-    private static void drawDashedEllipseVertical(OrderedRenderCommandQueue queue, MatrixStack matrices, Vec3d center,
-                                                  double rx, double ry, float r, float g, float b, float a, int light,
-                                                  float phase) {
-        int seg = 64;
-        double prevx = center.x + rx, prevy = center.y, prevz = center.z;
-        for (int i = 1; i <= seg; i++) {
-            double t = i / (double) seg;
-            double ang = t * 2 * Math.PI;
-            double x = center.x + Math.cos(ang) * rx;
-            double y = center.y + Math.sin(ang) * ry;
-            if (isDashVisible(t, phase)) {
-                submitLine(queue, matrices, r, g, b, a, light, prevx, prevy, prevz, x, y, center.z);
+    private static void drawShell(AreaOutline.Shell shell, double ox, double oy, double oz,
+                                  float r, float g, float b, float a, float phase) {
+        float[] p = shell.points();
+        int segments = shell.segments();
+        int stride = (segments + 1) * 3;
+        for (int line = 0; line < shell.lines(); line++) {
+            int base = line * stride;
+            for (int i = 1; i <= segments; i++) {
+                if (shell.dashed() && !isDashVisible(i / (double) segments, phase)) continue;
+                int p0 = base + (i - 1) * 3;
+                int p1 = p0 + 3;
+                addLine(ox + p[p0], oy + p[p0 + 1], oz + p[p0 + 2],
+                        ox + p[p1], oy + p[p1 + 1], oz + p[p1 + 2], r, g, b, a);
             }
-            prevx = x;
-            prevy = y;
         }
     }
 
-    private static void drawDashedEllipseVerticalYZ(OrderedRenderCommandQueue queue, MatrixStack matrices, Vec3d center,
-                                                    double ry, double rz, float r, float g, float b, float a, int light,
-                                                    float phase) {
-        int seg = 64;
-        double prevy = center.y + ry, prevz = center.z;
-        double prevx = center.x;
-        for (int i = 1; i <= seg; i++) {
-            double t = i / (double) seg;
-            double ang = t * 2 * Math.PI;
-            double y = center.y + Math.cos(ang) * ry;
-            double z = center.z + Math.sin(ang) * rz;
-            if (isDashVisible(t, phase)) {
-                submitLine(queue, matrices, r, g, b, a, light, prevx, prevy, prevz, center.x, y, z);
-            }
-            prevy = y;
-            prevz = z;
+    private static void drawBillboard(double cx, double cy, double cz, float size,
+                                      float r, float g, float b, float a, boolean crossed) {
+        double rx = VIEW.rightX * size, ry = VIEW.rightY * size, rz = VIEW.rightZ * size;
+        double ux = VIEW.upX * size, uy = VIEW.upY * size, uz = VIEW.upZ * size;
+        double x0 = cx - rx - ux, y0 = cy - ry - uy, z0 = cz - rz - uz;
+        double x1 = cx + rx - ux, y1 = cy + ry - uy, z1 = cz + rz - uz;
+        double x2 = cx + rx + ux, y2 = cy + ry + uy, z2 = cz + rz + uz;
+        double x3 = cx - rx + ux, y3 = cy - ry + uy, z3 = cz - rz + uz;
+        addLine(x0, y0, z0, x1, y1, z1, r, g, b, a);
+        addLine(x1, y1, z1, x2, y2, z2, r, g, b, a);
+        addLine(x2, y2, z2, x3, y3, z3, r, g, b, a);
+        addLine(x3, y3, z3, x0, y0, z0, r, g, b, a);
+        if (crossed) {
+            addLine(x0, y0, z0, x2, y2, z2, r, g, b, a);
+            addLine(x1, y1, z1, x3, y3, z3, r, g, b, a);
         }
     }
 
-    private static void drawBoxOutline(OrderedRenderCommandQueue queue, MatrixStack matrices, Vec3d center, Vec3d radii,
-                                       float r, float g, float b, float a, int light, boolean dashed, float phase) {
-        double x0 = center.x - radii.x, x1 = center.x + radii.x;
-        double y0 = center.y - radii.y, y1 = center.y + radii.y;
-        double z0 = center.z - radii.z, z1 = center.z + radii.z;
-
-        drawBoxEdge(queue, matrices, r, g, b, a, light, x0, y0, z0, x1, y0, z0, dashed, phase);
-        drawBoxEdge(queue, matrices, r, g, b, a, light, x0, y0, z0, x0, y1, z0, dashed, phase);
-        drawBoxEdge(queue, matrices, r, g, b, a, light, x0, y0, z0, x0, y0, z1, dashed, phase);
-
-        drawBoxEdge(queue, matrices, r, g, b, a, light, x1, y1, z1, x0, y1, z1, dashed, phase);
-        drawBoxEdge(queue, matrices, r, g, b, a, light, x1, y1, z1, x1, y0, z1, dashed, phase);
-        drawBoxEdge(queue, matrices, r, g, b, a, light, x1, y1, z1, x1, y1, z0, dashed, phase);
-
-        drawBoxEdge(queue, matrices, r, g, b, a, light, x1, y0, z0, x1, y1, z0, dashed, phase);
-        drawBoxEdge(queue, matrices, r, g, b, a, light, x1, y0, z0, x1, y0, z1, dashed, phase);
-        drawBoxEdge(queue, matrices, r, g, b, a, light, x0, y1, z0, x1, y1, z0, dashed, phase);
-        drawBoxEdge(queue, matrices, r, g, b, a, light, x0, y1, z0, x0, y1, z1, dashed, phase);
-        drawBoxEdge(queue, matrices, r, g, b, a, light, x0, y0, z1, x1, y0, z1, dashed, phase);
-        drawBoxEdge(queue, matrices, r, g, b, a, light, x0, y0, z1, x0, y1, z1, dashed, phase);
+    private static void addLine(double ax, double ay, double az, double bx, double by, double bz,
+                                float r, float g, float b, float a) {
+        LINES.add((float) ax);
+        LINES.add((float) ay);
+        LINES.add((float) az);
+        LINES.add((float) bx);
+        LINES.add((float) by);
+        LINES.add((float) bz);
+        LINES.add(r);
+        LINES.add(g);
+        LINES.add(b);
+        LINES.add(a);
     }
 
-    private static void drawBoxEdge(OrderedRenderCommandQueue queue, MatrixStack matrices,
-                                    float r, float g, float b, float a, int light,
-                                    double ax, double ay, double az, double bx, double by, double bz,
-                                    boolean dashed, float phase) {
-        if (!dashed) {
-            submitLine(queue, matrices, r, g, b, a, light, ax, ay, az, bx, by, bz);
-            return;
-        }
-
-        int seg = 32;
-        double px = ax, py = ay, pz = az;
-        for (int i = 1; i <= seg; i++) {
-            double t = i / (double) seg;
-            double x = ax + (bx - ax) * t;
-            double y = ay + (by - ay) * t;
-            double z = az + (bz - az) * t;
-            if (isDashVisible(t, phase)) {
-                submitLine(queue, matrices, r, g, b, a, light, px, py, pz, x, y, z);
+    /** Hands every line collected this frame to the queue in one custom submission. */
+    private static void submitLines(OrderedRenderCommandQueue queue, MatrixStack matrices) {
+        if (LINES.isEmpty()) return;
+        // The queue runs the callback later in the frame, so it gets its own copy
+        float[] data = LINES.toFloatArray();
+        LINES.clear();
+        final float nx = (float) VIEW.forwardX, ny = (float) VIEW.forwardY, nz = (float) VIEW.forwardZ;
+        queue.getBatchingQueue(1000).submitCustom(matrices, RenderLayer.getLines(), (entry, vc) -> {
+            for (int i = 0; i < data.length; i += 10) {
+                float r = data[i + 6], g = data[i + 7], b = data[i + 8], a = data[i + 9];
+                vc.vertex(entry, data[i], data[i + 1], data[i + 2]).color(r, g, b, a).normal(entry, nx, ny, nz);
+                vc.vertex(entry, data[i + 3], data[i + 4], data[i + 5]).color(r, g, b, a).normal(entry, nx, ny, nz);
             }
-            px = x;
-            py = y;
-            pz = z;
-        }
+        });
     }
 
     private static boolean isDashVisible(double t, float phase) {
@@ -0,0 +1,61 @@
+package ninja.trek.nodes.render;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.render.Camera;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+/**
+ * The camera's view volume for one frame, for bounding-sphere tests in camera-relative coordinates.
+ * Built from the camera basis and the current FOV like {@code NodeManager.selectNearestToScreen}, and
+ * widened a little so view bobbing never clips something that is on screen.
+ */
+final class ViewVolume {
+    private static final double MARGIN = 1.15;
+
+    private final Vector3f scratch = new Vector3f();
+    double rightX, rightY, rightZ;
+    double upX, upY, upZ;
+    double forwardX, forwardY, forwardZ;
+    // Unwidened, for projecting onto the screen
+    double projTanX, projTanY;
+    double halfHeightPixels;
+    private double tanHalfX, tanHalfY;
+    private double secHalfX, secHalfY;
+    private double far;
+
+    void update(Camera camera, double farDistance) {
+        Quaternionf rot = camera.getRotation();
+        scratch.set(1f, 0f, 0f).rotate(rot);
+        rightX = scratch.x; rightY = scratch.y; rightZ = scratch.z;
+        scratch.set(0f, 1f, 0f).rotate(rot);
+        upX = scratch.x; upY = scratch.y; upZ = scratch.z;
+        scratch.set(0f, 0f, -1f).rotate(rot);
+        forwardX = scratch.x; forwardY = scratch.y; forwardZ = scratch.z;
+
+        MinecraftClient client = MinecraftClient.getInstance();
+        int baseFov = client.options.getFov().getValue();
+        float fovMul = ((ninja.trek.mixin.client.GameRendererFovAccessor) client.gameRenderer).getFovMultiplier();
+        double fovY = Math.toRadians(Math.max(1.0, baseFov * fovMul));
+        int width = Math.max(1, client.getWindow().getFramebufferWidth());
+        int height = Math.max(1, client.getWindow().getFramebufferHeight());
+        projTanY = Math.tan(fovY * 0.5);
+        projTanX = projTanY * width / height;
+        halfHeightPixels = height * 0.5;
+        tanHalfY = projTanY * MARGIN;
+        tanHalfX = projTanX * MARGIN;
+        secHalfX = Math.sqrt(1.0 + tanHalfX * tanHalfX);
+        secHalfY = Math.sqrt(1.0 + tanHalfY * tanHalfY);
+        far = farDistance;
+    }
+
+    /** Whether a sphere at camera-relative {@code (x, y, z)} can be on screen. */
+    boolean isSphereVisible(double x, double y, double z, double radius) {
+        double zCam = x * forwardX + y * forwardY + z * forwardZ;
+        if (zCam < -radius || zCam - radius > far) return false;
+        double xCam = Math.abs(x * rightX + y * rightY + z * rightZ);
+        if (xCam - zCam * tanHalfX > radius * secHalfX) return false;
+        double yCam = Math.abs(x * upX + y * upY + z * upZ);
+        return yCam - zCam * tanHalfY <= radius * secHalfY;
+    }
+}
@@ -38,13 +38,26 @@ public class AreaSettingsModal extends Screen {
         addDrawableChild(ButtonWidget.builder(Text.literal("Type: "+area.shape), b-> {
             area.shape = (area.shape== AreaShape.CUBE? AreaShape.SPHERE: AreaShape.CUBE);
             b.setMessage(Text.literal("Type: "+area.shape));
+            NodeManager.get().markAreaDirty(area.id);
         }).dimensions(x,y,w*2,h).build());
         y+=h+sp;
-        addDrawableChild(ButtonWidget.builder(Text.literal("Inside-"), b-> area.insideRadius=Math.max(0,area.insideRadius-1)).dimensions(x,y,w,h).build());
-        addDrawableChild(ButtonWidget.builder(Text.literal("Inside+"), b-> area.insideRadius=area.insideRadius+1).dimensions(x+w+sp,y,w,h).build());
+        addDrawableChild(ButtonWidget.builder(Text.literal("Inside-"), b-> {
+            area.insideRadius=Math.max(0,area.insideRadius-1);
+            NodeManager.get().markAreaDirty(area.id);
+        }).dimensions(x,y,w,h).build());
+        addDrawableChild(ButtonWidget.builder(Text.literal("Inside+"), b-> {
+            area.insideRadius=area.insideRadius+1;
+            NodeManager.get().markAreaDirty(area.id);
+        }).dimensions(x+w+sp,y,w,h).build());
         y+=h+sp;
-        addDrawableChild(ButtonWidget.builder(Text.literal("Outside-"), b-> area.outsideRadius=Math.max(area.insideRadius,area.outsideRadius-1)).dimensions(x,y,w,h).build());
-        addDrawableChild(ButtonWidget.builder(Text.literal("Outside+"), b-> area.outsideRadius=area.outsideRadius+1).dimensions(x+w+sp,y,w,h).build());
+        addDrawableChild(ButtonWidget.builder(Text.literal("Outside-"), b-> {
+            area.outsideRadius=Math.max(area.insideRadius,area.outsideRadius-1);
+            NodeManager.get().markAreaDirty(area.id);
+        }).dimensions(x,y,w,h).build());
+        addDrawableChild(ButtonWidget.builder(Text.literal("Outside+"), b-> {
+            area.outsideRadius=area.outsideRadius+1;
+            NodeManager.get().markAreaDirty(area.id);
+        }).dimensions(x+w+sp,y,w,h).build());
         y+=h+sp;
 
         // Easing curve selector
@@ -61,6 +74,7 @@ public class AreaSettingsModal extends Screen {
             showAdvanced = !showAdvanced;
             area.advanced = showAdvanced;
             b.setMessage(Text.literal(showAdvanced? "... (advanced on)" : "... (advanced off)"));
+            NodeManager.get().markAreaDirty(area.id);
         }).dimensions(x,y,w*2,h).build());
         y+=h+sp;
 
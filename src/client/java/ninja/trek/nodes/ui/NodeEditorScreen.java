@@ -244,6 +244,13 @@ public class NodeEditorScreen extends Screen {
     }
 
     @Override public void render(DrawContext context, int mouseX, int mouseY, float delta) {
+        // Hover highlight for whatever the cursor is over; suppressed while looking around
+        Camera hoverCam = MinecraftClient.getInstance().gameRenderer.getCamera();
+        if (dragging || hoverCam == null) {
+            NodeManager.get().clearHover();
+        } else {
+            NodeManager.get().updateHover(mouseX, mouseY, this.width, this.height, hoverCam);
+        }
         // Render only our widgets; skip Screen default background/separators entirely
         for (net.minecraft.client.gui.Element e : this.children()) {
             if (e instanceof net.minecraft.client.gui.Drawable d) {
@@ -395,7 +402,7 @@ public class NodeEditorScreen extends Screen {
                 try {
                     Camera cam = MinecraftClient.getInstance().gameRenderer.getCamera();
                     if (cam != null) {
-                        NodeManager.get().selectNearestToScreen(click.x(), click.y(), this.width, this.height, cam);
+                        NodeManager.get().selectAtScreen(click.x(), click.y(), this.width, this.height, cam);
                         this.init(client, this.width, this.height);
                     }
                 } catch (Throwable t) {
@@ -307,7 +307,10 @@ public class CameraEntity extends ClientPlayerEntity {
         // logging removed
 
         mc.setCameraEntity(camera);
-        mc.chunkCullingEnabled = false; // Disable chunk culling
+        // Culling otherwise follows the camera, see CameraSystem.updateChunkCulling
+        if (GeneralMenuSettings.isDisableCullingWhenDetached()) {
+            mc.chunkCullingEnabled = false;
+        }
     }
 
     private static void removeCamera(MinecraftClient mc) {
@@ -316,8 +319,8 @@ public class CameraEntity extends ClientPlayerEntity {
             mc.setCameraEntity(originalCameraWasPlayer ? mc.player : originalCameraEntity);
             mc.chunkCullingEnabled = cullChunksOriginal;
 
-            final int chunkX = MathHelper.floor(camera.getX() / 16.0) >> 4;
-            final int chunkZ = MathHelper.floor(camera.getZ() / 16.0) >> 4;
+            final int chunkX = MathHelper.floor(camera.getX()) >> 4;
+            final int chunkZ = MathHelper.floor(camera.getZ()) >> 4;
             CameraUtils.markChunksForRebuildOnDeactivation(chunkX, chunkZ);
         }
 
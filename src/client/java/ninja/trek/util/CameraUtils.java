@@ -91,7 +91,7 @@ public class CameraUtils {
     }
 
     /**
-     * Marks chunks for rebuilding when camera moves.
+     * Queues the columns that entered view when the camera moves; see {@link ChunkRebuildScheduler}.
      * @param chunkX current chunk X
      * @param chunkZ current chunk Z
      * @param lastChunkX previous chunk X
@@ -112,9 +112,7 @@ public class CameraUtils {
 
             for (int cx = minCX; cx <= maxCX; ++cx) {
                 for (int cz = chunkZ - viewDistance; cz <= chunkZ + viewDistance; ++cz) {
-                    if (isClientChunkLoaded(mc.world, cx, cz)) {
-                        markChunkForReRender(mc.worldRenderer, cx, cz);
-                    }
+                    ChunkRebuildScheduler.enqueue(mc.world, cx, cz);
                 }
             }
         }
@@ -125,16 +123,15 @@ public class CameraUtils {
 
             for (int cz = minCZ; cz <= maxCZ; ++cz) {
                 for (int cx = chunkX - viewDistance; cx <= chunkX + viewDistance; ++cx) {
-                    if (isClientChunkLoaded(mc.world, cx, cz)) {
-                        markChunkForReRender(mc.worldRenderer, cx, cz);
-                    }
+                    ChunkRebuildScheduler.enqueue(mc.world, cx, cz);
                 }
             }
         }
     }
 
     /**
-     * Marks chunks for rebuilding when deactivating camera.
+     * Queues the player's columns that were outside the camera's range when deactivating the camera;
+     * see {@link ChunkRebuildScheduler}.
      * @param lastChunkX last camera chunk X
      * @param lastChunkZ last camera chunk Z
      */
@@ -147,8 +144,8 @@ public class CameraUtils {
             return;
         }
 
-        final int chunkX = MathHelper.floor(entity.getX() / 16.0) >> 4;
-        final int chunkZ = MathHelper.floor(entity.getZ() / 16.0) >> 4;
+        final int chunkX = MathHelper.floor(entity.getX()) >> 4;
+        final int chunkZ = MathHelper.floor(entity.getZ()) >> 4;
 
         final int minCameraCX = lastChunkX - viewDistance;
         final int maxCameraCX = lastChunkX + viewDistance;
@@ -162,22 +159,24 @@ public class CameraUtils {
         for (int cz = minCZ; cz <= maxCZ; ++cz) {
             for (int cx = minCX; cx <= maxCX; ++cx) {
                 // Mark all chunks that were not in free camera range
-                if ((cx < minCameraCX || cx > maxCameraCX || cz < minCameraCZ || cz > maxCameraCZ) &&
-                    isClientChunkLoaded(mc.world, cx, cz)) {
-                    markChunkForReRender(mc.worldRenderer, cx, cz);
+                if (cx < minCameraCX || cx > maxCameraCX || cz < minCameraCZ || cz > maxCameraCZ) {
+                    ChunkRebuildScheduler.enqueue(mc.world, cx, cz);
                 }
             }
         }
     }
 
     /**
-     * Marks a chunk for re-rendering.
+     * Marks every section of a chunk for re-rendering right away.
      * @param renderer the world renderer
+     * @param world the client world, for its height range
      * @param chunkX chunk X coordinate
      * @param chunkZ chunk Z coordinate
      */
-    public static void markChunkForReRender(WorldRenderer renderer, int chunkX, int chunkZ) {
-        for (int cy = 0; cy < 16; ++cy) {
+    public static void markChunkForReRender(WorldRenderer renderer, ClientWorld world, int chunkX, int chunkZ) {
+        int bottom = world.getBottomSectionCoord();
+        int top = bottom + world.countVerticalSections();
+        for (int cy = bottom; cy < top; ++cy) {
             renderer.scheduleChunkRender(chunkX, cy, chunkZ);
         }
     }
@@ -0,0 +1,101 @@
+package ninja.trek.util;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongComparator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.chunk.ChunkStatus;
+import net.minecraft.world.chunk.WorldChunk;
+
+/**
+ * Spreads the section rebuilds a camera move asks for over several frames instead of scheduling
+ * them all at once. Columns are queued, then drained nearest-to-the-camera first at up to
+ * {@link #SECTIONS_PER_FRAME} sections a frame. Within the world's real height range only sections the
+ * renderer has no compiled mesh for are scheduled, empty ones included: those were culled out of its
+ * storage or never built, while a section it already holds is kept current by its own block updates.
+ * Columns that unloaded in the meantime are dropped.
+ * Client thread only.
+ */
+public final class ChunkRebuildScheduler {
+    private static final int SECTIONS_PER_FRAME = 256;
+
+    private static final LongOpenHashSet queued = new LongOpenHashSet();
+    // Farthest first, so the nearest column comes off the end
+    private static final LongArrayList order = new LongArrayList();
+    private static boolean unsorted = false;
+    private static long sortedAround = Long.MIN_VALUE;
+    private static ClientWorld queuedWorld;
+    private static final BlockPos.Mutable sectionOrigin = new BlockPos.Mutable();
+
+    private ChunkRebuildScheduler() {}
+
+    public static void enqueue(ClientWorld world, int chunkX, int chunkZ) {
+        if (world != queuedWorld) {
+            clear();
+            queuedWorld = world;
+        }
+        long key = ChunkPos.toLong(chunkX, chunkZ);
+        if (queued.add(key)) {
+            order.add(key);
+            unsorted = true;
+        }
+    }
+
+    public static void clear() {
+        queued.clear();
+        order.clear();
+        unsorted = false;
+        sortedAround = Long.MIN_VALUE;
+        queuedWorld = null;
+    }
+
+    /** Schedules the next batch of rebuilds. Called once per frame. */
+    public static void tick(MinecraftClient mc) {
+        if (queued.isEmpty()) return;
+        ClientWorld world = mc.world;
+        if (world == null || world != queuedWorld || mc.worldRenderer == null) {
+            clear();
+            return;
+        }
+
+        Vec3d camPos = mc.gameRenderer.getCamera().getPos();
+        int camX = MathHelper.floor(camPos.x) >> 4;
+        int camZ = MathHelper.floor(camPos.z) >> 4;
+        long around = ChunkPos.toLong(camX, camZ);
+        if (unsorted || around != sortedAround) {
+            order.sort((LongComparator) (a, b) -> Long.compare(distanceSq(b, camX, camZ), distanceSq(a, camX, camZ)));
+            unsorted = false;
+            sortedAround = around;
+        }
+
+        int bottom = world.getBottomSectionCoord();
+        int count = world.countVerticalSections();
+        int budget = SECTIONS_PER_FRAME;
+        // A column goes out whole, so the budget can be overshot by up to one column
+        while (budget > 0 && !order.isEmpty()) {
+            long key = order.removeLong(order.size() - 1);
+            queued.remove(key);
+            int cx = ChunkPos.getPackedX(key);
+            int cz = ChunkPos.getPackedZ(key);
+            WorldChunk chunk = world.getChunkManager().getChunk(cx, cz, ChunkStatus.FULL, false);
+            if (chunk == null) continue;
+            for (int i = 0; i < count; i++) {
+                int cy = bottom + i;
+                if (mc.worldRenderer.isRenderingReady(sectionOrigin.set(cx << 4, cy << 4, cz << 4))) continue;
+                mc.worldRenderer.scheduleChunkRender(cx, cy, cz);
+                budget--;
+            }
+        }
+    }
+
+    private static long distanceSq(long key, int camX, int camZ) {
+        long dx = ChunkPos.getPackedX(key) - camX;
+        long dz = ChunkPos.getPackedZ(key) - camZ;
+        return dx * dx + dz * dz;
+    }
+}
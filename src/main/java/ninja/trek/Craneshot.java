@@ -1,15 +1,20 @@
 package ninja.trek;
 
 import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
 import ninja.trek.nodes.network.ServerNodeNetworking;
-import ninja.trek.nodes.network.payload.ChunkNodesPayload;
+import ninja.trek.nodes.network.payload.BulkEditRequestPayload;
+import ninja.trek.nodes.network.payload.ChunkHashesPayload;
+import ninja.trek.nodes.network.payload.ChunkNodesBatchPayload;
+import ninja.trek.nodes.network.payload.ChunkRequestPayload;
 import ninja.trek.nodes.network.payload.EditRequestPayload;
 import ninja.trek.nodes.network.payload.HandshakePayload;
 import ninja.trek.nodes.network.payload.NodesDeltaPayload;
 import ninja.trek.nodes.network.payload.AreaEditRequestPayload;
 import ninja.trek.nodes.network.payload.AreasDeltaPayload;
 import ninja.trek.nodes.network.payload.AreasSnapshotPayload;
+import ninja.trek.nodes.server.CameraNodesState;
 
 public class Craneshot implements ModInitializer {
     public static final String MOD_ID = "craneshot";
@@ -23,12 +28,16 @@ public class Craneshot implements ModInitializer {
         // Register server networking handlers
         ServerNodeNetworking.register();
 
+        // Camera node regions are written alongside the world save
+        ServerLifecycleEvents.AFTER_SAVE.register((server, flush, force) -> CameraNodesState.saveAll(server));
+
         LOGGER.info("Craneshot mod initialized!");
     }
 
     private void registerPayloads() {
         // Server-to-Client payloads
-        PayloadTypeRegistry.playS2C().register(ChunkNodesPayload.ID, ChunkNodesPayload.CODEC);
+        PayloadTypeRegistry.playS2C().register(ChunkHashesPayload.ID, ChunkHashesPayload.CODEC);
+        PayloadTypeRegistry.playS2C().register(ChunkNodesBatchPayload.ID, ChunkNodesBatchPayload.CODEC);
         PayloadTypeRegistry.playS2C().register(NodesDeltaPayload.ID, NodesDeltaPayload.CODEC);
         PayloadTypeRegistry.playS2C().register(HandshakePayload.ID, HandshakePayload.CODEC);
         PayloadTypeRegistry.playS2C().register(AreasSnapshotPayload.ID, AreasSnapshotPayload.CODEC);
@@ -38,5 +47,7 @@ public class Craneshot implements ModInitializer {
         PayloadTypeRegistry.playC2S().register(EditRequestPayload.ID, EditRequestPayload.CODEC);
         PayloadTypeRegistry.playC2S().register(HandshakePayload.ID, HandshakePayload.CODEC);
         PayloadTypeRegistry.playC2S().register(AreaEditRequestPayload.ID, AreaEditRequestPayload.CODEC);
+        PayloadTypeRegistry.playC2S().register(BulkEditRequestPayload.ID, BulkEditRequestPayload.CODEC);
+        PayloadTypeRegistry.playC2S().register(ChunkRequestPayload.ID, ChunkRequestPayload.CODEC);
     }
 }
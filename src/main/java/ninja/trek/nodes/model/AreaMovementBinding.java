@@ -0,0 +1,43 @@
+package ninja.trek.nodes.model;
+
+import net.minecraft.util.math.Vec3d;
+
+/**
+ * Resolved, immutable form of an {@link AreaMovementConfig}: node references and settings parsed
+ * once so the per-frame path does no UUID parsing or node lookups.
+ * Bindings are runtime-only and are rebuilt when the config or the node set changes.
+ */
+public final class AreaMovementBinding {
+    /** Node revision the binding was resolved against. */
+    public final long nodeRevision;
+    /** Resolved position node, or null when the config has none or it no longer exists. */
+    public final CameraNode positionNode;
+    public final Vec3d position;
+    /** True when a look node resolved to a usable direction. */
+    public final boolean hasLook;
+    public final float lookYaw;
+    public final float lookPitch;
+    public final boolean hasFov;
+    public final float fovMultiplier;
+
+    public AreaMovementBinding(long nodeRevision,
+                               CameraNode positionNode,
+                               boolean hasLook,
+                               float lookYaw,
+                               float lookPitch,
+                               boolean hasFov,
+                               float fovMultiplier) {
+        this.nodeRevision = nodeRevision;
+        this.positionNode = positionNode;
+        this.position = positionNode != null ? positionNode.position : null;
+        this.hasLook = hasLook;
+        this.lookYaw = lookYaw;
+        this.lookPitch = lookPitch;
+        this.hasFov = hasFov;
+        this.fovMultiplier = fovMultiplier;
+    }
+
+    public boolean isResolved() {
+        return position != null;
+    }
+}
@@ -30,6 +30,11 @@ public class AreaMovementConfig {
      * UUIDs, or nested maps/lists that Gson can handle.
      */
     public final Map<String, Object> settings = new HashMap<>();
+    /**
+     * Runtime cache of the resolved settings. Never persisted or copied; cleared whenever the
+     * owning area is marked dirty.
+     */
+    public transient AreaMovementBinding binding = null;
 
     public AreaMovementConfig() {}
 
@@ -4,15 +4,26 @@ import net.minecraft.util.Identifier;
 import ninja.trek.Craneshot;
 
 public final class NodeNetworkConstants {
-    public static final int PROTOCOL_VERSION = 2;
+    public static final int PROTOCOL_VERSION = 6;
+
+    // Per-player edit budget: refilled every tick up to a burst allowance, so a bulk edit can spend
+    // several ticks' worth at once while sustained traffic stays at the refill rate. Enforced by the
+    // server and mirrored by the client to pace its bulk edits.
+    public static final int EDIT_OPERATIONS_PER_TICK = 64;
+    public static final int EDIT_OPERATIONS_BURST = 1024;
+    public static final int EDIT_BYTES_PER_TICK = 16 * 1024;
+    public static final int EDIT_BYTES_BURST = 256 * 1024;
 
     public static final Identifier HANDSHAKE = Identifier.of(Craneshot.MOD_ID, "handshake");
-    public static final Identifier CHUNK_NODES = Identifier.of(Craneshot.MOD_ID, "chunk_nodes");
+    public static final Identifier CHUNK_HASHES = Identifier.of(Craneshot.MOD_ID, "chunk_hashes");
+    public static final Identifier CHUNK_REQUEST = Identifier.of(Craneshot.MOD_ID, "chunk_request");
+    public static final Identifier CHUNK_NODES_BATCH = Identifier.of(Craneshot.MOD_ID, "chunk_nodes_batch");
     public static final Identifier NODES_DELTA = Identifier.of(Craneshot.MOD_ID, "nodes_delta");
     public static final Identifier EDIT_REQUEST = Identifier.of(Craneshot.MOD_ID, "edit_request");
     public static final Identifier AREAS_SNAPSHOT = Identifier.of(Craneshot.MOD_ID, "areas_snapshot");
     public static final Identifier AREAS_DELTA = Identifier.of(Craneshot.MOD_ID, "areas_delta");
     public static final Identifier AREA_EDIT_REQUEST = Identifier.of(Craneshot.MOD_ID, "area_edit_request");
+    public static final Identifier BULK_EDIT_REQUEST = Identifier.of(Craneshot.MOD_ID, "bulk_edit_request");
 
     private NodeNetworkConstants() {}
 }
@@ -0,0 +1,449 @@
+package ninja.trek.nodes.network;
+
+import com.google.gson.Gson;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.math.Vec3d;
+import ninja.trek.nodes.model.AreaInstanceDTO;
+import ninja.trek.nodes.model.AreaMovementConfig;
+import ninja.trek.nodes.model.AreaShape;
+import ninja.trek.nodes.model.CameraNodeDTO;
+import ninja.trek.nodes.model.EasingCurve;
+import ninja.trek.nodes.model.NodeType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Compact network encoding of {@link CameraNodeDTO} and {@link AreaInstanceDTO} (protocol 4).
+ * <ul>
+ *     <li>A node record only carries the fields that differ from a baseline: the DTO defaults for full
+ *     records, or the observer's current copy for UPDATEs, so a drag sends just the id and position.</li>
+ *     <li>Node positions are fixed-point ({@link #POSITION_SCALE} steps per block) relative to the origin
+ *     of the chunk the payload is about; area centres use the same scale in absolute coordinates.</li>
+ *     <li>Area filter flags and optional parts are packed into one bitfield.</li>
+ *     <li>Owners, names, movement types, filter keys and setting keys/strings go through a
+ *     {@link Dictionary} shared by one payload, so repeats cost a single varint.</li>
+ * </ul>
+ * The dictionary is per payload rather than per connection: delta payloads are encoded once and
+ * shared by every observer, and the integrated server hands payload objects over without encoding.
+ * Client disk storage and client-to-server requests keep the full {@code write}/{@code read} layouts.
+ */
+public final class NodeWireCodec {
+    public static final double POSITION_SCALE = 512.0;
+
+    public static final int FIELD_NAME = 1;
+    public static final int FIELD_TYPE = 1 << 1;
+    public static final int FIELD_POSITION = 1 << 2;
+    public static final int FIELD_COLOR = 1 << 3;
+    public static final int FIELD_DRONE = 1 << 4;
+    public static final int FIELD_OWNER = 1 << 5;
+    public static final int ALL_FIELDS = (1 << 6) - 1;
+
+    private static final int NODE_REQUEST_ID = 1 << 6;
+    private static final int NODE_FULL = 1 << 7;
+
+    private static final int AREA_ADVANCED = 1 << 9;
+    private static final int AREA_INSIDE_RADII = 1 << 10;
+    private static final int AREA_OUTSIDE_RADII = 1 << 11;
+    private static final int AREA_REQUEST_ID = 1 << 12;
+
+    private static final int MOVEMENT_ENABLED = 1;
+
+    private static final int VALUE_NULL = 0;
+    private static final int VALUE_FALSE = 1;
+    private static final int VALUE_TRUE = 2;
+    private static final int VALUE_INTEGRAL = 3;
+    private static final int VALUE_DOUBLE = 4;
+    private static final int VALUE_STRING = 5;
+    private static final int VALUE_LIST = 6;
+    private static final int VALUE_MAP = 7;
+    private static final int VALUE_JSON = 8;
+    private static final int MAX_SETTINGS_DEPTH = 16;
+
+    private static final CameraNodeDTO NODE_DEFAULTS = new CameraNodeDTO();
+    private static final Gson GSON = new Gson();
+
+    private NodeWireCodec() {}
+
+    /** The fields of {@code current} that differ from {@code previous}; all of them if there is no previous. */
+    public static int changedFields(CameraNodeDTO previous, CameraNodeDTO current) {
+        if (previous == null) return ALL_FIELDS;
+        int fields = 0;
+        if (!Objects.equals(previous.name, current.name)) fields |= FIELD_NAME;
+        if (previous.type != current.type) fields |= FIELD_TYPE;
+        if (!Objects.equals(previous.position, current.position)) fields |= FIELD_POSITION;
+        if (previous.colorARGB != current.colorARGB) fields |= FIELD_COLOR;
+        if (previous.droneRadius != current.droneRadius
+                || previous.droneSpeedDegPerSec != current.droneSpeedDegPerSec
+                || previous.droneStartAngleDeg != current.droneStartAngleDeg) fields |= FIELD_DRONE;
+        if (!Objects.equals(previous.owner, current.owner)) fields |= FIELD_OWNER;
+        return fields;
+    }
+
+    /** Copies the given fields of {@code changes} onto {@code target}. */
+    public static void applyFields(CameraNodeDTO target, CameraNodeDTO changes, int fields) {
+        if ((fields & FIELD_NAME) != 0) target.name = changes.name;
+        if ((fields & FIELD_TYPE) != 0) target.type = changes.type;
+        if ((fields & FIELD_POSITION) != 0) target.position = changes.position;
+        if ((fields & FIELD_COLOR) != 0) target.colorARGB = changes.colorARGB;
+        if ((fields & FIELD_DRONE) != 0) {
+            target.droneRadius = changes.droneRadius;
+            target.droneSpeedDegPerSec = changes.droneSpeedDegPerSec;
+            target.droneStartAngleDeg = changes.droneStartAngleDeg;
+        }
+        if ((fields & FIELD_OWNER) != 0) target.owner = changes.owner;
+    }
+
+    /**
+     * Writes a node. With {@link #ALL_FIELDS} this is a full record (fields equal to the DTO defaults
+     * are left out); otherwise only the given fields are written.
+     */
+    public static void writeNode(PacketByteBuf buf, CameraNodeDTO dto, int fields, int originX, int originZ, Dictionary dictionary) {
+        boolean full = fields == ALL_FIELDS;
+        if (full) {
+            fields = changedFields(NODE_DEFAULTS, dto);
+        }
+        buf.writeUuid(dto.uuid);
+        int header = fields | (full ? NODE_FULL : 0) | (dto.clientRequestId != null ? NODE_REQUEST_ID : 0);
+        buf.writeVarInt(header);
+        if (dto.clientRequestId != null) buf.writeUuid(dto.clientRequestId);
+        if ((fields & FIELD_NAME) != 0) dictionary.writeString(buf, dto.name);
+        if ((fields & FIELD_TYPE) != 0) buf.writeVarInt((dto.type == null ? NodeType.CAMERA_CONTROL : dto.type).ordinal());
+        if ((fields & FIELD_POSITION) != 0) {
+            Vec3d pos = dto.position != null ? dto.position : Vec3d.ZERO;
+            writeFixed(buf, pos.x - originX);
+            writeFixed(buf, pos.y);
+            writeFixed(buf, pos.z - originZ);
+        }
+        if ((fields & FIELD_COLOR) != 0) buf.writeInt(dto.colorARGB);
+        if ((fields & FIELD_DRONE) != 0) {
+            buf.writeFloat((float) dto.droneRadius);
+            buf.writeFloat((float) dto.droneSpeedDegPerSec);
+            buf.writeFloat((float) dto.droneStartAngleDeg);
+        }
+        if ((fields & FIELD_OWNER) != 0) dictionary.writeUuid(buf, dto.owner);
+    }
+
+    /**
+     * Reads a node into {@code dto} and returns the fields it carried: {@link #ALL_FIELDS} for a full
+     * record, where anything absent keeps its default.
+     */
+    public static int readNode(PacketByteBuf buf, CameraNodeDTO dto, int originX, int originZ, Dictionary dictionary) {
+        dto.uuid = buf.readUuid();
+        int header = buf.readVarInt();
+        int fields = header & ALL_FIELDS;
+        if ((header & NODE_REQUEST_ID) != 0) dto.clientRequestId = buf.readUuid();
+        if ((fields & FIELD_NAME) != 0) dto.name = dictionary.readString(buf);
+        if ((fields & FIELD_TYPE) != 0) dto.type = enumAt(NodeType.values(), buf.readVarInt());
+        if ((fields & FIELD_POSITION) != 0) {
+            double x = originX + readFixed(buf);
+            double y = readFixed(buf);
+            double z = originZ + readFixed(buf);
+            dto.position = new Vec3d(x, y, z);
+        }
+        if ((fields & FIELD_COLOR) != 0) dto.colorARGB = buf.readInt();
+        if ((fields & FIELD_DRONE) != 0) {
+            dto.droneRadius = buf.readFloat();
+            dto.droneSpeedDegPerSec = buf.readFloat();
+            dto.droneStartAngleDeg = buf.readFloat();
+        }
+        if ((fields & FIELD_OWNER) != 0) dto.owner = dictionary.readUuid(buf);
+        return (header & NODE_FULL) != 0 ? ALL_FIELDS : fields;
+    }
+
+    public static void writeArea(PacketByteBuf buf, AreaInstanceDTO dto, Dictionary dictionary) {
+        buf.writeUuid(dto.uuid);
+        int header = 0;
+        if (dto.filterWalking) header |= 1;
+        if (dto.filterElytra) header |= 1 << 1;
+        if (dto.filterMinecart) header |= 1 << 2;
+        if (dto.filterRidingGhast) header |= 1 << 3;
+        if (dto.filterRidingOther) header |= 1 << 4;
+        if (dto.filterBoat) header |= 1 << 5;
+        if (dto.filterSwimming) header |= 1 << 6;
+        if (dto.filterSneaking) header |= 1 << 7;
+        if (dto.filterCrawling1Block) header |= 1 << 8;
+        if (dto.advanced) header |= AREA_ADVANCED;
+        if (dto.insideRadii != null) header |= AREA_INSIDE_RADII;
+        if (dto.outsideRadii != null) header |= AREA_OUTSIDE_RADII;
+        if (dto.clientRequestId != null) header |= AREA_REQUEST_ID;
+        buf.writeVarInt(header);
+        if (dto.clientRequestId != null) buf.writeUuid(dto.clientRequestId);
+        dictionary.writeUuid(buf, dto.owner);
+        dictionary.writeString(buf, dto.name);
+        buf.writeVarInt((dto.shape != null ? dto.shape : AreaShape.CUBE).ordinal());
+        buf.writeVarInt((dto.easing != null ? dto.easing : EasingCurve.LINEAR).ordinal());
+        Vec3d center = dto.center != null ? dto.center : Vec3d.ZERO;
+        writeFixed(buf, center.x);
+        writeFixed(buf, center.y);
+        writeFixed(buf, center.z);
+        buf.writeFloat((float) dto.insideRadius);
+        buf.writeFloat((float) dto.outsideRadius);
+        if (dto.insideRadii != null) writeFloatVec(buf, dto.insideRadii);
+        if (dto.outsideRadii != null) writeFloatVec(buf, dto.outsideRadii);
+
+        buf.writeVarInt(dto.movements.size());
+        for (AreaMovementConfig cfg : dto.movements) {
+            buf.writeUuid(cfg.id != null ? cfg.id : UUID.randomUUID());
+            dictionary.writeString(buf, cfg.movementType != null ? cfg.movementType : "");
+            dictionary.writeString(buf, cfg.name);
+            buf.writeByte(cfg.enabled ? MOVEMENT_ENABLED : 0);
+            buf.writeFloat(cfg.weight);
+            buf.writeVarInt(cfg.stateFilters.size());
+            for (String filter : cfg.stateFilters) {
+                dictionary.writeString(buf, filter);
+            }
+            writeMap(buf, cfg.settings, dictionary, 0);
+        }
+    }
+
+    public static AreaInstanceDTO readArea(PacketByteBuf buf, Dictionary dictionary) {
+        AreaInstanceDTO dto = new AreaInstanceDTO();
+        dto.uuid = buf.readUuid();
+        int header = buf.readVarInt();
+        dto.filterWalking = (header & 1) != 0;
+        dto.filterElytra = (header & 1 << 1) != 0;
+        dto.filterMinecart = (header & 1 << 2) != 0;
+        dto.filterRidingGhast = (header & 1 << 3) != 0;
+        dto.filterRidingOther = (header & 1 << 4) != 0;
+        dto.filterBoat = (header & 1 << 5) != 0;
+        dto.filterSwimming = (header & 1 << 6) != 0;
+        dto.filterSneaking = (header & 1 << 7) != 0;
+        dto.filterCrawling1Block = (header & 1 << 8) != 0;
+        dto.advanced = (header & AREA_ADVANCED) != 0;
+        if ((header & AREA_REQUEST_ID) != 0) dto.clientRequestId = buf.readUuid();
+        dto.owner = dictionary.readUuid(buf);
+        dto.name = dictionary.readString(buf);
+        dto.shape = enumAt(AreaShape.values(), buf.readVarInt());
+        dto.easing = enumAt(EasingCurve.values(), buf.readVarInt());
+        dto.center = new Vec3d(readFixed(buf), readFixed(buf), readFixed(buf));
+        dto.insideRadius = buf.readFloat();
+        dto.outsideRadius = buf.readFloat();
+        if ((header & AREA_INSIDE_RADII) != 0) dto.insideRadii = readFloatVec(buf);
+        if ((header & AREA_OUTSIDE_RADII) != 0) dto.outsideRadii = readFloatVec(buf);
+
+        int count = buf.readVarInt();
+        dto.movements.clear();
+        for (int i = 0; i < count; i++) {
+            AreaMovementConfig cfg = new AreaMovementConfig();
+            cfg.id = buf.readUuid();
+            cfg.movementType = dictionary.readString(buf);
+            cfg.name = dictionary.readString(buf);
+            cfg.enabled = (buf.readByte() & MOVEMENT_ENABLED) != 0;
+            cfg.weight = buf.readFloat();
+            int filterCount = buf.readVarInt();
+            for (int f = 0; f < filterCount; f++) {
+                cfg.stateFilters.add(dictionary.readString(buf));
+            }
+            cfg.settings.putAll(readMap(buf, dictionary, 0));
+            dto.movements.add(cfg);
+        }
+        return dto;
+    }
+
+    private static void writeFixed(PacketByteBuf buf, double value) {
+        buf.writeVarLong(zigzag(Math.round(value * POSITION_SCALE)));
+    }
+
+    private static double readFixed(PacketByteBuf buf) {
+        return unzigzag(buf.readVarLong()) / POSITION_SCALE;
+    }
+
+    private static void writeFloatVec(PacketByteBuf buf, Vec3d vec) {
+        buf.writeFloat((float) vec.x);
+        buf.writeFloat((float) vec.y);
+        buf.writeFloat((float) vec.z);
+    }
+
+    private static Vec3d readFloatVec(PacketByteBuf buf) {
+        return new Vec3d(buf.readFloat(), buf.readFloat(), buf.readFloat());
+    }
+
+    /**
+     * Settings values as tagged binary. Numbers come back as {@link Double} and unknown objects go
+     * through Gson, so the decoded map matches what the old JSON round trip produced.
+     */
+    private static void writeMap(PacketByteBuf buf, Map<?, ?> map, Dictionary dictionary, int depth) {
+        buf.writeVarInt(map.size());
+        for (var entry : map.entrySet()) {
+            dictionary.writeString(buf, String.valueOf(entry.getKey()));
+            writeValue(buf, entry.getValue(), dictionary, depth + 1);
+        }
+    }
+
+    private static Map<String, Object> readMap(PacketByteBuf buf, Dictionary dictionary, int depth) {
+        int size = buf.readVarInt();
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            String key = dictionary.readString(buf);
+            map.put(key, readValue(buf, dictionary, depth + 1));
+        }
+        return map;
+    }
+
+    private static void writeValue(PacketByteBuf buf, Object value, Dictionary dictionary, int depth) {
+        if (value == null) {
+            buf.writeVarInt(VALUE_NULL);
+        } else if (value instanceof Boolean b) {
+            buf.writeVarInt(b ? VALUE_TRUE : VALUE_FALSE);
+        } else if (value instanceof Number n) {
+            double d = n.doubleValue();
+            if (d == Math.rint(d) && Math.abs(d) < 0x1p53) {
+                buf.writeVarInt(VALUE_INTEGRAL);
+                buf.writeVarLong(zigzag((long) d));
+            } else {
+                buf.writeVarInt(VALUE_DOUBLE);
+                buf.writeDouble(d);
+            }
+        } else if (value instanceof String || value instanceof UUID || value instanceof Enum<?>) {
+            buf.writeVarInt(VALUE_STRING);
+            dictionary.writeString(buf, value instanceof Enum<?> e ? e.name() : value.toString());
+        } else if (value instanceof List<?> list && depth < MAX_SETTINGS_DEPTH) {
+            buf.writeVarInt(VALUE_LIST);
+            buf.writeVarInt(list.size());
+            for (Object element : list) {
+                writeValue(buf, element, dictionary, depth + 1);
+            }
+        } else if (value instanceof Map<?, ?> map && depth < MAX_SETTINGS_DEPTH) {
+            buf.writeVarInt(VALUE_MAP);
+            writeMap(buf, map, dictionary, depth);
+        } else {
+            buf.writeVarInt(VALUE_JSON);
+            buf.writeString(GSON.toJson(value));
+        }
+    }
+
+    private static Object readValue(PacketByteBuf buf, Dictionary dictionary, int depth) {
+        if (depth > MAX_SETTINGS_DEPTH + 1) {
+            throw new IllegalArgumentException("Movement settings nested too deeply");
+        }
+        int tag = buf.readVarInt();
+        return switch (tag) {
+            case VALUE_NULL -> null;
+            case VALUE_FALSE -> Boolean.FALSE;
+            case VALUE_TRUE -> Boolean.TRUE;
+            case VALUE_INTEGRAL -> (double) unzigzag(buf.readVarLong());
+            case VALUE_DOUBLE -> buf.readDouble();
+            case VALUE_STRING -> dictionary.readString(buf);
+            case VALUE_LIST -> {
+                int size = buf.readVarInt();
+                List<Object> list = new ArrayList<>(Math.min(size, 256));
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(buf, dictionary, depth + 1));
+                }
+                yield list;
+            }
+            case VALUE_MAP -> readMap(buf, dictionary, depth);
+            case VALUE_JSON -> GSON.fromJson(buf.readString(PacketByteBuf.DEFAULT_MAX_STRING_LENGTH), Object.class);
+            default -> throw new IllegalArgumentException("Unknown movement setting tag " + tag);
+        };
+    }
+
+    private static <E extends Enum<E>> E enumAt(E[] values, int ordinal) {
+        if (ordinal < 0 || ordinal >= values.length) {
+            throw new IllegalArgumentException("Enum ordinal " + ordinal + " out of range");
+        }
+        return values[ordinal];
+    }
+
+    private static long zigzag(long value) {
+        return value << 1 ^ value >> 63;
+    }
+
+    private static long unzigzag(long value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    /**
+     * String/UUID table scoped to one payload. A value is written in full the first time and as a
+     * back-reference afterwards; reader and writer build identical tables in the same order.
+     */
+    public static final class Dictionary {
+        private static final int NULL = 0;
+        private static final int NEW_STRING = 1;
+        private static final int NEW_UUID = 2;
+        private static final int FIRST_REFERENCE = 3;
+        private static final int MAX_ENTRIES = 1 << 16;
+
+        private final Map<Object, Integer> indices = new HashMap<>();
+        private final List<Object> entries = new ArrayList<>();
+
+        public void writeString(PacketByteBuf buf, String value) {
+            if (writeReference(buf, value)) return;
+            buf.writeVarInt(NEW_STRING);
+            buf.writeString(value);
+            remember(value);
+        }
+
+        public void writeUuid(PacketByteBuf buf, UUID value) {
+            if (writeReference(buf, value)) return;
+            buf.writeVarInt(NEW_UUID);
+            buf.writeUuid(value);
+            remember(value);
+        }
+
+        public String readString(PacketByteBuf buf) {
+            Object value = read(buf);
+            if (value != null && !(value instanceof String)) {
+                throw new IllegalArgumentException("Expected a string dictionary entry");
+            }
+            return (String) value;
+        }
+
+        public UUID readUuid(PacketByteBuf buf) {
+            Object value = read(buf);
+            if (value != null && !(value instanceof UUID)) {
+                throw new IllegalArgumentException("Expected a UUID dictionary entry");
+            }
+            return (UUID) value;
+        }
+
+        private boolean writeReference(PacketByteBuf buf, Object value) {
+            if (value == null) {
+                buf.writeVarInt(NULL);
+                return true;
+            }
+            Integer index = indices.get(value);
+            if (index == null) return false;
+            buf.writeVarInt(FIRST_REFERENCE + index);
+            return true;
+        }
+
+        private void remember(Object value) {
+            if (entries.size() >= MAX_ENTRIES) return;
+            indices.put(value, entries.size());
+            entries.add(value);
+        }
+
+        private Object read(PacketByteBuf buf) {
+            int code = buf.readVarInt();
+            switch (code) {
+                case NULL -> {
+                    return null;
+                }
+                case NEW_STRING -> {
+                    String value = buf.readString(PacketByteBuf.DEFAULT_MAX_STRING_LENGTH);
+                    remember(value);
+                    return value;
+                }
+                case NEW_UUID -> {
+                    UUID value = buf.readUuid();
+                    remember(value);
+                    return value;
+                }
+                default -> {
+                    int index = code - FIRST_REFERENCE;
+                    if (index < 0 || index >= entries.size()) {
+                        throw new IllegalArgumentException("Dictionary reference " + index + " out of range");
+                    }
+                    return entries.get(index);
+                }
+            }
+        }
+    }
+}
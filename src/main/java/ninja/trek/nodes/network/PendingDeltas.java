@@ -0,0 +1,280 @@
+package ninja.trek.nodes.network;
+
+import net.fabricmc.fabric.api.networking.v1.PlayerLookup;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import ninja.trek.nodes.model.AreaInstanceDTO;
+import ninja.trek.nodes.model.CameraNodeDTO;
+import ninja.trek.nodes.network.ServerNodeNetworking.AreaDelta;
+import ninja.trek.nodes.network.ServerNodeNetworking.NodeDelta;
+import ninja.trek.nodes.network.payload.AreasDeltaPayload;
+import ninja.trek.nodes.network.payload.NodesDeltaPayload;
+import ninja.trek.nodes.server.AreaChunkIndex;
+import ninja.trek.nodes.server.ServerNodeManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Node and area deltas accumulated over one server tick.
+ * Each node or area keeps only its net change: successive UPDATEs collapse to the last one, an UPDATE
+ * after an ADD folds into the ADD, and an ADD followed by a REMOVE disappears. Nodes are tracked by id
+ * across chunks, since the client removes by id: a node that moved keeps one REMOVE for the chunk it
+ * started in and one ADD for the chunk it ended in. UPDATEs remember the node as observers last saw
+ * it, so only the fields that changed over the whole tick are sent. On {@link #flush} every resulting
+ * payload is encoded once and the same bytes are sent to every observer; area changes are further
+ * scoped to the players whose chunk interest overlaps each area.
+ */
+final class PendingDeltas {
+    private final Map<RegistryKey<World>, LinkedHashMap<UUID, NodeChange>> nodes = new HashMap<>();
+    private final Map<RegistryKey<World>, LinkedHashMap<UUID, AreaChange>> areas = new HashMap<>();
+
+    void add(NodeDelta delta) {
+        LinkedHashMap<UUID, NodeChange> changes = nodes.computeIfAbsent(delta.dimension(), k -> new LinkedHashMap<>());
+        switch (delta.type()) {
+            case ADD -> {
+                NodeChange change = changes.computeIfAbsent(delta.node().uuid, k -> new NodeChange());
+                change.upsert = delta;
+            }
+            case UPDATE -> {
+                NodeChange change = changes.computeIfAbsent(delta.node().uuid, k -> new NodeChange());
+                if (change.upsert != null && change.upsert.type() == NodeDelta.Type.ADD
+                        && change.upsert.chunk().equals(delta.chunk())) {
+                    change.upsert = foldIntoAdd(change.upsert, delta);
+                } else if (change.upsert != null && change.upsert.type() == NodeDelta.Type.UPDATE) {
+                    // Observers still hold the node as it was before the first UPDATE this tick
+                    change.upsert = new NodeDelta(NodeDelta.Type.UPDATE, delta.dimension(), delta.chunk(), delta.node(),
+                            null, null, change.upsert.previous());
+                } else {
+                    change.upsert = delta;
+                }
+            }
+            case REMOVE -> {
+                NodeChange change = changes.get(delta.removedId());
+                if (change == null) {
+                    change = new NodeChange();
+                    changes.put(delta.removedId(), change);
+                } else if (change.upsert != null && change.upsert.type() == NodeDelta.Type.ADD && change.removeFrom == null) {
+                    // Created this tick: observers never saw it
+                    changes.remove(delta.removedId());
+                    return;
+                }
+                change.upsert = null;
+                if (change.removeFrom == null) {
+                    change.removeFrom = delta;
+                }
+            }
+        }
+    }
+
+    void add(AreaDelta delta) {
+        LinkedHashMap<UUID, AreaChange> changes = areas.computeIfAbsent(delta.dimension(), k -> new LinkedHashMap<>());
+        switch (delta.type()) {
+            case ADD -> changes.computeIfAbsent(delta.area().uuid, k -> new AreaChange()).upsert = delta;
+            case UPDATE -> {
+                AreaChange change = changes.computeIfAbsent(delta.area().uuid, k -> new AreaChange());
+                if (change.upsert != null && change.upsert.type() == AreaDelta.Type.ADD) {
+                    change.upsert = foldIntoAdd(change.upsert, delta);
+                } else {
+                    change.upsert = delta;
+                }
+            }
+            case REMOVE -> {
+                AreaChange change = changes.computeIfAbsent(delta.removedId(), k -> new AreaChange());
+                if (change.upsert != null && change.upsert.type() == AreaDelta.Type.ADD && !change.removed) {
+                    changes.remove(delta.removedId());
+                    return;
+                }
+                change.removed = true;
+                change.upsert = null;
+            }
+        }
+    }
+
+    void clear() {
+        nodes.clear();
+        areas.clear();
+    }
+
+    void flush(MinecraftServer server) {
+        if (!nodes.isEmpty()) {
+            for (var entry : nodes.entrySet()) {
+                ServerWorld world = server.getWorld(entry.getKey());
+                if (world != null && !entry.getValue().isEmpty()) {
+                    flushNodes(world, entry.getValue().values());
+                }
+            }
+            nodes.clear();
+        }
+        if (!areas.isEmpty()) {
+            for (var entry : areas.entrySet()) {
+                ServerWorld world = server.getWorld(entry.getKey());
+                if (world != null && !entry.getValue().isEmpty()) {
+                    flushAreas(world, entry.getValue());
+                }
+            }
+            areas.clear();
+        }
+    }
+
+    private static void flushNodes(ServerWorld world, Iterable<NodeChange> changes) {
+        // Removals go out first so a node that moved chunks is not removed after being re-added
+        Map<ChunkPos, List<NodesDeltaPayload.NodeOperation>> removals = new LinkedHashMap<>();
+        Map<ChunkPos, List<NodesDeltaPayload.NodeOperation>> upserts = new LinkedHashMap<>();
+        for (NodeChange change : changes) {
+            if (change.removeFrom != null) {
+                NodeDelta remove = change.removeFrom;
+                removals.computeIfAbsent(remove.chunk(), k -> new ArrayList<>())
+                        .add(new NodesDeltaPayload.NodeOperation(NodesDeltaPayload.OperationType.REMOVE, remove.removedId(), Optional.empty()));
+            }
+            if (change.upsert != null) {
+                NodeDelta upsert = change.upsert;
+                NodesDeltaPayload.NodeOperation operation;
+                if (upsert.type() == NodeDelta.Type.ADD) {
+                    operation = new NodesDeltaPayload.NodeOperation(NodesDeltaPayload.OperationType.ADD,
+                            upsert.node().uuid, Optional.of(upsert.node()));
+                } else {
+                    int fields = NodeWireCodec.changedFields(upsert.previous(), upsert.node());
+                    if (fields == 0) continue;
+                    operation = new NodesDeltaPayload.NodeOperation(NodesDeltaPayload.OperationType.UPDATE,
+                            upsert.node().uuid, Optional.of(upsert.node()), fields);
+                }
+                upserts.computeIfAbsent(upsert.chunk(), k -> new ArrayList<>()).add(operation);
+            }
+        }
+        sendNodeOperations(world, removals);
+        sendNodeOperations(world, upserts);
+    }
+
+    private static void sendNodeOperations(ServerWorld world, Map<ChunkPos, List<NodesDeltaPayload.NodeOperation>> byChunk) {
+        for (var entry : byChunk.entrySet()) {
+            NodesDeltaPayload payload = null;
+            for (ServerPlayerEntity player : PlayerLookup.tracking(world, entry.getKey())) {
+                if (!ServerNodeManager.get().isHandshakeComplete(player)) continue;
+                if (payload == null) {
+                    payload = NodesDeltaPayload.encoded(world.getRegistryKey(), entry.getKey(), entry.getValue(), world.getRegistryManager());
+                }
+                ServerPlayNetworking.send(player, payload);
+            }
+        }
+    }
+
+    /**
+     * Area changes only reach players whose interest square overlaps the area. An edit that moves an
+     * area into a player's square streams it to them, and one that moves it out removes it. The creator
+     * always gets its ADD so it can resolve its pending copy. Players that end up with identical
+     * operation lists share one encoded payload.
+     */
+    private static void flushAreas(ServerWorld world, LinkedHashMap<UUID, AreaChange> changes) {
+        RegistryKey<World> dimension = world.getRegistryKey();
+        AreaChunkIndex index = ServerNodeManager.get().getAreaIndex(world);
+        List<AreaOp> prepared = new ArrayList<>(changes.size());
+        for (var entry : changes.entrySet()) {
+            prepared.add(new AreaOp(entry.getKey(), entry.getValue()));
+        }
+        Map<List<AreasDeltaPayload.AreaOperation>, AreasDeltaPayload> payloads = new HashMap<>();
+        for (ServerPlayerEntity player : PlayerLookup.world(world)) {
+            if (!ServerNodeManager.get().isHandshakeComplete(player)) continue;
+            ServerNodeManager.PlayerSession session = ServerNodeManager.get().getSession(player);
+            // Not streamed into this dimension yet; its snapshot will already reflect these changes
+            if (!dimension.equals(session.getInterestDimension())) continue;
+            List<AreasDeltaPayload.AreaOperation> operations = new ArrayList<>();
+            for (AreaOp op : prepared) {
+                if (op.remove != null && session.unmarkAreaStreamed(op.id)) {
+                    operations.add(op.remove);
+                }
+                if (op.upsert == null) continue;
+                if (session.isAreaInInterest(dimension, index, op.id) || op.isCreator(player)) {
+                    session.markAreaStreamed(op.id);
+                    operations.add(op.upsert);
+                } else if (session.unmarkAreaStreamed(op.id)) {
+                    operations.add(op.removeIfHidden());
+                }
+            }
+            if (operations.isEmpty()) continue;
+            AreasDeltaPayload payload = payloads.computeIfAbsent(operations,
+                    ops -> AreasDeltaPayload.encoded(dimension, ops, world.getRegistryManager()));
+            ServerPlayNetworking.send(player, payload);
+        }
+    }
+
+    /** The ADD's request id (so the creator can match its pending copy) with the UPDATE's data. */
+    private static NodeDelta foldIntoAdd(NodeDelta add, NodeDelta update) {
+        CameraNodeDTO node = update.node();
+        if (add.clientRequestId() != null) {
+            node = node.copy();
+            node.clientRequestId = add.clientRequestId();
+        }
+        return new NodeDelta(NodeDelta.Type.ADD, add.dimension(), add.chunk(), node, null, add.clientRequestId(), null);
+    }
+
+    private static AreaDelta foldIntoAdd(AreaDelta add, AreaDelta update) {
+        AreaInstanceDTO area = update.area();
+        if (add.area().clientRequestId != null) {
+            area = AreaInstanceDTO.fromAreaInstance(area.toAreaInstance());
+            area.clientRequestId = add.area().clientRequestId;
+        }
+        return new AreaDelta(AreaDelta.Type.ADD, add.dimension(), area, null);
+    }
+
+    private static final class NodeChange {
+        /** REMOVE from the chunk observers last saw the node in, if it left or was deleted. */
+        NodeDelta removeFrom;
+        /** Final ADD or UPDATE, if the node still exists. */
+        NodeDelta upsert;
+    }
+
+    private static final class AreaChange {
+        boolean removed;
+        AreaDelta upsert;
+    }
+
+    /** One area's net change as operations, built once and shared between every player it is sent to. */
+    private static final class AreaOp {
+        final UUID id;
+        final AreasDeltaPayload.AreaOperation remove;
+        final AreasDeltaPayload.AreaOperation upsert;
+        final UUID creator;
+        private AreasDeltaPayload.AreaOperation hiddenRemove;
+
+        AreaOp(UUID id, AreaChange change) {
+            this.id = id;
+            this.remove = change.removed
+                    ? new AreasDeltaPayload.AreaOperation(AreasDeltaPayload.OperationType.REMOVE, id, Optional.empty())
+                    : null;
+            if (change.upsert != null) {
+                AreasDeltaPayload.OperationType type = change.upsert.type() == AreaDelta.Type.ADD
+                        ? AreasDeltaPayload.OperationType.ADD
+                        : AreasDeltaPayload.OperationType.UPDATE;
+                this.upsert = new AreasDeltaPayload.AreaOperation(type, id, Optional.of(change.upsert.area()));
+                this.creator = change.upsert.area().clientRequestId != null ? change.upsert.area().owner : null;
+            } else {
+                this.upsert = null;
+                this.creator = null;
+            }
+        }
+
+        boolean isCreator(ServerPlayerEntity player) {
+            return creator != null && creator.equals(player.getUuid());
+        }
+
+        /** REMOVE for players that held the area before an edit moved it out of their square. */
+        AreasDeltaPayload.AreaOperation removeIfHidden() {
+            if (remove != null) return remove;
+            if (hiddenRemove == null) {
+                hiddenRemove = new AreasDeltaPayload.AreaOperation(AreasDeltaPayload.OperationType.REMOVE, id, Optional.empty());
+            }
+            return hiddenRemove;
+        }
+    }
+}
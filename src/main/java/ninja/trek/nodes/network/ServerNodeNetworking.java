@@ -1,10 +1,13 @@
 package ninja.trek.nodes.network;
 
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
-import net.fabricmc.fabric.api.networking.v1.PlayerLookup;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.network.PacketByteBuf;
 import net.minecraft.registry.RegistryKey;
 import net.minecraft.registry.RegistryKeys;
 import net.minecraft.server.MinecraftServer;
@@ -19,19 +22,27 @@ import net.minecraft.world.chunk.WorldChunk;
 import ninja.trek.Craneshot;
 import ninja.trek.nodes.model.AreaInstanceDTO;
 import ninja.trek.nodes.model.CameraNodeDTO;
-import ninja.trek.nodes.network.ServerNodeNetworking.NodeDelta.Type;
-import ninja.trek.nodes.network.payload.ChunkNodesPayload;
+import ninja.trek.nodes.network.payload.BulkEditRequestPayload;
+import ninja.trek.nodes.network.payload.ChunkHashesPayload;
+import ninja.trek.nodes.network.payload.ChunkNodesBatchPayload;
+import ninja.trek.nodes.network.payload.ChunkRequestPayload;
 import ninja.trek.nodes.network.payload.EditRequestPayload;
 import ninja.trek.nodes.network.payload.HandshakePayload;
 import ninja.trek.nodes.network.payload.NodesDeltaPayload;
 import ninja.trek.nodes.network.payload.AreaEditRequestPayload;
 import ninja.trek.nodes.network.payload.AreasDeltaPayload;
 import ninja.trek.nodes.network.payload.AreasSnapshotPayload;
+import ninja.trek.nodes.server.AreaChunkIndex;
 import ninja.trek.nodes.server.ServerNodeManager;
 
 import java.util.*;
 
 public final class ServerNodeNetworking {
+    /** Soft cap on node bytes per snapshot batch; a single chunk larger than this still goes out alone. */
+    private static final int MAX_SNAPSHOT_BATCH_BYTES = 32 * 1024;
+
+    private static final PendingDeltas PENDING_DELTAS = new PendingDeltas();
+
     private ServerNodeNetworking() {}
 
     public static void register() {
@@ -42,14 +53,20 @@ public final class ServerNodeNetworking {
         ServerPlayNetworking.registerGlobalReceiver(HandshakePayload.ID, ServerNodeNetworking::handleHandshakePayload);
         ServerPlayNetworking.registerGlobalReceiver(EditRequestPayload.ID, ServerNodeNetworking::handleEditRequestPayload);
         ServerPlayNetworking.registerGlobalReceiver(AreaEditRequestPayload.ID, ServerNodeNetworking::handleAreaEditRequestPayload);
+        ServerPlayNetworking.registerGlobalReceiver(BulkEditRequestPayload.ID, ServerNodeNetworking::handleBulkEditRequestPayload);
+        ServerPlayNetworking.registerGlobalReceiver(ChunkRequestPayload.ID, ServerNodeNetworking::handleChunkRequestPayload);
 
         ServerChunkEvents.CHUNK_LOAD.register(ServerNodeNetworking::onChunkLoad);
+        ServerChunkEvents.CHUNK_UNLOAD.register(ServerNodeNetworking::onChunkUnload);
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> PENDING_DELTAS.clear());
         ServerTickEvents.END_SERVER_TICK.register(server -> {
-            ServerNodeManager.get().resetRateLimiter();
+            ServerNodeManager.get().refillEditBudgets();
+            PENDING_DELTAS.flush(server);
             for (ServerWorld world : server.getWorlds()) {
                 for (ServerPlayerEntity player : world.getPlayers()) {
                     if (!ServerNodeManager.get().isHandshakeComplete(player)) continue;
-                    syncTrackedChunks(player, world);
+                    updateInterest(player, world);
+                    flushChunkSnapshots(player, world);
                 }
             }
         });
@@ -95,7 +112,7 @@ public final class ServerNodeNetworking {
             return;
         }
         if (!ServerNodeManager.get().consumeRequest(player)) {
-            player.sendMessage(Text.literal("[Craneshot] Too many edit requests; slow down."), false);
+            reject(player, "Too many edit requests; slow down.");
             return;
         }
 
@@ -119,7 +136,7 @@ public final class ServerNodeNetworking {
             return;
         }
         if (!ServerNodeManager.get().consumeRequest(player)) {
-            player.sendMessage(Text.literal("[Craneshot] Too many edit requests; slow down."), false);
+            reject(player, "Too many edit requests; slow down.");
             return;
         }
 
@@ -136,19 +153,267 @@ public final class ServerNodeNetworking {
         }
     }
 
+    /** Only chunks whose hash was offered and not yet asked for are answered, each once. */
+    private static void handleChunkRequestPayload(ChunkRequestPayload payload, ServerPlayNetworking.Context context) {
+        ServerPlayerEntity player = context.player();
+        if (!ServerNodeManager.get().isHandshakeComplete(player)) return;
+        ServerNodeManager.PlayerSession session = ServerNodeManager.get().getSession(player);
+        int originX = payload.regionX() << ChunkNodesBatchPayload.REGION_SHIFT;
+        int originZ = payload.regionZ() << ChunkNodesBatchPayload.REGION_SHIFT;
+        for (int index = 0; index < ChunkNodesBatchPayload.REGION_SIZE * ChunkNodesBatchPayload.REGION_SIZE; index++) {
+            if (!ChunkNodesBatchPayload.isSet(payload.requested(), index)) continue;
+            long key = ChunkPos.toLong(originX + index % ChunkNodesBatchPayload.REGION_SIZE,
+                    originZ + index / ChunkNodesBatchPayload.REGION_SIZE);
+            session.requestSnapshot(payload.dimension(), key);
+        }
+    }
+
+    /**
+     * Applies a {@link BulkEditRequestPayload} as one transaction. The request is charged against the
+     * player's edit budget by operation count and encoded size, every operation is checked before any
+     * is applied, and the first failure rejects the whole request. Creates keep the client's id when it
+     * is not taken, and areas may reference nodes created in the same request. The resulting deltas
+     * coalesce with everything else sent this tick.
+     */
+    private static void handleBulkEditRequestPayload(BulkEditRequestPayload payload, ServerPlayNetworking.Context context) {
+        ServerPlayerEntity player = context.player();
+        if (!ServerNodeManager.get().isHandshakeComplete(player)) {
+            Craneshot.LOGGER.debug("Ignoring bulk edit request from {} before handshake completion", player.getName().getString());
+            return;
+        }
+        if (payload.operationCount() == 0) return;
+        if (!ServerNodeManager.get().consumeBudget(player, payload.operationCount(), payload.wireBytes())) {
+            reject(player, "Bulk edit of " + payload.operationCount() + " operations exceeds your edit budget; try again shortly.");
+            return;
+        }
+
+        ServerWorld world = ServerNodeManager.resolveWorld(context.server(), payload.dimension());
+        if (world == null) {
+            Craneshot.LOGGER.warn("Received bulk edit request for unknown dimension {}", payload.dimension().getValue());
+            return;
+        }
+
+        boolean creates = payload.nodeEdits().stream().anyMatch(edit -> edit.operation() == EditRequestPayload.EditOperation.CREATE)
+                || payload.areaEdits().stream().anyMatch(edit -> edit.operation() == AreaEditRequestPayload.EditOperation.CREATE);
+        if (creates && !ServerNodeManager.get().hasCreatePermission(player)) {
+            reject(player, "Bulk edit rejected: you do not have permission to create nodes or areas on this server.");
+            return;
+        }
+        // Creates keep the id the client chose when it is free, so imported areas can reference imported nodes
+        Set<UUID> claimedNodeIds = new HashSet<>();
+        Set<UUID> claimedAreaIds = new HashSet<>();
+        List<UUID> newNodeIds = new ArrayList<>();
+        List<UUID> newAreaIds = new ArrayList<>();
+        for (BulkEditRequestPayload.NodeEdit edit : payload.nodeEdits()) {
+            String error;
+            if (edit.operation() == EditRequestPayload.EditOperation.CREATE) {
+                error = checkCreate(player, edit.nodeData());
+                if (error == null) {
+                    UUID requested = edit.nodeData().uuid;
+                    boolean free = requested != null && !claimedNodeIds.contains(requested)
+                            && ServerNodeManager.get().getNode(world, requested) == null;
+                    UUID id = free ? requested : UUID.randomUUID();
+                    claimedNodeIds.add(id);
+                    newNodeIds.add(id);
+                }
+            } else if (edit.operation() == EditRequestPayload.EditOperation.UPDATE) {
+                error = checkUpdate(player, world, edit.nodeData());
+            } else {
+                error = checkDelete(player, world, edit.nodeIdForDelete());
+            }
+            if (error != null) {
+                reject(player, "Bulk edit rejected: " + error);
+                return;
+            }
+        }
+        for (BulkEditRequestPayload.AreaEdit edit : payload.areaEdits()) {
+            String error;
+            if (edit.operation() == AreaEditRequestPayload.EditOperation.CREATE) {
+                error = checkAreaCreate(player, world, edit.areaData(), claimedNodeIds);
+                if (error == null) {
+                    UUID requested = edit.areaData().uuid;
+                    boolean free = requested != null && !claimedAreaIds.contains(requested)
+                            && ServerNodeManager.get().getArea(world, requested) == null;
+                    UUID id = free ? requested : UUID.randomUUID();
+                    claimedAreaIds.add(id);
+                    newAreaIds.add(id);
+                }
+            } else if (edit.operation() == AreaEditRequestPayload.EditOperation.UPDATE) {
+                error = checkAreaUpdate(player, world, edit.areaData());
+            } else {
+                error = checkAreaDelete(player, world, edit.areaIdForDelete());
+            }
+            if (error != null) {
+                reject(player, "Bulk edit rejected: " + error);
+                return;
+            }
+        }
+
+        Iterator<UUID> nodeIds = newNodeIds.iterator();
+        for (BulkEditRequestPayload.NodeEdit edit : payload.nodeEdits()) {
+            switch (edit.operation()) {
+                case CREATE -> applyCreate(player, world, edit.nodeData(), nodeIds.next());
+                case UPDATE -> applyUpdate(world, edit.nodeData());
+                case DELETE -> applyDelete(world, edit.nodeIdForDelete());
+            }
+        }
+        Iterator<UUID> areaIds = newAreaIds.iterator();
+        for (BulkEditRequestPayload.AreaEdit edit : payload.areaEdits()) {
+            switch (edit.operation()) {
+                case CREATE -> applyAreaCreate(player, world, edit.areaData(), areaIds.next());
+                case UPDATE -> applyAreaUpdate(world, edit.areaData());
+                case DELETE -> applyAreaDelete(world, edit.areaIdForDelete());
+            }
+        }
+        Craneshot.LOGGER.info("Player {} applied a bulk edit of {} node and {} area operations",
+                player.getName().getString(), payload.nodeEdits().size(), payload.areaEdits().size());
+    }
+
+    private static void reject(ServerPlayerEntity player, String message) {
+        player.sendMessage(Text.literal("[Craneshot] " + message), false);
+    }
+
     private static void handleCreate(ServerPlayerEntity player, ServerWorld world, CameraNodeDTO incoming) {
-        if (!ServerNodeManager.get().hasCreatePermission(player)) {
-            player.sendMessage(Text.literal("[Craneshot] You do not have permission to create nodes on this server."), false);
+        if (incoming == null) return;
+        String error = checkCreate(player, incoming);
+        if (error != null) {
+            reject(player, error);
             return;
         }
-        String error = ServerNodeManager.get().validateNodePayload(incoming);
+        applyCreate(player, world, incoming, UUID.randomUUID());
+        ChunkPos chunk = ServerNodeManager.chunkPosFromNode(incoming);
+        Craneshot.LOGGER.info("Player {} created node {} in chunk {} {}", player.getName().getString(), incoming.uuid, chunk.x, chunk.z);
+    }
+
+    private static void handleUpdate(ServerPlayerEntity player, ServerWorld world, CameraNodeDTO incoming) {
+        if (incoming == null) return;
+        String error = checkUpdate(player, world, incoming);
+        if (error != null) {
+            reject(player, error);
+            return;
+        }
+        applyUpdate(world, incoming);
+        Craneshot.LOGGER.info("Player {} updated node {}", player.getName().getString(), incoming.uuid);
+    }
+
+    private static void handleDelete(ServerPlayerEntity player, ServerWorld world, UUID nodeId) {
+        String error = checkDelete(player, world, nodeId);
+        if (error != null) {
+            reject(player, error);
+            return;
+        }
+        if (applyDelete(world, nodeId)) {
+            Craneshot.LOGGER.info("Player {} removed node {}", player.getName().getString(), nodeId);
+        }
+    }
+
+    private static void handleAreaCreate(ServerPlayerEntity player, ServerWorld world, AreaInstanceDTO incoming) {
+        if (incoming == null) return;
+        String error = checkAreaCreate(player, world, incoming, Set.of());
+        if (error != null) {
+            reject(player, error);
+            return;
+        }
+        applyAreaCreate(player, world, incoming, UUID.randomUUID());
+        Craneshot.LOGGER.info("Player {} created area {}", player.getName().getString(), incoming.uuid);
+    }
+
+    private static void handleAreaUpdate(ServerPlayerEntity player, ServerWorld world, AreaInstanceDTO incoming) {
+        if (incoming == null) return;
+        String error = checkAreaUpdate(player, world, incoming);
+        if (error != null) {
+            reject(player, error);
+            return;
+        }
+        applyAreaUpdate(world, incoming);
+        Craneshot.LOGGER.info("Player {} updated area {}", player.getName().getString(), incoming.uuid);
+    }
+
+    private static void handleAreaDelete(ServerPlayerEntity player, ServerWorld world, UUID areaId) {
+        String error = checkAreaDelete(player, world, areaId);
         if (error != null) {
-            player.sendMessage(Text.literal("[Craneshot] Invalid node: " + error), false);
+            reject(player, error);
             return;
         }
+        if (applyAreaDelete(world, areaId)) {
+            Craneshot.LOGGER.info("Player {} removed area {}", player.getName().getString(), areaId);
+        }
+    }
+
+    // Checks return the message to send back, or null if the edit may go ahead. They also normalise
+    // the incoming data (owner) the way validation expects, but change nothing on the server.
+
+    private static String checkCreate(ServerPlayerEntity player, CameraNodeDTO incoming) {
+        if (incoming == null) return "Invalid node: missing data";
+        if (!ServerNodeManager.get().hasCreatePermission(player)) {
+            return "You do not have permission to create nodes on this server.";
+        }
+        String error = ServerNodeManager.get().validateNodePayload(incoming);
+        return error != null ? "Invalid node: " + error : null;
+    }
+
+    private static String checkUpdate(ServerPlayerEntity player, ServerWorld world, CameraNodeDTO incoming) {
+        if (incoming == null) return "Invalid update: missing data";
+        CameraNodeDTO existing = ServerNodeManager.get().getNode(world, incoming.uuid);
+        if (existing == null) {
+            return "Node was not found on the server.";
+        }
+        if (!ServerNodeManager.get().hasEditPermission(player, existing)) {
+            return "You do not have permission to edit this node.";
+        }
+        incoming.owner = existing.owner;
+        String error = ServerNodeManager.get().validateNodePayload(incoming);
+        return error != null ? "Invalid update: " + error : null;
+    }
+
+    /** A node that is already gone is not an error; deleting it again does nothing. */
+    private static String checkDelete(ServerPlayerEntity player, ServerWorld world, UUID nodeId) {
+        if (nodeId == null) return null;
+        CameraNodeDTO existing = ServerNodeManager.get().getNode(world, nodeId);
+        if (existing == null) return null;
+        if (!ServerNodeManager.get().hasEditPermission(player, existing)) {
+            return "You do not have permission to delete this node.";
+        }
+        return null;
+    }
+
+    private static String checkAreaCreate(ServerPlayerEntity player, ServerWorld world, AreaInstanceDTO incoming,
+                                          Set<UUID> pendingNodeIds) {
+        if (incoming == null) return "Invalid area: missing data";
+        if (!ServerNodeManager.get().hasCreatePermission(player)) {
+            return "You do not have permission to create areas on this server.";
+        }
+        String error = ServerNodeManager.get().validateAreaPayload(world, incoming, pendingNodeIds);
+        return error != null ? "Invalid area: " + error : null;
+    }
+
+    private static String checkAreaUpdate(ServerPlayerEntity player, ServerWorld world, AreaInstanceDTO incoming) {
+        if (incoming == null) return "Invalid area update: missing data";
+        AreaInstanceDTO existing = ServerNodeManager.get().getArea(world, incoming.uuid);
+        if (existing == null) {
+            return "Area was not found on the server.";
+        }
+        if (!ServerNodeManager.get().hasAreaEditPermission(player, existing)) {
+            return "You do not have permission to edit this area.";
+        }
+        incoming.owner = existing.owner;
+        String error = ServerNodeManager.get().validateAreaPayload(world, incoming);
+        return error != null ? "Invalid area update: " + error : null;
+    }
+
+    private static String checkAreaDelete(ServerPlayerEntity player, ServerWorld world, UUID areaId) {
+        if (areaId == null) return null;
+        AreaInstanceDTO existing = ServerNodeManager.get().getArea(world, areaId);
+        if (existing == null) return null;
+        if (!ServerNodeManager.get().hasAreaEditPermission(player, existing)) {
+            return "You do not have permission to delete this area.";
+        }
+        return null;
+    }
 
+    private static void applyCreate(ServerPlayerEntity player, ServerWorld world, CameraNodeDTO incoming, UUID id) {
         UUID tempId = incoming.uuid;
-        incoming.uuid = UUID.randomUUID();
+        incoming.uuid = id;
         incoming.owner = player.getUuid();
         incoming.clientRequestId = null;
 
@@ -160,25 +425,12 @@ public final class ServerNodeNetworking {
 
         NodeDelta delta = NodeDelta.add(world.getRegistryKey(), chunk, packetDto);
         broadcastDeltas(world, List.of(delta));
-        Craneshot.LOGGER.info("Player {} created node {} in chunk {} {}", player.getName().getString(), incoming.uuid, chunk.x, chunk.z);
     }
 
-    private static void handleUpdate(ServerPlayerEntity player, ServerWorld world, CameraNodeDTO incoming) {
+    private static void applyUpdate(ServerWorld world, CameraNodeDTO incoming) {
         CameraNodeDTO existing = ServerNodeManager.get().getNode(world, incoming.uuid);
-        if (existing == null) {
-            player.sendMessage(Text.literal("[Craneshot] Node was not found on the server."), false);
-            return;
-        }
-        if (!ServerNodeManager.get().hasEditPermission(player, existing)) {
-            player.sendMessage(Text.literal("[Craneshot] You do not have permission to edit this node."), false);
-            return;
-        }
-        incoming.owner = existing.owner;
-        String error = ServerNodeManager.get().validateNodePayload(incoming);
-        if (error != null) {
-            player.sendMessage(Text.literal("[Craneshot] Invalid update: " + error), false);
-            return;
-        }
+        if (existing == null) return;
+        incoming.clientRequestId = null;
 
         ChunkPos oldChunk = ServerNodeManager.chunkPosFromNode(existing);
         ChunkPos newChunk = ServerNodeManager.chunkPosFromNode(incoming);
@@ -191,41 +443,25 @@ public final class ServerNodeNetworking {
             broadcastDeltas(world, List.of(remove, add));
         } else {
             ServerNodeManager.get().upsertNode(world, newChunk, incoming);
-            NodeDelta update = NodeDelta.update(world.getRegistryKey(), newChunk, incoming);
+            NodeDelta update = NodeDelta.update(world.getRegistryKey(), newChunk, existing, incoming);
             broadcastDeltas(world, List.of(update));
         }
-        Craneshot.LOGGER.info("Player {} updated node {}", player.getName().getString(), incoming.uuid);
     }
 
-    private static void handleDelete(ServerPlayerEntity player, ServerWorld world, UUID nodeId) {
+    private static boolean applyDelete(ServerWorld world, UUID nodeId) {
+        if (nodeId == null) return false;
         CameraNodeDTO existing = ServerNodeManager.get().getNode(world, nodeId);
-        if (existing == null) return;
-        if (!ServerNodeManager.get().hasEditPermission(player, existing)) {
-            player.sendMessage(Text.literal("[Craneshot] You do not have permission to delete this node."), false);
-            return;
-        }
+        if (existing == null) return false;
         ChunkPos chunk = ServerNodeManager.chunkPosFromNode(existing);
-        if (ServerNodeManager.get().removeNode(world, nodeId)) {
-            NodeDelta delta = NodeDelta.remove(world.getRegistryKey(), chunk, nodeId);
-            broadcastDeltas(world, List.of(delta));
-            Craneshot.LOGGER.info("Player {} removed node {}", player.getName().getString(), nodeId);
-        }
+        if (!ServerNodeManager.get().removeNode(world, nodeId)) return false;
+        NodeDelta delta = NodeDelta.remove(world.getRegistryKey(), chunk, nodeId);
+        broadcastDeltas(world, List.of(delta));
+        return true;
     }
 
-    private static void handleAreaCreate(ServerPlayerEntity player, ServerWorld world, AreaInstanceDTO incoming) {
-        if (incoming == null) return;
-        if (!ServerNodeManager.get().hasCreatePermission(player)) {
-            player.sendMessage(Text.literal("[Craneshot] You do not have permission to create areas on this server."), false);
-            return;
-        }
-        String error = ServerNodeManager.get().validateAreaPayload(world, incoming);
-        if (error != null) {
-            player.sendMessage(Text.literal("[Craneshot] Invalid area: " + error), false);
-            return;
-        }
-
+    private static void applyAreaCreate(ServerPlayerEntity player, ServerWorld world, AreaInstanceDTO incoming, UUID id) {
         UUID tempId = incoming.uuid;
-        incoming.uuid = UUID.randomUUID();
+        incoming.uuid = id;
         incoming.owner = player.getUuid();
         incoming.clientRequestId = null;
 
@@ -236,58 +472,43 @@ public final class ServerNodeNetworking {
 
         AreaDelta delta = AreaDelta.add(world.getRegistryKey(), packetDto);
         broadcastAreaDeltas(world, List.of(delta));
-        Craneshot.LOGGER.info("Player {} created area {}", player.getName().getString(), incoming.uuid);
     }
 
-    private static void handleAreaUpdate(ServerPlayerEntity player, ServerWorld world, AreaInstanceDTO incoming) {
-        if (incoming == null) return;
-        AreaInstanceDTO existing = ServerNodeManager.get().getArea(world, incoming.uuid);
-        if (existing == null) {
-            player.sendMessage(Text.literal("[Craneshot] Area was not found on the server."), false);
-            return;
-        }
-        if (!ServerNodeManager.get().hasAreaEditPermission(player, existing)) {
-            player.sendMessage(Text.literal("[Craneshot] You do not have permission to edit this area."), false);
-            return;
-        }
-        incoming.owner = existing.owner;
-        String error = ServerNodeManager.get().validateAreaPayload(world, incoming);
-        if (error != null) {
-            player.sendMessage(Text.literal("[Craneshot] Invalid area update: " + error), false);
-            return;
-        }
+    private static void applyAreaUpdate(ServerWorld world, AreaInstanceDTO incoming) {
         incoming.clientRequestId = null;
         ServerNodeManager.get().upsertArea(world, incoming);
-        AreaInstanceDTO packetDto = AreaInstanceDTO.fromAreaInstance(incoming.toAreaInstance());
-        AreaDelta delta = AreaDelta.update(world.getRegistryKey(), packetDto);
+        // Stored DTOs are replaced rather than mutated, so the delta can share it
+        AreaDelta delta = AreaDelta.update(world.getRegistryKey(), incoming);
         broadcastAreaDeltas(world, List.of(delta));
-        Craneshot.LOGGER.info("Player {} updated area {}", player.getName().getString(), incoming.uuid);
     }
 
-    private static void handleAreaDelete(ServerPlayerEntity player, ServerWorld world, UUID areaId) {
-        if (areaId == null) return;
-        AreaInstanceDTO existing = ServerNodeManager.get().getArea(world, areaId);
-        if (existing == null) return;
-        if (!ServerNodeManager.get().hasAreaEditPermission(player, existing)) {
-            player.sendMessage(Text.literal("[Craneshot] You do not have permission to delete this area."), false);
-            return;
-        }
-        if (ServerNodeManager.get().removeArea(world, areaId)) {
-            AreaDelta delta = AreaDelta.remove(world.getRegistryKey(), areaId);
-            broadcastAreaDeltas(world, List.of(delta));
-            Craneshot.LOGGER.info("Player {} removed area {}", player.getName().getString(), areaId);
-        }
+    private static boolean applyAreaDelete(ServerWorld world, UUID areaId) {
+        if (areaId == null) return false;
+        if (!ServerNodeManager.get().removeArea(world, areaId)) return false;
+        AreaDelta delta = AreaDelta.remove(world.getRegistryKey(), areaId);
+        broadcastAreaDeltas(world, List.of(delta));
+        return true;
     }
 
     private static void onChunkLoad(ServerWorld world, WorldChunk chunk) {
         ChunkPos pos = chunk.getPos();
-        Iterable<ServerPlayerEntity> players = PlayerLookup.tracking(world, pos);
-        for (ServerPlayerEntity player : players) {
+        RegistryKey<World> dimension = world.getRegistryKey();
+        for (ServerPlayerEntity player : world.getPlayers()) {
             if (!ServerNodeManager.get().isHandshakeComplete(player)) continue;
-            boolean fresh = ServerNodeManager.get().markChunkStreamed(player, world.getRegistryKey(), pos);
-            if (fresh) {
-                sendChunkSnapshot(player, world, pos);
-            }
+            ServerNodeManager.PlayerSession session = ServerNodeManager.get().getSession(player);
+            if (!session.isInInterest(dimension, pos.x, pos.z)) continue;
+            // Queued; goes out with the end-of-tick batch
+            session.markChunkStreamed(dimension, pos.toLong());
+        }
+    }
+
+    private static void onChunkUnload(ServerWorld world, WorldChunk chunk) {
+        RegistryKey<World> dimension = world.getRegistryKey();
+        long key = chunk.getPos().toLong();
+        for (ServerPlayerEntity player : world.getPlayers()) {
+            if (!ServerNodeManager.get().isHandshakeComplete(player)) continue;
+            // Resend when the chunk comes back
+            ServerNodeManager.get().getSession(player).unmarkChunkStreamed(dimension, key);
         }
     }
 
@@ -302,152 +523,260 @@ public final class ServerNodeNetworking {
     }
 
     private static void sendInitialChunks(ServerPlayerEntity player, ServerWorld world) {
-        syncTrackedChunks(player, world);
+        updateInterest(player, world);
+        flushChunkSnapshots(player, world);
     }
 
-    private static void syncTrackedChunks(ServerPlayerEntity player, ServerWorld world) {
+    /**
+     * Moves the player's chunk interest square to follow them. Does nothing unless the player changed
+     * chunk, dimension or the view distance changed; otherwise only the cells entering the square are
+     * streamed and only the cells leaving it are forgotten. Chunks loading or unloading inside the
+     * square are handled by {@link #onChunkLoad} and {@link #onChunkUnload}. Areas follow the same
+     * square: a new dimension gets a snapshot of the areas overlapping it, a move within one gets deltas.
+     */
+    private static void updateInterest(ServerPlayerEntity player, ServerWorld world) {
         RegistryKey<World> dimension = world.getRegistryKey();
-        if (ServerNodeManager.get().markAreasSynced(player, dimension)) {
-            sendAreasSnapshot(player, world);
-        }
         ChunkPos center = player.getChunkPos();
         MinecraftServer server = world.getServer();
         int viewDistance = Math.max(2, server != null ? server.getPlayerManager().getViewDistance() : 10);
-        Set<Long> keep = new HashSet<>();
-        for (int dx = -viewDistance; dx <= viewDistance; dx++) {
-            for (int dz = -viewDistance; dz <= viewDistance; dz++) {
-                int cx = center.x + dx;
-                int cz = center.z + dz;
-                if (world.getChunkManager().isChunkLoaded(cx, cz)) {
-                    ChunkPos pos = new ChunkPos(cx, cz);
-                    long key = pos.toLong();
-                    keep.add(key);
-                    if (ServerNodeManager.get().markChunkStreamed(player, dimension, pos)) {
-                        sendChunkSnapshot(player, world, pos);
+        ServerNodeManager.PlayerSession session = ServerNodeManager.get().getSession(player);
+        if (session.isInterestAt(dimension, center.x, center.z, viewDistance)) return;
+
+        boolean sameDimension = dimension.equals(session.getInterestDimension());
+        int oldX = session.getInterestX();
+        int oldZ = session.getInterestZ();
+        int oldRadius = session.getInterestRadius();
+        if (sameDimension) {
+            for (int cx = oldX - oldRadius; cx <= oldX + oldRadius; cx++) {
+                for (int cz = oldZ - oldRadius; cz <= oldZ + oldRadius; cz++) {
+                    if (Math.abs(cx - center.x) > viewDistance || Math.abs(cz - center.z) > viewDistance) {
+                        session.unmarkChunkStreamed(dimension, ChunkPos.toLong(cx, cz));
                     }
                 }
             }
         }
-        ServerNodeManager.get().retainStreamedChunks(player, dimension, keep);
-    }
 
-    private static void sendChunkSnapshot(ServerPlayerEntity player, ServerWorld world, ChunkPos pos) {
-        List<CameraNodeDTO> nodes = ServerNodeManager.get().getChunkNodes(world, pos);
-        // Clear client request IDs for chunk snapshots
-        List<CameraNodeDTO> cleanNodes = new ArrayList<>(nodes.size());
-        for (CameraNodeDTO dto : nodes) {
-            CameraNodeDTO clean = dto.copy();
-            clean.clientRequestId = null;
-            cleanNodes.add(clean);
+        session.setInterest(dimension, center.x, center.z, viewDistance);
+        for (int cx = center.x - viewDistance; cx <= center.x + viewDistance; cx++) {
+            for (int cz = center.z - viewDistance; cz <= center.z + viewDistance; cz++) {
+                if (sameDimension && Math.abs(cx - oldX) <= oldRadius && Math.abs(cz - oldZ) <= oldRadius) continue;
+                if (!world.getChunkManager().isChunkLoaded(cx, cz)) continue;
+                session.markChunkStreamed(dimension, ChunkPos.toLong(cx, cz));
+            }
         }
-        ChunkNodesPayload payload = new ChunkNodesPayload(world.getRegistryKey(), pos, cleanNodes);
-        ServerPlayNetworking.send(player, payload);
-    }
 
-    private static void sendAreasSnapshot(ServerPlayerEntity player, ServerWorld world) {
-        List<AreaInstanceDTO> areas = ServerNodeManager.get().getAreas(world);
-        List<AreaInstanceDTO> cleanAreas = new ArrayList<>(areas.size());
-        for (AreaInstanceDTO dto : areas) {
-            AreaInstanceDTO copy = AreaInstanceDTO.fromAreaInstance(dto.toAreaInstance());
-            copy.clientRequestId = null;
-            cleanAreas.add(copy);
+        if (sameDimension) {
+            streamAreaChanges(player, world, session, oldX, oldZ, oldRadius);
+        } else {
+            sendAreasSnapshot(player, world, session);
         }
-        AreasSnapshotPayload payload = new AreasSnapshotPayload(world.getRegistryKey(), cleanAreas);
-        ServerPlayNetworking.send(player, payload);
     }
 
-    private static void broadcastDeltas(ServerWorld world, List<NodeDelta> deltas) {
-        if (deltas.isEmpty()) return;
-        Map<ChunkGroupKey, List<NodeDelta>> grouped = new HashMap<>();
-        for (NodeDelta delta : deltas) {
-            ChunkGroupKey key = new ChunkGroupKey(delta.dimension(), delta.chunk());
-            grouped.computeIfAbsent(key, k -> new ArrayList<>()).add(delta);
-        }
-
-        for (var entry : grouped.entrySet()) {
-            ChunkPos chunk = entry.getKey().chunk();
-            RegistryKey<World> dimension = entry.getKey().dimension();
-            Iterable<ServerPlayerEntity> players = PlayerLookup.tracking(world, chunk);
-
-            // Convert NodeDelta list to NodeOperation list for payload
-            List<NodesDeltaPayload.NodeOperation> operations = new ArrayList<>();
-            for (NodeDelta delta : entry.getValue()) {
-                NodesDeltaPayload.OperationType opType = switch (delta.type()) {
-                    case ADD -> NodesDeltaPayload.OperationType.ADD;
-                    case UPDATE -> NodesDeltaPayload.OperationType.UPDATE;
-                    case REMOVE -> NodesDeltaPayload.OperationType.REMOVE;
-                };
-
-                UUID nodeId = delta.type() == Type.REMOVE ? delta.removedId() : delta.node().uuid;
-                Optional<CameraNodeDTO> nodeData;
-
-                if (delta.type() == Type.ADD || delta.type() == Type.UPDATE) {
-                    CameraNodeDTO dto = delta.node().copy();
-                    if (delta.type() == Type.ADD && delta.clientRequestId() != null) {
-                        dto.clientRequestId = delta.clientRequestId();
-                    } else {
-                        dto.clientRequestId = null;
+    /**
+     * Brings the client's areas in line with its moved interest square. Areas bucketed in cells that
+     * entered the square are sent, areas bucketed in cells that left it are removed unless they still
+     * overlap the square, and the unbucketed wide areas are checked against the square directly.
+     * Newly streamed areas go out as UPDATEs, which the client applies as an upsert.
+     */
+    private static void streamAreaChanges(ServerPlayerEntity player, ServerWorld world, ServerNodeManager.PlayerSession session,
+                                          int oldX, int oldZ, int oldRadius) {
+        RegistryKey<World> dimension = world.getRegistryKey();
+        AreaChunkIndex index = ServerNodeManager.get().getAreaIndex(world);
+        int newX = session.getInterestX();
+        int newZ = session.getInterestZ();
+        int radius = session.getInterestRadius();
+        List<AreasDeltaPayload.AreaOperation> operations = new ArrayList<>();
+        for (int cx = oldX - oldRadius; cx <= oldX + oldRadius; cx++) {
+            for (int cz = oldZ - oldRadius; cz <= oldZ + oldRadius; cz++) {
+                if (Math.abs(cx - newX) <= radius && Math.abs(cz - newZ) <= radius) continue;
+                for (UUID areaId : index.at(cx, cz)) {
+                    if (session.isAreaStreamed(areaId) && !session.isAreaInInterest(dimension, index, areaId)) {
+                        session.unmarkAreaStreamed(areaId);
+                        operations.add(new AreasDeltaPayload.AreaOperation(AreasDeltaPayload.OperationType.REMOVE, areaId, Optional.empty()));
                     }
-                    nodeData = Optional.of(dto);
-                } else {
-                    nodeData = Optional.empty();
                 }
+            }
+        }
+        for (int cx = newX - radius; cx <= newX + radius; cx++) {
+            for (int cz = newZ - radius; cz <= newZ + radius; cz++) {
+                if (Math.abs(cx - oldX) <= oldRadius && Math.abs(cz - oldZ) <= oldRadius) continue;
+                for (UUID areaId : index.at(cx, cz)) {
+                    addAreaUpsert(world, session, areaId, operations);
+                }
+            }
+        }
+        for (UUID areaId : index.wide()) {
+            if (session.isAreaInInterest(dimension, index, areaId)) {
+                addAreaUpsert(world, session, areaId, operations);
+            } else if (session.unmarkAreaStreamed(areaId)) {
+                operations.add(new AreasDeltaPayload.AreaOperation(AreasDeltaPayload.OperationType.REMOVE, areaId, Optional.empty()));
+            }
+        }
+        if (!operations.isEmpty()) {
+            ServerPlayNetworking.send(player, new AreasDeltaPayload(dimension, operations));
+        }
+    }
+
+    private static void addAreaUpsert(ServerWorld world, ServerNodeManager.PlayerSession session, UUID areaId,
+                                      List<AreasDeltaPayload.AreaOperation> operations) {
+        if (session.isAreaStreamed(areaId)) return;
+        AreaInstanceDTO area = ServerNodeManager.get().getArea(world, areaId);
+        if (area == null) return;
+        session.markAreaStreamed(areaId);
+        operations.add(new AreasDeltaPayload.AreaOperation(AreasDeltaPayload.OperationType.UPDATE, areaId, Optional.of(area)));
+    }
 
-                operations.add(new NodesDeltaPayload.NodeOperation(opType, nodeId, nodeData));
+    /**
+     * Sends the hashes of the player's newly streamed chunks as {@link ChunkHashesPayload}s, one per
+     * region, and the nodes of the chunks the client asked for as {@link ChunkNodesBatchPayload}s.
+     * Empty chunks only take a coverage bit, and a region whose newly streamed chunks the server knows
+     * are all empty is not sent at all: the client has nothing there to clear, since it drops a chunk's
+     * nodes when the chunk unloads and receives every later change as a delta.
+     */
+    private static void flushChunkSnapshots(ServerPlayerEntity player, ServerWorld world) {
+        ServerNodeManager.PlayerSession session = ServerNodeManager.get().getSession(player);
+        if (session.hasPendingSnapshots()) {
+            for (var entry : groupByRegion(session.takePendingSnapshots()).entrySet()) {
+                sendRegionHashes(player, world, entry.getKey(), entry.getValue());
             }
+        }
+        if (session.hasRequestedSnapshots()) {
+            PacketByteBuf scratch = new PacketByteBuf(Unpooled.buffer());
+            try {
+                for (var entry : groupByRegion(session.takeRequestedSnapshots()).entrySet()) {
+                    sendRegionSnapshots(player, world, entry.getKey(), entry.getValue(), scratch);
+                }
+            } finally {
+                scratch.release();
+            }
+        }
+    }
 
-            NodesDeltaPayload payload = new NodesDeltaPayload(dimension, chunk, operations);
+    private static Map<Long, LongArrayList> groupByRegion(long[] chunkKeys) {
+        Map<Long, LongArrayList> byRegion = new HashMap<>();
+        for (long key : chunkKeys) {
+            int regionX = ChunkNodesBatchPayload.regionCoord(ChunkPos.getPackedX(key));
+            int regionZ = ChunkNodesBatchPayload.regionCoord(ChunkPos.getPackedZ(key));
+            byRegion.computeIfAbsent(ChunkPos.toLong(regionX, regionZ), k -> new LongArrayList()).add(key);
+        }
+        return byRegion;
+    }
 
-            for (ServerPlayerEntity player : players) {
-                if (!ServerNodeManager.get().isHandshakeComplete(player)) continue;
-                ServerPlayNetworking.send(player, payload);
+    private static void sendRegionHashes(ServerPlayerEntity player, ServerWorld world, long regionKey, LongArrayList chunkKeys) {
+        long[] coverage = new long[ChunkNodesBatchPayload.COVERAGE_WORDS];
+        List<ChunkHashesPayload.ChunkHash> hashes = new ArrayList<>();
+        for (int i = 0; i < chunkKeys.size(); i++) {
+            long key = chunkKeys.getLong(i);
+            int index = ChunkNodesBatchPayload.localIndex(ChunkPos.getPackedX(key), ChunkPos.getPackedZ(key));
+            ChunkNodesBatchPayload.set(coverage, index);
+            if (ServerNodeManager.get().hasNodes(world, key)) {
+                hashes.add(new ChunkHashesPayload.ChunkHash(index, ServerNodeManager.get().getChunkHash(world, key)));
             }
         }
+        if (hashes.isEmpty()) return;
+        ServerPlayNetworking.send(player, new ChunkHashesPayload(world.getRegistryKey(),
+                ChunkPos.getPackedX(regionKey), ChunkPos.getPackedZ(regionKey), coverage, hashes));
     }
 
-    private static void broadcastAreaDeltas(ServerWorld world, List<AreaDelta> deltas) {
-        if (deltas.isEmpty()) return;
-        List<AreasDeltaPayload.AreaOperation> operations = new ArrayList<>(deltas.size());
-        for (AreaDelta delta : deltas) {
-            AreasDeltaPayload.OperationType opType = switch (delta.type()) {
-                case ADD -> AreasDeltaPayload.OperationType.ADD;
-                case UPDATE -> AreasDeltaPayload.OperationType.UPDATE;
-                case REMOVE -> AreasDeltaPayload.OperationType.REMOVE;
-            };
-            UUID areaId = delta.type() == AreaDelta.Type.REMOVE ? delta.removedId() : delta.area().uuid;
-            Optional<AreaInstanceDTO> areaData;
-            if (delta.type() == AreaDelta.Type.ADD || delta.type() == AreaDelta.Type.UPDATE) {
-                AreaInstanceDTO source = delta.area();
-                AreaInstanceDTO copy = AreaInstanceDTO.fromAreaInstance(source.toAreaInstance());
-                copy.clientRequestId = source.clientRequestId;
-                areaData = Optional.of(copy);
-            } else {
-                areaData = Optional.empty();
+    /** Requested chunks are always answered, so one emptied since its hash went out is cleared. */
+    private static void sendRegionSnapshots(ServerPlayerEntity player, ServerWorld world, long regionKey,
+                                            LongArrayList chunkKeys, PacketByteBuf scratch) {
+        LongArrayList occupied = new LongArrayList();
+        for (int i = 0; i < chunkKeys.size(); i++) {
+            long key = chunkKeys.getLong(i);
+            if (ServerNodeManager.get().hasNodes(world, key)) {
+                occupied.add(key);
             }
-            operations.add(new AreasDeltaPayload.AreaOperation(opType, areaId, areaData));
         }
 
-        AreasDeltaPayload payload = new AreasDeltaPayload(world.getRegistryKey(), operations);
-        for (ServerPlayerEntity player : PlayerLookup.world(world)) {
-            if (!ServerNodeManager.get().isHandshakeComplete(player)) continue;
-            ServerPlayNetworking.send(player, payload);
+        RegistryKey<World> dimension = world.getRegistryKey();
+        int regionX = ChunkPos.getPackedX(regionKey);
+        int regionZ = ChunkPos.getPackedZ(regionKey);
+        long[] coverage = new long[ChunkNodesBatchPayload.COVERAGE_WORDS];
+        // The empty chunks ride along in the first batch
+        for (int i = 0; i < chunkKeys.size(); i++) {
+            long key = chunkKeys.getLong(i);
+            ChunkNodesBatchPayload.set(coverage, ChunkNodesBatchPayload.localIndex(ChunkPos.getPackedX(key), ChunkPos.getPackedZ(key)));
+        }
+        List<ChunkNodesBatchPayload.ChunkEntry> entries = new ArrayList<>();
+        int batchBytes = 0;
+        // Close enough to the real payload's dictionary for a soft size cap
+        NodeWireCodec.Dictionary sizingDictionary = new NodeWireCodec.Dictionary();
+        for (int i = 0; i < occupied.size(); i++) {
+            long key = occupied.getLong(i);
+            int index = ChunkNodesBatchPayload.localIndex(ChunkPos.getPackedX(key), ChunkPos.getPackedZ(key));
+            List<CameraNodeDTO> nodes = ServerNodeManager.get().getChunkNodes(world, new ChunkPos(key));
+            // Clear client request IDs for chunk snapshots
+            List<CameraNodeDTO> cleanNodes = new ArrayList<>(nodes.size());
+            int chunkBytes = 0;
+            for (CameraNodeDTO dto : nodes) {
+                CameraNodeDTO clean = dto.copy();
+                clean.clientRequestId = null;
+                cleanNodes.add(clean);
+                scratch.clear();
+                NodeWireCodec.writeNode(scratch, clean, NodeWireCodec.ALL_FIELDS, 0, 0, sizingDictionary);
+                chunkBytes += scratch.readableBytes();
+            }
+            if (!entries.isEmpty() && batchBytes + chunkBytes > MAX_SNAPSHOT_BATCH_BYTES) {
+                ServerPlayNetworking.send(player, new ChunkNodesBatchPayload(dimension, regionX, regionZ, coverage, entries));
+                coverage = new long[ChunkNodesBatchPayload.COVERAGE_WORDS];
+                entries = new ArrayList<>();
+                batchBytes = 0;
+            }
+            ChunkNodesBatchPayload.set(coverage, index);
+            long hash = ServerNodeManager.get().getChunkHash(world, key);
+            entries.add(new ChunkNodesBatchPayload.ChunkEntry(index, hash, cleanNodes));
+            batchBytes += chunkBytes;
+        }
+        ServerPlayNetworking.send(player, new ChunkNodesBatchPayload(dimension, regionX, regionZ, coverage, entries));
+    }
+
+    /** Replaces the client's areas with those overlapping its interest square, after it entered the dimension. */
+    private static void sendAreasSnapshot(ServerPlayerEntity player, ServerWorld world, ServerNodeManager.PlayerSession session) {
+        AreaChunkIndex index = ServerNodeManager.get().getAreaIndex(world);
+        int centerX = session.getInterestX();
+        int centerZ = session.getInterestZ();
+        int radius = session.getInterestRadius();
+        Set<UUID> visible = new LinkedHashSet<>();
+        index.collect(centerX - radius, centerZ - radius, centerX + radius, centerZ + radius, visible);
+        // Stored areas never carry a client request id and are replaced rather than mutated, so they are sent as-is
+        List<AreaInstanceDTO> areas = new ArrayList<>(visible.size());
+        for (UUID areaId : visible) {
+            AreaInstanceDTO area = ServerNodeManager.get().getArea(world, areaId);
+            if (area == null) continue;
+            session.markAreaStreamed(areaId);
+            areas.add(area);
+        }
+        ServerPlayNetworking.send(player, new AreasSnapshotPayload(world.getRegistryKey(), areas));
+    }
+
+    /** Queued until the end of the tick, where {@link PendingDeltas} coalesces and sends them. */
+    private static void broadcastDeltas(ServerWorld world, List<NodeDelta> deltas) {
+        for (NodeDelta delta : deltas) {
+            PENDING_DELTAS.add(delta);
         }
     }
 
-    private record ChunkGroupKey(RegistryKey<World> dimension, ChunkPos chunk) {}
+    private static void broadcastAreaDeltas(ServerWorld world, List<AreaDelta> deltas) {
+        for (AreaDelta delta : deltas) {
+            PENDING_DELTAS.add(delta);
+        }
+    }
 
-    public record NodeDelta(Type type, RegistryKey<World> dimension, ChunkPos chunk, CameraNodeDTO node, UUID removedId, UUID clientRequestId) {
+    /** {@code previous} is the node as observers last saw it, for UPDATEs that only send changed fields. */
+    public record NodeDelta(Type type, RegistryKey<World> dimension, ChunkPos chunk, CameraNodeDTO node, UUID removedId,
+                            UUID clientRequestId, CameraNodeDTO previous) {
         static NodeDelta add(RegistryKey<World> dimension, ChunkPos chunk, CameraNodeDTO node) {
-            return new NodeDelta(Type.ADD, dimension, chunk, node, null, node.clientRequestId);
+            return new NodeDelta(Type.ADD, dimension, chunk, node, null, node.clientRequestId, null);
         }
 
-        static NodeDelta update(RegistryKey<World> dimension, ChunkPos chunk, CameraNodeDTO node) {
+        static NodeDelta update(RegistryKey<World> dimension, ChunkPos chunk, CameraNodeDTO previous, CameraNodeDTO node) {
             node.clientRequestId = null;
-            return new NodeDelta(Type.UPDATE, dimension, chunk, node, null, null);
+            return new NodeDelta(Type.UPDATE, dimension, chunk, node, null, null, previous);
         }
 
         static NodeDelta remove(RegistryKey<World> dimension, ChunkPos chunk, UUID removedId) {
-            return new NodeDelta(Type.REMOVE, dimension, chunk, null, removedId, null);
+            return new NodeDelta(Type.REMOVE, dimension, chunk, null, removedId, null, null);
         }
 
         public enum Type {
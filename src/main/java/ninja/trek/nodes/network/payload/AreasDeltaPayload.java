@@ -1,23 +1,31 @@
 package ninja.trek.nodes.network.payload;
 
+import io.netty.buffer.Unpooled;
 import net.minecraft.network.RegistryByteBuf;
 import net.minecraft.network.codec.PacketCodec;
 import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.registry.DynamicRegistryManager;
 import net.minecraft.registry.RegistryKey;
 import net.minecraft.registry.RegistryKeys;
 import net.minecraft.util.Identifier;
 import net.minecraft.world.World;
 import ninja.trek.Craneshot;
 import ninja.trek.nodes.model.AreaInstanceDTO;
+import ninja.trek.nodes.network.NodeWireCodec;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * Area changes for one dimension. Payloads built with {@link #encoded} carry their operations already
+ * serialized, so broadcasting one to many players encodes the area data once.
+ */
 public record AreasDeltaPayload(
         RegistryKey<World> dimension,
-        List<AreaOperation> operations
+        List<AreaOperation> operations,
+        byte[] encodedOperations
 ) implements CustomPayload {
     public static final Id<AreasDeltaPayload> ID = new Id<>(Identifier.of(Craneshot.MOD_ID, "areas_delta"));
 
@@ -26,6 +34,10 @@ public record AreasDeltaPayload(
             AreasDeltaPayload::read
     );
 
+    public AreasDeltaPayload(RegistryKey<World> dimension, List<AreaOperation> operations) {
+        this(dimension, operations, null);
+    }
+
     private AreasDeltaPayload(RegistryByteBuf buf) {
         this(
                 RegistryKey.of(RegistryKeys.WORLD, buf.readIdentifier()),
@@ -33,24 +45,47 @@ public record AreasDeltaPayload(
         );
     }
 
+    public static AreasDeltaPayload encoded(RegistryKey<World> dimension, List<AreaOperation> operations,
+                                            DynamicRegistryManager registries) {
+        RegistryByteBuf buf = new RegistryByteBuf(Unpooled.buffer(), registries);
+        try {
+            writeOperations(buf, operations);
+            byte[] bytes = new byte[buf.readableBytes()];
+            buf.readBytes(bytes);
+            return new AreasDeltaPayload(dimension, operations, bytes);
+        } finally {
+            buf.release();
+        }
+    }
+
     private static AreasDeltaPayload read(RegistryByteBuf buf) {
         return new AreasDeltaPayload(buf);
     }
 
     private static List<AreaOperation> readOperations(RegistryByteBuf buf) {
         int count = buf.readVarInt();
-        List<AreaOperation> ops = new ArrayList<>(count);
+        List<AreaOperation> ops = new ArrayList<>(Math.min(count, 1024));
+        NodeWireCodec.Dictionary dictionary = new NodeWireCodec.Dictionary();
         for (int i = 0; i < count; i++) {
-            ops.add(AreaOperation.read(buf));
+            ops.add(AreaOperation.read(buf, dictionary));
         }
         return ops;
     }
 
     private void write(RegistryByteBuf buf) {
         buf.writeIdentifier(dimension.getValue());
+        if (encodedOperations != null) {
+            buf.writeBytes(encodedOperations);
+        } else {
+            writeOperations(buf, operations);
+        }
+    }
+
+    private static void writeOperations(RegistryByteBuf buf, List<AreaOperation> operations) {
         buf.writeVarInt(operations.size());
+        NodeWireCodec.Dictionary dictionary = new NodeWireCodec.Dictionary();
         for (AreaOperation op : operations) {
-            op.write(buf);
+            op.write(buf, dictionary);
         }
     }
 
@@ -68,24 +103,22 @@ public record AreasDeltaPayload(
             UUID areaId,
             Optional<AreaInstanceDTO> areaData
     ) {
-        public static AreaOperation read(RegistryByteBuf buf) {
+        static AreaOperation read(RegistryByteBuf buf, NodeWireCodec.Dictionary dictionary) {
             OperationType type = buf.readEnumConstant(OperationType.class);
-            UUID areaId = buf.readUuid();
-            Optional<AreaInstanceDTO> areaData;
-            if (type == OperationType.ADD || type == OperationType.UPDATE) {
-                areaData = Optional.of(AreaInstanceDTO.read(buf));
-            } else {
-                areaData = Optional.empty();
+            if (type == OperationType.REMOVE) {
+                return new AreaOperation(type, buf.readUuid(), Optional.empty());
             }
-            return new AreaOperation(type, areaId, areaData);
+            AreaInstanceDTO dto = NodeWireCodec.readArea(buf, dictionary);
+            return new AreaOperation(type, dto.uuid, Optional.of(dto));
         }
 
-        public void write(RegistryByteBuf buf) {
+        void write(RegistryByteBuf buf, NodeWireCodec.Dictionary dictionary) {
             buf.writeEnumConstant(type);
-            buf.writeUuid(areaId);
-            if (type == OperationType.ADD || type == OperationType.UPDATE) {
-                areaData.ifPresent(dto -> dto.write(buf));
+            if (type == OperationType.REMOVE || areaData.isEmpty()) {
+                buf.writeUuid(areaId);
+                return;
             }
+            NodeWireCodec.writeArea(buf, areaData.get(), dictionary);
         }
     }
 }
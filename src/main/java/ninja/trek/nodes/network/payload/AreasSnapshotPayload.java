@@ -9,6 +9,7 @@ import net.minecraft.util.Identifier;
 import net.minecraft.world.World;
 import ninja.trek.Craneshot;
 import ninja.trek.nodes.model.AreaInstanceDTO;
+import ninja.trek.nodes.network.NodeWireCodec;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -39,9 +40,10 @@ public record AreasSnapshotPayload(RegistryKey<World> dimension, List<AreaInstan
 
     private static List<AreaInstanceDTO> readAreas(RegistryByteBuf buf) {
         int size = buf.readVarInt();
-        List<AreaInstanceDTO> list = new ArrayList<>(size);
+        List<AreaInstanceDTO> list = new ArrayList<>(Math.min(size, 1024));
+        NodeWireCodec.Dictionary dictionary = new NodeWireCodec.Dictionary();
         for (int i = 0; i < size; i++) {
-            list.add(AreaInstanceDTO.read(buf));
+            list.add(NodeWireCodec.readArea(buf, dictionary));
         }
         return list;
     }
@@ -49,8 +51,9 @@ public record AreasSnapshotPayload(RegistryKey<World> dimension, List<AreaInstan
     private void write(RegistryByteBuf buf) {
         buf.writeIdentifier(dimension.getValue());
         buf.writeVarInt(areas.size());
+        NodeWireCodec.Dictionary dictionary = new NodeWireCodec.Dictionary();
         for (AreaInstanceDTO dto : areas) {
-            dto.write(buf);
+            NodeWireCodec.writeArea(buf, dto, dictionary);
         }
     }
 
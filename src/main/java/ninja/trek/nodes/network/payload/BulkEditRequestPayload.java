@@ -0,0 +1,137 @@
+package ninja.trek.nodes.network.payload;
+
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.util.Identifier;
+import net.minecraft.world.World;
+import ninja.trek.Craneshot;
+import ninja.trek.nodes.model.AreaInstanceDTO;
+import ninja.trek.nodes.model.CameraNodeDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Any number of node and area edits in one dimension, applied by the server as a single transaction:
+ * every operation is checked before any is applied, and one failure rejects the whole request.
+ * Records use the same layouts as {@link EditRequestPayload} and {@link AreaEditRequestPayload}.
+ * {@code wireBytes} is the encoded size as received, for the sender's byte budget; it is 0 for
+ * payloads that were never encoded (built locally, or passed straight through by the integrated server).
+ */
+public record BulkEditRequestPayload(
+        RegistryKey<World> dimension,
+        List<NodeEdit> nodeEdits,
+        List<AreaEdit> areaEdits,
+        int wireBytes
+) implements CustomPayload {
+    public static final Id<BulkEditRequestPayload> ID = new Id<>(Identifier.of(Craneshot.MOD_ID, "bulk_edit_request"));
+
+    /** Operations per request; larger edits are split into several requests by the sender. */
+    public static final int MAX_OPERATIONS = 256;
+
+    public static final PacketCodec<RegistryByteBuf, BulkEditRequestPayload> CODEC = PacketCodec.of(
+            BulkEditRequestPayload::write,
+            BulkEditRequestPayload::read
+    );
+
+    public BulkEditRequestPayload(RegistryKey<World> dimension, List<NodeEdit> nodeEdits, List<AreaEdit> areaEdits) {
+        this(dimension, nodeEdits, areaEdits, 0);
+    }
+
+    public int operationCount() {
+        return nodeEdits.size() + areaEdits.size();
+    }
+
+    private static BulkEditRequestPayload read(RegistryByteBuf buf) {
+        int start = buf.readerIndex();
+        RegistryKey<World> dimension = RegistryKey.of(RegistryKeys.WORLD, buf.readIdentifier());
+        int nodeCount = buf.readVarInt();
+        checkCount(nodeCount, 0);
+        List<NodeEdit> nodeEdits = new ArrayList<>(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            EditRequestPayload.EditOperation operation = buf.readEnumConstant(EditRequestPayload.EditOperation.class);
+            if (operation == EditRequestPayload.EditOperation.DELETE) {
+                nodeEdits.add(new NodeEdit(operation, null, buf.readUuid()));
+            } else {
+                nodeEdits.add(new NodeEdit(operation, CameraNodeDTO.read(buf), null));
+            }
+        }
+        int areaCount = buf.readVarInt();
+        checkCount(areaCount, nodeCount);
+        List<AreaEdit> areaEdits = new ArrayList<>(areaCount);
+        for (int i = 0; i < areaCount; i++) {
+            AreaEditRequestPayload.EditOperation operation = buf.readEnumConstant(AreaEditRequestPayload.EditOperation.class);
+            if (operation == AreaEditRequestPayload.EditOperation.DELETE) {
+                areaEdits.add(new AreaEdit(operation, null, buf.readUuid()));
+            } else {
+                areaEdits.add(new AreaEdit(operation, AreaInstanceDTO.read(buf), null));
+            }
+        }
+        return new BulkEditRequestPayload(dimension, nodeEdits, areaEdits, buf.readerIndex() - start);
+    }
+
+    private static void checkCount(int count, int before) {
+        if (count < 0 || before + count > MAX_OPERATIONS) {
+            throw new IllegalArgumentException("Bulk edit has more than " + MAX_OPERATIONS + " operations");
+        }
+    }
+
+    private void write(RegistryByteBuf buf) {
+        buf.writeIdentifier(dimension.getValue());
+        buf.writeVarInt(nodeEdits.size());
+        for (NodeEdit edit : nodeEdits) {
+            buf.writeEnumConstant(edit.operation());
+            if (edit.operation() == EditRequestPayload.EditOperation.DELETE) {
+                buf.writeUuid(edit.nodeIdForDelete());
+            } else {
+                edit.nodeData().write(buf);
+            }
+        }
+        buf.writeVarInt(areaEdits.size());
+        for (AreaEdit edit : areaEdits) {
+            buf.writeEnumConstant(edit.operation());
+            if (edit.operation() == AreaEditRequestPayload.EditOperation.DELETE) {
+                buf.writeUuid(edit.areaIdForDelete());
+            } else {
+                edit.areaData().write(buf);
+            }
+        }
+    }
+
+    @Override
+    public Id<BulkEditRequestPayload> getId() {
+        return ID;
+    }
+
+    public record NodeEdit(EditRequestPayload.EditOperation operation, CameraNodeDTO nodeData, UUID nodeIdForDelete) {
+        public static NodeEdit create(CameraNodeDTO nodeData) {
+            return new NodeEdit(EditRequestPayload.EditOperation.CREATE, nodeData, null);
+        }
+
+        public static NodeEdit update(CameraNodeDTO nodeData) {
+            return new NodeEdit(EditRequestPayload.EditOperation.UPDATE, nodeData, null);
+        }
+
+        public static NodeEdit delete(UUID nodeId) {
+            return new NodeEdit(EditRequestPayload.EditOperation.DELETE, null, nodeId);
+        }
+    }
+
+    public record AreaEdit(AreaEditRequestPayload.EditOperation operation, AreaInstanceDTO areaData, UUID areaIdForDelete) {
+        public static AreaEdit create(AreaInstanceDTO areaData) {
+            return new AreaEdit(AreaEditRequestPayload.EditOperation.CREATE, areaData, null);
+        }
+
+        public static AreaEdit update(AreaInstanceDTO areaData) {
+            return new AreaEdit(AreaEditRequestPayload.EditOperation.UPDATE, areaData, null);
+        }
+
+        public static AreaEdit delete(UUID areaId) {
+            return new AreaEdit(AreaEditRequestPayload.EditOperation.DELETE, null, areaId);
+        }
+    }
+}
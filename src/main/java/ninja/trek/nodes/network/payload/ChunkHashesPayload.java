@@ -0,0 +1,87 @@
+package ninja.trek.nodes.network.payload;
+
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import ninja.trek.Craneshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Content hashes for chunks that entered a player's interest in one region, sent in place of their nodes.
+ * Covered chunks without an entry are empty and cleared straight away. For the rest the client uses its
+ * cached copy when the hash matches and asks for the others with a {@link ChunkRequestPayload}.
+ * Indices and coverage follow {@link ChunkNodesBatchPayload}.
+ */
+public record ChunkHashesPayload(RegistryKey<World> dimension,
+                                 int regionX,
+                                 int regionZ,
+                                 long[] coverage,
+                                 List<ChunkHash> hashes) implements CustomPayload {
+    public static final Id<ChunkHashesPayload> ID = new Id<>(Identifier.of(Craneshot.MOD_ID, "chunk_hashes"));
+
+    public static final PacketCodec<RegistryByteBuf, ChunkHashesPayload> CODEC = PacketCodec.of(
+            ChunkHashesPayload::write,
+            ChunkHashesPayload::read
+    );
+
+    public ChunkHashesPayload(RegistryKey<World> dimension, int regionX, int regionZ, long[] coverage, List<ChunkHash> hashes) {
+        this.dimension = dimension;
+        this.regionX = regionX;
+        this.regionZ = regionZ;
+        this.coverage = coverage;
+        this.hashes = List.copyOf(hashes);
+    }
+
+    public ChunkPos chunkAt(int index) {
+        return new ChunkPos((regionX << ChunkNodesBatchPayload.REGION_SHIFT) + index % ChunkNodesBatchPayload.REGION_SIZE,
+                (regionZ << ChunkNodesBatchPayload.REGION_SHIFT) + index / ChunkNodesBatchPayload.REGION_SIZE);
+    }
+
+    public boolean isCovered(int index) {
+        return ChunkNodesBatchPayload.isSet(coverage, index);
+    }
+
+    private static ChunkHashesPayload read(RegistryByteBuf buf) {
+        RegistryKey<World> dimension = RegistryKey.of(RegistryKeys.WORLD, buf.readIdentifier());
+        int regionX = buf.readVarInt();
+        int regionZ = buf.readVarInt();
+        long[] coverage = ChunkNodesBatchPayload.readCoverage(buf);
+        int count = buf.readVarInt();
+        int cells = ChunkNodesBatchPayload.REGION_SIZE * ChunkNodesBatchPayload.REGION_SIZE;
+        List<ChunkHash> hashes = new ArrayList<>(Math.min(count, cells));
+        for (int i = 0; i < count; i++) {
+            int index = buf.readVarInt();
+            if (index < 0 || index >= cells) {
+                throw new IllegalArgumentException("Chunk hash index " + index + " out of range");
+            }
+            hashes.add(new ChunkHash(index, buf.readLong()));
+        }
+        return new ChunkHashesPayload(dimension, regionX, regionZ, coverage, hashes);
+    }
+
+    private void write(RegistryByteBuf buf) {
+        buf.writeIdentifier(dimension.getValue());
+        buf.writeVarInt(regionX);
+        buf.writeVarInt(regionZ);
+        ChunkNodesBatchPayload.writeCoverage(buf, coverage);
+        buf.writeVarInt(hashes.size());
+        for (ChunkHash hash : hashes) {
+            buf.writeVarInt(hash.index());
+            buf.writeLong(hash.hash());
+        }
+    }
+
+    @Override
+    public Id<ChunkHashesPayload> getId() {
+        return ID;
+    }
+
+    public record ChunkHash(int index, long hash) {}
+}
@@ -0,0 +1,169 @@
+package ninja.trek.nodes.network.payload;
+
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import ninja.trek.Craneshot;
+import ninja.trek.nodes.model.CameraNodeDTO;
+import ninja.trek.nodes.network.NodeWireCodec;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Node snapshots for any number of chunks in one {@link #REGION_SIZE}x{@link #REGION_SIZE} chunk region.
+ * Every chunk whose bit is set in {@code coverage} is replaced on the client by its entry in
+ * {@code chunks}, or cleared when it has none, so empty chunks cost one bit instead of a packet.
+ * Chunk indices are {@code localX + localZ * REGION_SIZE} relative to the region origin.
+ * Sent in answer to a {@link ChunkRequestPayload}, for the chunks whose {@link ChunkHashesPayload}
+ * hash the client had no cached copy of.
+ */
+public record ChunkNodesBatchPayload(RegistryKey<World> dimension,
+                                     int regionX,
+                                     int regionZ,
+                                     long[] coverage,
+                                     List<ChunkEntry> chunks) implements CustomPayload {
+    public static final Id<ChunkNodesBatchPayload> ID = new Id<>(Identifier.of(Craneshot.MOD_ID, "chunk_nodes_batch"));
+
+    public static final int REGION_SHIFT = 5;
+    public static final int REGION_SIZE = 1 << REGION_SHIFT;
+    public static final int COVERAGE_WORDS = REGION_SIZE * REGION_SIZE / Long.SIZE;
+
+    public static final PacketCodec<RegistryByteBuf, ChunkNodesBatchPayload> CODEC = PacketCodec.of(
+            ChunkNodesBatchPayload::write,
+            ChunkNodesBatchPayload::read
+    );
+
+    public ChunkNodesBatchPayload(RegistryKey<World> dimension, int regionX, int regionZ, long[] coverage, List<ChunkEntry> chunks) {
+        this.dimension = dimension;
+        this.regionX = regionX;
+        this.regionZ = regionZ;
+        this.coverage = coverage;
+        this.chunks = List.copyOf(chunks);
+    }
+
+    public static int regionCoord(int chunkCoord) {
+        return chunkCoord >> REGION_SHIFT;
+    }
+
+    public static int localIndex(int chunkX, int chunkZ) {
+        return (chunkX & (REGION_SIZE - 1)) + (chunkZ & (REGION_SIZE - 1)) * REGION_SIZE;
+    }
+
+    public ChunkPos chunkAt(int index) {
+        return new ChunkPos((regionX << REGION_SHIFT) + index % REGION_SIZE,
+                (regionZ << REGION_SHIFT) + index / REGION_SIZE);
+    }
+
+    public boolean isCovered(int index) {
+        return isSet(coverage, index);
+    }
+
+    public static boolean isSet(long[] bits, int index) {
+        return (bits[index >>> 6] & 1L << index) != 0;
+    }
+
+    public static void set(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    /** Trailing zero words are not sent. */
+    static long[] readCoverage(RegistryByteBuf buf) {
+        int words = buf.readVarInt();
+        if (words < 0 || words > COVERAGE_WORDS) {
+            throw new IllegalArgumentException("Chunk coverage has " + words + " words");
+        }
+        long[] coverage = new long[COVERAGE_WORDS];
+        for (int i = 0; i < words; i++) {
+            coverage[i] = buf.readLong();
+        }
+        return coverage;
+    }
+
+    static void writeCoverage(RegistryByteBuf buf, long[] coverage) {
+        int words = coverage.length;
+        while (words > 0 && coverage[words - 1] == 0) {
+            words--;
+        }
+        buf.writeVarInt(words);
+        for (int i = 0; i < words; i++) {
+            buf.writeLong(coverage[i]);
+        }
+    }
+
+    private static ChunkNodesBatchPayload read(RegistryByteBuf buf) {
+        RegistryKey<World> dimension = RegistryKey.of(RegistryKeys.WORLD, buf.readIdentifier());
+        int regionX = buf.readVarInt();
+        int regionZ = buf.readVarInt();
+        long[] coverage = readCoverage(buf);
+        int count = buf.readVarInt();
+        List<ChunkEntry> chunks = new ArrayList<>(Math.min(count, REGION_SIZE * REGION_SIZE));
+        NodeWireCodec.Dictionary dictionary = new NodeWireCodec.Dictionary();
+        for (int i = 0; i < count; i++) {
+            chunks.add(ChunkEntry.read(buf, regionX, regionZ, dictionary));
+        }
+        return new ChunkNodesBatchPayload(dimension, regionX, regionZ, coverage, chunks);
+    }
+
+    private void write(RegistryByteBuf buf) {
+        buf.writeIdentifier(dimension.getValue());
+        buf.writeVarInt(regionX);
+        buf.writeVarInt(regionZ);
+        writeCoverage(buf, coverage);
+        buf.writeVarInt(chunks.size());
+        NodeWireCodec.Dictionary dictionary = new NodeWireCodec.Dictionary();
+        for (ChunkEntry entry : chunks) {
+            entry.write(buf, regionX, regionZ, dictionary);
+        }
+    }
+
+    @Override
+    public Id<ChunkNodesBatchPayload> getId() {
+        return ID;
+    }
+
+    /** {@code hash} is the server's content hash of the chunk, kept with the client's cached copy. */
+    public record ChunkEntry(int index, long hash, List<CameraNodeDTO> nodes) {
+        static ChunkEntry read(RegistryByteBuf buf, int regionX, int regionZ, NodeWireCodec.Dictionary dictionary) {
+            int index = buf.readVarInt();
+            if (index < 0 || index >= REGION_SIZE * REGION_SIZE) {
+                throw new IllegalArgumentException("Chunk batch index " + index + " out of range");
+            }
+            int originX = originX(regionX, index);
+            int originZ = originZ(regionZ, index);
+            long hash = buf.readLong();
+            int size = buf.readVarInt();
+            List<CameraNodeDTO> nodes = new ArrayList<>(Math.min(size, 1024));
+            for (int i = 0; i < size; i++) {
+                CameraNodeDTO dto = new CameraNodeDTO();
+                NodeWireCodec.readNode(buf, dto, originX, originZ, dictionary);
+                nodes.add(dto);
+            }
+            return new ChunkEntry(index, hash, nodes);
+        }
+
+        void write(RegistryByteBuf buf, int regionX, int regionZ, NodeWireCodec.Dictionary dictionary) {
+            buf.writeVarInt(index);
+            int originX = originX(regionX, index);
+            int originZ = originZ(regionZ, index);
+            buf.writeLong(hash);
+            buf.writeVarInt(nodes.size());
+            for (CameraNodeDTO dto : nodes) {
+                NodeWireCodec.writeNode(buf, dto, NodeWireCodec.ALL_FIELDS, originX, originZ, dictionary);
+            }
+        }
+
+        private static int originX(int regionX, int index) {
+            return ((regionX << REGION_SHIFT) + index % REGION_SIZE) << 4;
+        }
+
+        private static int originZ(int regionZ, int index) {
+            return ((regionZ << REGION_SHIFT) + index / REGION_SIZE) << 4;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package ninja.trek.nodes.network.payload;
+
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.util.Identifier;
+import net.minecraft.world.World;
+import ninja.trek.Craneshot;
+
+/**
+ * Client to server: the chunks of one region, as {@link ChunkNodesBatchPayload} coverage bits, whose
+ * {@link ChunkHashesPayload} hash did not match the client's cache and whose nodes it needs.
+ */
+public record ChunkRequestPayload(RegistryKey<World> dimension,
+                                  int regionX,
+                                  int regionZ,
+                                  long[] requested) implements CustomPayload {
+    public static final Id<ChunkRequestPayload> ID = new Id<>(Identifier.of(Craneshot.MOD_ID, "chunk_request"));
+
+    public static final PacketCodec<RegistryByteBuf, ChunkRequestPayload> CODEC = PacketCodec.of(
+            ChunkRequestPayload::write,
+            ChunkRequestPayload::read
+    );
+
+    private static ChunkRequestPayload read(RegistryByteBuf buf) {
+        RegistryKey<World> dimension = RegistryKey.of(RegistryKeys.WORLD, buf.readIdentifier());
+        int regionX = buf.readVarInt();
+        int regionZ = buf.readVarInt();
+        return new ChunkRequestPayload(dimension, regionX, regionZ, ChunkNodesBatchPayload.readCoverage(buf));
+    }
+
+    private void write(RegistryByteBuf buf) {
+        buf.writeIdentifier(dimension.getValue());
+        buf.writeVarInt(regionX);
+        buf.writeVarInt(regionZ);
+        ChunkNodesBatchPayload.writeCoverage(buf, requested);
+    }
+
+    @Override
+    public Id<ChunkRequestPayload> getId() {
+        return ID;
+    }
+}
@@ -1,26 +1,33 @@
 package ninja.trek.nodes.network.payload;
 
+import io.netty.buffer.Unpooled;
 import net.minecraft.network.RegistryByteBuf;
 import net.minecraft.network.codec.PacketCodec;
-import net.minecraft.network.codec.PacketCodecs;
 import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.registry.DynamicRegistryManager;
 import net.minecraft.registry.RegistryKey;
 import net.minecraft.registry.RegistryKeys;
 import net.minecraft.util.Identifier;
-import net.minecraft.util.Uuids;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.World;
 import ninja.trek.Craneshot;
 import ninja.trek.nodes.model.CameraNodeDTO;
+import ninja.trek.nodes.network.NodeWireCodec;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * Node changes for one chunk. Payloads built with {@link #encoded} carry their operations already
+ * serialized, so broadcasting one to many players encodes the node data once.
+ */
 public record NodesDeltaPayload(
         RegistryKey<World> dimension,
         ChunkPos chunk,
-        List<NodeOperation> operations
+        List<NodeOperation> operations,
+        byte[] encodedOperations
 ) implements CustomPayload {
     public static final Id<NodesDeltaPayload> ID = new Id<>(Identifier.of(Craneshot.MOD_ID, "nodes_delta"));
 
@@ -29,34 +36,51 @@ public record NodesDeltaPayload(
             NodesDeltaPayload::read
     );
 
-    private NodesDeltaPayload(RegistryByteBuf buf) {
-        this(
-                RegistryKey.of(RegistryKeys.WORLD, buf.readIdentifier()),
-                new ChunkPos(buf.readInt(), buf.readInt()),
-                readOperations(buf)
-        );
+    public NodesDeltaPayload(RegistryKey<World> dimension, ChunkPos chunk, List<NodeOperation> operations) {
+        this(dimension, chunk, operations, null);
     }
 
-    private static NodesDeltaPayload read(RegistryByteBuf buf) {
-        return new NodesDeltaPayload(buf);
+    public static NodesDeltaPayload encoded(RegistryKey<World> dimension, ChunkPos chunk, List<NodeOperation> operations,
+                                            DynamicRegistryManager registries) {
+        RegistryByteBuf buf = new RegistryByteBuf(Unpooled.buffer(), registries);
+        try {
+            writeOperations(buf, chunk, operations);
+            byte[] bytes = new byte[buf.readableBytes()];
+            buf.readBytes(bytes);
+            return new NodesDeltaPayload(dimension, chunk, operations, bytes);
+        } finally {
+            buf.release();
+        }
     }
 
-    private static List<NodeOperation> readOperations(RegistryByteBuf buf) {
+    private static NodesDeltaPayload read(RegistryByteBuf buf) {
+        RegistryKey<World> dimension = RegistryKey.of(RegistryKeys.WORLD, buf.readIdentifier());
+        ChunkPos chunk = new ChunkPos(buf.readVarInt(), buf.readVarInt());
         int count = buf.readVarInt();
-        List<NodeOperation> ops = new java.util.ArrayList<>(count);
+        NodeWireCodec.Dictionary dictionary = new NodeWireCodec.Dictionary();
+        List<NodeOperation> ops = new ArrayList<>(Math.min(count, 1024));
         for (int i = 0; i < count; i++) {
-            ops.add(NodeOperation.read(buf));
+            ops.add(NodeOperation.read(buf, chunk, dictionary));
         }
-        return ops;
+        return new NodesDeltaPayload(dimension, chunk, ops);
     }
 
     private void write(RegistryByteBuf buf) {
         buf.writeIdentifier(dimension.getValue());
-        buf.writeInt(chunk.x);
-        buf.writeInt(chunk.z);
+        buf.writeVarInt(chunk.x);
+        buf.writeVarInt(chunk.z);
+        if (encodedOperations != null) {
+            buf.writeBytes(encodedOperations);
+        } else {
+            writeOperations(buf, chunk, operations);
+        }
+    }
+
+    private static void writeOperations(RegistryByteBuf buf, ChunkPos chunk, List<NodeOperation> operations) {
         buf.writeVarInt(operations.size());
+        NodeWireCodec.Dictionary dictionary = new NodeWireCodec.Dictionary();
         for (NodeOperation op : operations) {
-            op.write(buf);
+            op.write(buf, chunk, dictionary);
         }
     }
 
@@ -69,29 +93,38 @@ public record NodesDeltaPayload(
         ADD, UPDATE, REMOVE
     }
 
+    /**
+     * For UPDATE, {@code fields} says which {@link NodeWireCodec} fields of {@code nodeData} changed;
+     * the others are unset and must be taken from the receiver's copy. ADD always carries every field.
+     */
     public record NodeOperation(
             OperationType type,
             UUID nodeId,
-            Optional<CameraNodeDTO> nodeData
+            Optional<CameraNodeDTO> nodeData,
+            int fields
     ) {
-        public static NodeOperation read(RegistryByteBuf buf) {
+        public NodeOperation(OperationType type, UUID nodeId, Optional<CameraNodeDTO> nodeData) {
+            this(type, nodeId, nodeData, NodeWireCodec.ALL_FIELDS);
+        }
+
+        static NodeOperation read(RegistryByteBuf buf, ChunkPos chunk, NodeWireCodec.Dictionary dictionary) {
             OperationType type = buf.readEnumConstant(OperationType.class);
-            UUID nodeId = buf.readUuid();
-            Optional<CameraNodeDTO> nodeData;
-            if (type == OperationType.ADD || type == OperationType.UPDATE) {
-                nodeData = Optional.of(CameraNodeDTO.read(buf));
-            } else {
-                nodeData = Optional.empty();
+            if (type == OperationType.REMOVE) {
+                return new NodeOperation(type, buf.readUuid(), Optional.empty());
             }
-            return new NodeOperation(type, nodeId, nodeData);
+            CameraNodeDTO dto = new CameraNodeDTO();
+            int fields = NodeWireCodec.readNode(buf, dto, chunk.getStartX(), chunk.getStartZ(), dictionary);
+            return new NodeOperation(type, dto.uuid, Optional.of(dto), fields);
         }
 
-        public void write(RegistryByteBuf buf) {
+        void write(RegistryByteBuf buf, ChunkPos chunk, NodeWireCodec.Dictionary dictionary) {
             buf.writeEnumConstant(type);
-            buf.writeUuid(nodeId);
-            if (type == OperationType.ADD || type == OperationType.UPDATE) {
-                nodeData.ifPresent(dto -> dto.write(buf));
+            if (type == OperationType.REMOVE || nodeData.isEmpty()) {
+                buf.writeUuid(nodeId);
+                return;
             }
+            int written = type == OperationType.ADD ? NodeWireCodec.ALL_FIELDS : fields;
+            NodeWireCodec.writeNode(buf, nodeData.get(), written, chunk.getStartX(), chunk.getStartZ(), dictionary);
         }
     }
 }
@@ -0,0 +1,131 @@
+package ninja.trek.nodes.server;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.Vec3d;
+import ninja.trek.nodes.model.AreaInstanceDTO;
+import ninja.trek.nodes.model.AreaShape;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * One dimension's areas, bucketed by the chunks their outer bounds overlap, so an area only has to
+ * reach players whose chunk interest square touches it.
+ * Bounds follow the client's influence rules: legacy non-advanced cubes fall off asymptotically past
+ * their outer radius and have no finite extent, so they (and areas spanning more than
+ * {@link #MAX_CHUNKS_PER_AREA} chunks) are kept in a small "wide" set that is checked by bounds instead.
+ */
+public final class AreaChunkIndex {
+    private static final int MAX_CHUNKS_PER_AREA = 1024;
+
+    private final Map<UUID, Bounds> bounds = new HashMap<>();
+    private final Long2ObjectOpenHashMap<List<UUID>> chunks = new Long2ObjectOpenHashMap<>();
+    private final Set<UUID> wide = new LinkedHashSet<>();
+
+    AreaChunkIndex(Collection<AreaInstanceDTO> areas) {
+        for (AreaInstanceDTO area : areas) {
+            put(area);
+        }
+    }
+
+    void put(AreaInstanceDTO area) {
+        if (area == null || area.uuid == null) return;
+        remove(area.uuid);
+        Bounds b = boundsOf(area);
+        bounds.put(area.uuid, b);
+        if (b.wide()) {
+            wide.add(area.uuid);
+            return;
+        }
+        for (int cx = b.minX(); cx <= b.maxX(); cx++) {
+            for (int cz = b.minZ(); cz <= b.maxZ(); cz++) {
+                chunks.computeIfAbsent(ChunkPos.toLong(cx, cz), k -> new ArrayList<>(2)).add(area.uuid);
+            }
+        }
+    }
+
+    void remove(UUID areaId) {
+        Bounds b = bounds.remove(areaId);
+        if (b == null) return;
+        if (b.wide()) {
+            wide.remove(areaId);
+            return;
+        }
+        for (int cx = b.minX(); cx <= b.maxX(); cx++) {
+            for (int cz = b.minZ(); cz <= b.maxZ(); cz++) {
+                long key = ChunkPos.toLong(cx, cz);
+                List<UUID> bucket = chunks.get(key);
+                if (bucket == null) continue;
+                bucket.remove(areaId);
+                if (bucket.isEmpty()) chunks.remove(key);
+            }
+        }
+    }
+
+    /** Areas whose bucket includes the chunk; wide areas are not listed here. */
+    public List<UUID> at(int chunkX, int chunkZ) {
+        List<UUID> bucket = chunks.get(ChunkPos.toLong(chunkX, chunkZ));
+        return bucket != null ? bucket : List.of();
+    }
+
+    public Set<UUID> wide() {
+        return wide;
+    }
+
+    /** Adds every area overlapping the chunk square (inclusive bounds) to {@code out}. */
+    public void collect(int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ, Set<UUID> out) {
+        for (UUID id : wide) {
+            if (isVisible(id, minChunkX, minChunkZ, maxChunkX, maxChunkZ)) out.add(id);
+        }
+        for (int cx = minChunkX; cx <= maxChunkX; cx++) {
+            for (int cz = minChunkZ; cz <= maxChunkZ; cz++) {
+                out.addAll(at(cx, cz));
+            }
+        }
+    }
+
+    /** Whether the area exists and overlaps the chunk square. */
+    public boolean isVisible(UUID areaId, int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ) {
+        Bounds b = bounds.get(areaId);
+        if (b == null) return false;
+        return b.maxX() >= minChunkX && b.minX() <= maxChunkX && b.maxZ() >= minChunkZ && b.minZ() <= maxChunkZ;
+    }
+
+    private static Bounds boundsOf(AreaInstanceDTO area) {
+        Vec3d center = area.center;
+        if (center == null) return Bounds.UNBOUNDED;
+        boolean perAxis = area.advanced && area.insideRadii != null && area.outsideRadii != null;
+        if (!perAxis && area.shape != AreaShape.SPHERE && area.outsideRadius > area.insideRadius) {
+            return Bounds.UNBOUNDED;
+        }
+        double rx, rz;
+        if (perAxis) {
+            rx = Math.max(area.insideRadii.x, area.outsideRadii.x);
+            rz = Math.max(area.insideRadii.z, area.outsideRadii.z);
+        } else {
+            rx = rz = Math.max(area.insideRadius, area.outsideRadius);
+        }
+        if (!Double.isFinite(rx) || !Double.isFinite(rz) || !Double.isFinite(center.x) || !Double.isFinite(center.z)) {
+            return Bounds.UNBOUNDED;
+        }
+        rx = Math.max(0.0, rx);
+        rz = Math.max(0.0, rz);
+        int minX = (int) Math.floor(center.x - rx) >> 4;
+        int maxX = (int) Math.floor(center.x + rx) >> 4;
+        int minZ = (int) Math.floor(center.z - rz) >> 4;
+        int maxZ = (int) Math.floor(center.z + rz) >> 4;
+        long count = (long) (maxX - minX + 1) * (long) (maxZ - minZ + 1);
+        return new Bounds(count > MAX_CHUNKS_PER_AREA, minX, minZ, maxX, maxZ);
+    }
+
+    private record Bounds(boolean wide, int minX, int minZ, int maxX, int maxZ) {
+        static final Bounds UNBOUNDED = new Bounds(true, Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+}
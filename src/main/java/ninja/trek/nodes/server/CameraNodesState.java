@@ -1,46 +1,58 @@
 package ninja.trek.nodes.server;
 
 import com.mojang.serialization.Codec;
-import net.minecraft.datafixer.DataFixTypes;
-import net.minecraft.nbt.NbtCompound;
-import net.minecraft.nbt.NbtElement;
-import net.minecraft.nbt.NbtList;
-import net.minecraft.nbt.NbtOps;
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import net.minecraft.registry.RegistryKey;
-import net.minecraft.registry.RegistryKeys;
-import net.minecraft.registry.RegistryWrapper;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.world.ServerWorld;
-import net.minecraft.util.Identifier;
+import net.minecraft.util.WorldSavePath;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.PersistentState;
-import net.minecraft.world.PersistentStateManager;
 import ninja.trek.nodes.model.AreaInstanceDTO;
 import ninja.trek.nodes.model.CameraNodeDTO;
 
-import java.lang.reflect.Constructor;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.function.BiFunction;
-import java.util.function.Supplier;
 
+/**
+ * Server-side store of camera nodes and areas for a world.
+ * Nodes are persisted per region ({@value NodeRegionStorage#REGION_SHIFT}-bit shift, 32x32 chunks) by
+ * {@link NodeRegionStorage}; a region is read the first time one of its chunks (or one of its nodes by
+ * id) is requested, and only regions edited since the last save are rewritten, each together with its
+ * shard of the id index. Saving is driven by
+ * {@link #saveAll} from the server's save event rather than by {@link PersistentState}'s own serialization.
+ */
 public class CameraNodesState extends PersistentState {
     public static final String STORAGE_KEY = "craneshot_nodes";
-    private static final int FORMAT_VERSION = 1;
 
     private final Map<RegistryKey<net.minecraft.world.World>, Map<Long, LinkedHashMap<UUID, CameraNodeDTO>>> nodesByDimension = new HashMap<>();
     private final Map<RegistryKey<net.minecraft.world.World>, Map<UUID, Long>> nodeIndex = new HashMap<>();
     private final Map<RegistryKey<net.minecraft.world.World>, LinkedHashMap<UUID, AreaInstanceDTO>> areasByDimension = new HashMap<>();
 
-    // Create a Codec that wraps our NBT-based serialization
-    private static final Codec<CameraNodesState> CODEC = Codec.unit(() -> {
-        // This codec is only used for creating empty instances
-        // The actual serialization still uses writeNbt/fromNbt through PersistentState
-        return new CameraNodesState();
-    });
+    // Per-dimension shard bookkeeping
+    private final Map<RegistryKey<net.minecraft.world.World>, NodeRegionStorage> storages = new HashMap<>();
+    private final Map<RegistryKey<net.minecraft.world.World>, Set<Long>> loadedRegions = new HashMap<>();
+    private final Map<RegistryKey<net.minecraft.world.World>, Set<Long>> dirtyRegions = new HashMap<>();
+    private final Set<RegistryKey<net.minecraft.world.World>> dirtyAreas = new HashSet<>();
+    // Chunks holding at least one node, derived from the id index on first use and kept in step with every edit
+    private final Map<RegistryKey<net.minecraft.world.World>, LongOpenHashSet> occupiedChunks = new HashMap<>();
+    // Content hash per chunk, computed when first asked for and dropped whenever the chunk is edited
+    private final Map<RegistryKey<net.minecraft.world.World>, Long2LongOpenHashMap> chunkHashes = new HashMap<>();
+    // Areas by the chunks they overlap, built on first use and kept in step with every area edit
+    private final Map<RegistryKey<net.minecraft.world.World>, AreaChunkIndex> areaIndexes = new HashMap<>();
+    private Path dataRoot = null;
+
+    // Only used to create empty instances; contents live in the region files
+    private static final Codec<CameraNodesState> CODEC = Codec.unit(CameraNodesState::new);
 
     private static final net.minecraft.world.PersistentStateType<CameraNodesState> TYPE =
         new net.minecraft.world.PersistentStateType<>(
@@ -51,21 +63,35 @@ public class CameraNodesState extends PersistentState {
         );
 
     public static CameraNodesState get(ServerWorld world) {
-        return world.getPersistentStateManager().getOrCreate(TYPE);
+        CameraNodesState state = world.getPersistentStateManager().getOrCreate(TYPE);
+        if (state.dataRoot == null) {
+            state.dataRoot = world.getServer().getSavePath(WorldSavePath.ROOT).resolve("data");
+        }
+        return state;
+    }
+
+    /** Writes every dirty region (with its index shard) and area file. Registered on the server's save event. */
+    public static void saveAll(MinecraftServer server) {
+        for (ServerWorld world : server.getWorlds()) {
+            get(world).saveDirty();
+        }
     }
 
     public List<CameraNodeDTO> getChunkNodes(RegistryKey<net.minecraft.world.World> dimension, ChunkPos pos) {
+        long key = pos.toLong();
+        ensureRegionLoaded(dimension, key);
         Map<Long, LinkedHashMap<UUID, CameraNodeDTO>> dimMap = nodesByDimension.get(dimension);
         if (dimMap == null) return List.of();
-        Map<UUID, CameraNodeDTO> chunk = dimMap.get(pos.toLong());
+        Map<UUID, CameraNodeDTO> chunk = dimMap.get(key);
         if (chunk == null) return List.of();
         return new ArrayList<>(chunk.values());
     }
 
     public void replaceChunk(RegistryKey<net.minecraft.world.World> dimension, ChunkPos pos, List<CameraNodeDTO> nodes) {
+        long key = pos.toLong();
+        ensureRegionLoaded(dimension, key);
         Map<Long, LinkedHashMap<UUID, CameraNodeDTO>> dimMap = getDimensionMap(dimension);
         Map<UUID, Long> index = getIndexMap(dimension);
-        long key = pos.toLong();
         Map<UUID, CameraNodeDTO> existing = dimMap.remove(key);
         if (existing != null) {
             for (UUID id : existing.keySet()) {
@@ -80,35 +106,39 @@ public class CameraNodesState extends PersistentState {
         if (!map.isEmpty()) {
             dimMap.put(key, map);
         }
-        markDirty();
+        setOccupied(dimension, key, !map.isEmpty());
+        markRegionDirty(dimension, key);
     }
 
     public void upsertNode(RegistryKey<net.minecraft.world.World> dimension, ChunkPos pos, CameraNodeDTO dto) {
+        long key = pos.toLong();
+        ensureRegionLoaded(dimension, key);
         Map<Long, LinkedHashMap<UUID, CameraNodeDTO>> dimMap = getDimensionMap(dimension);
         Map<UUID, Long> index = getIndexMap(dimension);
-        long key = pos.toLong();
         LinkedHashMap<UUID, CameraNodeDTO> chunk = dimMap.computeIfAbsent(key, k -> new LinkedHashMap<>());
         chunk.put(dto.uuid, dto);
         index.put(dto.uuid, key);
-        if (chunk.isEmpty()) {
-            dimMap.remove(key);
-        }
-        markDirty();
+        setOccupied(dimension, key, true);
+        markRegionDirty(dimension, key);
     }
 
     public boolean removeNode(RegistryKey<net.minecraft.world.World> dimension, UUID nodeId) {
         Map<UUID, Long> index = getIndexMap(dimension);
         Long key = index.remove(nodeId);
         if (key == null) return false;
+        ensureRegionLoaded(dimension, key);
+        // The region holds this entry's index shard, so it is rewritten even if the node was already gone
+        markRegionDirty(dimension, key);
         Map<Long, LinkedHashMap<UUID, CameraNodeDTO>> dimMap = getDimensionMap(dimension);
         LinkedHashMap<UUID, CameraNodeDTO> chunk = dimMap.get(key);
-        if (chunk == null) return false;
+        if (chunk == null) {
+            setOccupied(dimension, key, false);
+            return false;
+        }
         CameraNodeDTO removed = chunk.remove(nodeId);
         if (chunk.isEmpty()) {
             dimMap.remove(key);
-        }
-        if (removed != null) {
-            markDirty();
+            setOccupied(dimension, key, false);
         }
         return removed != null;
     }
@@ -117,12 +147,46 @@ public class CameraNodesState extends PersistentState {
         Map<UUID, Long> index = getIndexMap(dimension);
         Long key = index.get(nodeId);
         if (key == null) return null;
+        ensureRegionLoaded(dimension, key);
         Map<Long, LinkedHashMap<UUID, CameraNodeDTO>> dimMap = getDimensionMap(dimension);
         Map<UUID, CameraNodeDTO> chunk = dimMap.get(key);
         if (chunk == null) return null;
         return chunk.get(nodeId);
     }
 
+    /** Answers from the id index, so it never reads a region file. */
+    public boolean hasNodes(RegistryKey<net.minecraft.world.World> dimension, long chunkKey) {
+        LongOpenHashSet occupied = occupiedChunks.get(dimension);
+        if (occupied == null) {
+            occupied = new LongOpenHashSet();
+            for (long key : getIndexMap(dimension).values()) {
+                occupied.add(key);
+            }
+            occupiedChunks.put(dimension, occupied);
+        }
+        return occupied.contains(chunkKey);
+    }
+
+    /**
+     * Hash of everything a client sees of the chunk's nodes, in stored order, so a client can tell
+     * whether its cached copy is current. 0 only for an empty chunk.
+     */
+    public long getChunkHash(RegistryKey<net.minecraft.world.World> dimension, long chunkKey) {
+        Long2LongOpenHashMap hashes = chunkHashes.computeIfAbsent(dimension, k -> new Long2LongOpenHashMap());
+        if (hashes.containsKey(chunkKey)) return hashes.get(chunkKey);
+        ensureRegionLoaded(dimension, chunkKey);
+        Map<UUID, CameraNodeDTO> chunk = getDimensionMap(dimension).get(chunkKey);
+        long hash = 0L;
+        if (chunk != null && !chunk.isEmpty()) {
+            for (CameraNodeDTO dto : chunk.values()) {
+                hash = hashNode(hash, dto);
+            }
+            if (hash == 0L) hash = 1L;
+        }
+        hashes.put(chunkKey, hash);
+        return hash;
+    }
+
     public ChunkPos getNodeChunk(RegistryKey<net.minecraft.world.World> dimension, UUID nodeId) {
         Map<UUID, Long> index = getIndexMap(dimension);
         Long key = index.get(nodeId);
@@ -131,8 +195,8 @@ public class CameraNodesState extends PersistentState {
     }
 
     public List<AreaInstanceDTO> getAreas(RegistryKey<net.minecraft.world.World> dimension) {
-        LinkedHashMap<UUID, AreaInstanceDTO> map = areasByDimension.get(dimension);
-        if (map == null) return List.of();
+        LinkedHashMap<UUID, AreaInstanceDTO> map = getAreaMap(dimension);
+        if (map.isEmpty()) return List.of();
         return new ArrayList<>(map.values());
     }
 
@@ -144,149 +208,165 @@ public class CameraNodesState extends PersistentState {
                 map.put(dto.uuid, dto);
             }
         }
-        if (map.isEmpty()) {
-            areasByDimension.remove(dimension);
-        }
-        markDirty();
+        areaIndexes.remove(dimension);
+        dirtyAreas.add(dimension);
     }
 
     public void upsertArea(RegistryKey<net.minecraft.world.World> dimension, AreaInstanceDTO dto) {
         if (dto == null || dto.uuid == null) return;
         LinkedHashMap<UUID, AreaInstanceDTO> map = getAreaMap(dimension);
         map.put(dto.uuid, dto);
-        markDirty();
+        AreaChunkIndex index = areaIndexes.get(dimension);
+        if (index != null) {
+            index.put(dto);
+        }
+        dirtyAreas.add(dimension);
     }
 
     public boolean removeArea(RegistryKey<net.minecraft.world.World> dimension, UUID areaId) {
-        LinkedHashMap<UUID, AreaInstanceDTO> map = areasByDimension.get(dimension);
-        if (map == null) return false;
+        LinkedHashMap<UUID, AreaInstanceDTO> map = getAreaMap(dimension);
         AreaInstanceDTO removed = map.remove(areaId);
-        if (map.isEmpty()) {
-            areasByDimension.remove(dimension);
-        }
         if (removed != null) {
-            markDirty();
+            AreaChunkIndex index = areaIndexes.get(dimension);
+            if (index != null) {
+                index.remove(areaId);
+            }
+            dirtyAreas.add(dimension);
             return true;
         }
         return false;
     }
 
     public AreaInstanceDTO getArea(RegistryKey<net.minecraft.world.World> dimension, UUID areaId) {
-        LinkedHashMap<UUID, AreaInstanceDTO> map = areasByDimension.get(dimension);
-        if (map == null) return null;
-        return map.get(areaId);
+        return getAreaMap(dimension).get(areaId);
     }
 
-    public NbtCompound writeNbt(NbtCompound nbt, RegistryWrapper.WrapperLookup registryLookup) {
-        nbt.putInt("formatVersion", FORMAT_VERSION);
-        NbtList dims = new NbtList();
-        java.util.Set<RegistryKey<net.minecraft.world.World>> dimensionKeys = new java.util.HashSet<>(nodesByDimension.keySet());
-        dimensionKeys.addAll(areasByDimension.keySet());
-        for (RegistryKey<net.minecraft.world.World> dimension : dimensionKeys) {
-            NbtCompound dimTag = new NbtCompound();
-            dimTag.putString("dimension", dimension.getValue().toString());
-            NbtList chunks = new NbtList();
-            Map<Long, LinkedHashMap<UUID, CameraNodeDTO>> dimNodes = nodesByDimension.get(dimension);
-            if (dimNodes != null) {
-                for (var chunkEntry : dimNodes.entrySet()) {
-                    NbtCompound chunkTag = new NbtCompound();
-                    chunkTag.putLong("chunk", chunkEntry.getKey());
-                    NbtList nodes = new NbtList();
-                    for (CameraNodeDTO dto : chunkEntry.getValue().values()) {
-                        nodes.add(dto.toNbt());
-                    }
-                    chunkTag.put("nodes", nodes);
-                    chunks.add(chunkTag);
-                }
-            }
-            dimTag.put("chunks", chunks);
+    public AreaChunkIndex getAreaIndex(RegistryKey<net.minecraft.world.World> dimension) {
+        AreaChunkIndex index = areaIndexes.get(dimension);
+        if (index == null) {
+            index = new AreaChunkIndex(getAreaMap(dimension).values());
+            areaIndexes.put(dimension, index);
+        }
+        return index;
+    }
 
-            LinkedHashMap<UUID, AreaInstanceDTO> dimAreas = areasByDimension.get(dimension);
-            if (dimAreas != null && !dimAreas.isEmpty()) {
-                NbtList areas = new NbtList();
-                for (AreaInstanceDTO dto : dimAreas.values()) {
-                    areas.add(dto.toNbt());
+    private void saveDirty() {
+        if (dataRoot == null) return;
+        for (var entry : dirtyRegions.entrySet()) {
+            RegistryKey<net.minecraft.world.World> dimension = entry.getKey();
+            Set<Long> dirty = entry.getValue();
+            Map<Long, Map<Long, LinkedHashMap<UUID, CameraNodeDTO>>> regions = new HashMap<>();
+            for (long regionKey : dirty) {
+                regions.put(regionKey, new HashMap<>());
+            }
+            for (var chunkEntry : getDimensionMap(dimension).entrySet()) {
+                Map<Long, LinkedHashMap<UUID, CameraNodeDTO>> region = regions.get(NodeRegionStorage.regionKey(chunkEntry.getKey()));
+                if (region != null) {
+                    region.put(chunkEntry.getKey(), chunkEntry.getValue());
                 }
-                dimTag.put("areas", areas);
             }
+            NodeRegionStorage storage = getStorage(dimension);
+            for (var region : regions.entrySet()) {
+                storage.writeRegion(region.getKey(), region.getValue());
+            }
+        }
+        dirtyRegions.clear();
+        for (RegistryKey<net.minecraft.world.World> dimension : dirtyAreas) {
+            getStorage(dimension).writeAreas(getAreaMap(dimension));
+        }
+        dirtyAreas.clear();
+    }
 
-            dims.add(dimTag);
+    private void markRegionDirty(RegistryKey<net.minecraft.world.World> dimension, long chunkKey) {
+        dirtyRegions.computeIfAbsent(dimension, k -> new HashSet<>()).add(NodeRegionStorage.regionKey(chunkKey));
+        Long2LongOpenHashMap hashes = chunkHashes.get(dimension);
+        if (hashes != null) {
+            hashes.remove(chunkKey);
         }
-        nbt.put("dimensions", dims);
-        return nbt;
     }
 
-    private static CameraNodesState fromNbt(NbtCompound nbt, RegistryWrapper.WrapperLookup registryLookup) {
-        CameraNodesState state = new CameraNodesState();
-        nbt.getList("dimensions").ifPresent(dimList -> {
-            for (NbtElement element : dimList) {
-                if (!(element instanceof NbtCompound dimTag)) continue;
-                String dimId = dimTag.getString("dimension").orElse(null);
-                if (dimId == null) continue;
-                RegistryKey<net.minecraft.world.World> dimension = parseDimension(dimId);
-                if (dimension == null) continue;
-                Map<Long, LinkedHashMap<UUID, CameraNodeDTO>> dimMap = state.getDimensionMap(dimension);
-                Map<UUID, Long> index = state.getIndexMap(dimension);
-                dimTag.getList("chunks").ifPresent(chunkList -> {
-                    for (NbtElement chunkElement : chunkList) {
-                        if (!(chunkElement instanceof NbtCompound chunkTag)) continue;
-                        Long chunkKeyOpt = chunkTag.getLong("chunk").orElse(null);
-                        if (chunkKeyOpt == null) continue;
-                        long chunkKey = chunkKeyOpt;
-                        LinkedHashMap<UUID, CameraNodeDTO> nodeMap = new LinkedHashMap<>();
-                        chunkTag.getList("nodes").ifPresent(nodeList -> {
-                            for (NbtElement nodeElement : nodeList) {
-                                if (!(nodeElement instanceof NbtCompound nodeTag)) continue;
-                                CameraNodeDTO dto = CameraNodeDTO.fromNbt(nodeTag);
-                                nodeMap.put(dto.uuid, dto);
-                                index.put(dto.uuid, chunkKey);
-                            }
-                        });
-                        if (!nodeMap.isEmpty()) {
-                            dimMap.put(chunkKey, nodeMap);
-                        }
-                    }
-                });
-                dimTag.getList("areas").ifPresent(areaList -> {
-                    LinkedHashMap<UUID, AreaInstanceDTO> areaMap = state.getAreaMap(dimension);
-                    for (NbtElement areaElement : areaList) {
-                        if (!(areaElement instanceof NbtCompound areaTag)) continue;
-                        AreaInstanceDTO dto = AreaInstanceDTO.fromNbt(areaTag);
-                        if (dto.uuid == null) {
-                            dto.uuid = UUID.randomUUID();
-                        }
-                        areaMap.put(dto.uuid, dto);
-                    }
-                    if (areaMap.isEmpty()) {
-                        state.areasByDimension.remove(dimension);
-                    }
-                });
-            }
-        });
-        return state;
+    /** Updates the occupied set, if it has been built, for a chunk that gained or lost its last node. */
+    private void setOccupied(RegistryKey<net.minecraft.world.World> dimension, long chunkKey, boolean occupied) {
+        LongOpenHashSet set = occupiedChunks.get(dimension);
+        if (set == null) return;
+        if (occupied) {
+            set.add(chunkKey);
+        } else {
+            set.remove(chunkKey);
+        }
     }
 
-    private Map<Long, LinkedHashMap<UUID, CameraNodeDTO>> getDimensionMap(RegistryKey<net.minecraft.world.World> dimension) {
-        return nodesByDimension.computeIfAbsent(dimension, k -> new HashMap<>());
+    private static long hashNode(long hash, CameraNodeDTO dto) {
+        hash = mix(hash, dto.uuid.getMostSignificantBits());
+        hash = mix(hash, dto.uuid.getLeastSignificantBits());
+        hash = mix(hash, dto.owner != null ? dto.owner.getMostSignificantBits() : 0L);
+        hash = mix(hash, dto.owner != null ? dto.owner.getLeastSignificantBits() : 0L);
+        hash = mix(hash, hashString(dto.name));
+        hash = mix(hash, dto.type != null ? dto.type.ordinal() + 1 : 0L);
+        hash = mix(hash, Double.doubleToLongBits(dto.position.x));
+        hash = mix(hash, Double.doubleToLongBits(dto.position.y));
+        hash = mix(hash, Double.doubleToLongBits(dto.position.z));
+        hash = mix(hash, dto.colorARGB);
+        hash = mix(hash, Double.doubleToLongBits(dto.droneRadius));
+        hash = mix(hash, Double.doubleToLongBits(dto.droneSpeedDegPerSec));
+        return mix(hash, Double.doubleToLongBits(dto.droneStartAngleDeg));
     }
 
-    private Map<UUID, Long> getIndexMap(RegistryKey<net.minecraft.world.World> dimension) {
-        return nodeIndex.computeIfAbsent(dimension, k -> new HashMap<>());
+    private static long mix(long hash, long value) {
+        return HashCommon.murmurHash3(hash * 31 + value);
     }
 
-    private Map<UUID, CameraNodeDTO> getChunkMap(RegistryKey<net.minecraft.world.World> dimension, ChunkPos pos) {
-        long key = pos.toLong();
+    /** 64-bit FNV-1a; {@link String#hashCode} collides too easily to stand in for a rename. */
+    private static long hashString(String s) {
+        if (s == null) return 0L;
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            hash ^= s.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private void ensureRegionLoaded(RegistryKey<net.minecraft.world.World> dimension, long chunkKey) {
+        long regionKey = NodeRegionStorage.regionKey(chunkKey);
+        Set<Long> loaded = loadedRegions.computeIfAbsent(dimension, k -> new HashSet<>());
+        if (!loaded.add(regionKey)) return;
+        NodeRegionStorage storage = getStorage(dimension);
+        if (storage == null) return;
         Map<Long, LinkedHashMap<UUID, CameraNodeDTO>> dimMap = getDimensionMap(dimension);
-        return dimMap.computeIfAbsent(key, k -> new LinkedHashMap<>());
+        for (var chunkEntry : storage.readRegion(regionKey).entrySet()) {
+            // Anything already in memory for this chunk was written after load and wins
+            dimMap.putIfAbsent(chunkEntry.getKey(), chunkEntry.getValue());
+        }
     }
 
-    private LinkedHashMap<UUID, AreaInstanceDTO> getAreaMap(RegistryKey<net.minecraft.world.World> dimension) {
-        return areasByDimension.computeIfAbsent(dimension, k -> new LinkedHashMap<>());
+    private NodeRegionStorage getStorage(RegistryKey<net.minecraft.world.World> dimension) {
+        if (dataRoot == null) return null;
+        return storages.computeIfAbsent(dimension, k -> new NodeRegionStorage(dataRoot, k));
     }
 
-    private static RegistryKey<net.minecraft.world.World> parseDimension(String id) {
-        Identifier identifier = Identifier.tryParse(id);
-        if (identifier == null) return null;
-        return RegistryKey.of(RegistryKeys.WORLD, identifier);
+    private Map<Long, LinkedHashMap<UUID, CameraNodeDTO>> getDimensionMap(RegistryKey<net.minecraft.world.World> dimension) {
+        return nodesByDimension.computeIfAbsent(dimension, k -> new HashMap<>());
+    }
+
+    /** The id index is small and needed for lookups by id, so every shard is read eagerly per dimension. */
+    private Map<UUID, Long> getIndexMap(RegistryKey<net.minecraft.world.World> dimension) {
+        Map<UUID, Long> index = nodeIndex.get(dimension);
+        if (index == null) {
+            NodeRegionStorage storage = getStorage(dimension);
+            index = storage != null ? storage.readIndex() : new HashMap<>();
+            nodeIndex.put(dimension, index);
+        }
+        return index;
+    }
+
+    private LinkedHashMap<UUID, AreaInstanceDTO> getAreaMap(RegistryKey<net.minecraft.world.World> dimension) {
+        LinkedHashMap<UUID, AreaInstanceDTO> areas = areasByDimension.get(dimension);
+        if (areas == null) {
+            NodeRegionStorage storage = getStorage(dimension);
+            areas = storage != null ? storage.readAreas() : new LinkedHashMap<>();
+            areasByDimension.put(dimension, areas);
+        }
+        return areas;
     }
 }
@@ -0,0 +1,229 @@
+package ninja.trek.nodes.server;
+
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.nbt.NbtSizeTracker;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.util.Identifier;
+import net.minecraft.world.World;
+import ninja.trek.Craneshot;
+import ninja.trek.nodes.model.AreaInstanceDTO;
+import ninja.trek.nodes.model.CameraNodeDTO;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * On-disk layout for one dimension's camera nodes:
+ * <pre>
+ * data/craneshot/&lt;namespace&gt;/&lt;path&gt;/
+ *     r.&lt;rx&gt;.&lt;rz&gt;.dat   nodes of one {@link #REGION_SHIFT region} (32x32 chunks)
+ *     r.&lt;rx&gt;.&lt;rz&gt;.idx   node UUID -> chunk for the same region, so lookups by id do not load every region
+ *     areas.dat          the dimension's areas
+ * </pre>
+ * A region's index shard is written together with its node file, so saving an edit touches only the
+ * edited regions. Every file is compressed NBT written to a temp file and moved into place.
+ */
+final class NodeRegionStorage {
+    static final int REGION_SHIFT = 5;
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path directory;
+
+    NodeRegionStorage(Path dataRoot, RegistryKey<World> dimension) {
+        Identifier id = dimension.getValue();
+        this.directory = dataRoot.resolve("craneshot").resolve(id.getNamespace()).resolve(id.getPath());
+    }
+
+    static long regionKey(long chunkKey) {
+        int chunkX = (int) chunkKey;
+        int chunkZ = (int) (chunkKey >>> 32);
+        return regionKey(chunkX >> REGION_SHIFT, chunkZ >> REGION_SHIFT);
+    }
+
+    private static long regionKey(int regionX, int regionZ) {
+        return (long) regionX & 0xFFFFFFFFL | ((long) regionZ & 0xFFFFFFFFL) << 32;
+    }
+
+    Map<Long, LinkedHashMap<UUID, CameraNodeDTO>> readRegion(long regionKey) {
+        Map<Long, LinkedHashMap<UUID, CameraNodeDTO>> chunks = new HashMap<>();
+        NbtCompound root = read(regionFile(regionKey));
+        if (root == null) return chunks;
+        root.getList("chunks").ifPresent(chunkList -> {
+            for (NbtElement chunkElement : chunkList) {
+                if (!(chunkElement instanceof NbtCompound chunkTag)) continue;
+                Long chunkKey = chunkTag.getLong("chunk").orElse(null);
+                if (chunkKey == null) continue;
+                LinkedHashMap<UUID, CameraNodeDTO> nodeMap = new LinkedHashMap<>();
+                chunkTag.getList("nodes").ifPresent(nodeList -> {
+                    for (NbtElement nodeElement : nodeList) {
+                        if (!(nodeElement instanceof NbtCompound nodeTag)) continue;
+                        CameraNodeDTO dto = CameraNodeDTO.fromNbt(nodeTag);
+                        nodeMap.put(dto.uuid, dto);
+                    }
+                });
+                if (!nodeMap.isEmpty()) {
+                    chunks.put(chunkKey, nodeMap);
+                }
+            }
+        });
+        return chunks;
+    }
+
+    /** Writes the region's chunks and then its index shard; an empty region deletes both files. */
+    void writeRegion(long regionKey, Map<Long, ? extends Map<UUID, CameraNodeDTO>> chunks) {
+        Path file = regionFile(regionKey);
+        if (chunks.isEmpty()) {
+            delete(file);
+            delete(indexFile(regionKey));
+            return;
+        }
+        NbtCompound root = new NbtCompound();
+        root.putInt("formatVersion", FORMAT_VERSION);
+        NbtList chunkList = new NbtList();
+        for (var chunkEntry : chunks.entrySet()) {
+            NbtCompound chunkTag = new NbtCompound();
+            chunkTag.putLong("chunk", chunkEntry.getKey());
+            NbtList nodes = new NbtList();
+            for (CameraNodeDTO dto : chunkEntry.getValue().values()) {
+                nodes.add(dto.toNbt());
+            }
+            chunkTag.put("nodes", nodes);
+            chunkList.add(chunkTag);
+        }
+        root.put("chunks", chunkList);
+        write(file, root);
+        // Region first: a stale index entry only costs a failed lookup, a missing region loses nodes
+        writeIndexShard(regionKey, chunks);
+    }
+
+    /** Reads every region's index shard; the shards are small, unlike the regions themselves. */
+    Map<UUID, Long> readIndex() {
+        Map<UUID, Long> index = new HashMap<>();
+        if (!Files.isDirectory(directory)) return index;
+        try (DirectoryStream<Path> shards = Files.newDirectoryStream(directory, "r.*.idx")) {
+            for (Path shard : shards) {
+                NbtCompound root = read(shard);
+                if (root == null) continue;
+                long[] entries = root.getLongArray("entries").orElse(new long[0]);
+                for (int i = 0; i + 2 < entries.length; i += 3) {
+                    index.put(new UUID(entries[i], entries[i + 1]), entries[i + 2]);
+                }
+            }
+        } catch (IOException e) {
+            Craneshot.LOGGER.error("Failed to list camera node index shards in {}", directory, e);
+        }
+        return index;
+    }
+
+    /** Packed as (most significant bits, least significant bits, chunk key) triples. */
+    private void writeIndexShard(long regionKey, Map<Long, ? extends Map<UUID, CameraNodeDTO>> chunks) {
+        int count = 0;
+        for (Map<UUID, CameraNodeDTO> nodes : chunks.values()) {
+            count += nodes.size();
+        }
+        long[] entries = new long[count * 3];
+        int i = 0;
+        for (var chunkEntry : chunks.entrySet()) {
+            for (UUID id : chunkEntry.getValue().keySet()) {
+                entries[i++] = id.getMostSignificantBits();
+                entries[i++] = id.getLeastSignificantBits();
+                entries[i++] = chunkEntry.getKey();
+            }
+        }
+        NbtCompound root = new NbtCompound();
+        root.putInt("formatVersion", FORMAT_VERSION);
+        root.putLongArray("entries", entries);
+        write(indexFile(regionKey), root);
+    }
+
+    LinkedHashMap<UUID, AreaInstanceDTO> readAreas() {
+        LinkedHashMap<UUID, AreaInstanceDTO> areas = new LinkedHashMap<>();
+        NbtCompound root = read(directory.resolve("areas.dat"));
+        if (root == null) return areas;
+        root.getList("areas").ifPresent(areaList -> {
+            for (NbtElement areaElement : areaList) {
+                if (!(areaElement instanceof NbtCompound areaTag)) continue;
+                AreaInstanceDTO dto = AreaInstanceDTO.fromNbt(areaTag);
+                if (dto.uuid == null) {
+                    dto.uuid = UUID.randomUUID();
+                }
+                areas.put(dto.uuid, dto);
+            }
+        });
+        return areas;
+    }
+
+    void writeAreas(Map<UUID, AreaInstanceDTO> areas) {
+        Path file = directory.resolve("areas.dat");
+        if (areas.isEmpty()) {
+            delete(file);
+            return;
+        }
+        NbtCompound root = new NbtCompound();
+        root.putInt("formatVersion", FORMAT_VERSION);
+        NbtList list = new NbtList();
+        for (AreaInstanceDTO dto : areas.values()) {
+            list.add(dto.toNbt());
+        }
+        root.put("areas", list);
+        write(file, root);
+    }
+
+    private Path regionFile(long regionKey) {
+        return regionPath(regionKey, ".dat");
+    }
+
+    private Path indexFile(long regionKey) {
+        return regionPath(regionKey, ".idx");
+    }
+
+    private Path regionPath(long regionKey, String extension) {
+        int regionX = (int) regionKey;
+        int regionZ = (int) (regionKey >>> 32);
+        return directory.resolve("r." + regionX + "." + regionZ + extension);
+    }
+
+    private static NbtCompound read(Path file) {
+        if (!Files.exists(file)) return null;
+        try {
+            return NbtIo.readCompressed(file, NbtSizeTracker.ofUnlimitedBytes());
+        } catch (IOException e) {
+            Craneshot.LOGGER.error("Failed to read camera node data {}", file, e);
+            return null;
+        }
+    }
+
+    private void write(Path file, NbtCompound root) {
+        try {
+            Files.createDirectories(directory);
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            NbtIo.writeCompressed(root, tmp);
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            Craneshot.LOGGER.error("Failed to write camera node data {}", file, e);
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            Craneshot.LOGGER.error("Failed to delete camera node data {}", file, e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package ninja.trek.nodes.server;
 
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import net.minecraft.registry.RegistryKey;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerPlayerEntity;
@@ -10,11 +11,11 @@ import net.minecraft.world.World;
 import ninja.trek.nodes.model.AreaInstanceDTO;
 import ninja.trek.nodes.model.AreaMovementConfig;
 import ninja.trek.nodes.model.CameraNodeDTO;
+import ninja.trek.nodes.network.NodeNetworkConstants;
 
 import java.util.*;
 
 public class ServerNodeManager {
-    private static final int MAX_REQUESTS_PER_TICK = 64;
     private static final double MAX_COORD_ABS = 30_000_000.0;
     private static final double MAX_AREA_RADIUS = 8_192.0;
     private static final Set<String> ALLOWED_MOVEMENTS = Set.of("craneshot:static");
@@ -26,7 +27,7 @@ public class ServerNodeManager {
     }
 
     private final Map<UUID, PlayerSession> sessions = new HashMap<>();
-    private final Map<UUID, Integer> rateLimiter = new HashMap<>();
+    private final Map<UUID, EditBudget> editBudgets = new HashMap<>();
 
     private ServerNodeManager() {}
 
@@ -56,21 +57,40 @@ public class ServerNodeManager {
 
     public void onPlayerDisconnected(ServerPlayerEntity player) {
         sessions.remove(player.getUuid());
-        rateLimiter.remove(player.getUuid());
+        editBudgets.remove(player.getUuid());
     }
 
-    public void resetRateLimiter() {
-        rateLimiter.clear();
+    /** Called once per tick; budgets back at their burst allowance are dropped. */
+    public void refillEditBudgets() {
+        editBudgets.values().removeIf(EditBudget::refill);
     }
 
+    /** Charges a single edit request. */
     public boolean consumeRequest(ServerPlayerEntity player) {
-        UUID id = player.getUuid();
-        int count = rateLimiter.getOrDefault(id, 0);
-        if (count >= MAX_REQUESTS_PER_TICK) return false;
-        rateLimiter.put(id, count + 1);
+        return consumeBudget(player, 1, 0);
+    }
+
+    /** Charges {@code operations} and {@code bytes} if both fit in the player's budget; otherwise charges nothing. */
+    public boolean consumeBudget(ServerPlayerEntity player, int operations, int bytes) {
+        EditBudget budget = editBudgets.computeIfAbsent(player.getUuid(), id -> new EditBudget());
+        if (operations > budget.operations || bytes > budget.bytes) return false;
+        budget.operations -= operations;
+        budget.bytes -= bytes;
         return true;
     }
 
+    private static final class EditBudget {
+        int operations = NodeNetworkConstants.EDIT_OPERATIONS_BURST;
+        int bytes = NodeNetworkConstants.EDIT_BYTES_BURST;
+
+        /** True once full again. */
+        boolean refill() {
+            operations = Math.min(NodeNetworkConstants.EDIT_OPERATIONS_BURST, operations + NodeNetworkConstants.EDIT_OPERATIONS_PER_TICK);
+            bytes = Math.min(NodeNetworkConstants.EDIT_BYTES_BURST, bytes + NodeNetworkConstants.EDIT_BYTES_PER_TICK);
+            return operations == NodeNetworkConstants.EDIT_OPERATIONS_BURST && bytes == NodeNetworkConstants.EDIT_BYTES_BURST;
+        }
+    }
+
     public boolean hasCreatePermission(ServerPlayerEntity player) {
         // By default only operators can create nodes on the server.
         return player.hasPermissionLevel(2);
@@ -88,18 +108,6 @@ public class ServerNodeManager {
         return dto.owner != null && dto.owner.equals(player.getUuid());
     }
 
-    public boolean markChunkStreamed(ServerPlayerEntity player, RegistryKey<World> dimension, ChunkPos pos) {
-        return getSession(player).markChunkStreamed(dimension, pos);
-    }
-
-    public void retainStreamedChunks(ServerPlayerEntity player, RegistryKey<World> dimension, Set<Long> keep) {
-        getSession(player).retainStreamed(dimension, keep);
-    }
-
-    public boolean markAreasSynced(ServerPlayerEntity player, RegistryKey<World> dimension) {
-        return getSession(player).markAreasSynced(dimension);
-    }
-
     public String validateNodePayload(CameraNodeDTO dto) {
         if (dto.position == null) return "position_missing";
         if (Math.abs(dto.position.x) > MAX_COORD_ABS ||
@@ -114,6 +122,11 @@ public class ServerNodeManager {
     }
 
     public String validateAreaPayload(ServerWorld world, AreaInstanceDTO dto) {
+        return validateAreaPayload(world, dto, Set.of());
+    }
+
+    /** {@code pendingNodeIds} are nodes created in the same bulk edit, which the area may already reference. */
+    public String validateAreaPayload(ServerWorld world, AreaInstanceDTO dto, Set<UUID> pendingNodeIds) {
         if (dto.center == null) return "center_missing";
         if (Math.abs(dto.center.x) > MAX_COORD_ABS ||
                 Math.abs(dto.center.y) > MAX_COORD_ABS ||
@@ -173,7 +186,7 @@ public class ServerNodeManager {
                     String key = entry.getKey();
                     UUID referenced = parseUuid(entry.getValue());
                     if (referenced != null && key != null && key.toLowerCase(Locale.ROOT).contains("node")) {
-                        if (state.getNode(world.getRegistryKey(), referenced) == null) {
+                        if (!pendingNodeIds.contains(referenced) && state.getNode(world.getRegistryKey(), referenced) == null) {
                             return "missing_node_reference";
                         }
                     }
@@ -187,6 +200,10 @@ public class ServerNodeManager {
         return CameraNodesState.get(world).getChunkNodes(world.getRegistryKey(), pos);
     }
 
+    public boolean hasNodes(ServerWorld world, long chunkKey) {
+        return CameraNodesState.get(world).hasNodes(world.getRegistryKey(), chunkKey);
+    }
+
     public void replaceChunk(ServerWorld world, ChunkPos pos, List<CameraNodeDTO> nodes) {
         CameraNodesState.get(world).replaceChunk(world.getRegistryKey(), pos, nodes);
     }
@@ -203,6 +220,10 @@ public class ServerNodeManager {
         return CameraNodesState.get(world).getNode(world.getRegistryKey(), nodeId);
     }
 
+    public long getChunkHash(ServerWorld world, long chunkKey) {
+        return CameraNodesState.get(world).getChunkHash(world.getRegistryKey(), chunkKey);
+    }
+
     public ChunkPos getNodeChunk(ServerWorld world, UUID nodeId) {
         return CameraNodesState.get(world).getNodeChunk(world.getRegistryKey(), nodeId);
     }
@@ -230,6 +251,10 @@ public class ServerNodeManager {
         return CameraNodesState.get(world).getArea(world.getRegistryKey(), areaId);
     }
 
+    public AreaChunkIndex getAreaIndex(ServerWorld world) {
+        return CameraNodesState.get(world).getAreaIndex(world.getRegistryKey());
+    }
+
     public static ChunkPos chunkPosFromNode(CameraNodeDTO dto) {
         int x = MathHelper.floor(dto.position.x) >> 4;
         int z = MathHelper.floor(dto.position.z) >> 4;
@@ -244,8 +269,22 @@ public class ServerNodeManager {
         private boolean handshakeSent = false;
         private boolean handshakeComplete = false;
         private boolean canEdit = false;
-        private final Map<RegistryKey<World>, Set<Long>> streamedChunks = new HashMap<>();
-        private final Set<RegistryKey<World>> syncedAreas = new HashSet<>();
+
+        // Chunk interest: the square of chunks around the player that nodes are streamed for.
+        // Only recomputed when the centre, dimension or radius changes.
+        private RegistryKey<World> interestDimension = null;
+        private int interestX;
+        private int interestZ;
+        private int interestRadius = -1;
+        private final LongOpenHashSet streamedChunks = new LongOpenHashSet();
+        // Streamed chunks whose hash has not gone out yet; sent in batches at the end of the tick
+        private final LongOpenHashSet pendingSnapshots = new LongOpenHashSet();
+        // Chunks whose hash was sent, which the client may still ask the nodes of
+        private final LongOpenHashSet offeredChunks = new LongOpenHashSet();
+        // Chunks the client asked the nodes of; sent with the next batch
+        private final LongOpenHashSet requestedSnapshots = new LongOpenHashSet();
+        // Areas the client holds: those overlapping the interest square when they were last checked
+        private final Set<UUID> streamedAreas = new HashSet<>();
 
         public boolean isHandshakeSent() {
             return handshakeSent;
@@ -268,24 +307,126 @@ public class ServerNodeManager {
             this.handshakeComplete = true;
             this.canEdit = canEdit;
             this.streamedChunks.clear();
-            this.syncedAreas.clear();
+            this.offeredChunks.clear();
+            this.requestedSnapshots.clear();
+            this.streamedAreas.clear();
+            this.pendingSnapshots.clear();
+            this.interestDimension = null;
+            this.interestRadius = -1;
+        }
+
+        public boolean hasInterest() {
+            return interestDimension != null;
+        }
+
+        public boolean isInterestAt(RegistryKey<World> dimension, int centerX, int centerZ, int radius) {
+            return dimension.equals(interestDimension) && centerX == interestX && centerZ == interestZ && radius == interestRadius;
+        }
+
+        public RegistryKey<World> getInterestDimension() {
+            return interestDimension;
         }
 
-        private boolean markChunkStreamed(RegistryKey<World> dimension, ChunkPos pos) {
-            return streamedChunks.computeIfAbsent(dimension, k -> new HashSet<>()).add(pos.toLong());
+        public int getInterestX() {
+            return interestX;
         }
 
-        private void retainStreamed(RegistryKey<World> dimension, Set<Long> keep) {
-            Set<Long> set = streamedChunks.get(dimension);
-            if (set == null) return;
-            set.retainAll(keep);
-            if (set.isEmpty()) {
-                streamedChunks.remove(dimension);
+        public int getInterestZ() {
+            return interestZ;
+        }
+
+        public int getInterestRadius() {
+            return interestRadius;
+        }
+
+        public boolean isInInterest(RegistryKey<World> dimension, int chunkX, int chunkZ) {
+            return dimension.equals(interestDimension)
+                    && Math.abs(chunkX - interestX) <= interestRadius
+                    && Math.abs(chunkZ - interestZ) <= interestRadius;
+        }
+
+        /** Moves the interest square; a dimension change drops everything streamed so far. */
+        public void setInterest(RegistryKey<World> dimension, int centerX, int centerZ, int radius) {
+            if (!dimension.equals(interestDimension)) {
+                streamedChunks.clear();
+                pendingSnapshots.clear();
+                offeredChunks.clear();
+                requestedSnapshots.clear();
+                streamedAreas.clear();
             }
+            this.interestDimension = dimension;
+            this.interestX = centerX;
+            this.interestZ = centerZ;
+            this.interestRadius = radius;
+        }
+
+        /** Marks the chunk streamed and queues its snapshot; false if it already was. */
+        public boolean markChunkStreamed(RegistryKey<World> dimension, long chunkKey) {
+            if (!dimension.equals(interestDimension)) return false;
+            if (!streamedChunks.add(chunkKey)) return false;
+            pendingSnapshots.add(chunkKey);
+            return true;
+        }
+
+        public void unmarkChunkStreamed(RegistryKey<World> dimension, long chunkKey) {
+            if (!dimension.equals(interestDimension)) return;
+            streamedChunks.remove(chunkKey);
+            pendingSnapshots.remove(chunkKey);
+            offeredChunks.remove(chunkKey);
+            requestedSnapshots.remove(chunkKey);
+        }
+
+        public boolean hasPendingSnapshots() {
+            return !pendingSnapshots.isEmpty();
+        }
+
+        /** Takes the chunks whose hashes are due; they can then be requested once each. */
+        public long[] takePendingSnapshots() {
+            long[] keys = pendingSnapshots.toLongArray();
+            pendingSnapshots.clear();
+            for (long key : keys) {
+                offeredChunks.add(key);
+            }
+            return keys;
+        }
+
+        /** Queues the chunk's nodes if its hash was offered and not yet asked for; false otherwise. */
+        public boolean requestSnapshot(RegistryKey<World> dimension, long chunkKey) {
+            if (!dimension.equals(interestDimension)) return false;
+            if (!offeredChunks.remove(chunkKey)) return false;
+            requestedSnapshots.add(chunkKey);
+            return true;
+        }
+
+        public boolean hasRequestedSnapshots() {
+            return !requestedSnapshots.isEmpty();
+        }
+
+        public long[] takeRequestedSnapshots() {
+            long[] keys = requestedSnapshots.toLongArray();
+            requestedSnapshots.clear();
+            return keys;
+        }
+
+        /** Whether the interest square overlaps the area's chunks. */
+        public boolean isAreaInInterest(RegistryKey<World> dimension, AreaChunkIndex index, UUID areaId) {
+            return dimension.equals(interestDimension) && index.isVisible(areaId,
+                    interestX - interestRadius, interestZ - interestRadius,
+                    interestX + interestRadius, interestZ + interestRadius);
+        }
+
+        public boolean isAreaStreamed(UUID areaId) {
+            return streamedAreas.contains(areaId);
+        }
+
+        /** False if the client already holds the area. */
+        public boolean markAreaStreamed(UUID areaId) {
+            return streamedAreas.add(areaId);
         }
 
-        private boolean markAreasSynced(RegistryKey<World> dimension) {
-            return syncedAreas.add(dimension);
+        /** False if the client did not hold the area. */
+        public boolean unmarkAreaStreamed(UUID areaId) {
+            return streamedAreas.remove(areaId);
         }
     }
 